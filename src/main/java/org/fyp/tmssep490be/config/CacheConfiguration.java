@@ -0,0 +1,22 @@
+package org.fyp.tmssep490be.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through cache cho reference data (subject/level, time slot, branch, role, material tree của course) và branch scope của user
+ * Caffeine được cấu hình qua spring.cache.* (recordStats → cache.gets{result=hit|miss} trên /actuator/metrics),
+ * invalidation khi ghi: ReferenceDataCacheEvictionListener, UserBranchesCacheEvictionListener
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String SUBJECTS_WITH_LEVELS = "subjectsWithLevels";
+    public static final String LEVEL_IDS_BY_CODE = "levelIdsByCode";
+    public static final String TIME_SLOTS_BY_BRANCH = "timeSlotsByBranch";
+    public static final String ACTIVE_BRANCHES = "activeBranches";
+    public static final String ROLE_IDS_BY_CODE = "roleIdsByCode";
+    public static final String USER_BRANCH_IDS = "userBranchIds";
+    public static final String MATERIAL_TREES = "materialTrees";
+}
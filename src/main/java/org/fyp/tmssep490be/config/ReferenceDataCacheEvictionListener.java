@@ -0,0 +1,85 @@
+package org.fyp.tmssep490be.config;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.entities.Branch;
+import org.fyp.tmssep490be.entities.CourseMaterial;
+import org.fyp.tmssep490be.entities.CoursePhase;
+import org.fyp.tmssep490be.entities.CourseSession;
+import org.fyp.tmssep490be.entities.Level;
+import org.fyp.tmssep490be.entities.Role;
+import org.fyp.tmssep490be.entities.Subject;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPA entity listener: clear reference data caches khi Subject/Level/TimeSlotTemplate/Branch/Role được ghi
+ * và material trees khi CourseMaterial/CoursePhase/CourseSession được ghi (clear cả cache, key theo course
+ * không lấy được từ CourseSession mà không load phase)
+ * - Evict sau khi transaction commit, tránh request song song nạp lại dữ liệu cũ trước commit
+ * - Bulk JPQL update / SQL chạy tay không đi qua listener → hết hạn theo TTL trong spring.cache.caffeine.spec
+ * Hibernate tạo listener qua Spring bean container (constructor injection)
+ */
+@Slf4j
+public class ReferenceDataCacheEvictionListener {
+
+    private static final Map<Class<?>, List<String>> CACHES_BY_ENTITY = Map.of(
+            Subject.class, List.of(CacheConfiguration.SUBJECTS_WITH_LEVELS),
+            Level.class, List.of(CacheConfiguration.SUBJECTS_WITH_LEVELS, CacheConfiguration.LEVEL_IDS_BY_CODE),
+            TimeSlotTemplate.class, List.of(CacheConfiguration.TIME_SLOTS_BY_BRANCH),
+            Branch.class, List.of(CacheConfiguration.ACTIVE_BRANCHES),
+            Role.class, List.of(CacheConfiguration.ROLE_IDS_BY_CODE),
+            CourseMaterial.class, List.of(CacheConfiguration.MATERIAL_TREES),
+            CoursePhase.class, List.of(CacheConfiguration.MATERIAL_TREES),
+            CourseSession.class, List.of(CacheConfiguration.MATERIAL_TREES));
+
+    // Không có CacheManager trong các test slice (@DataJpaTest) → bỏ qua
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+
+    public ReferenceDataCacheEvictionListener(ObjectProvider<CacheManager> cacheManagerProvider) {
+        this.cacheManagerProvider = cacheManagerProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onReferenceDataChanged(Object entity) {
+        List<String> cacheNames = CACHES_BY_ENTITY.get(entity.getClass());
+        if (cacheNames == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(cacheNames);
+                }
+            });
+        } else {
+            evict(cacheNames);
+        }
+    }
+
+    private void evict(List<String> cacheNames) {
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        if (cacheManager == null) {
+            return;
+        }
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.debug("Evicted reference data caches {}", cacheNames);
+    }
+}
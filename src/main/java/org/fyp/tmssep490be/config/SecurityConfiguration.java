@@ -1,5 +1,6 @@
 package org.fyp.tmssep490be.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.fyp.tmssep490be.security.JwtAuthenticationFilter;
 import org.fyp.tmssep490be.security.JwtAuthenticationEntryPoint;
@@ -49,6 +50,10 @@ public class SecurityConfiguration {
 
                 // Configure authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatch của SSE (summary stream) đã được authorize ở request gốc,
+                        // JWT filter không chạy lại trên dispatch này
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints (no authentication required)
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/api/v1/branches").permitAll()
@@ -0,0 +1,19 @@
+package org.fyp.tmssep490be.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Đếm mỗi SQL statement Hibernate chuẩn bị vào {@link SqlStatementStats} của thread hiện tại
+ * Không sửa SQL; no-op khi không có request nào đang được đo
+ */
+public class SqlStatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementStats stats = SqlStatementStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,47 @@
+package org.fyp.tmssep490be.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Per-request SQL statement metrics (count, DB time, N+1 patterns) thay cho show-sql
+ * Hibernate đếm statement qua StatementInspector và đo thời gian qua SessionEventListener,
+ * interceptor gom lại theo controller method
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sql.statement-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementMetricsConfiguration implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+
+    @Autowired
+    public SqlStatementMetricsConfiguration(
+            MeterRegistry meterRegistry,
+            @Value("${sql.statement-metrics.repeat-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementMetricsHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, SqlStatementCountingInspector.class.getName());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlStatementTimingListener.class.getName());
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementMetricsInterceptor(meterRegistry, repeatThreshold))
+                .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,76 @@
+package org.fyp.tmssep490be.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo SQL statements của từng request và ghi Micrometer metrics theo controller method:
+ * - http.server.sql.statements: số statement mỗi request
+ * - http.server.sql.time: tổng thời gian execute JDBC mỗi request
+ * - http.server.sql.repeated: số request có statement lặp lại >= repeatThreshold lần (nghi N+1)
+ */
+@Slf4j
+public class SqlStatementMetricsInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+
+    public SqlStatementMetricsInterceptor(MeterRegistry meterRegistry, int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            SqlStatementStats.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementStats stats = SqlStatementStats.end();
+        if (stats == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        request.setAttribute(SqlStatementStats.REQUEST_ATTRIBUTE, stats);
+
+        Tags tags = Tags.of(
+                "controller", handlerMethod.getBeanType().getSimpleName(),
+                "method", handlerMethod.getMethod().getName());
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("SQL statements issued per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("http.server.sql.time")
+                .description("JDBC execution time per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getDbTimeNanos(), TimeUnit.NANOSECONDS);
+
+        List<String> repeated = stats.getRepeatedStatements(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("http.server.sql.repeated")
+                    .description("Requests repeating the same SQL statement (possible N+1)")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Possible N+1 in {}.{} ({} statements): {}",
+                    handlerMethod.getBeanType().getSimpleName(), handlerMethod.getMethod().getName(),
+                    stats.getStatementCount(), repeated);
+        }
+    }
+}
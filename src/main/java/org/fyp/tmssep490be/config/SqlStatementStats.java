@@ -0,0 +1,90 @@
+package org.fyp.tmssep490be.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements issued by Hibernate trong một HTTP request (hoặc một block code trong test)
+ * Bound to the current thread: begin() khi request bắt đầu, end() khi request kết thúc
+ * - statementCount / dbTimeNanos: tổng số statement và thời gian execute JDBC
+ * - statement shape (SQL đã gộp IN list) lặp lại nhiều lần → dấu hiệu N+1
+ * JdbcTemplate queries không đi qua Hibernate nên không được đếm
+ */
+public class SqlStatementStats {
+
+    // Request attribute giữ stats sau khi request kết thúc (dùng trong test)
+    public static final String REQUEST_ATTRIBUTE = SqlStatementStats.class.getName();
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    // "in (?, ?, ?)" → "in (?)" để batch có số phần tử khác nhau vẫn cùng một shape
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statementCount;
+    private long dbTimeNanos;
+    private final Map<String, Integer> countsByShape = new LinkedHashMap<>();
+
+    /**
+     * Start collecting for the current thread, replacing any previous stats
+     */
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stats of the current thread, null nếu không có request/block nào đang được đo
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stop collecting and return what was collected (null if begin() was not called)
+     */
+    public static SqlStatementStats end() {
+        SqlStatementStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void recordStatement(String sql) {
+        statementCount++;
+        countsByShape.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    void recordExecution(long nanos) {
+        dbTimeNanos += nanos;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getDbTimeNanos() {
+        return dbTimeNanos;
+    }
+
+    public long getDbTimeMillis() {
+        return dbTimeNanos / 1_000_000;
+    }
+
+    /**
+     * Statement shapes executed at least {@code threshold} times, thường là lazy loading trong vòng lặp (N+1)
+     */
+    public List<String> getRepeatedStatements(int threshold) {
+        return countsByShape.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .toList();
+    }
+
+    static String shapeOf(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return IN_LIST.matcher(collapsed).replaceAll("(?)");
+    }
+}
@@ -0,0 +1,40 @@
+package org.fyp.tmssep490be.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Cộng thời gian execute JDBC (statement và batch) vào {@link SqlStatementStats} của thread hiện tại
+ * Hibernate tạo một instance cho mỗi Session (hibernate.session.events.auto)
+ */
+public class SqlStatementTimingListener implements SessionEventListener {
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private void record(long start) {
+        SqlStatementStats stats = SqlStatementStats.current();
+        if (stats != null) {
+            stats.recordExecution(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.fyp.tmssep490be.config;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.fyp.tmssep490be.entities.StudentRequest;
+import org.fyp.tmssep490be.services.RequestSummaryStreamService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JPA entity listener: push pending summary (SSE) sau khi request được submit/approve/reject/cancel commit
+ * - Gom current class của mọi request ghi trong transaction → một lần publish (batch approve chỉ push một lần)
+ * - currentClass là proxy lazy, getId() không load class
+ * Hibernate tạo listener qua Spring bean container (constructor injection)
+ */
+public class StudentRequestSummaryStreamListener {
+
+    // Key của tập class IDs gom theo transaction hiện tại
+    private static final Object CHANGED_CLASS_IDS_KEY = new Object();
+
+    // Không có RequestSummaryStreamService trong các test slice (@DataJpaTest) → bỏ qua
+    private final ObjectProvider<RequestSummaryStreamService> streamServiceProvider;
+
+    public StudentRequestSummaryStreamListener(ObjectProvider<RequestSummaryStreamService> streamServiceProvider) {
+        this.streamServiceProvider = streamServiceProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onStudentRequestChanged(StudentRequest request) {
+        if (request.getCurrentClass() == null || request.getCurrentClass().getId() == null) {
+            // Summary chỉ đếm request theo branch của current class
+            return;
+        }
+        Long classId = request.getCurrentClass().getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(Set.of(classId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> changedClassIds = (Set<Long>) TransactionSynchronizationManager.getResource(CHANGED_CLASS_IDS_KEY);
+        if (changedClassIds == null) {
+            Set<Long> classIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(CHANGED_CLASS_IDS_KEY, classIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(classIds);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHANGED_CLASS_IDS_KEY);
+                }
+            });
+            changedClassIds = classIds;
+        }
+        changedClassIds.add(classId);
+    }
+
+    private void publish(Set<Long> classIds) {
+        RequestSummaryStreamService streamService = streamServiceProvider.getIfAvailable();
+        if (streamService != null) {
+            streamService.publish(classIds);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.fyp.tmssep490be.config;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.entities.UserBranches;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener: evict branch scope của user khi UserBranches của user đó được ghi (sau commit)
+ * Insert bằng JDBC batch (StudentAccountProvisioningService) chỉ tạo user mới, chưa có entry trong cache
+ */
+@Slf4j
+public class UserBranchesCacheEvictionListener {
+
+    // Không có CacheManager trong các test slice (@DataJpaTest) → bỏ qua
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+
+    public UserBranchesCacheEvictionListener(ObjectProvider<CacheManager> cacheManagerProvider) {
+        this.cacheManagerProvider = cacheManagerProvider;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserBranchesChanged(UserBranches userBranches) {
+        if (userBranches.getId() == null || userBranches.getId().getUserId() == null) {
+            return;
+        }
+        Long userId = userBranches.getId().getUserId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evict(Long userId) {
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        if (cacheManager == null) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CacheConfiguration.USER_BRANCH_IDS);
+        if (cache != null) {
+            cache.evict(userId);
+        }
+        log.debug("Evicted branch scope of user {}", userId);
+    }
+}
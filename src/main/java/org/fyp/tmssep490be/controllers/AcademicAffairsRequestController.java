@@ -16,17 +16,20 @@ import org.fyp.tmssep490be.exceptions.BusinessRuleException;
 import org.fyp.tmssep490be.exceptions.ResourceNotFoundException;
 import org.fyp.tmssep490be.repositories.StudentRepository;
 import org.fyp.tmssep490be.repositories.UserAccountRepository;
-import org.fyp.tmssep490be.repositories.UserBranchesRepository;
+import org.fyp.tmssep490be.security.BranchScopeResolver;
 import org.fyp.tmssep490be.security.UserPrincipal;
+import org.fyp.tmssep490be.services.RequestSummaryStreamService;
 import org.fyp.tmssep490be.services.StudentRequestService;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -40,8 +43,9 @@ public class AcademicAffairsRequestController {
 
     private final StudentRequestService studentRequestService;
     private final StudentRepository studentRepository;
-    private final UserBranchesRepository userBranchesRepository;
+    private final BranchScopeResolver branchScopeResolver;
     private final UserAccountRepository userAccountRepository;
+    private final RequestSummaryStreamService requestSummaryStreamService;
 
     @GetMapping("/pending")
     @Operation(summary = "Get pending requests for review", description = "Retrieve all pending requests that need Academic Affairs review with filtering and pagination")
@@ -95,6 +99,17 @@ public class AcademicAffairsRequestController {
         return ResponseEntity.ok(ResponseObject.success("Retrieved pending requests successfully", response));
     }
 
+    @GetMapping(value = "/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream pending request summary", description = "Server-sent events: current pending summary on connect, then a 'summary' event whenever a request in the user's branches is submitted, approved, rejected or cancelled")
+    @PreAuthorize("hasRole('ACADEMIC_AFFAIR')")
+    public SseEmitter streamRequestSummary(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @Parameter(description = "Filter by branch ID")
+            @RequestParam(required = false) Long branchId) {
+
+        return requestSummaryStreamService.subscribe(currentUser.getId(), branchId);
+    }
+
     @GetMapping
     @Operation(summary = "Get all requests history", description = "Retrieve all requests (approved/rejected/cancelled) with comprehensive filtering")
     @PreAuthorize("hasRole('ACADEMIC_AFFAIR')")
@@ -155,7 +170,7 @@ public class AcademicAffairsRequestController {
             @AuthenticationPrincipal UserPrincipal currentUser) {
 
         // Get current user's assigned branches
-        List<Long> userBranchIds = userBranchesRepository.findBranchIdsByUserId(currentUser.getId());
+        List<Long> userBranchIds = branchScopeResolver.getBranchIds(currentUser.getId());
 
         if (userBranchIds.isEmpty()) {
             throw new BusinessRuleException("ACCESS_DENIED",
@@ -212,6 +227,20 @@ public class AcademicAffairsRequestController {
         return ResponseEntity.ok(ResponseObject.success("Request approved successfully", request));
     }
 
+    @PutMapping("/transfers/batch-approve")
+    @Operation(summary = "Approve transfer requests in batch", description = "Approve and execute several pending transfer requests in one transaction")
+    @PreAuthorize("hasRole('ACADEMIC_AFFAIR')")
+    public ResponseEntity<ResponseObject<List<StudentRequestResponseDTO>>> approveTransferRequests(
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @Valid @RequestBody BatchTransferApprovalDTO approvalDTO) {
+
+        Long decidedById = currentUser.getId();
+        List<StudentRequestResponseDTO> requests = studentRequestService.approveTransferRequests(
+                approvalDTO.getRequestIds(), decidedById, approvalDTO.getNote());
+
+        return ResponseEntity.ok(ResponseObject.success("Transfer requests approved successfully", requests));
+    }
+
     @PutMapping("/{requestId}/reject")
     @Operation(summary = "Reject request", description = "Reject a pending student request")
     @PreAuthorize("hasRole('ACADEMIC_AFFAIR')")
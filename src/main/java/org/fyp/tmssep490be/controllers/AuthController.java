@@ -13,7 +13,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 /**
- * Simplified authentication controller - JWT based, no session management
+ * Authentication controller - JWT based, refresh tokens rotated and revocable server-side
  */
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -61,18 +61,26 @@ public class AuthController {
     }
 
     /**
-     * Logout endpoint - clears security context (client should discard tokens)
+     * Logout endpoint - revokes the refresh token family server-side and clears security context
+     * Refresh token in body is preferred, otherwise the family is taken from the Bearer access token
      * POST /api/v1/auth/logout
      */
     @PostMapping("/logout")
-    public ResponseEntity<ResponseObject<Void>> logout() {
+    public ResponseEntity<ResponseObject<Void>> logout(
+            @RequestBody(required = false) RefreshTokenRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
         log.info("Logout request received");
+        String refreshToken = request != null ? request.getRefreshToken() : null;
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(refreshToken, accessToken);
         SecurityContextHolder.clearContext();
 
         return ResponseEntity.ok(
                 ResponseObject.<Void>builder()
                         .success(true)
-                        .message("Logout successful - please discard your tokens")
+                        .message("Logout successful")
                         .build()
         );
     }
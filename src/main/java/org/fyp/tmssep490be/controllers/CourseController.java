@@ -20,6 +20,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/courses")
@@ -329,4 +330,44 @@ public class CourseController {
                 .data(hasAccess)
                 .build());
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{courseId}/materials/accessible")
+    @Operation(
+            summary = "Check material access in batch",
+            description = "Check which of the given materials of a course a student can access"
+    )
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<ResponseObject<Map<Long, Boolean>>> checkMaterialsAccess(
+            @Parameter(description = "Course ID")
+            @PathVariable Long courseId,
+
+            @Parameter(description = "Material IDs")
+            @RequestParam List<Long> materialIds,
+
+            @Parameter(description = "Student ID")
+            @RequestParam Long studentId,
+
+            @AuthenticationPrincipal UserPrincipal currentUser
+    ) {
+        Long currentUserId = currentUser != null ? currentUser.getId() : 1L;
+
+        // Students can only check their own access
+        if (!currentUserId.equals(studentId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ResponseObject.<Map<Long, Boolean>>builder()
+                            .success(false)
+                            .message("Students can only check their own material access")
+                            .build());
+        }
+
+        log.info("User {} checking access to {} materials for course {}", currentUserId, materialIds.size(), courseId);
+
+        Map<Long, Boolean> access = materialAccessService.canAccessMaterials(studentId, courseId, materialIds);
+
+        return ResponseEntity.ok(ResponseObject.<Map<Long, Boolean>>builder()
+                .success(true)
+                .message("Material access check completed")
+                .data(access)
+                .build());
+    }
+}
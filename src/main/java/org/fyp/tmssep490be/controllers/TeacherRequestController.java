@@ -4,6 +4,8 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.fyp.tmssep490be.dtos.common.ResponseObject;
@@ -11,6 +13,8 @@ import org.fyp.tmssep490be.dtos.teacherrequest.*;
 import org.fyp.tmssep490be.entities.enums.RequestStatus;
 import org.fyp.tmssep490be.security.UserPrincipal;
 import org.fyp.tmssep490be.services.TeacherRequestService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -169,6 +173,41 @@ public class TeacherRequestController {
         }
     }
 
+    /**
+     * Availability grid (RESCHEDULE)
+     * Returns every time slot of the date with teacher/student availability and free resources in one call
+     * For TEACHER: id is sessionId, date is required
+     * For ACADEMIC_AFFAIR: id is requestId, date is optional (uses the date from the request)
+     */
+    @GetMapping("/{id}/reschedule/availability")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ACADEMIC_AFFAIR')")
+    @Operation(
+            summary = "Reschedule availability grid",
+            description = "List all time slots on the selected date with teacher/student availability and free resources. " +
+                    "For TEACHER: id is sessionId, date is required. " +
+                    "For ACADEMIC_AFFAIR: id is requestId, date is optional (uses the date from the request)."
+    )
+    public ResponseEntity<ResponseObject<List<RescheduleSlotAvailabilityDTO>>> getRescheduleAvailability(
+            @PathVariable Long id,
+            @RequestParam(value = "date", required = false) java.time.LocalDate date,
+            @AuthenticationPrincipal UserPrincipal currentUser
+    ) {
+        List<RescheduleSlotAvailabilityDTO> items;
+        if (isAcademicAffair(currentUser)) {
+            items = teacherRequestService.getRescheduleAvailabilityForStaff(id, date);
+        } else {
+            if (date == null) {
+                throw new IllegalArgumentException("Date parameter is required for teachers");
+            }
+            items = teacherRequestService.getRescheduleAvailability(id, date, currentUser.getId());
+        }
+        return ResponseEntity.ok(ResponseObject.<List<RescheduleSlotAvailabilityDTO>>builder()
+                .success(true)
+                .message("Reschedule availability loaded successfully")
+                .data(items)
+                .build());
+    }
+
     /**
      * Suggest resources for modality change
      * For TEACHER: uses sessionId to suggest resources for a session
@@ -217,18 +256,22 @@ public class TeacherRequestController {
             summary = "Suggest replacement candidates",
             description = "For TEACHER: List teachers who can replace the current teacher for the session. " +
                     "For ACADEMIC_AFFAIR: List teachers who can replace the original teacher for the replacement request. " +
-                    "Sorted by skill priority, availability priority, and name."
+                    "Teachers of the class branch are listed, those without a skill for the course subject rank last. " +
+                    "Sorted by skill priority, availability priority, and name; page/size select the top-K slice."
     )
     public ResponseEntity<ResponseObject<List<ReplacementCandidateDTO>>> suggestReplacementCandidates(
             @PathVariable Long id,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
             @AuthenticationPrincipal UserPrincipal currentUser
     ) {
         boolean isAcademicStaff = isAcademicAffair(currentUser);
+        Pageable pageable = PageRequest.of(page, size);
         
         if (isAcademicStaff) {
             // Staff: id is requestId
             log.info("Suggest replacement candidates for request {} by staff", id);
-            List<ReplacementCandidateDTO> candidates = teacherRequestService.suggestReplacementCandidatesForStaff(id);
+            List<ReplacementCandidateDTO> candidates = teacherRequestService.suggestReplacementCandidatesForStaff(id, pageable);
             return ResponseEntity.ok(ResponseObject.<List<ReplacementCandidateDTO>>builder()
                     .success(true)
                     .message(candidates.isEmpty() ? "No suitable replacement teachers found" : "Replacement candidates loaded successfully")
@@ -237,7 +280,7 @@ public class TeacherRequestController {
         } else {
             // Teacher: id is sessionId
             log.info("Suggest replacement candidates for session {} by user {}", id, currentUser.getId());
-            List<ReplacementCandidateDTO> candidates = teacherRequestService.suggestReplacementCandidates(id, currentUser.getId());
+            List<ReplacementCandidateDTO> candidates = teacherRequestService.suggestReplacementCandidates(id, currentUser.getId(), pageable);
             return ResponseEntity.ok(ResponseObject.<List<ReplacementCandidateDTO>>builder()
                     .success(true)
                     .message(candidates.isEmpty() ? "No suitable replacement teachers found" : "Replacement candidates loaded successfully")
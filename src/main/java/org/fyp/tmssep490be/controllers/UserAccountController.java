@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.fyp.tmssep490be.dtos.common.ResponseObject;
 import org.fyp.tmssep490be.dtos.user.CreateUserRequest;
 import org.fyp.tmssep490be.dtos.user.UserResponse;
+import org.fyp.tmssep490be.security.UserPrincipalCache;
 import org.fyp.tmssep490be.services.UserAccountService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserAccountController {
 
     private final UserAccountService userAccountService;
+    private final UserPrincipalCache userPrincipalCache;
 
     /**
      * Create new user (ADMIN only)
@@ -113,6 +115,8 @@ public class UserAccountController {
             @RequestParam String status) {
 
         UserResponse userResponse = userAccountService.updateUserStatus(id, status);
+        // After commit so the next request of this user does not reload the old status
+        userPrincipalCache.invalidate(id);
 
         return ResponseEntity.ok(
                 ResponseObject.<UserResponse>builder()
@@ -132,6 +136,7 @@ public class UserAccountController {
     public ResponseEntity<ResponseObject<Void>> deleteUser(@PathVariable Long id) {
 
         userAccountService.deleteUser(id);
+        userPrincipalCache.invalidate(id);
 
         return ResponseEntity.ok(
                 ResponseObject.<Void>builder()
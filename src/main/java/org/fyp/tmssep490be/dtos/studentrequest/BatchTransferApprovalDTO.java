@@ -0,0 +1,24 @@
+package org.fyp.tmssep490be.dtos.studentrequest;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for approving several transfer requests at once
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferApprovalDTO {
+
+    @NotEmpty(message = "Request IDs are required")
+    private List<Long> requestIds;
+
+    private String note; // Optional approval note
+}
@@ -0,0 +1,29 @@
+package org.fyp.tmssep490be.dtos.teacherrequest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RescheduleSlotAvailabilityDTO {
+    private Long timeSlotId;
+    private String label;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private boolean teacherAvailable;
+    private boolean studentsAvailable;
+    private Boolean hasAvailableResource;
+    private Integer availableResourceCount;
+    private List<RescheduleResourceSuggestionDTO> availableResources;
+
+    public boolean isAvailable() {
+        return teacherAvailable && studentsAvailable;
+    }
+}
@@ -2,6 +2,7 @@ package org.fyp.tmssep490be.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.fyp.tmssep490be.config.ReferenceDataCacheEvictionListener;
 import org.fyp.tmssep490be.entities.enums.BranchStatus;
 
 import java.time.LocalDate;
@@ -10,6 +11,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(ReferenceDataCacheEvictionListener.class)
 @Table(name = "branch", uniqueConstraints = {
     @UniqueConstraint(name = "uq_branch_center_code", columnNames = {"center_id", "code"})
 })
@@ -2,11 +2,13 @@ package org.fyp.tmssep490be.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.fyp.tmssep490be.config.ReferenceDataCacheEvictionListener;
 import org.fyp.tmssep490be.entities.enums.MaterialType;
 
 import java.time.OffsetDateTime;
 
 @Entity
+@EntityListeners(ReferenceDataCacheEvictionListener.class)
 @Table(name = "course_material")
 @Getter
 @Setter
@@ -2,11 +2,13 @@ package org.fyp.tmssep490be.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.fyp.tmssep490be.config.ReferenceDataCacheEvictionListener;
 import java.time.OffsetDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(ReferenceDataCacheEvictionListener.class)
 @Table(name = "course_phase", uniqueConstraints = {
     @UniqueConstraint(name = "uq_course_phase_course_number", columnNames = {"course_id", "phase_number"})
 })
@@ -2,6 +2,7 @@ package org.fyp.tmssep490be.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.fyp.tmssep490be.config.ReferenceDataCacheEvictionListener;
 import org.fyp.tmssep490be.entities.enums.Skill;
 
 import java.time.OffsetDateTime;
@@ -9,6 +10,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(ReferenceDataCacheEvictionListener.class)
 @Table(name = "course_session", uniqueConstraints = {
     @UniqueConstraint(name = "uq_course_session_phase_sequence", columnNames = {"phase_id", "sequence_no"})
 })
@@ -2,11 +2,13 @@ package org.fyp.tmssep490be.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.fyp.tmssep490be.config.ReferenceDataCacheEvictionListener;
 import java.time.OffsetDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(ReferenceDataCacheEvictionListener.class)
 @Table(name = "level", uniqueConstraints = {
     @UniqueConstraint(name = "uq_level_subject_code", columnNames = {"subject_id", "code"})
 })
@@ -2,6 +2,7 @@ package org.fyp.tmssep490be.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.fyp.tmssep490be.config.StudentRequestSummaryStreamListener;
 import org.fyp.tmssep490be.entities.enums.RequestStatus;
 import org.fyp.tmssep490be.entities.enums.StudentRequestType;
 
@@ -10,6 +11,7 @@ import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "student_request")
+@EntityListeners(StudentRequestSummaryStreamListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -2,11 +2,13 @@ package org.fyp.tmssep490be.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.fyp.tmssep490be.config.UserBranchesCacheEvictionListener;
 
 import java.io.Serializable;
 import java.time.OffsetDateTime;
 
 @Entity
+@EntityListeners(UserBranchesCacheEvictionListener.class)
 @Table(name = "user_branches")
 @Getter
 @Setter
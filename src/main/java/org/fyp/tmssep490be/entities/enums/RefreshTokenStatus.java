@@ -0,0 +1,10 @@
+package org.fyp.tmssep490be.entities.enums;
+
+/**
+ * Refresh token status in the rotation store
+ */
+public enum RefreshTokenStatus {
+    ACTIVE,
+    ROTATED,
+    REVOKED
+}
@@ -123,6 +123,7 @@ public enum ErrorCode {
     PARTIAL_STRATEGY_MISSING_IDS(1212, "Selected student IDs required for PARTIAL strategy"),
     SELECTED_STUDENTS_EXCEED_CAPACITY(1213, "Selected students still exceed capacity"),
     INVALID_FILE_TYPE_XLSX(1214, "Only Excel files (.xlsx) are supported"),
+    EXCEL_TOO_MANY_ROWS(1216, "Excel file exceeds the maximum number of rows"),
 
     // Class errors (4000-4099)
     CLASS_NOT_FOUND(4000, "Class not found"),
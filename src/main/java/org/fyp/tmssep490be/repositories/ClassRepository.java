@@ -12,6 +12,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,12 @@ public interface ClassRepository extends JpaRepository<ClassEntity, Long> {
     @Query("SELECT c FROM ClassEntity c WHERE c.id = :classId")
     Optional<ClassEntity> findByIdWithLock(@Param("classId") Long classId);
 
+    /**
+     * Distinct branch IDs of the given classes
+     */
+    @Query("SELECT DISTINCT c.branch.id FROM ClassEntity c WHERE c.id IN :classIds")
+    List<Long> findBranchIdsByClassIds(@Param("classIds") Collection<Long> classIds);
+
     /**
      * Find classes accessible to academic affairs user with filters
      * Filters by user's branch assignments, approval status, and class status
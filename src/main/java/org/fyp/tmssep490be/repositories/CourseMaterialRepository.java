@@ -20,6 +20,22 @@ public interface CourseMaterialRepository extends JpaRepository<CourseMaterial,
     @Query("SELECT m FROM CourseMaterial m WHERE m.courseSession.id = :sessionId")
     List<CourseMaterial> findSessionLevelMaterials(@Param("sessionId") Long sessionId);
 
+    /**
+     * All materials of a course hierarchy (course, phase and session level) in one query
+     * Levels match findCourseLevelMaterials / findPhaseLevelMaterials / findSessionLevelMaterials
+     */
+    @Query("""
+            SELECT m FROM CourseMaterial m
+            LEFT JOIN m.phase p
+            LEFT JOIN m.courseSession cs
+            LEFT JOIN cs.phase csp
+            WHERE (p IS NULL AND cs IS NULL AND m.course.id = :courseId)
+               OR (cs IS NULL AND p.course.id = :courseId)
+               OR csp.course.id = :courseId
+            ORDER BY m.id
+            """)
+    List<CourseMaterial> findHierarchyMaterialsByCourseId(@Param("courseId") Long courseId);
+
     @Query("SELECT m FROM CourseMaterial m WHERE m.course.id = :courseId")
     List<CourseMaterial> findByCourseId(@Param("courseId") Long courseId);
 
@@ -14,6 +14,13 @@ public interface CoursePhaseRepository extends JpaRepository<CoursePhase, Long>
     @Query("SELECT cp FROM CoursePhase cp WHERE cp.course.id = :courseId ORDER BY cp.phaseNumber")
     List<CoursePhase> findByCourseIdOrderByPhaseNumber(@Param("courseId") Long courseId);
 
+    /**
+     * Phases of a course with their course sessions fetched (sessions need in-memory ordering by sequenceNo)
+     */
+    @Query("SELECT DISTINCT cp FROM CoursePhase cp LEFT JOIN FETCH cp.courseSessions " +
+           "WHERE cp.course.id = :courseId ORDER BY cp.phaseNumber")
+    List<CoursePhase> findByCourseIdWithSessions(@Param("courseId") Long courseId);
+
     @Query("SELECT cp FROM CoursePhase cp WHERE cp.course.id = :courseId AND cp.phaseNumber = :phaseNumber")
     CoursePhase findByCourseIdAndPhaseNumber(@Param("courseId") Long courseId, @Param("phaseNumber") Integer phaseNumber);
 }
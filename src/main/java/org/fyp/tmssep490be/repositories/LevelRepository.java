@@ -4,6 +4,7 @@ import org.fyp.tmssep490be.entities.Level;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +19,9 @@ public interface LevelRepository extends JpaRepository<Level, Long> {
      * Find levels by subject ID, ordered by sort order ascending
      */
     List<Level> findBySubjectIdOrderBySortOrderAsc(Long subjectId);
+
+    /**
+     * Find levels of several subjects in one query, ordered by sort order ascending
+     */
+    List<Level> findBySubjectIdInOrderBySortOrderAsc(Collection<Long> subjectIds);
 }
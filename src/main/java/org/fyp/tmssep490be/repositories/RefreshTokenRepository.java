@@ -0,0 +1,84 @@
+package org.fyp.tmssep490be.repositories;
+
+import org.fyp.tmssep490be.entities.RefreshToken;
+import org.fyp.tmssep490be.entities.enums.RefreshTokenStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Rotate atomically: only one concurrent refresh with the same token can move it out of ACTIVE
+     * @return 1 if rotated, 0 if the token was already rotated/revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt " +
+           "SET rt.status = org.fyp.tmssep490be.entities.enums.RefreshTokenStatus.ROTATED, rt.rotatedAt = :now " +
+           "WHERE rt.tokenHash = :tokenHash " +
+           "AND rt.status = org.fyp.tmssep490be.entities.enums.RefreshTokenStatus.ACTIVE")
+    int markRotated(@Param("tokenHash") String tokenHash, @Param("now") OffsetDateTime now);
+
+    /**
+     * Revoke every token of a family (logout, reuse detection)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt " +
+           "SET rt.status = org.fyp.tmssep490be.entities.enums.RefreshTokenStatus.REVOKED, rt.revokedAt = :now " +
+           "WHERE rt.familyId = :familyId " +
+           "AND rt.status <> org.fyp.tmssep490be.entities.enums.RefreshTokenStatus.REVOKED")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Families of the user that still have a usable token
+     */
+    @Query("SELECT DISTINCT rt.familyId FROM RefreshToken rt " +
+           "WHERE rt.userId = :userId " +
+           "AND rt.status = org.fyp.tmssep490be.entities.enums.RefreshTokenStatus.ACTIVE")
+    List<String> findActiveFamilyIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Revoke every family of the user (account deactivation)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt " +
+           "SET rt.status = org.fyp.tmssep490be.entities.enums.RefreshTokenStatus.REVOKED, rt.revokedAt = :now " +
+           "WHERE rt.userId = :userId " +
+           "AND rt.status <> org.fyp.tmssep490be.entities.enums.RefreshTokenStatus.REVOKED")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Families revoked after the given time, used to sync the in-memory revocation list between instances
+     */
+    @Query("SELECT rt.familyId AS familyId, MAX(rt.revokedAt) AS revokedAt FROM RefreshToken rt " +
+           "WHERE rt.revokedAt > :since " +
+           "GROUP BY rt.familyId")
+    List<RevokedFamily> findFamiliesRevokedSince(@Param("since") OffsetDateTime since);
+
+    /**
+     * Database check of a revocation the in-memory revocation list could not hold
+     */
+    boolean existsByFamilyIdAndStatus(String familyId, RefreshTokenStatus status);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") OffsetDateTime before);
+
+    /**
+     * Row of findFamiliesRevokedSince
+     */
+    interface RevokedFamily {
+        String getFamilyId();
+
+        OffsetDateTime getRevokedAt();
+    }
+}
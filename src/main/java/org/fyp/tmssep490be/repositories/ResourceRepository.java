@@ -4,6 +4,13 @@ import org.fyp.tmssep490be.entities.Resource;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ResourceRepository extends JpaRepository<Resource, Long> {
+
+    /**
+     * Find all resources of a branch
+     */
+    List<Resource> findByBranchId(Long branchId);
 }
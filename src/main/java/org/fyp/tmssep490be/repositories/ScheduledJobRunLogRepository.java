@@ -0,0 +1,15 @@
+package org.fyp.tmssep490be.repositories;
+
+import org.fyp.tmssep490be.entities.ScheduledJobRunLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScheduledJobRunLogRepository extends JpaRepository<ScheduledJobRunLog, Long> {
+    /**
+     * Chunks of a single job run, in execution order
+     */
+    List<ScheduledJobRunLog> findByRunIdOrderByChunkNoAsc(String runId);
+}
@@ -4,11 +4,14 @@ import org.fyp.tmssep490be.entities.Session;
 import org.fyp.tmssep490be.entities.enums.SessionStatus;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -45,6 +48,19 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
            nativeQuery = true)
     List<Session> findSessionsForStudentByDate(@Param("studentId") Long studentId, @Param("date") LocalDate date);
 
+    /**
+     * Find sessions for a specific student on several dates (with time slot loaded)
+     * Same rule as findSessionsForStudentByDate, used to check conflicts for many candidate sessions at once
+     */
+    @Query("SELECT s FROM Session s " +
+           "JOIN FETCH s.timeSlotTemplate tst " +
+           "WHERE s.date IN :dates " +
+           "AND s.status = 'PLANNED' " +
+           "AND s.classEntity.id IN (" +
+           "  SELECT e.classId FROM Enrollment e WHERE e.studentId = :studentId AND e.status = 'ENROLLED'" +
+           ")")
+    List<Session> findSessionsForStudentByDates(@Param("studentId") Long studentId, @Param("dates") Collection<LocalDate> dates);
+
     /**
      * Find session by date and class
      */
@@ -143,19 +159,69 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     );
 
     /**
-     * Find sessions that have passed their date and are still in PLANNED status
-     * Used to automatically mark them as DONE
+     * Submit session report: mark sessions DONE with the teacher note, cancelled sessions are left untouched
+     * clearAutomatically: a Session loaded before the update would be stale
      */
-    @Query("SELECT s FROM Session s " +
-           "WHERE s.date < :today " +
-           "AND s.status = :status")
-    List<Session> findPastSessionsByStatus(
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Session s " +
+           "SET s.status = org.fyp.tmssep490be.entities.enums.SessionStatus.DONE, " +
+           "    s.teacherNote = :teacherNote, " +
+           "    s.updatedAt = :now " +
+           "WHERE s.id IN :sessionIds " +
+           "AND s.status <> org.fyp.tmssep490be.entities.enums.SessionStatus.CANCELLED")
+    int markDoneWithTeacherNote(
+            @Param("sessionIds") Collection<Long> sessionIds,
+            @Param("teacherNote") String teacherNote,
+            @Param("now") OffsetDateTime now
+    );
+
+    /**
+     * Mark one chunk of past PLANNED sessions as DONE, returning the updated ids
+     * Rows locked by another transaction are skipped and picked up by a later chunk/run
+     */
+    @Query(value = """
+            UPDATE session
+            SET status = 'DONE', updated_at = CURRENT_TIMESTAMP
+            WHERE id IN (
+                SELECT id FROM session
+                WHERE date < :today AND status = 'PLANNED'
+                ORDER BY id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id
+            """, nativeQuery = true)
+    List<Long> markPastPlannedSessionsDone(
             @Param("today") LocalDate today,
-            @Param("status") SessionStatus status
+            @Param("limit") int limit
     );
 
     /**
      * Count total number of sessions for a class
      */
     long countByClassEntityId(Long classId);
+
+    /**
+     * Total and completed (past or no longer PLANNED) sessions per class, for student class cards
+     */
+    @Query("SELECT s.classEntity.id AS classId, COUNT(s) AS totalSessions, " +
+           "SUM(CASE WHEN s.date < :today OR s.status <> :plannedStatus THEN 1 ELSE 0 END) AS completedSessions " +
+           "FROM Session s " +
+           "WHERE s.classEntity.id IN :classIds " +
+           "GROUP BY s.classEntity.id")
+    List<ClassSessionProgress> countSessionProgressByClassIds(
+            @Param("classIds") Collection<Long> classIds,
+            @Param("today") LocalDate today,
+            @Param("plannedStatus") SessionStatus plannedStatus);
+
+    /**
+     * Row of countSessionProgressByClassIds
+     */
+    interface ClassSessionProgress {
+        Long getClassId();
+
+        Long getTotalSessions();
+
+        Long getCompletedSessions();
+    }
 }
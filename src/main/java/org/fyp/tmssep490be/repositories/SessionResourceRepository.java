@@ -34,6 +34,21 @@ public interface SessionResourceRepository extends JpaRepository<SessionResource
             @Param("excludeSessionId") Long excludeSessionId
     );
     
+    /**
+     * Find all resource bookings of a branch on a date (with session loaded)
+     * Used to build reschedule availability grid (time slot x resource) in one query
+     */
+    @Query("SELECT sr FROM SessionResource sr " +
+           "JOIN FETCH sr.session s " +
+           "WHERE sr.resource.branch.id = :branchId " +
+           "AND s.date = :date " +
+           "AND s.status IN :statuses")
+    List<SessionResource> findBookingsByBranchIdAndDate(
+            @Param("branchId") Long branchId,
+            @Param("date") LocalDate date,
+            @Param("statuses") List<SessionStatus> statuses
+    );
+
     /**
      * Find all session resources for a session
      */
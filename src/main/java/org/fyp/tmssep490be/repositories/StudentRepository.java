@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -96,24 +97,69 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     /**
      * Find available students for enrollment with computed match priority
      * Database-first approach: computes matchPriority in SQL for consistent pagination
+     * - 1: has a skill assessment at the class's level (perfect match)
+     * - 2: has a skill assessment in the class's subject, other level (partial match)
+     * - 3: no assessment for the subject
+     * Sorted by matchPriority, full name, then id so offset pages are stable
      *
      * @param classId Class ID for enrollment
      * @param classSubjectId Subject ID of the class's course level
      * @param classLevelId Level ID of the class's course
      * @param branchId Branch ID to filter students from
      * @param search Search term for student details
-     * @param pageable Pagination and sorting parameters
-     * @return Page of students with computed match priority
+     * @param pageable Pagination parameters (sorting is fixed by the ranking)
+     * @return Page of student IDs with computed match priority
      */
+    @Query(value = "SELECT s.id AS studentId, " +
+           "  CASE " +
+           "    WHEN EXISTS (SELECT 1 FROM ReplacementSkillAssessment a " +
+           "                 WHERE a.student.id = s.id AND a.level.id = :classLevelId) THEN 1 " +
+           "    WHEN EXISTS (SELECT 1 FROM ReplacementSkillAssessment a " +
+           "                 WHERE a.student.id = s.id AND a.level.subject.id = :classSubjectId) THEN 2 " +
+           "    ELSE 3 " +
+           "  END AS matchPriority " +
+           "FROM Student s " +
+           "INNER JOIN s.userAccount u " +
+           AVAILABLE_FOR_CLASS_CONDITION +
+           "ORDER BY matchPriority ASC, u.fullName ASC, s.id ASC",
+           countQuery = "SELECT COUNT(s) FROM Student s " +
+           "INNER JOIN s.userAccount u " +
+           AVAILABLE_FOR_CLASS_CONDITION)
+    Page<AvailableStudentMatch> findRankedAvailableStudentsForClass(
+            @Param("classId") Long classId,
+            @Param("branchId") Long branchId,
+            @Param("classSubjectId") Long classSubjectId,
+            @Param("classLevelId") Long classLevelId,
+            @Param("search") String search,
+            Pageable pageable
+    );
+
     /**
-     * Find all available students for enrollment in a class (no pagination)
-     * Hybrid approach: fetch all students for in-memory sorting
+     * Find students by IDs with account and branches loaded (for one page of results)
      */
-    @Query("SELECT s FROM Student s " +
+    @Query("SELECT DISTINCT s FROM Student s " +
+           "INNER JOIN FETCH s.userAccount u " +
+           "LEFT JOIN FETCH u.userBranches ub " +
+           "LEFT JOIN FETCH ub.branch " +
+           "WHERE s.id IN :ids")
+    List<Student> findAllWithAccountByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Resolve students by login email (case-insensitive), one row per matched account
+     * Callers pass lower-cased emails and chunk very large lists
+     */
+    @Query("SELECT LOWER(u.email) AS email, s.id AS studentId " +
+           "FROM Student s " +
            "INNER JOIN s.userAccount u " +
-           "INNER JOIN u.userBranches ub " +
-           "INNER JOIN ub.branch b " +
-           "WHERE b.id = :branchId " +
+           "WHERE LOWER(u.email) IN :emails")
+    List<StudentEmailMatch> findStudentIdsByLowerEmailIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Active student of the branch, not yet enrolled in the class, matching optional search
+     * Note: Using COALESCE to avoid Hibernate bytea type inference bug with NULL + OFFSET
+     */
+    String AVAILABLE_FOR_CLASS_CONDITION =
+           "WHERE EXISTS (SELECT 1 FROM UserBranches ub WHERE ub.userAccount.id = u.id AND ub.branch.id = :branchId) " +
            "AND u.status = org.fyp.tmssep490be.entities.enums.UserStatus.ACTIVE " +
            "AND NOT EXISTS (" +
            "  SELECT 1 FROM Enrollment e " +
@@ -126,10 +172,23 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
            "  LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "  LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "  LOWER(COALESCE(u.phone, '')) LIKE LOWER(CONCAT('%', :search, '%'))" +
-           ")")
-    List<Student> findAllAvailableStudentsForClass(
-            @Param("classId") Long classId,
-            @Param("branchId") Long branchId,
-            @Param("search") String search
-    );
+           ") ";
+
+    /**
+     * Ranked row of findRankedAvailableStudentsForClass
+     */
+    interface AvailableStudentMatch {
+        Long getStudentId();
+
+        Integer getMatchPriority();
+    }
+
+    /**
+     * Row of findStudentIdsByLowerEmailIn
+     */
+    interface StudentEmailMatch {
+        String getEmail();
+
+        Long getStudentId();
+    }
 }
@@ -6,6 +6,7 @@ import org.fyp.tmssep490be.entities.enums.StudentRequestType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,7 +15,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface StudentRequestRepository extends JpaRepository<StudentRequest, Long> {
+public interface StudentRequestRepository extends JpaRepository<StudentRequest, Long>, JpaSpecificationExecutor<StudentRequest> {
 
     // Find requests by student
     Page<StudentRequest> findByStudentIdAndStatusIn(Long studentId, List<RequestStatus> statuses, Pageable pageable);
@@ -25,62 +26,20 @@ public interface StudentRequestRepository extends JpaRepository<StudentRequest,
 
     // ============== ACADEMIC AFFAIRS BRANCH-FILTERED QUERIES ==============
 
-    /**
-     * Find pending requests filtered by AA user's assigned branches
-     * Used for secure branch-level filtering at database level
-     */
-    @Query("SELECT sr FROM StudentRequest sr " +
-           "WHERE sr.status = :status " +
-           "AND sr.currentClass.branch.id IN :branchIds " +
-           "ORDER BY sr.submittedAt ASC")
-    Page<StudentRequest> findPendingRequestsByBranches(
-            @Param("status") RequestStatus status,
-            @Param("branchIds") List<Long> branchIds,
-            Pageable pageable);
-
-    /**
-     * Find all requests (any status) filtered by AA user's assigned branches
-     * Used for history view with branch-level security
-     */
-    @Query("SELECT sr FROM StudentRequest sr " +
-           "WHERE sr.currentClass.branch.id IN :branchIds " +
-           "ORDER BY sr.submittedAt DESC")
-    Page<StudentRequest> findAllRequestsByBranches(
-            @Param("branchIds") List<Long> branchIds,
-            Pageable pageable);
+    // List queries with AA filters: see StudentRequestSpecifications.matchesAAFilter
 
     /**
-     * Find all requests filtered by AA user's assigned branches and decided by user
-     * Used for history view with decidedBy filtering and branch-level security
+     * Summary statistics for the AA dashboard in one aggregate over the branches' requests
+     * (counts per request type via FILTER instead of one COUNT query per type)
      */
-    @Query("SELECT sr FROM StudentRequest sr " +
-           "WHERE sr.currentClass.branch.id IN :branchIds " +
-           "AND sr.decidedBy.id = :decidedBy " +
-           "ORDER BY sr.submittedAt DESC")
-    Page<StudentRequest> findAllRequestsByBranchesAndDecidedBy(
-            @Param("branchIds") List<Long> branchIds,
-            @Param("decidedBy") Long decidedBy,
-            Pageable pageable);
-
-    /**
-     * Count pending requests by branch IDs for summary statistics
-     */
-    @Query("SELECT COUNT(sr) FROM StudentRequest sr " +
+    @Query("SELECT COUNT(sr) AS total, " +
+           "COUNT(sr) FILTER (WHERE sr.requestType = org.fyp.tmssep490be.entities.enums.StudentRequestType.ABSENCE) AS absenceRequests, " +
+           "COUNT(sr) FILTER (WHERE sr.requestType = org.fyp.tmssep490be.entities.enums.StudentRequestType.MAKEUP) AS makeupRequests, " +
+           "COUNT(sr) FILTER (WHERE sr.requestType = org.fyp.tmssep490be.entities.enums.StudentRequestType.TRANSFER) AS transferRequests " +
+           "FROM StudentRequest sr " +
            "WHERE sr.status = :status " +
            "AND sr.currentClass.branch.id IN :branchIds")
-    long countByStatusAndBranches(
-            @Param("status") RequestStatus status,
-            @Param("branchIds") List<Long> branchIds);
-
-    /**
-     * Count requests by type, status, and branch IDs for summary statistics
-     */
-    @Query("SELECT COUNT(sr) FROM StudentRequest sr " +
-           "WHERE sr.requestType = :requestType " +
-           "AND sr.status = :status " +
-           "AND sr.currentClass.branch.id IN :branchIds")
-    long countByRequestTypeAndStatusAndBranches(
-            @Param("requestType") StudentRequestType requestType,
+    RequestSummaryCount summarizeByStatusAndBranches(
             @Param("status") RequestStatus status,
             @Param("branchIds") List<Long> branchIds);
 
@@ -184,4 +143,17 @@ public interface StudentRequestRepository extends JpaRepository<StudentRequest,
             @Param("currentClassId") Long currentClassId,
             @Param("requestType") StudentRequestType requestType,
             @Param("status") RequestStatus status);
+
+    /**
+     * Row of summarizeByStatusAndBranches
+     */
+    interface RequestSummaryCount {
+        Long getTotal();
+
+        Long getAbsenceRequests();
+
+        Long getMakeupRequests();
+
+        Long getTransferRequests();
+    }
 }
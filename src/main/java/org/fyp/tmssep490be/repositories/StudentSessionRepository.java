@@ -1,12 +1,18 @@
 package org.fyp.tmssep490be.repositories;
 
 import org.fyp.tmssep490be.entities.StudentSession;
+import org.fyp.tmssep490be.entities.enums.AttendanceStatus;
+import org.fyp.tmssep490be.entities.enums.HomeworkStatus;
+import org.fyp.tmssep490be.entities.enums.SessionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -107,6 +113,21 @@ public interface StudentSessionRepository extends JpaRepository<StudentSession,
            "AND s.classEntity.id = :classId")
     List<StudentSession> findByStudentIdAndClassEntityId(@Param("studentId") Long studentId, @Param("classId") Long classId);
 
+    /**
+     * Count student sessions of a class per student and attendance status
+     * Same rows as findByStudentIdAndClassEntityId for every student, aggregated in one query
+     * (used for class attendance rate)
+     */
+    @Query("SELECT ss.student.id AS studentId, ss.attendanceStatus AS attendanceStatus, COUNT(ss) AS total " +
+           "FROM StudentSession ss " +
+           "JOIN ss.session s " +
+           "WHERE s.classEntity.id = :classId " +
+           "AND ss.student.id IN :studentIds " +
+           "GROUP BY ss.student.id, ss.attendanceStatus")
+    List<StudentAttendanceCount> countAttendanceByClassIdGroupByStudent(
+            @Param("classId") Long classId,
+            @Param("studentIds") Collection<Long> studentIds);
+
     /**
      * Find all student sessions for a student (used for overview aggregation)
      */
@@ -143,6 +164,80 @@ public interface StudentSessionRepository extends JpaRepository<StudentSession,
             @Param("date") LocalDate date
     );
 
+    /**
+     * Ghi điểm danh cho các học viên của một session có cùng attendance/homework/note (một statement mỗi nhóm)
+     * Chỉ ghi khi session chưa DONE: report được submit đồng thời → update ít row hơn số học viên
+     * clearAutomatically: các StudentSession đã load để validate không còn khớp với DB sau update
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StudentSession ss " +
+           "SET ss.attendanceStatus = :attendanceStatus, " +
+           "    ss.homeworkStatus = :homeworkStatus, " +
+           "    ss.note = :note, " +
+           "    ss.recordedAt = :recordedAt, " +
+           "    ss.updatedAt = :recordedAt " +
+           "WHERE ss.student.id IN :studentIds " +
+           "AND ss.session.id IN (SELECT s.id FROM Session s WHERE s.id = :sessionId " +
+           "    AND s.status <> org.fyp.tmssep490be.entities.enums.SessionStatus.DONE)")
+    int updateAttendance(
+            @Param("sessionId") Long sessionId,
+            @Param("studentIds") Collection<Long> studentIds,
+            @Param("attendanceStatus") AttendanceStatus attendanceStatus,
+            @Param("homeworkStatus") HomeworkStatus homeworkStatus,
+            @Param("note") String note,
+            @Param("recordedAt") OffsetDateTime recordedAt
+    );
+
+    /**
+     * Transfer out: mark the student's sessions of a class after the given date as ABSENT / transferred out
+     * Set-based version of findByStudentIdAndClassEntityIdAndSessionDateAfter + saveAll
+     * Not clearAutomatically: transfer execution never loads StudentSessions, so no managed instance can go
+     * stale or overwrite this update on flush, while clearing would detach the requests of a batch still being
+     * executed (lazy currentClass/student/effectiveSession, response mapping)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StudentSession ss " +
+           "SET ss.attendanceStatus = org.fyp.tmssep490be.entities.enums.AttendanceStatus.ABSENT, " +
+           "    ss.isTransferredOut = true, " +
+           "    ss.note = :note, " +
+           "    ss.updatedAt = :now " +
+           "WHERE ss.student.id = :studentId " +
+           "AND ss.session.id IN (SELECT s.id FROM Session s WHERE s.classEntity.id = :classId AND s.date > :date)")
+    int markTransferredOutAfterDate(
+            @Param("studentId") Long studentId,
+            @Param("classId") Long classId,
+            @Param("date") LocalDate date,
+            @Param("note") String note,
+            @Param("now") OffsetDateTime now
+    );
+
+    /**
+     * Transfer in: create PLANNED student sessions for every session of a class after the given date
+     * Rows the student already has (transferring back into a class left earlier) are reset to PLANNED,
+     * same as the former save() merge
+     * Not clearAutomatically for the same reason as markTransferredOutAfterDate
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO student_session (student_id, session_id, is_makeup, is_transferred_out,
+                                         attendance_status, note, created_at, updated_at)
+            SELECT :studentId, s.id, false, false, 'PLANNED', :note, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM session s
+            WHERE s.class_id = :classId
+              AND s.date > :date
+            ON CONFLICT (student_id, session_id) DO UPDATE
+            SET attendance_status = 'PLANNED',
+                is_transferred_out = false,
+                note = EXCLUDED.note,
+                updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int insertPlannedForClassSessionsAfterDate(
+            @Param("studentId") Long studentId,
+            @Param("classId") Long classId,
+            @Param("date") LocalDate date,
+            @Param("note") String note
+    );
+
     /**
      * Find sessions for a student on a specific date (for conflict checking)
      */
@@ -155,6 +250,71 @@ public interface StudentSessionRepository extends JpaRepository<StudentSession,
             @Param("date") LocalDate date
     );
 
+    /**
+     * Find students of a session who already attend another session at date + time slot
+     * Used for student conflict check when rescheduling a session
+     */
+    @Query("SELECT DISTINCT other.student.id FROM StudentSession other " +
+           "JOIN other.session s " +
+           "WHERE s.date = :date " +
+           "AND s.timeSlotTemplate.id = :timeSlotTemplateId " +
+           "AND s.status IN :statuses " +
+           "AND other.student.id IN (" +
+           "  SELECT ss.student.id FROM StudentSession ss WHERE ss.session.id = :sessionId" +
+           ")")
+    List<Long> findConflictingStudentIds(
+            @Param("sessionId") Long sessionId,
+            @Param("date") LocalDate date,
+            @Param("timeSlotTemplateId") Long timeSlotTemplateId,
+            @Param("statuses") List<SessionStatus> statuses
+    );
+
+    /**
+     * Find time slots on a date where at least one student of a session already attends another session
+     * Used to build reschedule availability grid in one query
+     */
+    @Query("SELECT DISTINCT s.timeSlotTemplate.id FROM StudentSession other " +
+           "JOIN other.session s " +
+           "WHERE s.date = :date " +
+           "AND s.timeSlotTemplate IS NOT NULL " +
+           "AND s.status IN :statuses " +
+           "AND other.student.id IN (" +
+           "  SELECT ss.student.id FROM StudentSession ss WHERE ss.session.id = :sessionId" +
+           ")")
+    List<Long> findConflictingTimeSlotIds(
+            @Param("sessionId") Long sessionId,
+            @Param("date") LocalDate date,
+            @Param("statuses") List<SessionStatus> statuses
+    );
+
+    /**
+     * Course sessions of a course that the student attended (PRESENT), used for material access
+     */
+    @Query("SELECT DISTINCT s.courseSession.id FROM StudentSession ss " +
+           "JOIN ss.session s " +
+           "WHERE ss.student.id = :studentId " +
+           "AND s.courseSession.phase.course.id = :courseId " +
+           "AND ss.attendanceStatus = org.fyp.tmssep490be.entities.enums.AttendanceStatus.PRESENT")
+    List<Long> findAttendedCourseSessionIds(
+            @Param("studentId") Long studentId,
+            @Param("courseId") Long courseId
+    );
+
+    /**
+     * Course sessions of a course that the student completed (attended, or attendance recorded)
+     * Same rule as MaterialAccessServiceImpl.isSessionCompleted
+     */
+    @Query("SELECT DISTINCT s.courseSession.id FROM StudentSession ss " +
+           "JOIN ss.session s " +
+           "WHERE ss.student.id = :studentId " +
+           "AND s.courseSession.phase.course.id = :courseId " +
+           "AND (ss.attendanceStatus = org.fyp.tmssep490be.entities.enums.AttendanceStatus.PRESENT " +
+           "     OR (ss.attendanceStatus IS NOT NULL AND ss.updatedAt IS NOT NULL))")
+    List<Long> findCompletedCourseSessionIds(
+            @Param("studentId") Long studentId,
+            @Param("courseId") Long courseId
+    );
+
     /**
      * Find student session by student ID and course session
      * Note: StudentSession links to Session, which links to CourseSession
@@ -180,4 +340,15 @@ public interface StudentSessionRepository extends JpaRepository<StudentSession,
             @Param("studentId") Long studentId,
             @Param("classId") Long classId
     );
+
+    /**
+     * Row of countAttendanceByClassIdGroupByStudent
+     */
+    interface StudentAttendanceCount {
+        Long getStudentId();
+
+        AttendanceStatus getAttendanceStatus();
+
+        Long getTotal();
+    }
 }
@@ -2,8 +2,12 @@ package org.fyp.tmssep490be.repositories;
 
 import org.fyp.tmssep490be.entities.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +17,23 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long> {
      * Find teacher by user account ID
      */
     Optional<Teacher> findByUserAccountId(Long userAccountId);
+
+    /**
+     * Find teachers assigned to a branch, account fetched
+     * Used as the replacement candidate pool
+     * @param excludedTeacherIds Teachers to skip (original teacher, declined teachers...), must not be empty
+     */
+    @Query("""
+            SELECT t FROM Teacher t
+            JOIN FETCH t.userAccount ua
+            WHERE t.id NOT IN :excludedTeacherIds
+              AND EXISTS (
+                  SELECT 1 FROM UserBranches ub
+                  WHERE ub.userAccount.id = ua.id AND ub.branch.id = :branchId
+              )
+            """)
+    List<Teacher> findBranchTeachers(
+            @Param("branchId") Long branchId,
+            @Param("excludedTeacherIds") Collection<Long> excludedTeacherIds
+    );
 }
@@ -58,6 +58,20 @@ public interface TeacherRequestRepository extends JpaRepository<TeacherRequest,
             RequestStatus status
     );
     
+    /**
+     * Find notes of requests of a session that carry a note marker (e.g. DECLINED_BY_TEACHER_ID_)
+     * Used to collect teachers who declined a replacement for the session
+     */
+    @Query("SELECT tr.note FROM TeacherRequest tr " +
+           "WHERE tr.session.id = :sessionId " +
+           "AND tr.requestType = :requestType " +
+           "AND tr.note LIKE CONCAT('%', :marker, '%')")
+    List<String> findNotesBySessionIdAndRequestTypeContaining(
+            @Param("sessionId") Long sessionId,
+            @Param("requestType") TeacherRequestType requestType,
+            @Param("marker") String marker
+    );
+    
     /**
      * Find request by ID with all relationships loaded for detail view
      */
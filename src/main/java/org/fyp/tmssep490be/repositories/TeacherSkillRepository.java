@@ -2,8 +2,36 @@ package org.fyp.tmssep490be.repositories;
 
 import org.fyp.tmssep490be.entities.TeacherSkill;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface TeacherSkillRepository extends JpaRepository<TeacherSkill, Long> {
+
+    /**
+     * Find skills of the given teachers matching a subject
+     * Skill matches subject when its specialization is the subject code or name, alone or followed by a skill
+     * (e.g. "IELTS", "IELTS Speaking"); a code inside another word ("PRE-IELTS") does not match
+     * @param subjectCode Trimmed, lower-cased subject code, null to skip matching by code
+     * @param subjectName Trimmed, lower-cased subject name, null to skip matching by name
+     */
+    @Query("""
+            SELECT ts FROM TeacherSkill ts
+            WHERE ts.teacher.id IN :teacherIds
+              AND ((:subjectCode IS NOT NULL
+                    AND (LOWER(TRIM(ts.specialization)) = :subjectCode
+                         OR LOCATE(CONCAT(:subjectCode, ' '), LOWER(TRIM(ts.specialization))) = 1))
+                OR (:subjectName IS NOT NULL
+                    AND (LOWER(TRIM(ts.specialization)) = :subjectName
+                         OR LOCATE(CONCAT(:subjectName, ' '), LOWER(TRIM(ts.specialization))) = 1)))
+            """)
+    List<TeacherSkill> findSubjectSkillsOfTeachers(
+            @Param("teacherIds") Collection<Long> teacherIds,
+            @Param("subjectCode") String subjectCode,
+            @Param("subjectName") String subjectName
+    );
 }
@@ -1,6 +1,7 @@
 package org.fyp.tmssep490be.repositories;
 
 import org.fyp.tmssep490be.entities.TeachingSlot;
+import org.fyp.tmssep490be.entities.enums.SessionStatus;
 import org.fyp.tmssep490be.entities.enums.TeachingSlotStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +17,19 @@ public interface TeachingSlotRepository extends JpaRepository<TeachingSlot, Teac
 
     @Query("SELECT ts FROM TeachingSlot ts WHERE ts.session.classEntity.id = :classId AND ts.status = :status")
     List<TeachingSlot> findByClassEntityIdAndStatus(@Param("classId") Long classId, @Param("status") TeachingSlotStatus status);
+
+    /**
+     * Distinct teacher names per class (batch version of findByClassEntityIdAndStatus)
+     */
+    @Query("SELECT DISTINCT s.classEntity.id AS classId, u.fullName AS fullName " +
+           "FROM TeachingSlot ts " +
+           "JOIN ts.session s " +
+           "JOIN ts.teacher t " +
+           "JOIN t.userAccount u " +
+           "WHERE s.classEntity.id IN :classIds AND ts.status = :status " +
+           "ORDER BY s.classEntity.id, u.fullName")
+    List<ClassTeacherName> findTeacherNamesByClassIds(@Param("classIds") Collection<Long> classIds,
+                                                      @Param("status") TeachingSlotStatus status);
     
     /**
      * Check if teacher owns (is assigned to) a session
@@ -26,6 +41,83 @@ public interface TeachingSlotRepository extends JpaRepository<TeachingSlot, Teac
             List<TeachingSlotStatus> statuses
     );
 
+    /**
+     * Check if teacher owns at least one of the given sessions (single EXISTS for a whole class)
+     */
+    boolean existsByIdSessionIdInAndIdTeacherIdAndStatusIn(
+            Collection<Long> sessionIds,
+            Long teacherId,
+            List<TeachingSlotStatus> statuses
+    );
+
+    /**
+     * Check if teacher already occupies a date + time slot
+     * Used for teacher conflict validation in teacher request flow (reschedule/replacement)
+     * @param excludeSessionId Session ID to exclude from check (the session being moved)
+     */
+    @Query("""
+            SELECT COUNT(ts) > 0 FROM TeachingSlot ts
+            JOIN ts.session s
+            WHERE ts.teacher.id = :teacherId
+              AND s.date = :date
+              AND s.timeSlotTemplate.id = :timeSlotTemplateId
+              AND s.status IN :sessionStatuses
+              AND ts.status IN :slotStatuses
+              AND (:excludeSessionId IS NULL OR s.id <> :excludeSessionId)
+            """)
+    boolean existsTeacherConflict(
+            @Param("teacherId") Long teacherId,
+            @Param("date") LocalDate date,
+            @Param("timeSlotTemplateId") Long timeSlotTemplateId,
+            @Param("sessionStatuses") List<SessionStatus> sessionStatuses,
+            @Param("slotStatuses") List<TeachingSlotStatus> slotStatuses,
+            @Param("excludeSessionId") Long excludeSessionId
+    );
+
+    /**
+     * Find which of the given teachers already occupy a date + time slot
+     * Batch version of existsTeacherConflict for ranking many candidates with one query
+     */
+    @Query("""
+            SELECT DISTINCT ts.teacher.id FROM TeachingSlot ts
+            JOIN ts.session s
+            WHERE ts.teacher.id IN :teacherIds
+              AND s.date = :date
+              AND s.timeSlotTemplate.id = :timeSlotTemplateId
+              AND s.status IN :sessionStatuses
+              AND ts.status IN :slotStatuses
+            """)
+    List<Long> findBusyTeacherIds(
+            @Param("teacherIds") Collection<Long> teacherIds,
+            @Param("date") LocalDate date,
+            @Param("timeSlotTemplateId") Long timeSlotTemplateId,
+            @Param("sessionStatuses") List<SessionStatus> sessionStatuses,
+            @Param("slotStatuses") List<TeachingSlotStatus> slotStatuses
+    );
+
+    /**
+     * Find time slot template IDs that teacher already occupies on a date
+     * Loaded once per suggestion call so each time slot check becomes a set lookup
+     * @param excludeSessionId Session ID to exclude from check (the session being moved)
+     */
+    @Query("""
+            SELECT DISTINCT s.timeSlotTemplate.id FROM TeachingSlot ts
+            JOIN ts.session s
+            WHERE ts.teacher.id = :teacherId
+              AND s.date = :date
+              AND s.timeSlotTemplate IS NOT NULL
+              AND s.status IN :sessionStatuses
+              AND ts.status IN :slotStatuses
+              AND (:excludeSessionId IS NULL OR s.id <> :excludeSessionId)
+            """)
+    List<Long> findOccupiedTimeSlotIdsByTeacherIdAndDate(
+            @Param("teacherId") Long teacherId,
+            @Param("date") LocalDate date,
+            @Param("sessionStatuses") List<SessionStatus> sessionStatuses,
+            @Param("slotStatuses") List<TeachingSlotStatus> slotStatuses,
+            @Param("excludeSessionId") Long excludeSessionId
+    );
+
     @Query("""
             SELECT ts FROM TeachingSlot ts
             JOIN FETCH ts.session s
@@ -96,4 +188,13 @@ public interface TeachingSlotRepository extends JpaRepository<TeachingSlot, Teac
             ORDER BY c.code ASC
             """)
     List<org.fyp.tmssep490be.entities.ClassEntity> findDistinctClassesByTeacherId(@Param("teacherId") Long teacherId);
+
+    /**
+     * Row of findTeacherNamesByClassIds
+     */
+    interface ClassTeacherName {
+        Long getClassId();
+
+        String getFullName();
+    }
 }
@@ -0,0 +1,77 @@
+package org.fyp.tmssep490be.repositories.specifications;
+
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Enrollment;
+import org.fyp.tmssep490be.entities.enums.ClassStatus;
+import org.fyp.tmssep490be.entities.enums.EnrollmentStatus;
+import org.fyp.tmssep490be.entities.enums.Modality;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Dynamic queries over Enrollment for the student portal
+ */
+public final class EnrollmentSpecifications {
+
+    private EnrollmentSpecifications() {
+    }
+
+    /**
+     * Enrollments of a student for the "My Classes" list
+     * Data query fetch-joins class, course and branch used by StudentClassDTO, count query uses plain joins
+     * @param classStatuses Class statuses to match, null for no filter
+     * @param branchIds     Branch IDs to match, null or empty for no filter
+     * @param courseIds     Course IDs to match, null or empty for no filter
+     * @param modalities    Modalities to match, null for no filter
+     */
+    public static Specification<Enrollment> studentClasses(Long studentId,
+                                                           Collection<EnrollmentStatus> enrollmentStatuses,
+                                                           Collection<ClassStatus> classStatuses,
+                                                           Collection<Long> branchIds,
+                                                           Collection<Long> courseIds,
+                                                           Collection<Modality> modalities) {
+        return (root, query, cb) -> {
+            boolean countQuery = Long.class == query.getResultType() || long.class == query.getResultType();
+
+            Join<Enrollment, ClassEntity> classEntity;
+            if (countQuery) {
+                classEntity = root.join("classEntity");
+            } else {
+                classEntity = asJoin(root.fetch("classEntity"));
+                classEntity.fetch("course");
+                classEntity.fetch("branch");
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("studentId"), studentId));
+            predicates.add(root.get("status").in(enrollmentStatuses));
+
+            if (classStatuses != null) {
+                predicates.add(classEntity.get("status").in(classStatuses));
+            }
+            if (branchIds != null && !branchIds.isEmpty()) {
+                predicates.add(classEntity.get("branch").get("id").in(branchIds));
+            }
+            if (courseIds != null && !courseIds.isEmpty()) {
+                predicates.add(classEntity.get("course").get("id").in(courseIds));
+            }
+            if (modalities != null) {
+                predicates.add(classEntity.get("modality").in(modalities));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <X, Y> Join<X, Y> asJoin(Fetch<X, Y> fetch) {
+        // Hibernate fetches are also joins, reuse them for predicates instead of joining twice
+        return (Join<X, Y>) fetch;
+    }
+}
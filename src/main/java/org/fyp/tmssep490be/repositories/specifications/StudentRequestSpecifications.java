@@ -0,0 +1,152 @@
+package org.fyp.tmssep490be.repositories.specifications;
+
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.fyp.tmssep490be.dtos.studentrequest.AARequestFilterDTO;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.Student;
+import org.fyp.tmssep490be.entities.StudentRequest;
+import org.fyp.tmssep490be.entities.UserAccount;
+import org.fyp.tmssep490be.entities.enums.RequestStatus;
+import org.fyp.tmssep490be.entities.enums.StudentRequestType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dynamic queries over StudentRequest for Academic Affairs request lists
+ * All AARequestFilterDTO predicates are applied in the database so pagination metadata is exact
+ */
+public final class StudentRequestSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private StudentRequestSpecifications() {
+    }
+
+    /**
+     * Requests of the given branches matching the AA filter
+     * Data query fetch-joins the to-one graph used by AARequestResponseDTO (student, classes, sessions, users),
+     * count query uses plain joins
+     * @param status Status to match, null to use filter.status (if any)
+     */
+    public static Specification<StudentRequest> matchesAAFilter(List<Long> branchIds, RequestStatus status,
+                                                                AARequestFilterDTO filter) {
+        return (root, query, cb) -> {
+            boolean countQuery = Long.class == query.getResultType() || long.class == query.getResultType();
+
+            Join<StudentRequest, Student> student;
+            Join<Student, UserAccount> studentAccount;
+            Join<StudentRequest, ClassEntity> currentClass;
+            Join<StudentRequest, Session> targetSession;
+            if (countQuery) {
+                student = root.join("student");
+                studentAccount = student.join("userAccount");
+                currentClass = root.join("currentClass");
+                targetSession = root.join("targetSession", JoinType.LEFT);
+            } else {
+                student = asJoin(root.fetch("student"));
+                studentAccount = asJoin(student.fetch("userAccount"));
+                currentClass = asJoin(root.fetch("currentClass"));
+                currentClass.fetch("branch", JoinType.LEFT);
+                targetSession = fetchSession(root, "targetSession");
+                fetchSession(root, "makeupSession");
+                fetchSession(root, "effectiveSession");
+                root.fetch("targetClass", JoinType.LEFT).fetch("branch", JoinType.LEFT);
+                root.fetch("submittedBy", JoinType.LEFT);
+                root.fetch("decidedBy", JoinType.LEFT);
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(currentClass.get("branch").get("id").in(branchIds));
+
+            RequestStatus statusToMatch = status != null ? status
+                    : filter.getStatus() != null ? RequestStatus.valueOf(filter.getStatus()) : null;
+            if (statusToMatch != null) {
+                predicates.add(cb.equal(root.get("status"), statusToMatch));
+            }
+
+            if (filter.getRequestType() != null) {
+                predicates.add(cb.equal(root.get("requestType"), StudentRequestType.valueOf(filter.getRequestType())));
+            }
+
+            if (filter.getDecidedBy() != null) {
+                predicates.add(cb.equal(root.get("decidedBy").get("id"), filter.getDecidedBy()));
+            }
+
+            if (hasText(filter.getStudentName())) {
+                String pattern = containsPattern(filter.getStudentName());
+                predicates.add(cb.or(
+                        cb.like(cb.lower(studentAccount.get("fullName")), pattern, LIKE_ESCAPE),
+                        cb.like(cb.lower(student.get("studentCode")), pattern, LIKE_ESCAPE)));
+            }
+
+            if (hasText(filter.getClassCode())) {
+                predicates.add(cb.like(cb.lower(currentClass.get("code")), containsPattern(filter.getClassCode()), LIKE_ESCAPE));
+            }
+
+            // Requests without target session (e.g. TRANSFER) are not filtered by session date
+            if (filter.getSessionDateFrom() != null) {
+                LocalDate from = LocalDate.parse(filter.getSessionDateFrom());
+                predicates.add(cb.or(cb.isNull(targetSession),
+                        cb.greaterThanOrEqualTo(targetSession.get("date"), from)));
+            }
+            if (filter.getSessionDateTo() != null) {
+                LocalDate to = LocalDate.parse(filter.getSessionDateTo());
+                predicates.add(cb.or(cb.isNull(targetSession),
+                        cb.lessThanOrEqualTo(targetSession.get("date"), to)));
+            }
+
+            if (filter.getSubmittedDateFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("submittedAt"),
+                        startOfDay(LocalDate.parse(filter.getSubmittedDateFrom()))));
+            }
+            if (filter.getSubmittedDateTo() != null) {
+                predicates.add(cb.lessThan(root.get("submittedAt"),
+                        startOfDay(LocalDate.parse(filter.getSubmittedDateTo()).plusDays(1))));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static Join<StudentRequest, Session> fetchSession(Root<StudentRequest> root, String attribute) {
+        Fetch<StudentRequest, Session> session = root.fetch(attribute, JoinType.LEFT);
+        session.fetch("courseSession", JoinType.LEFT);
+        session.fetch("timeSlotTemplate", JoinType.LEFT);
+        return asJoin(session);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <X, Y> Join<X, Y> asJoin(Fetch<X, Y> fetch) {
+        // Hibernate fetches are also joins, reuse them for predicates instead of joining twice
+        return (Join<X, Y>) fetch;
+    }
+
+    /**
+     * Case-insensitive "contains" LIKE pattern, % and _ typed in a search box match literally
+     */
+    private static String containsPattern(String value) {
+        String escaped = value.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static OffsetDateTime startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package org.fyp.tmssep490be.security;
+
+import lombok.RequiredArgsConstructor;
+import org.fyp.tmssep490be.services.UserBranchesService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Branch scope (assigned branch IDs) của user cho các filter phân quyền theo branch
+ * - Giữa các request: cache userBranchIds (UserBranchesService), evict khi UserBranches thay đổi
+ * - Trong một request: gắn vào UserPrincipal của request, các lần gọi sau không cần tra cache
+ */
+@Component
+@RequiredArgsConstructor
+public class BranchScopeResolver {
+
+    private final UserBranchesService userBranchesService;
+
+    /**
+     * Get branch IDs assigned to the user, read-only
+     */
+    public List<Long> getBranchIds(Long userId) {
+        UserPrincipal principal = currentPrincipal(userId);
+        if (principal == null) {
+            // Scheduled jobs, tests or another user's scope
+            return userBranchesService.getBranchIdsByUserId(userId);
+        }
+        List<Long> branchIds = principal.getBranchIds();
+        if (branchIds == null) {
+            branchIds = userBranchesService.getBranchIdsByUserId(userId);
+            principal.setBranchIds(branchIds);
+        }
+        return branchIds;
+    }
+
+    private UserPrincipal currentPrincipal(Long userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getId() != null
+                && principal.getId().equals(userId)) {
+            return principal;
+        }
+        return null;
+    }
+}
@@ -1,11 +1,12 @@
 package org.fyp.tmssep490be.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,12 +22,27 @@ import java.io.IOException;
  * Executes once per request before Spring Security filter chain.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final RevokedTokenFamilyCache revokedTokenFamilyCache;
+    private final boolean resolvePrincipalFromClaims;
+
+    public JwtAuthenticationFilter(
+            JwtTokenProvider jwtTokenProvider,
+            CustomUserDetailsService customUserDetailsService,
+            UserPrincipalCache userPrincipalCache,
+            RevokedTokenFamilyCache revokedTokenFamilyCache,
+            @Value("${spring.security.jwt.principal-source:claims}") String principalSource) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.customUserDetailsService = customUserDetailsService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.revokedTokenFamilyCache = revokedTokenFamilyCache;
+        this.resolvePrincipalFromClaims = "claims".equalsIgnoreCase(principalSource);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,11 +50,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            // Signature is verified once per request (or skipped for a recently verified token)
+            Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.verifyAccessToken(jwt) : null;
+
+            if (claims != null) {
+                Long userId = claims.get("userId", Long.class);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateAccessToken(jwt)) {
-                Long userId = jwtTokenProvider.getUserIdFromJwt(jwt);
+                // Logout / deactivation revoked the token family: in-memory check, no DB read
+                String familyId = claims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class);
+                if (familyId != null && revokedTokenFamilyCache.isRevoked(familyId)) {
+                    log.debug("Skip authentication for revoked token family of user: {}", userId);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+                UserDetails userDetails = resolvePrincipal(userId, claims);
+                if (!userDetails.isEnabled()) {
+                    log.debug("Skip authentication for disabled user: {}", userId);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -57,6 +88,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolve principal for the token.
+     * "claims" mode builds it from token claims (cached per user), falling back to the database
+     * only when the user's status/roles changed after the token was issued.
+     * "database" mode loads the user on every request.
+     */
+    private UserDetails resolvePrincipal(Long userId, Claims claims) {
+        if (!resolvePrincipalFromClaims) {
+            return customUserDetailsService.loadUserById(userId);
+        }
+
+        UserPrincipal cached = userPrincipalCache.get(userId);
+        if (cached != null) {
+            return cached.forRequest();
+        }
+
+        UserPrincipal principal;
+        long loadedAt;
+        if (userPrincipalCache.isInvalidatedAfter(userId, claims.getIssuedAt())) {
+            loadedAt = userPrincipalCache.currentTimeMillis();
+            principal = (UserPrincipal) customUserDetailsService.loadUserById(userId);
+        } else {
+            // Claims reflect the user as of token issue time
+            loadedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+            principal = UserPrincipal.fromClaims(userId, claims.get("email", String.class), claims.get("roles", String.class));
+        }
+        userPrincipalCache.put(principal, loadedAt);
+        return principal.forRequest();
+    }
+
     /**
      * Extract JWT token from Authorization header
      */
@@ -22,15 +22,27 @@ import java.util.stream.Collectors;
 @Slf4j
 public class JwtTokenProvider {
 
+    private static final String TOKEN_TYPE_ACCESS = "access";
+    private static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    // Refresh token family (một lần login), có trong cả access token để filter check revocation
+    public static final String FAMILY_ID_CLAIM = "fid";
+
     private final SecretKey secretKey;
+    // JwtParser is immutable and thread-safe, build it once instead of per call
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final long accessTokenValidityInMs;
     private final long refreshTokenValidityInMs;
 
     public JwtTokenProvider(
             @Value("${spring.security.jwt.secret:ThisIsAVerySecretKeyForJWTTokenGenerationPleaseChangeInProduction123456789}") String secret,
             @Value("${spring.security.jwt.access-token-expiration:900000}") long accessTokenValidityInMs,
-            @Value("${spring.security.jwt.refresh-token-expiration:604800000}") long refreshTokenValidityInMs) {
+            @Value("${spring.security.jwt.refresh-token-expiration:604800000}") long refreshTokenValidityInMs,
+            VerifiedTokenCache verifiedTokenCache) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.verifiedTokenCache = verifiedTokenCache;
         this.accessTokenValidityInMs = accessTokenValidityInMs;
         this.refreshTokenValidityInMs = refreshTokenValidityInMs;
     }
@@ -38,7 +50,7 @@ public class JwtTokenProvider {
     /**
      * Generate access token from authentication
      */
-    public String generateAccessToken(Authentication authentication) {
+    public String generateAccessToken(Authentication authentication, String familyId) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenValidityInMs);
@@ -53,7 +65,8 @@ public class JwtTokenProvider {
                 .claim("userId", userPrincipal.getId())
                 .claim("email", userPrincipal.getEmail())
                 .claim("roles", roles)
-                .claim("type", "access")
+                .claim("type", TOKEN_TYPE_ACCESS)
+                .claim(FAMILY_ID_CLAIM, familyId)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(secretKey, SignatureAlgorithm.HS512)
@@ -63,7 +76,7 @@ public class JwtTokenProvider {
     /**
      * Generate access token from user details (email is used as subject)
      */
-    public String generateAccessToken(Long userId, String email, String roles) {
+    public String generateAccessToken(Long userId, String email, String roles, String familyId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenValidityInMs);
 
@@ -72,7 +85,8 @@ public class JwtTokenProvider {
                 .claim("userId", userId)
                 .claim("email", email)
                 .claim("roles", roles)
-                .claim("type", "access")
+                .claim("type", TOKEN_TYPE_ACCESS)
+                .claim(FAMILY_ID_CLAIM, familyId)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(secretKey, SignatureAlgorithm.HS512)
@@ -81,15 +95,18 @@ public class JwtTokenProvider {
 
     /**
      * Generate refresh token (email is used as subject)
+     * tokenId (jti) is what the refresh token store keeps, hashed; familyId is shared by all rotations of a login
      */
-    public String generateRefreshToken(Long userId, String email) {
+    public String generateRefreshToken(Long userId, String email, String tokenId, String familyId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshTokenValidityInMs);
 
         return Jwts.builder()
+                .setId(tokenId)
                 .setSubject(email)
                 .claim("userId", userId)
-                .claim("type", "refresh")
+                .claim("type", TOKEN_TYPE_REFRESH)
+                .claim(FAMILY_ID_CLAIM, familyId)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(secretKey, SignatureAlgorithm.HS512)
@@ -97,67 +114,60 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Get user ID from JWT token
+     * Verify an access token once and return its claims, null if invalid, expired or not an access token.
+     * Recently verified tokens come from {@link VerifiedTokenCache} without re-checking the signature.
      */
-    public Long getUserIdFromJwt(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.get("userId", Long.class);
+    public Claims verifyAccessToken(String token) {
+        Claims cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = verify(token);
+        if (claims == null || !TOKEN_TYPE_ACCESS.equals(claims.get("type", String.class))) {
+            return null;
+        }
+        verifiedTokenCache.put(token, claims);
+        return claims;
     }
 
     /**
-     * Get email from JWT token (subject is email)
+     * Verify a refresh token and return its claims, null if invalid, expired or not a refresh token
      */
-    public String getEmailFromJwt(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+    public Claims verifyRefreshToken(String token) {
+        Claims claims = verify(token);
+        if (claims == null || !TOKEN_TYPE_REFRESH.equals(claims.get("type", String.class))) {
+            return null;
+        }
+        return claims;
     }
 
     /**
-     * Get token type (access/refresh)
+     * Validate JWT token
      */
-    public String getTokenType(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.get("type", String.class);
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
 
     /**
-     * Get expiration date from token
+     * Validate access token specifically
      */
-    public Date getExpirationDate(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getExpiration();
+    public boolean validateAccessToken(String token) {
+        return verifyAccessToken(token) != null;
     }
 
     /**
-     * Validate JWT token
+     * Validate refresh token specifically
      */
-    public boolean validateToken(String token) {
+    public boolean validateRefreshToken(String token) {
+        return verifyRefreshToken(token) != null;
+    }
+
+    /**
+     * Check signature and expiry once, null if the token is not valid
+     */
+    private Claims verify(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -168,40 +178,17 @@ public class JwtTokenProvider {
             log.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
+        } catch (JwtException ex) {
+            log.error("Invalid JWT token: {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 
     /**
-     * Validate access token specifically
+     * Get refresh token lifetime in milliseconds
      */
-    public boolean validateAccessToken(String token) {
-        if (!validateToken(token)) {
-            return false;
-        }
-        try {
-            String tokenType = getTokenType(token);
-            return "access".equals(tokenType);
-        } catch (Exception e) {
-            log.error("Error validating access token type", e);
-            return false;
-        }
-    }
-
-    /**
-     * Validate refresh token specifically
-     */
-    public boolean validateRefreshToken(String token) {
-        if (!validateToken(token)) {
-            return false;
-        }
-        try {
-            String tokenType = getTokenType(token);
-            return "refresh".equals(tokenType);
-        } catch (Exception e) {
-            log.error("Error validating refresh token type", e);
-            return false;
-        }
+    public long getRefreshTokenValidityInMs() {
+        return refreshTokenValidityInMs;
     }
 
     /**
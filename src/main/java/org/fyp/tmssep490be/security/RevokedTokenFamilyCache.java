@@ -0,0 +1,92 @@
+package org.fyp.tmssep490be.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.entities.enums.RefreshTokenStatus;
+import org.fyp.tmssep490be.repositories.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-memory front of the refresh_token revocation list: familyId → time it can be forgotten.
+ * Access tokens carry their family id, so the JWT filter rejects tokens of a revoked family without a DB read.
+ * An entry is kept for one access token lifetime, after that every access token of the family has expired
+ * and refresh rotation rejects the family from the token rows.
+ * A live revocation is never evicted: when the cache is full, new revocations stay in the database only
+ * and lookups fall back to it until those revocations would have expired.
+ */
+@Component
+@Slf4j
+public class RevokedTokenFamilyCache {
+
+    private final long retentionInMs;
+    private final int maxSize;
+    private final Predicate<String> revokedInDatabase;
+    private final Clock clock;
+
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    // Revocations not kept in memory because the cache was full may be live until this time
+    private final AtomicLong overflowUntil = new AtomicLong();
+
+    @Autowired
+    public RevokedTokenFamilyCache(
+            @Value("${spring.security.jwt.access-token-expiration:900000}") long accessTokenValidityInMs,
+            @Value("${spring.security.jwt.refresh-token-store.revoked-families-max-size:100000}") int maxSize,
+            RefreshTokenRepository refreshTokenRepository) {
+        this(accessTokenValidityInMs, maxSize,
+                familyId -> refreshTokenRepository.existsByFamilyIdAndStatus(familyId, RefreshTokenStatus.REVOKED),
+                Clock.systemUTC());
+    }
+
+    RevokedTokenFamilyCache(long retentionInMs, int maxSize, Predicate<String> revokedInDatabase, Clock clock) {
+        this.retentionInMs = retentionInMs;
+        this.maxSize = maxSize;
+        this.revokedInDatabase = revokedInDatabase;
+        this.clock = clock;
+    }
+
+    public boolean isRevoked(String familyId) {
+        long now = clock.millis();
+        Long until = revokedUntil.get(familyId);
+        if (until != null) {
+            if (until > now) {
+                return true;
+            }
+            revokedUntil.remove(familyId, until);
+        }
+        return overflowUntil.get() > now && revokedInDatabase.test(familyId);
+    }
+
+    public void revoke(String familyId) {
+        long now = clock.millis();
+        add(familyId, now + retentionInMs, now);
+    }
+
+    public void revokeAll(Collection<String> familyIds) {
+        long now = clock.millis();
+        long until = now + retentionInMs;
+        familyIds.forEach(familyId -> add(familyId, until, now));
+    }
+
+    private void add(String familyId, long until, long now) {
+        if (revokedUntil.size() >= maxSize && !revokedUntil.containsKey(familyId)) {
+            revokedUntil.values().removeIf(expiresAt -> expiresAt <= now);
+            if (revokedUntil.size() >= maxSize) {
+                if (overflowUntil.getAndAccumulate(until, Math::max) <= now) {
+                    log.warn("Revoked token family cache is full ({} entries), checking revocations against the database",
+                            maxSize);
+                }
+                return;
+            }
+        }
+        revokedUntil.merge(familyId, until, Math::max);
+    }
+}
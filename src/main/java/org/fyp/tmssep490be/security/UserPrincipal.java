@@ -1,7 +1,7 @@
 package org.fyp.tmssep490be.security;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import org.fyp.tmssep490be.entities.UserAccount;
 import org.fyp.tmssep490be.entities.UserRole;
 import org.fyp.tmssep490be.entities.enums.UserStatus;
@@ -9,7 +9,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -17,7 +19,6 @@ import java.util.stream.Collectors;
  * Note: email is used as username for authentication
  */
 @Data
-@AllArgsConstructor
 public class UserPrincipal implements UserDetails {
 
     private Long id;
@@ -27,6 +28,20 @@ public class UserPrincipal implements UserDetails {
     private UserStatus status;
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Branch IDs from user_branches, resolved lazily by BranchScopeResolver for the current request only
+    @EqualsAndHashCode.Exclude
+    private List<Long> branchIds;
+
+    public UserPrincipal(Long id, String email, String passwordHash, String fullName, UserStatus status,
+                         Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.fullName = fullName;
+        this.status = status;
+        this.authorities = authorities;
+    }
+
     /**
      * Create UserPrincipal from UserAccount entity
      */
@@ -46,6 +61,37 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Create UserPrincipal from access token claims (no database access).
+     * Roles claim is comma separated, with or without the "ROLE_" prefix.
+     * Status is ACTIVE because tokens are only issued to authenticated users.
+     */
+    public static UserPrincipal fromClaims(Long userId, String email, String roles) {
+        Collection<GrantedAuthority> authorities = roles == null ? List.of() : Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserPrincipal(
+                userId,
+                email,
+                null,
+                null,
+                UserStatus.ACTIVE,
+                authorities
+        );
+    }
+
+    /**
+     * Copy for one request: identity and authorities are shared, request state (branch scope) is not.
+     * Principals kept in UserPrincipalCache are handed out through this so branch IDs never outlive a request.
+     */
+    public UserPrincipal forRequest() {
+        return new UserPrincipal(id, email, passwordHash, fullName, status, authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,117 @@
+package org.fyp.tmssep490be.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolved principals keyed by user ID, bounded by max-size and expired ttl after they were cached.
+ * When a user's status or roles change, the entry is evicted and access tokens issued before the change
+ * are resolved from the database again until they expire (claims of those tokens may be stale).
+ * A principal loaded before the last change is never cached, so a request racing with invalidate()
+ * cannot put the old roles back.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    private final long invalidationRetentionInMs;
+    private final Clock clock;
+
+    private final Cache<Long, UserPrincipal> principals;
+
+    // userId -> time of last status/role change, kept for one access token lifetime
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserPrincipalCache(
+            @Value("${spring.security.jwt.principal-cache.ttl:300000}") long ttlInMs,
+            @Value("${spring.security.jwt.principal-cache.max-size:10000}") int maxSize,
+            @Value("${spring.security.jwt.access-token-expiration:900000}") long accessTokenValidityInMs) {
+        this(ttlInMs, maxSize, accessTokenValidityInMs, Clock.systemUTC());
+    }
+
+    UserPrincipalCache(long ttlInMs, int maxSize, long accessTokenValidityInMs, Clock clock) {
+        this.invalidationRetentionInMs = accessTokenValidityInMs;
+        this.clock = clock;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlInMs))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Get cached principal, null if absent or expired
+     */
+    public UserPrincipal get(Long userId) {
+        return principals.getIfPresent(userId);
+    }
+
+    /**
+     * Current time on the cache clock, taken before loading a principal and passed to {@link #put}
+     */
+    public long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    /**
+     * Cache a principal built from data as of loadedAt (token iat or start of the database load).
+     * Ignored when the user changed at or after loadedAt.
+     */
+    public void put(UserPrincipal principal, long loadedAt) {
+        Long userId = principal.getId();
+        if (isChangedSince(userId, loadedAt)) {
+            return;
+        }
+        principals.put(userId, principal);
+        // invalidate() records the change before evicting: re-check to drop a put that raced with it
+        if (isChangedSince(userId, loadedAt)) {
+            principals.asMap().remove(userId, principal);
+        }
+    }
+
+    /**
+     * Check whether the user's status or roles changed after the token was issued
+     */
+    public boolean isInvalidatedAfter(Long userId, Date issuedAt) {
+        Long changedAt = invalidatedAt.get(userId);
+        if (changedAt == null) {
+            return false;
+        }
+        if (changedAt + invalidationRetentionInMs <= clock.millis()) {
+            // Every token issued before the change has expired by now
+            invalidatedAt.remove(userId, changedAt);
+            return false;
+        }
+        // iat has second precision, treat a token issued in the same second as stale
+        return issuedAt == null || issuedAt.getTime() <= changedAt;
+    }
+
+    /**
+     * Evict user after a status or role change
+     */
+    public void invalidate(Long userId) {
+        long now = clock.millis();
+        invalidatedAt.put(userId, now);
+        invalidatedAt.values().removeIf(changedAt -> changedAt + invalidationRetentionInMs <= now);
+        principals.invalidate(userId);
+        log.debug("Invalidated cached principal for user: {}", userId);
+    }
+
+    private boolean isChangedSince(Long userId, long loadedAt) {
+        Long changedAt = invalidatedAt.get(userId);
+        return changedAt != null && changedAt >= loadedAt;
+    }
+}
@@ -0,0 +1,97 @@
+package org.fyp.tmssep490be.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recently verified access tokens: SHA-256 digest of the token → verified claims.
+ * SPA clients fire many parallel requests with the same token, a hit skips signature check and JSON parsing.
+ * Caffeine bounds the size and drops entries one access token lifetime after they were written;
+ * an entry is also ignored once the token's own exp has passed. The raw token is not kept in memory.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Clock clock;
+
+    // null when disabled (max-size 0)
+    private final Cache<String, CachedClaims> entries;
+
+    @Autowired
+    public VerifiedTokenCache(
+            @Value("${spring.security.jwt.verified-cache.max-size:10000}") int maxSize,
+            @Value("${spring.security.jwt.access-token-expiration:900000}") long accessTokenValidityInMs) {
+        this(maxSize, accessTokenValidityInMs, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(int maxSize, long accessTokenValidityInMs, Clock clock) {
+        this.clock = clock;
+        this.entries = maxSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(accessTokenValidityInMs))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                // Eviction runs on the calling thread instead of a ForkJoinPool task per write
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Get verified claims for the token, null if absent or the token has expired
+     */
+    public Claims get(String token) {
+        if (entries == null) {
+            return null;
+        }
+        String key = digest(token);
+        CachedClaims cached = entries.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt <= clock.millis()) {
+            entries.invalidate(key);
+            return null;
+        }
+        return cached.claims;
+    }
+
+    /**
+     * Cache claims of a token whose signature has just been verified
+     */
+    public void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (entries == null || expiration == null) {
+            return;
+        }
+        entries.put(digest(token), new CachedClaims(claims, expiration.getTime()));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedClaims {
+        private final Claims claims;
+        private final long expiresAt;
+    }
+}
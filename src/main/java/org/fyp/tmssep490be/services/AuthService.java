@@ -5,7 +5,7 @@ import org.fyp.tmssep490be.dtos.auth.LoginRequest;
 import org.fyp.tmssep490be.dtos.auth.RefreshTokenRequest;
 
 /**
- * Authentication service interface - simplified without database-stored refresh tokens
+ * Authentication service interface - refresh tokens are rotated and revocable server-side
  */
 public interface AuthService {
 
@@ -15,7 +15,12 @@ public interface AuthService {
     AuthResponse login(LoginRequest request);
 
     /**
-     * Refresh access token using refresh token (validates JWT only, no DB lookup)
+     * Refresh access token using refresh token (rotates the refresh token, detects reuse)
      */
     AuthResponse refreshToken(RefreshTokenRequest request);
+
+    /**
+     * Revoke the refresh token family of the session (refresh token preferred, else access token)
+     */
+    void logout(String refreshToken, String accessToken);
 }
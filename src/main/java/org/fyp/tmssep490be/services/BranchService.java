@@ -8,6 +8,7 @@ import java.util.List;
 public interface BranchService {
     /**
      * Get all active branches
+     * Cached, returned list is shared between callers and must not be modified
      * @return List of all active branches
      */
     List<BranchDTO> getAllBranches();
@@ -13,6 +13,7 @@ public interface CurriculumService {
     /**
      * Get all subjects with their levels
      * Used for dropdown/select components when creating student skill assessments
+     * Cached, returned list is shared between callers and must not be modified
      *
      * @return List of subjects with their levels sorted by subject name and level order
      */
@@ -4,6 +4,7 @@ import org.fyp.tmssep490be.dtos.enrollment.StudentEnrollmentData;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service để parse Excel file thành student enrollment data
@@ -17,4 +18,15 @@ public interface ExcelParserService {
      * @throws org.fyp.tmssep490be.exceptions.CustomException if file format is invalid
      */
     List<StudentEnrollmentData> parseStudentEnrollment(MultipartFile file);
+
+    /**
+     * Parse Excel file theo kiểu streaming, mỗi row được emit ngay khi đọc xong
+     * Row lỗi được emit với status ERROR và errorMessage "Row n: ..."
+     *
+     * @param file       Excel file (.xlsx)
+     * @param rowHandler Nhận từng StudentEnrollmentData theo thứ tự trong sheet
+     * @return Số row đã emit
+     * @throws org.fyp.tmssep490be.exceptions.CustomException if file format is invalid or exceeds the row limit
+     */
+    int parseStudentEnrollment(MultipartFile file, Consumer<StudentEnrollmentData> rowHandler);
 }
@@ -2,5 +2,13 @@ package org.fyp.tmssep490be.services;
 
 import org.fyp.tmssep490be.entities.Level;
 
+import java.util.Optional;
+
 public interface LevelService {
+
+    /**
+     * Find level ID by code (case-insensitive), cached
+     * Dùng levelRepository.getReferenceById(id) khi cần gán Level cho entity khác
+     */
+    Optional<Long> findLevelIdByCode(String code);
 }
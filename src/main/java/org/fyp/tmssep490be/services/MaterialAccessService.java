@@ -1,10 +1,19 @@
 package org.fyp.tmssep490be.services;
 
-import org.fyp.tmssep490be.entities.CourseMaterial;
+import java.util.Collection;
+import java.util.Map;
 
 public interface MaterialAccessService {
     boolean canAccessMaterial(Long studentId, Long materialId);
     boolean canAccessCourseLevelMaterial(Long studentId, Long courseId);
     boolean canAccessPhaseLevelMaterial(Long studentId, Long phaseId);
     boolean canAccessSessionLevelMaterial(Long studentId, Long sessionId);
+
+    /**
+     * Check nhiều materials của một course cùng lúc
+     * Enrollment, unlocked phases và completed sessions được tính một lần cho cả batch
+     *
+     * @return materialId -> accessible (material không tồn tại hoặc thuộc course khác: false)
+     */
+    Map<Long, Boolean> canAccessMaterials(Long studentId, Long courseId, Collection<Long> materialIds);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package org.fyp.tmssep490be.services;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Refresh token family store: rotation on every refresh, reuse detection and server-side revocation
+ */
+public interface RefreshTokenService {
+
+    /**
+     * Issue the first refresh token of a new family (login)
+     */
+    IssuedRefreshToken issue(Long userId, String email);
+
+    /**
+     * Rotate a verified refresh token: the presented token becomes unusable and a new one of the same family is issued.
+     * Presenting an already rotated token is treated as theft and revokes the whole family.
+     * @throws org.fyp.tmssep490be.exceptions.InvalidTokenException if the token is unknown, rotated or revoked
+     */
+    IssuedRefreshToken rotate(Claims refreshTokenClaims);
+
+    /**
+     * Revoke every token of the family (logout)
+     */
+    void revokeFamily(String familyId);
+
+    /**
+     * Revoke every family of the user (account deactivation)
+     */
+    void revokeAllForUser(Long userId);
+
+    record IssuedRefreshToken(String token, String familyId) {
+    }
+}
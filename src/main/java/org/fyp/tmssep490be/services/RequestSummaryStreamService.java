@@ -0,0 +1,23 @@
+package org.fyp.tmssep490be.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+public interface RequestSummaryStreamService {
+    /**
+     * Mở SSE stream pending summary trong branch scope của Academic Affairs user
+     * Gửi summary hiện tại ngay khi subscribe, sau đó mỗi lần request trong scope đổi trạng thái
+     *
+     * @param currentUserId User đang subscribe
+     * @param branchId Chỉ theo dõi một branch (phải thuộc scope của user), null = toàn bộ scope
+     */
+    SseEmitter subscribe(Long currentUserId, Long branchId);
+
+    /**
+     * Tính lại summary cho các subscriber có scope chứa branch của các class và push (sau commit)
+     *
+     * @param classIds current class của các request vừa được submit/approve/reject/cancel
+     */
+    void publish(Collection<Long> classIds);
+}
@@ -0,0 +1,20 @@
+package org.fyp.tmssep490be.services;
+
+import org.fyp.tmssep490be.dtos.teacherrequest.RescheduleSlotAvailabilityDTO;
+import org.fyp.tmssep490be.entities.Session;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReschedulePlannerService {
+
+    /**
+     * Evaluate every time slot x resource pair of a date for rescheduling a session
+     * Uses a fixed number of bulk queries regardless of number of time slots and resources
+     * @param session Session to reschedule
+     * @param teacherId Teacher who will teach the rescheduled session
+     * @param date Target date
+     * @return One entry per time slot, ordered by start time
+     */
+    List<RescheduleSlotAvailabilityDTO> buildAvailabilityGrid(Session session, Long teacherId, LocalDate date);
+}
@@ -2,5 +2,13 @@ package org.fyp.tmssep490be.services;
 
 import org.fyp.tmssep490be.entities.Role;
 
+import java.util.Optional;
+
 public interface RoleService {
+
+    /**
+     * Find role ID by code (e.g., "STUDENT"), cached
+     * Dùng roleRepository.getReferenceById(id) khi cần gán Role cho entity khác
+     */
+    Optional<Long> findRoleIdByCode(String code);
 }
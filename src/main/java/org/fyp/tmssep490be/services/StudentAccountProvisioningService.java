@@ -0,0 +1,26 @@
+package org.fyp.tmssep490be.services;
+
+import org.fyp.tmssep490be.dtos.enrollment.StudentEnrollmentData;
+
+import java.util.List;
+
+public interface StudentAccountProvisioningService {
+    /**
+     * BCrypt hash cho temporary password của count account, chạy song song
+     * Gọi trước khi mở transaction: hash là CPU-bound, không giữ connection/lock trong lúc chờ
+     */
+    List<String> hashTemporaryPasswords(int count);
+
+    /**
+     * Bulk tạo student account (user_account, student, user_role, user_branches) cho Excel import
+     * Transaction chỉ gồm reserve ids từ sequence theo block và insert bằng JDBC batch
+     *
+     * @param students Rows cần tạo (status CREATE), email chưa tồn tại
+     * @param passwordHashes Hash từ hashTemporaryPasswords, theo đúng thứ tự students
+     * @param branchId Branch gán cho student mới
+     * @param assignedBy User ID thực hiện import (user_branches.assigned_by)
+     * @return Student IDs theo đúng thứ tự của students
+     */
+    List<Long> provisionStudents(List<StudentEnrollmentData> students, List<String> passwordHashes,
+                                 Long branchId, Long assignedBy);
+}
@@ -0,0 +1,16 @@
+package org.fyp.tmssep490be.services;
+
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+public interface StudentConflictService {
+    Set<Long> findConflictingStudentIds(Long sessionId, LocalDate date, Long timeSlotTemplateId);
+    boolean hasStudentConflicts(Long sessionId, LocalDate date, Long timeSlotTemplateId);
+    Set<Long> findConflictingTimeSlotIds(Long sessionId, LocalDate date);
+    boolean hasScheduleConflict(Long studentId, LocalDate date, TimeSlotTemplate timeSlot);
+    Set<Long> findConflictingSessionIds(Long studentId, List<Session> candidateSessions);
+}
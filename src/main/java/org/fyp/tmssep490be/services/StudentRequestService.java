@@ -34,6 +34,11 @@ public interface StudentRequestService {
     StudentRequestResponseDTO rejectRequest(Long requestId, Long decidedById, RejectionDTO dto);
     RequestSummaryDTO getRequestSummary(Long currentUserId, AARequestFilterDTO filter);
 
+    /**
+     * Pending summary of branches already resolved against the user's scope (summary stream)
+     */
+    RequestSummaryDTO getRequestSummaryByBranches(List<Long> branchIds);
+
     // AA on-behalf operations
     MissedSessionsResponseDTO getMissedSessionsForStudent(Long studentId, Integer weeksBack);
     MakeupOptionsResponseDTO getMakeupOptionsForStudent(Long targetSessionId, Long studentId);
@@ -48,6 +53,11 @@ public interface StudentRequestService {
     boolean isValidTransfer(Long currentClassId, Long targetClassId);
     void executeTransfer(StudentRequest request);
 
+    /**
+     * Approve and execute several pending transfer requests as one batch (all-or-nothing)
+     */
+    List<StudentRequestResponseDTO> approveTransferRequests(List<Long> requestIds, Long decidedById, String note);
+
     // Student Schedule methods for AA
     WeeklyScheduleResponseDTO getWeeklySchedule(Long studentId, LocalDate weekStart);
     WeeklyScheduleResponseDTO getWeeklyScheduleByClass(Long studentId, Long classId, LocalDate weekStart);
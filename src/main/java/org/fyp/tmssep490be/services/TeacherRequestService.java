@@ -2,6 +2,7 @@ package org.fyp.tmssep490be.services;
 
 import org.fyp.tmssep490be.dtos.teacherrequest.*;
 import org.fyp.tmssep490be.entities.enums.RequestStatus;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -99,6 +100,16 @@ public interface TeacherRequestService {
      */
     List<ModalityResourceSuggestionDTO> suggestModalityResourcesForStaff(Long requestId);
 
+    /**
+     * Full availability grid (time slot x resource) for rescheduling a session on a given date
+     */
+    List<RescheduleSlotAvailabilityDTO> getRescheduleAvailability(Long sessionId, java.time.LocalDate date, Long userId);
+
+    /**
+     * Full availability grid for rescheduling a request (Staff only)
+     */
+    List<RescheduleSlotAvailabilityDTO> getRescheduleAvailabilityForStaff(Long requestId, java.time.LocalDate date);
+
     /**
      * Get teacher's future sessions (7 days from today or specific date)
      * @param userId Current authenticated user ID
@@ -111,16 +122,18 @@ public interface TeacherRequestService {
      * Suggest replacement candidate teachers for a session
      * @param sessionId Session ID to find replacement for
      * @param userId Current authenticated user ID
+     * @param pageable Page of the ranking to return (top-K)
      * @return List of candidate teachers sorted by priority
      */
-    List<ReplacementCandidateDTO> suggestReplacementCandidates(Long sessionId, Long userId);
+    List<ReplacementCandidateDTO> suggestReplacementCandidates(Long sessionId, Long userId, Pageable pageable);
 
     /**
      * Suggest replacement candidate teachers for a request (Staff only)
      * @param requestId Request ID to find replacement for
+     * @param pageable Page of the ranking to return (top-K)
      * @return List of candidate teachers sorted by priority
      */
-    List<ReplacementCandidateDTO> suggestReplacementCandidatesForStaff(Long requestId);
+    List<ReplacementCandidateDTO> suggestReplacementCandidatesForStaff(Long requestId, Pageable pageable);
 
     /**
      * Confirm replacement request (Replacement Teacher only)
@@ -1,6 +1,15 @@
 package org.fyp.tmssep490be.services;
 
+import org.fyp.tmssep490be.dtos.schedule.TimeSlotDTO;
 import org.fyp.tmssep490be.entities.TimeSlotTemplate;
 
+import java.util.List;
+
 public interface TimeSlotTemplateService {
+
+    /**
+     * Get time slot templates of a branch ordered by start time, cached
+     * Returned list is shared between callers and must not be modified
+     */
+    List<TimeSlotDTO> getTimeSlotsByBranch(Long branchId);
 }
@@ -2,5 +2,13 @@ package org.fyp.tmssep490be.services;
 
 import org.fyp.tmssep490be.entities.UserBranches;
 
+import java.util.List;
+
 public interface UserBranchesService {
+
+    /**
+     * Get IDs of the branches assigned to the user, cached per user
+     * Đọc qua BranchScopeResolver để chỉ resolve một lần mỗi request
+     */
+    List<Long> getBranchIdsByUserId(Long userId);
 }
@@ -194,34 +194,50 @@ public class AttendanceServiceImpl implements AttendanceService {
                 && previousSession.getCourseSession().getStudentTask() != null
                 && !previousSession.getCourseSession().getStudentTask().trim().isEmpty();
 
-        OffsetDateTime now = OffsetDateTime.now();
+        // Load all student sessions of this session once, keyed by student
+        Map<Long, StudentSession> studentSessionsByStudentId = studentSessionRepository.findBySessionId(sessionId).stream()
+                .collect(Collectors.toMap(ss -> ss.getId().getStudentId(), ss -> ss, (a, b) -> a, LinkedHashMap::new));
+
+        // Validate every record before applying any change
         for (AttendanceRecordDTO record : request.getRecords()) {
-            StudentSession.StudentSessionId id = new StudentSession.StudentSessionId(record.getStudentId(), sessionId);
-            StudentSession studentSession = studentSessionRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Student is not part of this session"));
-            studentSession.setAttendanceStatus(record.getAttendanceStatus());
-            
-            // Validate homework status: only allow COMPLETED/INCOMPLETE if previous session has homework
-            // Allow NO_HOMEWORK if previous session has no homework
-            if (record.getHomeworkStatus() != null) {
-                if (!hasPreviousHomework && record.getHomeworkStatus() != HomeworkStatus.NO_HOMEWORK) {
-                    throw new IllegalArgumentException(
-                            "Cannot set homework status to " + record.getHomeworkStatus() + 
-                            " because previous session has no homework assignment");
-                }
-                if (hasPreviousHomework && record.getHomeworkStatus() == HomeworkStatus.NO_HOMEWORK) {
-                    throw new IllegalArgumentException(
-                            "Cannot set homework status to NO_HOMEWORK because previous session has homework assignment");
-                }
+            if (!studentSessionsByStudentId.containsKey(record.getStudentId())) {
+                throw new ResourceNotFoundException("Student is not part of this session");
             }
-            
-            studentSession.setHomeworkStatus(record.getHomeworkStatus());
-            studentSession.setNote(record.getNote());
-            studentSession.setRecordedAt(now);
+            validateHomeworkStatus(record.getHomeworkStatus(), hasPreviousHomework);
         }
 
-        List<StudentSession> updatedSessions = studentSessionRepository.findBySessionId(sessionId);
-        AttendanceSummaryDTO summary = buildSummary(updatedSessions);
+        // Last record wins when a student is sent twice
+        Map<Long, AttendanceRecordDTO> recordsByStudentId = new LinkedHashMap<>();
+        for (AttendanceRecordDTO record : request.getRecords()) {
+            recordsByStudentId.put(record.getStudentId(), record);
+        }
+
+        // One bulk UPDATE per distinct attendance/homework/note, scoped by student ids and session status
+        Map<AttendanceValues, List<Long>> studentIdsByValues = new LinkedHashMap<>();
+        recordsByStudentId.forEach((studentId, record) -> {
+            AttendanceValues values = new AttendanceValues(
+                    record.getAttendanceStatus(), record.getHomeworkStatus(), record.getNote());
+            studentIdsByValues.computeIfAbsent(values, key -> new ArrayList<>()).add(studentId);
+        });
+        OffsetDateTime now = OffsetDateTime.now();
+        int updated = 0;
+        for (Map.Entry<AttendanceValues, List<Long>> entry : studentIdsByValues.entrySet()) {
+            AttendanceValues values = entry.getKey();
+            updated += studentSessionRepository.updateAttendance(sessionId, entry.getValue(),
+                    values.attendanceStatus(), values.homeworkStatus(), values.note(), now);
+        }
+        if (updated < recordsByStudentId.size()) {
+            // Session vừa được submit report (DONE) bởi transaction khác
+            throw new CustomException(ErrorCode.SESSION_ALREADY_DONE);
+        }
+
+        // Summary from the fetched rows with the recorded statuses, no re-query
+        List<AttendanceStatus> statuses = studentSessionsByStudentId.entrySet().stream()
+                .map(entry -> recordsByStudentId.containsKey(entry.getKey())
+                        ? recordsByStudentId.get(entry.getKey()).getAttendanceStatus()
+                        : entry.getValue().getAttendanceStatus())
+                .toList();
+        AttendanceSummaryDTO summary = buildSummaryFromStatuses(statuses);
 
         return AttendanceSaveResponseDTO.builder()
                 .sessionId(sessionId)
@@ -306,11 +322,16 @@ public class AttendanceServiceImpl implements AttendanceService {
     @Transactional
     public SessionReportResponseDTO submitSessionReport(Long teacherId, Long sessionId, SessionReportSubmitDTO request) {
         assertOwnership(teacherId, sessionId);
+        // Mark session as DONE upon report submission
+        int updated = sessionRepository.markDoneWithTeacherNote(
+                List.of(sessionId), request.getTeacherNote(), OffsetDateTime.now());
+        // Load after the update (persistence context cleared) so the response reflects it
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
-        session.setTeacherNote(request.getTeacherNote());
-        // Mark session as DONE upon report submission
-        session.setStatus(SessionStatus.DONE);
+        if (updated == 0) {
+            // Cancelled session
+            throw new CustomException(ErrorCode.SESSION_NOT_PLANNED);
+        }
 
         // Force load related entities
         if (session.getTimeSlotTemplate() != null) {
@@ -354,12 +375,12 @@ public class AttendanceServiceImpl implements AttendanceService {
             throw new ResourceNotFoundException("Class has no sessions");
         }
 
-        boolean ownsAtLeastOne = sessions.stream()
-                .anyMatch(session -> teachingSlotRepository.existsByIdSessionIdAndIdTeacherIdAndStatusIn(
-                        session.getId(),
-                        teacherId,
-                        OWNERSHIP_STATUSES
-                ));
+        List<Long> sessionIds = sessions.stream().map(Session::getId).toList();
+        boolean ownsAtLeastOne = teachingSlotRepository.existsByIdSessionIdInAndIdTeacherIdAndStatusIn(
+                sessionIds,
+                teacherId,
+                OWNERSHIP_STATUSES
+        );
 
         if (!ownsAtLeastOne) {
             throw new AccessDeniedException("Teacher does not own this class");
@@ -371,7 +392,6 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .map(Enrollment::getStudentId)
                 .collect(Collectors.toSet());
 
-        List<Long> sessionIds = sessions.stream().map(Session::getId).toList();
         Map<Long, List<StudentSession>> sessionStudentMap = studentSessionRepository.findBySessionIds(sessionIds)
                 .stream()
                 .filter(ss -> enrolledStudentIds.contains(ss.getStudent().getId())) // Only include enrolled students
@@ -469,8 +489,8 @@ public class AttendanceServiceImpl implements AttendanceService {
 
         ClassEntity classEntity = sessions.get(0).getClassEntity();
         
-        // Tính tỷ lệ chuyên cần của cả lớp
-        double classAttendanceRate = calculateClassAttendanceRate(classId);
+        // Tính tỷ lệ chuyên cần của cả lớp (enrolled students already loaded above)
+        double classAttendanceRate = calculateClassAttendanceRate(classId, enrolledStudentIds);
 
         return AttendanceMatrixDTO.builder()
                 .classId(classId)
@@ -542,7 +562,10 @@ public class AttendanceServiceImpl implements AttendanceService {
     }
 
     private AttendanceStatus resolveDisplayStatus(StudentSession studentSession) {
-        AttendanceStatus status = studentSession.getAttendanceStatus();
+        return resolveDisplayStatus(studentSession.getAttendanceStatus());
+    }
+
+    private AttendanceStatus resolveDisplayStatus(AttendanceStatus status) {
         if (status == null || status == AttendanceStatus.PLANNED) {
             return AttendanceStatus.ABSENT;
         }
@@ -570,12 +593,35 @@ public class AttendanceServiceImpl implements AttendanceService {
         return status;
     }
 
+    /**
+     * Validate homework status: only allow COMPLETED/INCOMPLETE if previous session has homework
+     * Allow NO_HOMEWORK if previous session has no homework
+     */
+    private void validateHomeworkStatus(HomeworkStatus homeworkStatus, boolean hasPreviousHomework) {
+        if (homeworkStatus == null) {
+            return;
+        }
+        if (!hasPreviousHomework && homeworkStatus != HomeworkStatus.NO_HOMEWORK) {
+            throw new IllegalArgumentException(
+                    "Cannot set homework status to " + homeworkStatus +
+                    " because previous session has no homework assignment");
+        }
+        if (hasPreviousHomework && homeworkStatus == HomeworkStatus.NO_HOMEWORK) {
+            throw new IllegalArgumentException(
+                    "Cannot set homework status to NO_HOMEWORK because previous session has homework assignment");
+        }
+    }
+
     private AttendanceSummaryDTO buildSummary(Collection<StudentSession> studentSessions) {
-        int total = studentSessions.size();
+        return buildSummaryFromStatuses(studentSessions.stream().map(StudentSession::getAttendanceStatus).toList());
+    }
+
+    private AttendanceSummaryDTO buildSummaryFromStatuses(Collection<AttendanceStatus> attendanceStatuses) {
+        int total = attendanceStatuses.size();
         int present = 0;
         int absent = 0;
-        for (StudentSession ss : studentSessions) {
-            AttendanceStatus status = resolveDisplayStatus(ss);
+        for (AttendanceStatus attendanceStatus : attendanceStatuses) {
+            AttendanceStatus status = resolveDisplayStatus(attendanceStatus);
             if (status == AttendanceStatus.PRESENT) {
                 present++;
             } else {
@@ -682,44 +728,50 @@ public class AttendanceServiceImpl implements AttendanceService {
      * Each student's rate = PRESENT sessions / (PRESENT + ABSENT sessions) [excluding PLANNED]
      */
     private double calculateClassAttendanceRate(Long classId) {
-        List<Enrollment> enrollments = enrollmentRepository.findByClassIdAndStatus(
-                classId, EnrollmentStatus.ENROLLED);
-        
-        if (enrollments.isEmpty()) {
+        Set<Long> enrolledStudentIds = enrollmentRepository.findByClassIdAndStatus(classId, EnrollmentStatus.ENROLLED)
+                .stream()
+                .map(Enrollment::getStudentId)
+                .collect(Collectors.toSet());
+        return calculateClassAttendanceRate(classId, enrolledStudentIds);
+    }
+
+    /**
+     * Same as calculateClassAttendanceRate(classId) for an already loaded set of enrolled students
+     * Uses one GROUP BY (student, attendance status) query instead of one query per student
+     */
+    private double calculateClassAttendanceRate(Long classId, Set<Long> enrolledStudentIds) {
+        if (enrolledStudentIds.isEmpty()) {
             return 0.0;
         }
 
-        double totalRate = 0.0;
-        int studentCount = 0;
-
-        for (Enrollment enrollment : enrollments) {
-            Long studentId = enrollment.getStudentId();
-            List<StudentSession> studentSessions = studentSessionRepository
-                    .findByStudentIdAndClassEntityId(studentId, classId);
-
-            // Count PRESENT and ABSENT (exclude PLANNED)
-            int present = 0;
-            int absent = 0;
-            for (StudentSession ss : studentSessions) {
-                AttendanceStatus status = ss.getAttendanceStatus();
-                if (status == null) continue;
-                if (status == AttendanceStatus.PRESENT) {
-                    present++;
-                } else if (status == AttendanceStatus.ABSENT) {
-                    absent++;
-                }
+        // Count PRESENT and ABSENT per student (exclude PLANNED)
+        Map<Long, long[]> presentAbsentByStudent = new HashMap<>();
+        for (StudentSessionRepository.StudentAttendanceCount row : studentSessionRepository
+                .countAttendanceByClassIdGroupByStudent(classId, enrolledStudentIds)) {
+            long[] counts = presentAbsentByStudent.computeIfAbsent(row.getStudentId(), k -> new long[2]);
+            if (row.getAttendanceStatus() == AttendanceStatus.PRESENT) {
+                counts[0] += row.getTotal();
+            } else if (row.getAttendanceStatus() == AttendanceStatus.ABSENT) {
+                counts[1] += row.getTotal();
             }
+        }
 
-            // Calculate rate for this student
-            int total = present + absent;
+        double totalRate = 0.0;
+        int studentCount = 0;
+        for (long[] counts : presentAbsentByStudent.values()) {
+            long total = counts[0] + counts[1];
             if (total > 0) {
-                double studentRate = (double) present / total;
-                totalRate += studentRate;
+                totalRate += (double) counts[0] / total;
                 studentCount++;
             }
         }
 
         return studentCount == 0 ? 0.0 : totalRate / studentCount;
     }
-}
 
+    /**
+     * Giá trị điểm danh ghi chung cho một nhóm học viên
+     */
+    private record AttendanceValues(AttendanceStatus attendanceStatus, HomeworkStatus homeworkStatus, String note) {
+    }
+}
@@ -1,16 +1,20 @@
 package org.fyp.tmssep490be.services.impl;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.fyp.tmssep490be.dtos.auth.AuthResponse;
 import org.fyp.tmssep490be.dtos.auth.LoginRequest;
 import org.fyp.tmssep490be.dtos.auth.RefreshTokenRequest;
 import org.fyp.tmssep490be.entities.UserAccount;
+import org.fyp.tmssep490be.entities.enums.UserStatus;
 import org.fyp.tmssep490be.exceptions.InvalidTokenException;
 import org.fyp.tmssep490be.repositories.UserAccountRepository;
 import org.fyp.tmssep490be.security.JwtTokenProvider;
 import org.fyp.tmssep490be.security.UserPrincipal;
 import org.fyp.tmssep490be.services.AuthService;
+import org.fyp.tmssep490be.services.RefreshTokenService;
+import org.fyp.tmssep490be.services.RefreshTokenService.IssuedRefreshToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -23,7 +27,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Simplified authentication service - JWT validation only, no database-stored refresh tokens
+ * Authentication service - stateless access tokens, refresh tokens rotated through {@link RefreshTokenService}
  */
 @Service
 @RequiredArgsConstructor
@@ -33,9 +37,10 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserAccountRepository userAccountRepository;
+    private final RefreshTokenService refreshTokenService;
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public AuthResponse login(LoginRequest request) {
         log.info("Login attempt for email: {}", request.getEmail());
 
@@ -50,12 +55,12 @@ public class AuthServiceImpl implements AuthService {
         // Get user principal
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
 
-        // Generate tokens (no database storage needed)
-        String accessToken = jwtTokenProvider.generateAccessToken(authentication);
-        String refreshToken = jwtTokenProvider.generateRefreshToken(
+        // Generate tokens: refresh token starts a new family, access token carries the family id
+        IssuedRefreshToken refreshToken = refreshTokenService.issue(
                 userPrincipal.getId(),
                 userPrincipal.getEmail()
         );
+        String accessToken = jwtTokenProvider.generateAccessToken(authentication, refreshToken.familyId());
 
         // Extract roles
         Set<String> roles = authentication.getAuthorities().stream()
@@ -67,7 +72,7 @@ public class AuthServiceImpl implements AuthService {
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .refreshToken(refreshToken.token())
                 .tokenType("Bearer")
                 .expiresIn(jwtTokenProvider.getAccessTokenExpirationInSeconds())
                 .userId(userPrincipal.getId())
@@ -78,23 +83,29 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(noRollbackFor = InvalidTokenException.class)
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         String requestRefreshToken = request.getRefreshToken();
 
         log.info("Refresh token request received");
 
-        // Validate refresh token (JWT validation only)
-        if (!jwtTokenProvider.validateRefreshToken(requestRefreshToken)) {
+        // Validate refresh token signature/expiry (parsed once)
+        Claims claims = jwtTokenProvider.verifyRefreshToken(requestRefreshToken);
+        if (claims == null) {
             throw new InvalidTokenException("Invalid or expired refresh token");
         }
 
-        // Extract user ID from refresh token
-        Long userId = jwtTokenProvider.getUserIdFromJwt(requestRefreshToken);
+        // Rotate: old token becomes unusable, reuse of a rotated token revokes the family
+        IssuedRefreshToken newRefreshToken = refreshTokenService.rotate(claims);
 
-        // Get user from database
+        // Get user from database (roles may have changed since login)
+        Long userId = claims.get("userId", Long.class);
         UserAccount user = userAccountRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (user.getStatus() != UserStatus.ACTIVE) {
+            refreshTokenService.revokeFamily(newRefreshToken.familyId());
+            throw new InvalidTokenException("User account is not active");
+        }
 
         // Generate new tokens (use role code for consistency)
         String roles = user.getUserRoles().stream()
@@ -104,12 +115,8 @@ public class AuthServiceImpl implements AuthService {
         String newAccessToken = jwtTokenProvider.generateAccessToken(
                 user.getId(),
                 user.getEmail(),
-                roles
-        );
-
-        String newRefreshToken = jwtTokenProvider.generateRefreshToken(
-                user.getId(),
-                user.getEmail()
+                roles,
+                newRefreshToken.familyId()
         );
 
         // Extract role codes (consistent with login response)
@@ -121,7 +128,7 @@ public class AuthServiceImpl implements AuthService {
 
         return AuthResponse.builder()
                 .accessToken(newAccessToken)
-                .refreshToken(newRefreshToken)
+                .refreshToken(newRefreshToken.token())
                 .tokenType("Bearer")
                 .expiresIn(jwtTokenProvider.getAccessTokenExpirationInSeconds())
                 .userId(user.getId())
@@ -130,4 +137,21 @@ public class AuthServiceImpl implements AuthService {
                 .roles(roleNames)
                 .build();
     }
+
+    @Override
+    @Transactional
+    public void logout(String refreshToken, String accessToken) {
+        // Family từ refresh token, nếu client không gửi thì lấy từ access token
+        Claims claims = refreshToken != null ? jwtTokenProvider.verifyRefreshToken(refreshToken) : null;
+        if (claims == null && accessToken != null) {
+            claims = jwtTokenProvider.verifyAccessToken(accessToken);
+        }
+        String familyId = claims != null ? claims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class) : null;
+        if (familyId == null) {
+            log.info("Logout without a valid token, nothing to revoke");
+            return;
+        }
+        refreshTokenService.revokeFamily(familyId);
+        log.info("Logout successful for user: {}", claims.get("userId", Long.class));
+    }
 }
@@ -2,11 +2,13 @@ package org.fyp.tmssep490be.services.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.config.CacheConfiguration;
 import org.fyp.tmssep490be.dtos.branch.BranchDTO;
 import org.fyp.tmssep490be.entities.Branch;
 import org.fyp.tmssep490be.entities.enums.BranchStatus;
 import org.fyp.tmssep490be.repositories.BranchRepository;
 import org.fyp.tmssep490be.services.BranchService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,6 +22,7 @@ public class BranchServiceImpl implements BranchService {
     private final BranchRepository branchRepository;
 
     @Override
+    @Cacheable(CacheConfiguration.ACTIVE_BRANCHES)
     public List<BranchDTO> getAllBranches() {
         log.info("Fetching all active branches");
         List<Branch> branches = branchRepository.findAll();
@@ -8,8 +8,10 @@ import org.fyp.tmssep490be.entities.enums.*;
 import org.fyp.tmssep490be.exceptions.CustomException;
 import org.fyp.tmssep490be.exceptions.ErrorCode;
 import org.fyp.tmssep490be.repositories.*;
+import org.fyp.tmssep490be.security.BranchScopeResolver;
 import org.fyp.tmssep490be.services.ClassService;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -32,7 +34,7 @@ public class ClassServiceImpl implements ClassService {
     private final ClassRepository classRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final SessionRepository sessionRepository;
-    private final UserBranchesRepository userBranchesRepository;
+    private final BranchScopeResolver branchScopeResolver;
     private final TeachingSlotRepository teachingSlotRepository;
     private final StudentRepository studentRepository;
     private final ReplacementSkillAssessmentRepository skillAssessmentRepository;
@@ -230,62 +232,46 @@ public class ClassServiceImpl implements ClassService {
         Long classSubjectId = classEntity.getCourse().getLevel().getSubject().getId();
         Long classLevelId = classEntity.getCourse().getLevel().getId();
 
-        // Hybrid approach: Get ALL available students without pagination for proper sorting
-        List<Student> allAvailableStudents = studentRepository.findAllAvailableStudentsForClass(
-                classId, branchId, search
+        // Database-first approach: rank and paginate in SQL, only the requested page is materialized
+        Page<StudentRepository.AvailableStudentMatch> rankedPage = studentRepository.findRankedAvailableStudentsForClass(
+                classId, branchId, classSubjectId, classLevelId, search,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
         );
 
-        // Batch fetch ALL skill assessments for all students
-        List<Long> studentIds = allAvailableStudents.stream()
-                .map(Student::getId)
+        List<Long> studentIds = rankedPage.getContent().stream()
+                .map(StudentRepository.AvailableStudentMatch::getStudentId)
                 .collect(Collectors.toList());
+        if (studentIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, rankedPage.getTotalElements());
+        }
 
-        List<ReplacementSkillAssessment> allAssessments = studentIds.isEmpty() ?
-                List.of() :
-                skillAssessmentRepository.findByStudentIdIn(studentIds);
-
-        // Group assessments by student ID
-        Map<Long, List<ReplacementSkillAssessment>> assessmentsByStudent = allAssessments.stream()
+        // Batch fetch students and skill assessments of this page only
+        Map<Long, Student> studentsById = studentRepository.findAllWithAccountByIdIn(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, student -> student));
+        Map<Long, List<ReplacementSkillAssessment>> assessmentsByStudent = skillAssessmentRepository
+                .findByStudentIdIn(studentIds).stream()
                 .collect(Collectors.groupingBy(assessment -> assessment.getStudent().getId()));
 
-        // Convert to DTOs with complete assessment data and sort by matchPriority
-        List<AvailableStudentDTO> allDtos = allAvailableStudents.stream()
-                .map(student -> convertToAvailableStudentDTO(
-                        student,
-                        assessmentsByStudent.get(student.getId()),
+        // Keep SQL ranking order
+        List<AvailableStudentDTO> dtos = rankedPage.getContent().stream()
+                .filter(match -> studentsById.containsKey(match.getStudentId()))
+                .map(match -> convertToAvailableStudentDTO(
+                        studentsById.get(match.getStudentId()),
+                        assessmentsByStudent.get(match.getStudentId()),
                         classSubjectId,
-                        classLevelId
+                        classLevelId,
+                        match.getMatchPriority(),
+                        null
                 ))
-                .sorted((dto1, dto2) -> {
-                    // Sort by matchPriority (ascending: 1, 2, 3)
-                    // Then by student name if same priority
-                    int priorityCompare = dto1.getClassMatchInfo().getMatchPriority()
-                            .compareTo(dto2.getClassMatchInfo().getMatchPriority());
-                    if (priorityCompare != 0) {
-                        return priorityCompare;
-                    }
-                    return dto1.getFullName().compareTo(dto2.getFullName());
-                })
                 .collect(Collectors.toList());
 
-        // Apply pagination manually on sorted list
-        int start = pageable.getPageNumber() * pageable.getPageSize();
-        int end = Math.min(start + pageable.getPageSize(), allDtos.size());
-        List<AvailableStudentDTO> paginatedDtos = start < allDtos.size() ?
-                allDtos.subList(start, end) : List.of();
-
-        // Create Page with correct pagination metadata
-        return new org.springframework.data.domain.PageImpl<>(
-                paginatedDtos,
-                pageable,
-                allDtos.size()
-        );
+        return new PageImpl<>(dtos, pageable, rankedPage.getTotalElements());
     }
 
     // Helper methods
 
     private List<Long> getUserAccessibleBranches(Long userId) {
-        return userBranchesRepository.findBranchIdsByUserId(userId);
+        return branchScopeResolver.getBranchIds(userId);
     }
 
     /**
@@ -518,15 +504,6 @@ public class ClassServiceImpl implements ClassService {
                 .collect(Collectors.joining(", "));
     }
 
-    private AvailableStudentDTO convertToAvailableStudentDTO(
-            Student student,
-            List<ReplacementSkillAssessment> assessments,
-            Long classSubjectId,
-            Long classLevelId
-    ) {
-        return convertToAvailableStudentDTO(student, assessments, classSubjectId, classLevelId, null, null);
-    }
-
     /**
      * Convert Student to AvailableStudentDTO with assessment data
      * Overloaded method that accepts pre-computed match priority for database-first approach
@@ -564,7 +541,8 @@ public class ClassServiceImpl implements ClassService {
             ReplacementSkillAssessment matchingAssessment = findMatchingAssessment(assessments, classSubjectId, classLevelId);
             classMatchInfo = AvailableStudentDTO.ClassMatchInfoDTO.builder()
                     .matchPriority(preComputedMatchPriority)
-                    .matchingSkill(preComputedMatchingSkill)
+                    .matchingSkill(preComputedMatchingSkill != null ? preComputedMatchingSkill
+                            : matchingAssessment != null ? matchingAssessment.getSkill().name() : null)
                     .matchingLevel(matchingAssessment != null && matchingAssessment.getLevel() != null ?
                             convertToLevelInfoDTO(matchingAssessment.getLevel()) : null)
                     .matchReason(getMatchReason(preComputedMatchPriority))
@@ -0,0 +1,143 @@
+package org.fyp.tmssep490be.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.config.CacheConfiguration;
+import org.fyp.tmssep490be.entities.CourseMaterial;
+import org.fyp.tmssep490be.entities.CoursePhase;
+import org.fyp.tmssep490be.entities.CourseSession;
+import org.fyp.tmssep490be.repositories.CourseMaterialRepository;
+import org.fyp.tmssep490be.repositories.CoursePhaseRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Material tree (phase → session → material) của course, dùng chung cho mọi student
+ * Cache materialTrees theo courseId (giới hạn bởi spring.cache.caffeine.spec),
+ * evict khi CourseMaterial/CoursePhase/CourseSession được ghi: ReferenceDataCacheEvictionListener
+ * Tách khỏi CourseServiceImpl để @Cacheable đi qua proxy
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseMaterialTreeLoader {
+
+    private final CoursePhaseRepository coursePhaseRepository;
+    private final CourseMaterialRepository courseMaterialRepository;
+
+    /**
+     * Load toàn bộ phase/session/material của course bằng 2 queries rồi ghép hierarchy trong memory
+     */
+    @Cacheable(CacheConfiguration.MATERIAL_TREES)
+    @Transactional(readOnly = true)
+    public MaterialTree load(Long courseId) {
+        List<CoursePhase> phases = coursePhaseRepository.findByCourseIdWithSessions(courseId);
+        List<CourseMaterial> materials = courseMaterialRepository.findHierarchyMaterialsByCourseId(courseId);
+
+        List<MaterialNode> courseLevel = new ArrayList<>();
+        Map<Long, List<MaterialNode>> byPhaseId = new HashMap<>();
+        Map<Long, List<MaterialNode>> bySessionId = new HashMap<>();
+        for (CourseMaterial material : materials) {
+            MaterialNode node = toMaterialNode(material);
+            if (node.getSessionId() != null) {
+                bySessionId.computeIfAbsent(node.getSessionId(), id -> new ArrayList<>()).add(node);
+            } else if (node.getPhaseId() != null) {
+                byPhaseId.computeIfAbsent(node.getPhaseId(), id -> new ArrayList<>()).add(node);
+            } else {
+                courseLevel.add(node);
+            }
+        }
+
+        List<PhaseNode> phaseNodes = phases.stream()
+                .map(phase -> new PhaseNode(
+                        phase.getId(),
+                        phase.getPhaseNumber(),
+                        phase.getName(),
+                        List.copyOf(byPhaseId.getOrDefault(phase.getId(), List.of())),
+                        phase.getCourseSessions().stream()
+                                .sorted(Comparator.comparing(CourseSession::getSequenceNo,
+                                        Comparator.nullsLast(Comparator.naturalOrder())))
+                                .map(session -> new SessionNode(
+                                        session.getId(),
+                                        session.getSequenceNo(),
+                                        session.getTopic(),
+                                        List.copyOf(bySessionId.getOrDefault(session.getId(), List.of()))))
+                                .toList()))
+                .toList();
+
+        log.debug("Loaded material tree for course {}: {} phases, {} materials", courseId, phaseNodes.size(), materials.size());
+        return new MaterialTree(List.copyOf(courseLevel), phaseNodes);
+    }
+
+    private MaterialNode toMaterialNode(CourseMaterial material) {
+        String level;
+        if (material.getPhase() == null && material.getCourseSession() == null) {
+            level = "COURSE";
+        } else if (material.getCourseSession() == null) {
+            level = "PHASE";
+        } else {
+            level = "SESSION";
+        }
+
+        return new MaterialNode(
+                material.getId(),
+                material.getTitle(),
+                material.getDescription(),
+                material.getMaterialType() != null ? material.getMaterialType().toString() : null,
+                material.getUrl(),
+                level,
+                material.getPhase() != null ? material.getPhase().getId() : null,
+                material.getCourseSession() != null ? material.getCourseSession().getId() : null,
+                material.getCreatedAt(),
+                material.getUpdatedAt());
+    }
+
+    /**
+     * Immutable snapshot of a course's material hierarchy, shared between requests
+     */
+    @Value
+    public static class MaterialTree {
+        List<MaterialNode> courseLevel;
+        List<PhaseNode> phases;
+    }
+
+    @Value
+    public static class PhaseNode {
+        Long id;
+        Integer phaseNumber;
+        String name;
+        List<MaterialNode> materials;
+        List<SessionNode> sessions;
+    }
+
+    @Value
+    public static class SessionNode {
+        Long id;
+        Integer sequenceNo;
+        String topic;
+        List<MaterialNode> materials;
+    }
+
+    @Value
+    public static class MaterialNode {
+        Long id;
+        String title;
+        String description;
+        String materialType;
+        String url;
+        String level;
+        Long phaseId;
+        Long sessionId;
+        OffsetDateTime createdAt;
+        OffsetDateTime updatedAt;
+    }
+}
@@ -1,19 +1,26 @@
 package org.fyp.tmssep490be.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.fyp.tmssep490be.dtos.course.*;
 import org.fyp.tmssep490be.entities.*;
 import org.fyp.tmssep490be.entities.enums.*;
 import org.fyp.tmssep490be.repositories.*;
 import org.fyp.tmssep490be.services.CourseService;
+import org.fyp.tmssep490be.services.impl.CourseMaterialTreeLoader.MaterialNode;
+import org.fyp.tmssep490be.services.impl.CourseMaterialTreeLoader.MaterialTree;
+import org.fyp.tmssep490be.services.impl.CourseMaterialTreeLoader.PhaseNode;
+import org.fyp.tmssep490be.services.impl.CourseMaterialTreeLoader.SessionNode;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashSet;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,6 +41,7 @@ public class CourseServiceImpl implements CourseService {
     private final ClassRepository classRepository;
     private final CenterRepository centerRepository;
     private final StudentRepository studentRepository;
+    private final CourseMaterialTreeLoader courseMaterialTreeLoader;
 
     @Override
     public List<StudentCourseDTO> getStudentCoursesByUserId(Long userId) {
@@ -137,33 +145,18 @@ public class CourseServiceImpl implements CourseService {
     public MaterialHierarchyDTO getCourseMaterials(Long courseId, Long studentId) {
         log.debug("Getting materials hierarchy for course {}, student {}", courseId, studentId);
 
-        // Get course-level materials
-        List<CourseMaterialDTO> courseLevelMaterials = courseMaterialRepository
-                .findCourseLevelMaterials(courseId)
-                .stream()
-                .map(material -> convertToMaterialDTO(material, studentId))
-                .collect(Collectors.toList());
+        MaterialTree tree = courseMaterialTreeLoader.load(courseId);
+        MaterialAccess access = studentId == null ? MaterialAccess.ALL : loadMaterialAccess(studentId, courseId);
 
-        // Get phases with their materials
-        List<PhaseMaterialDTO> phaseMaterials = coursePhaseRepository
-                .findByCourseIdOrderByPhaseNumber(courseId)
-                .stream()
+        List<CourseMaterialDTO> courseLevelMaterials = toMaterialDTOs(tree.getCourseLevel(), access);
+
+        List<PhaseMaterialDTO> phaseMaterials = tree.getPhases().stream()
                 .map(phase -> {
-                    List<CourseMaterialDTO> phaseMaterialsList = courseMaterialRepository
-                            .findPhaseLevelMaterials(phase.getId())
-                            .stream()
-                            .map(material -> convertToMaterialDTO(material, studentId))
-                            .collect(Collectors.toList());
+                    List<CourseMaterialDTO> phaseMaterialsList = toMaterialDTOs(phase.getMaterials(), access);
 
-                    List<SessionMaterialDTO> sessionMaterials = courseSessionRepository
-                            .findByPhaseIdOrderBySequenceNo(phase.getId())
-                            .stream()
+                    List<SessionMaterialDTO> sessionMaterials = phase.getSessions().stream()
                             .map(session -> {
-                                List<CourseMaterialDTO> sessionMaterialsList = courseMaterialRepository
-                                        .findSessionLevelMaterials(session.getId())
-                                        .stream()
-                                        .map(material -> convertToMaterialDTO(material, studentId))
-                                        .collect(Collectors.toList());
+                                List<CourseMaterialDTO> sessionMaterialsList = toMaterialDTOs(session.getMaterials(), access);
 
                                 return SessionMaterialDTO.builder()
                                         .id(session.getId())
@@ -328,68 +321,28 @@ public class CourseServiceImpl implements CourseService {
                 .build();
     }
 
-    private CourseMaterialDTO convertToMaterialDTO(CourseMaterial material, Long studentId) {
-        String level;
-        if (material.getPhase() == null && material.getCourseSession() == null) {
-            level = "COURSE";
-        } else if (material.getCourseSession() == null) {
-            level = "PHASE";
-        } else {
-            level = "SESSION";
-        }
-
-        boolean isAccessible = studentId == null || isMaterialAccessible(studentId, material);
-
-        return CourseMaterialDTO.builder()
-                .id(material.getId())
-                .title(material.getTitle())
-                .description(material.getDescription())
-                .materialType(material.getMaterialType() != null ? material.getMaterialType().toString() : null)
-                .fileName(null) // fileName not available in CourseMaterial
-                .filePath(null) // filePath not available in CourseMaterial
-                .fileUrl(material.getUrl()) // Use url instead of fileUrl
-                .fileSize(null) // fileSize not available in CourseMaterial
-                .level(level)
-                .phaseId(material.getPhase() != null ? material.getPhase().getId() : null)
-                .sessionId(material.getCourseSession() != null ? material.getCourseSession().getId() : null)
-                .sequenceNo(null) // sequenceNo not available in CourseMaterial
-                .isAccessible(isAccessible)
-                .createdAt(material.getCreatedAt())
-                .updatedAt(material.getUpdatedAt())
-                .build();
-    }
-
-    private boolean isMaterialAccessible(Long studentId, CourseMaterial material) {
-        // Course-level materials are always accessible
-        if (material.getPhase() == null && material.getCourseSession() == null) {
-            return true;
-        }
-
-        // Check if student is enrolled
+    /**
+     * Quyền truy cập material của student trong course (2 queries, không phụ thuộc số material)
+     * - Course-level materials are always accessible
+     * - Phase-level materials are accessible when enrolled and class has started
+     * - Session-level materials are accessible after the student attended (PRESENT) the session
+     */
+    private MaterialAccess loadMaterialAccess(Long studentId, Long courseId) {
         Enrollment enrollment = enrollmentRepository
-                .findByStudentIdAndCourseIdAndStatus(studentId, material.getCourse().getId(), EnrollmentStatus.ENROLLED);
-
+                .findByStudentIdAndCourseIdAndStatus(studentId, courseId, EnrollmentStatus.ENROLLED);
         if (enrollment == null) {
-            return false;
-        }
-
-        // Phase-level materials are accessible when phase starts
-        if (material.getPhase() != null && material.getCourseSession() == null) {
-            return isPhaseAccessible(enrollment, material.getPhase());
-        }
-
-        // Session-level materials are accessible after session completes
-        if (material.getCourseSession() != null) {
-            return isSessionAccessible(enrollment, material.getCourseSession());
+            return MaterialAccess.COURSE_LEVEL_ONLY;
         }
 
-        return false;
+        Set<Long> attendedCourseSessionIds = new HashSet<>(
+                studentSessionRepository.findAttendedCourseSessionIds(studentId, courseId));
+        return new MaterialAccess(false, hasClassStarted(enrollment), attendedCourseSessionIds);
     }
 
-    private boolean isPhaseAccessible(Enrollment enrollment, CoursePhase phase) {
+    private boolean hasClassStarted(Enrollment enrollment) {
         // Phase is accessible if student is enrolled and class has started
         // Don't require session completion for phase access
-        if (enrollment == null || enrollment.getClassEntity() == null) {
+        if (enrollment.getClassEntity() == null) {
             return false;
         }
 
@@ -404,19 +357,65 @@ public class CourseServiceImpl implements CourseService {
         return currentDate.isAfter(classStartDate) || currentDate.isEqual(classStartDate);
     }
 
-    private boolean isSessionAccessible(Enrollment enrollment, CourseSession session) {
-        Optional<StudentSession> studentSession = studentSessionRepository
-                .findByStudentIdAndCourseSessionId(enrollment.getStudentId(), session.getId());
+    private List<CourseMaterialDTO> toMaterialDTOs(List<MaterialNode> nodes, MaterialAccess access) {
+        return nodes.stream()
+                .map(node -> convertToMaterialDTO(node, access.isAccessible(node)))
+                .collect(Collectors.toList());
+    }
 
-        return studentSession.isPresent() &&
-            AttendanceStatus.PRESENT.equals(studentSession.get().getAttendanceStatus());
+    private CourseMaterialDTO convertToMaterialDTO(MaterialNode node, boolean isAccessible) {
+        return CourseMaterialDTO.builder()
+                .id(node.getId())
+                .title(node.getTitle())
+                .description(node.getDescription())
+                .materialType(node.getMaterialType())
+                .fileName(null) // fileName not available in CourseMaterial
+                .filePath(null) // filePath not available in CourseMaterial
+                .fileUrl(node.getUrl()) // Use url instead of fileUrl
+                .fileSize(null) // fileSize not available in CourseMaterial
+                .level(node.getLevel())
+                .phaseId(node.getPhaseId())
+                .sessionId(node.getSessionId())
+                .sequenceNo(null) // sequenceNo not available in CourseMaterial
+                .isAccessible(isAccessible)
+                .createdAt(node.getCreatedAt())
+                .updatedAt(node.getUpdatedAt())
+                .build();
     }
 
     private List<CourseMaterialDTO> getCourseMaterials(Long courseId) {
-        return courseMaterialRepository.findByCourseId(courseId)
-                .stream()
-                .map(material -> convertToMaterialDTO(material, null))
-                .collect(Collectors.toList());
+        MaterialTree tree = courseMaterialTreeLoader.load(courseId);
+        List<CourseMaterialDTO> materials = new ArrayList<>(toMaterialDTOs(tree.getCourseLevel(), MaterialAccess.ALL));
+        for (PhaseNode phase : tree.getPhases()) {
+            materials.addAll(toMaterialDTOs(phase.getMaterials(), MaterialAccess.ALL));
+            for (SessionNode session : phase.getSessions()) {
+                materials.addAll(toMaterialDTOs(session.getMaterials(), MaterialAccess.ALL));
+            }
+        }
+        return materials;
+    }
+
+    /**
+     * Per-student overlay applied on top of the cached tree
+     */
+    @Value
+    private static class MaterialAccess {
+        static final MaterialAccess ALL = new MaterialAccess(true, true, Set.of());
+        static final MaterialAccess COURSE_LEVEL_ONLY = new MaterialAccess(false, false, Set.of());
+
+        boolean all;
+        boolean phaseAccessible;
+        Set<Long> attendedCourseSessionIds;
+
+        boolean isAccessible(MaterialNode node) {
+            if (all || "COURSE".equals(node.getLevel())) {
+                return true;
+            }
+            if ("PHASE".equals(node.getLevel())) {
+                return phaseAccessible;
+            }
+            return attendedCourseSessionIds.contains(node.getSessionId());
+        }
     }
 
    private List<CourseCLODTO> getCourseCLOsList(Long courseId) {
@@ -2,6 +2,7 @@ package org.fyp.tmssep490be.services.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.config.CacheConfiguration;
 import org.fyp.tmssep490be.dtos.curriculum.SubjectWithLevelsDTO;
 import org.fyp.tmssep490be.entities.Level;
 import org.fyp.tmssep490be.entities.Subject;
@@ -9,10 +10,12 @@ import org.fyp.tmssep490be.entities.enums.SubjectStatus;
 import org.fyp.tmssep490be.repositories.LevelRepository;
 import org.fyp.tmssep490be.repositories.SubjectRepository;
 import org.fyp.tmssep490be.services.CurriculumService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,24 +28,30 @@ public class CurriculumServiceImpl implements CurriculumService {
     private final LevelRepository levelRepository;
 
     @Override
+    @Cacheable(CacheConfiguration.SUBJECTS_WITH_LEVELS)
     public List<SubjectWithLevelsDTO> getAllSubjectsWithLevels() {
         log.debug("Fetching all subjects with their levels");
 
         // Get all subjects with ACTIVE status
         List<Subject> subjects = subjectRepository.findByStatusOrderByCode(SubjectStatus.ACTIVE);
+        if (subjects.isEmpty()) {
+            return List.of();
+        }
+
+        // Levels of all subjects in one query, sorted by sort_order
+        Map<Long, List<Level>> levelsBySubjectId = levelRepository.findBySubjectIdInOrderBySortOrderAsc(
+                        subjects.stream().map(Subject::getId).toList()).stream()
+                .collect(Collectors.groupingBy(level -> level.getSubject().getId()));
 
         List<SubjectWithLevelsDTO> result = subjects.stream()
-                .map(this::convertToDTO)
+                .map(subject -> convertToDTO(subject, levelsBySubjectId.getOrDefault(subject.getId(), List.of())))
                 .collect(Collectors.toList());
 
         log.debug("Found {} subjects with levels", result.size());
         return result;
     }
 
-    private SubjectWithLevelsDTO convertToDTO(Subject subject) {
-        // Get levels for this subject, sorted by sort_order
-        List<Level> levels = levelRepository.findBySubjectIdOrderBySortOrderAsc(subject.getId());
-
+    private SubjectWithLevelsDTO convertToDTO(Subject subject, List<Level> levels) {
         List<SubjectWithLevelsDTO.LevelDTO> levelDTOs = levels.stream()
                 .map(this::convertLevelToDTO)
                 .collect(Collectors.toList());
@@ -11,15 +11,18 @@ import org.fyp.tmssep490be.exceptions.ErrorCode;
 import org.fyp.tmssep490be.repositories.*;
 import org.fyp.tmssep490be.services.EnrollmentService;
 import org.fyp.tmssep490be.services.ExcelParserService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.fyp.tmssep490be.services.LevelService;
+import org.fyp.tmssep490be.services.StudentAccountProvisioningService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,16 +33,17 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     private final EnrollmentRepository enrollmentRepository;
     private final ClassRepository classRepository;
     private final StudentRepository studentRepository;
-    private final UserAccountRepository userAccountRepository;
     private final SessionRepository sessionRepository;
     private final StudentSessionRepository studentSessionRepository;
-    private final RoleRepository roleRepository;
-    private final UserRoleRepository userRoleRepository;
-    private final UserBranchesRepository userBranchesRepository;
     private final ExcelParserService excelParserService;
-    private final PasswordEncoder passwordEncoder;
+    private final StudentAccountProvisioningService studentAccountProvisioningService;
     private final ReplacementSkillAssessmentRepository replacementSkillAssessmentRepository;
     private final LevelRepository levelRepository;
+    private final LevelService levelService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Giới hạn số email trong một câu IN khi resolve student
+    private static final int EMAIL_LOOKUP_CHUNK_SIZE = 1000;
 
     @Override
     public ClassEnrollmentImportPreview previewClassEnrollmentImport(
@@ -52,8 +56,10 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         // 1. Validate class exists và đủ điều kiện enroll
         ClassEntity classEntity = validateClassForEnrollment(classId);
 
-        // 2. Parse Excel file
-        List<StudentEnrollmentData> parsedData = excelParserService.parseStudentEnrollment(file);
+        // 2 + 3. Stream Excel rows, validate và resolve từng student (FOUND/CREATE/ERROR/DUPLICATE) ngay khi đọc
+        StudentRowResolver resolver = new StudentRowResolver();
+        excelParserService.parseStudentEnrollment(file, resolver);
+        List<StudentEnrollmentData> parsedData = resolver.finish();
 
         if (parsedData.isEmpty()) {
             throw new CustomException(ErrorCode.EXCEL_FILE_EMPTY);
@@ -61,9 +67,6 @@ public class EnrollmentServiceImpl implements EnrollmentService {
 
         log.info("Parsed {} students from Excel", parsedData.size());
 
-        // 3. Resolve từng student (FOUND/CREATE/ERROR)
-        resolveStudents(parsedData);
-
         // 4. Calculate capacity
         int currentEnrolled = enrollmentRepository.countByClassIdAndStatus(
                 classId, EnrollmentStatus.ENROLLED
@@ -132,7 +135,6 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     }
 
     @Override
-    @Transactional
     public EnrollmentResult executeClassEnrollmentImport(
             ClassEnrollmentImportExecuteRequest request,
             Long enrolledBy
@@ -140,49 +142,86 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         log.info("Executing enrollment import for class ID: {} with strategy: {}",
                 request.getClassId(), request.getStrategy());
 
-        // 1. Lock class để đảm bảo consistency (tránh race condition)
+        // 1. Chọn students theo strategy (chưa cần DB)
+        List<StudentEnrollmentData> studentsToEnroll = selectStudentsByStrategy(request);
+
+        // 2. BCrypt hash cho CREATE rows trước khi mở transaction:
+        // hash là CPU-bound, không giữ class lock và connection trong lúc hash
+        List<StudentEnrollmentData> createRows = studentsToEnroll.stream()
+                .filter(d -> d.getStatus() == StudentResolutionStatus.CREATE)
+                .toList();
+        List<String> hashes = studentAccountProvisioningService.hashTemporaryPasswords(createRows.size());
+        Map<StudentEnrollmentData, String> passwordHashes = new IdentityHashMap<>();
+        for (int i = 0; i < createRows.size(); i++) {
+            passwordHashes.put(createRows.get(i), hashes.get(i));
+        }
+
+        return transactionTemplate.execute(status ->
+                enrollImportedStudents(request, studentsToEnroll, passwordHashes, enrolledBy));
+    }
+
+    private EnrollmentResult enrollImportedStudents(
+            ClassEnrollmentImportExecuteRequest request,
+            List<StudentEnrollmentData> studentsToEnroll,
+            Map<StudentEnrollmentData, String> passwordHashes,
+            Long enrolledBy
+    ) {
+        // 3. Lock class để đảm bảo consistency (tránh race condition)
         ClassEntity classEntity = classRepository.findByIdWithLock(request.getClassId())
                 .orElseThrow(() -> new EntityNotFoundException("Class not found: " + request.getClassId()));
 
-        // 2. Re-validate capacity (double-check for race condition)
+        // 4. Re-validate capacity (double-check for race condition)
         int currentEnrolled = enrollmentRepository.countByClassIdAndStatus(
                 request.getClassId(), EnrollmentStatus.ENROLLED
         );
 
         log.info("Class locked. Current enrollment: {}/{}", currentEnrolled, classEntity.getMaxCapacity());
 
-        // 3. Filter students theo strategy
-        List<StudentEnrollmentData> studentsToEnroll = filterStudentsByStrategy(
-                request,
-                classEntity,
-                currentEnrolled,
-                enrolledBy
-        );
+        validateCapacityForStrategy(request, studentsToEnroll, classEntity, currentEnrolled, enrolledBy);
 
         log.info("Filtered {} students to enroll based on strategy", studentsToEnroll.size());
 
-        // 4. Create new students nếu cần
+        // 5. Create new students nếu cần
+        // FOUND rows dùng lại resolvedStudentId từ preview; chỉ re-check CREATE rows (một bulk query)
+        // phòng trường hợp student đã được tạo giữa preview và execute
+        Set<String> createEmails = studentsToEnroll.stream()
+                .filter(d -> d.getStatus() == StudentResolutionStatus.CREATE)
+                .map(d -> d.getEmail().toLowerCase())
+                .collect(Collectors.toSet());
+        Map<String, Long> createdSincePreview = findStudentIdsByEmails(createEmails);
+
         List<Long> allStudentIds = new ArrayList<>();
-        int studentsCreated = 0;
+        List<StudentEnrollmentData> studentsToCreate = new ArrayList<>();
 
         for (StudentEnrollmentData data : studentsToEnroll) {
-            if (data.getStatus() == StudentResolutionStatus.CREATE) {
-                Student newStudent = createStudentQuick(data, classEntity.getBranch().getId(), enrolledBy);
-                allStudentIds.add(newStudent.getId());
-                studentsCreated++;
-                log.info("Created new student: {} ({})", newStudent.getId(), data.getEmail());
+            Long existingId = data.getStatus() == StudentResolutionStatus.CREATE
+                    ? createdSincePreview.get(data.getEmail().toLowerCase())
+                    : null;
+            if (existingId != null) {
+                log.info("Student {} already exists since preview, reusing ID {}", data.getEmail(), existingId);
+                allStudentIds.add(existingId);
+            } else if (data.getStatus() == StudentResolutionStatus.CREATE) {
+                studentsToCreate.add(data);
             } else if (data.getStatus() == StudentResolutionStatus.FOUND) {
                 allStudentIds.add(data.getResolvedStudentId());
             }
         }
 
+        // Bulk provisioning: user_account + student + user_role + user_branches bằng JDBC batch
+        List<String> createHashes = studentsToCreate.stream().map(passwordHashes::get).toList();
+        List<Long> createdStudentIds = studentAccountProvisioningService.provisionStudents(
+                studentsToCreate, createHashes, classEntity.getBranch().getId(), enrolledBy
+        );
+        allStudentIds.addAll(createdStudentIds);
+        int studentsCreated = createdStudentIds.size();
+
         log.info("Created {} new students, total {} students to enroll", studentsCreated, allStudentIds.size());
 
-        // 5. Determine if this is capacity override
+        // 6. Determine if this is capacity override
         boolean isOverride = request.getStrategy() == EnrollmentStrategy.OVERRIDE;
         String overrideReason = isOverride ? request.getOverrideReason() : null;
 
-        // 6. Batch enroll all students
+        // 7. Batch enroll all students
         EnrollmentResult result = enrollStudents(
                 request.getClassId(),
                 allStudentIds,
@@ -199,58 +238,104 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     }
 
     /**
-     * Resolve từng student: tìm trong DB hoặc mark as CREATE
+     * Resolve từng student trong lúc parse: tìm trong DB hoặc mark as CREATE
+     * Validate + de-duplicate từng row khi được emit, email hợp lệ được resolve theo chunk
+     * (EMAIL_LOOKUP_CHUNK_SIZE) bằng bulk lookup, không cần đọc hết sheet trước
+     * Chỉ giữ lại các row cho preview response
      */
-    private void resolveStudents(List<StudentEnrollmentData> parsedData) {
-        Set<String> seenEmails = new HashSet<>();
+    private class StudentRowResolver implements Consumer<StudentEnrollmentData> {
+
+        private final List<StudentEnrollmentData> rows = new ArrayList<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<StudentEnrollmentData> pending = new ArrayList<>();
+        private int existingCount;
+
+        @Override
+        public void accept(StudentEnrollmentData data) {
+            rows.add(data);
 
-        for (StudentEnrollmentData data : parsedData) {
             // Skip if already has error from parsing
             if (data.getStatus() == StudentResolutionStatus.ERROR) {
-                continue;
+                return;
             }
 
             // Validate required fields
             if (data.getEmail() == null || data.getEmail().isBlank()) {
                 data.setStatus(StudentResolutionStatus.ERROR);
                 data.setErrorMessage("Email is required");
-                continue;
+                return;
             }
             if (data.getFullName() == null || data.getFullName().isBlank()) {
                 data.setStatus(StudentResolutionStatus.ERROR);
                 data.setErrorMessage("Full name is required");
-                continue;
+                return;
             }
 
             // Check duplicate trong file Excel
-            String emailLower = data.getEmail().toLowerCase();
-            if (seenEmails.contains(emailLower)) {
+            if (!seenEmails.add(data.getEmail().toLowerCase())) {
                 data.setStatus(StudentResolutionStatus.DUPLICATE);
                 data.setErrorMessage("Duplicate email in Excel file");
-                continue;
+                return;
+            }
+            pending.add(data);
+            if (pending.size() >= EMAIL_LOOKUP_CHUNK_SIZE) {
+                resolvePending();
             }
-            seenEmails.add(emailLower);
+        }
 
-            // REMOVED: Student code search logic
-            // Student codes are now auto-generated by the system
-            // We only search by email for existing students
+        List<StudentEnrollmentData> finish() {
+            resolvePending();
+            log.info("Resolved {} distinct emails: {} existing students", seenEmails.size(), existingCount);
+            return rows;
+        }
 
-            // Try to find by email
-            Optional<UserAccount> userByEmail = userAccountRepository.findByEmail(data.getEmail());
-            if (userByEmail.isPresent()) {
-                Optional<Student> student = studentRepository.findByUserAccountId(userByEmail.get().getId());
-                if (student.isPresent()) {
+        // REMOVED: Student code search logic
+        // Student codes are now auto-generated by the system
+        // We only search by email for existing students
+        private void resolvePending() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<String, Long> studentIdsByEmail = findStudentIdsByEmails(
+                    pending.stream().map(d -> d.getEmail().toLowerCase()).toList());
+
+            for (StudentEnrollmentData data : pending) {
+                Long studentId = studentIdsByEmail.get(data.getEmail().toLowerCase());
+                if (studentId != null) {
                     data.setStatus(StudentResolutionStatus.FOUND);
-                    data.setResolvedStudentId(student.get().getId());
-                    log.debug("Found student by email: {} -> ID: {}", data.getEmail(), student.get().getId());
-                    continue;
+                    data.setResolvedStudentId(studentId);
+                    existingCount++;
+                    log.debug("Found student by email: {} -> ID: {}", data.getEmail(), studentId);
+                } else {
+                    // Mark as CREATE (student mới)
+                    data.setStatus(StudentResolutionStatus.CREATE);
+                    log.debug("Student will be created: {}", data.getEmail());
                 }
             }
+            pending.clear();
+        }
+    }
 
-            // Mark as CREATE (student mới)
-            data.setStatus(StudentResolutionStatus.CREATE);
-            log.debug("Student will be created: {}", data.getEmail());
+    /**
+     * Bulk lookup student ID theo email (lower-case), chia chunk để tránh IN list quá lớn
+     *
+     * @param emailsLower Distinct lower-cased emails
+     * @return Map lower-cased email -> student ID (chỉ chứa email đã có student)
+     */
+    private Map<String, Long> findStudentIdsByEmails(Collection<String> emailsLower) {
+        Map<String, Long> studentIdsByEmail = new HashMap<>();
+        if (emailsLower.isEmpty()) {
+            return studentIdsByEmail;
+        }
+
+        List<String> emails = new ArrayList<>(emailsLower);
+        for (int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK_SIZE, emails.size()));
+            for (StudentRepository.StudentEmailMatch match : studentRepository.findStudentIdsByLowerEmailIn(chunk)) {
+                studentIdsByEmail.putIfAbsent(match.getEmail(), match.getStudentId());
+            }
         }
+        return studentIdsByEmail;
     }
 
     /**
@@ -307,14 +392,9 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     }
 
     /**
-     * Filter students theo enrollment strategy
+     * Chọn students theo enrollment strategy (validate input của strategy, chưa check capacity)
      */
-    private List<StudentEnrollmentData> filterStudentsByStrategy(
-            ClassEnrollmentImportExecuteRequest request,
-            ClassEntity classEntity,
-            int currentEnrolled,
-            Long enrolledBy
-    ) {
+    private List<StudentEnrollmentData> selectStudentsByStrategy(ClassEnrollmentImportExecuteRequest request) {
         List<StudentEnrollmentData> studentsToEnroll;
 
         switch (request.getStrategy()) {
@@ -324,11 +404,6 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                         .filter(s -> s.getStatus() == StudentResolutionStatus.FOUND
                                 || s.getStatus() == StudentResolutionStatus.CREATE)
                         .collect(Collectors.toList());
-
-                // Validate capacity
-                if (currentEnrolled + studentsToEnroll.size() > classEntity.getMaxCapacity()) {
-                    throw new CustomException(ErrorCode.CLASS_CAPACITY_EXCEEDED);
-                }
                 break;
 
             case PARTIAL:
@@ -368,11 +443,6 @@ public class EnrollmentServiceImpl implements EnrollmentService {
 
                 log.debug("PARTIAL strategy: {} selected IDs, {} students to enroll",
                     selectedIds.size(), studentsToEnroll.size());
-
-                // Validate capacity
-                if (currentEnrolled + studentsToEnroll.size() > classEntity.getMaxCapacity()) {
-                    throw new CustomException(ErrorCode.SELECTED_STUDENTS_EXCEED_CAPACITY);
-                }
                 break;
 
             case OVERRIDE:
@@ -385,7 +455,39 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                         .filter(s -> s.getStatus() == StudentResolutionStatus.FOUND
                                 || s.getStatus() == StudentResolutionStatus.CREATE)
                         .collect(Collectors.toList());
+                break;
+
+            default:
+                throw new CustomException(ErrorCode.INVALID_ENROLLMENT_STRATEGY);
+        }
+
+        return studentsToEnroll;
+    }
+
+    /**
+     * Validate capacity theo enrollment strategy, sau khi đã lock class
+     */
+    private void validateCapacityForStrategy(
+            ClassEnrollmentImportExecuteRequest request,
+            List<StudentEnrollmentData> studentsToEnroll,
+            ClassEntity classEntity,
+            int currentEnrolled,
+            Long enrolledBy
+    ) {
+        switch (request.getStrategy()) {
+            case ALL:
+                if (currentEnrolled + studentsToEnroll.size() > classEntity.getMaxCapacity()) {
+                    throw new CustomException(ErrorCode.CLASS_CAPACITY_EXCEEDED);
+                }
+                break;
+
+            case PARTIAL:
+                if (currentEnrolled + studentsToEnroll.size() > classEntity.getMaxCapacity()) {
+                    throw new CustomException(ErrorCode.SELECTED_STUDENTS_EXCEED_CAPACITY);
+                }
+                break;
 
+            case OVERRIDE:
                 log.warn("CAPACITY_OVERRIDE: Class {} will enroll {} students (capacity: {}). Reason: {}. Approved by user {}",
                         request.getClassId(), studentsToEnroll.size(), classEntity.getMaxCapacity(),
                         request.getOverrideReason(), enrolledBy);
@@ -394,8 +496,6 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             default:
                 throw new CustomException(ErrorCode.INVALID_ENROLLMENT_STRATEGY);
         }
-
-        return studentsToEnroll;
     }
 
     /**
@@ -526,76 +626,6 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .build();
     }
 
-    /**
-     * Create student nhanh từ Excel data
-     */
-    private Student createStudentQuick(StudentEnrollmentData data, Long branchId, Long enrolledBy) {
-        log.info("Creating new student: {}", data.getEmail());
-
-        // 1. Create user_account
-        UserAccount user = new UserAccount();
-        user.setEmail(data.getEmail());
-        user.setFullName(data.getFullName());
-        user.setPhone(data.getPhone());
-        user.setFacebookUrl(data.getFacebookUrl());
-        user.setAddress(data.getAddress());
-        user.setGender(data.getGender());
-        user.setDob(data.getDob());
-        user.setStatus(UserStatus.ACTIVE);
-        user.setPasswordHash(passwordEncoder.encode(generateTemporaryPassword()));
-        UserAccount savedUser = userAccountRepository.save(user);
-
-        log.debug("Created user_account: ID {}", savedUser.getId());
-
-        // 2. Create student
-        Student student = new Student();
-        student.setUserAccount(savedUser);
-        student.setStudentCode(generateStudentCode(branchId, data.getFullName(), data.getEmail()));
-        Student savedStudent = studentRepository.save(student);
-
-        log.debug("Created student: ID {}, Code {}", savedStudent.getId(), savedStudent.getStudentCode());
-
-        // 3. Assign STUDENT role
-        Role studentRole = roleRepository.findByCode("STUDENT")
-                .orElseThrow(() -> new EntityNotFoundException("STUDENT role not found"));
-
-        UserRole.UserRoleId userRoleId = new UserRole.UserRoleId();
-        userRoleId.setUserId(savedUser.getId());
-        userRoleId.setRoleId(studentRole.getId());
-
-        UserRole userRole = new UserRole();
-        userRole.setId(userRoleId);
-        userRole.setUserAccount(savedUser);
-        userRole.setRole(studentRole);
-        userRoleRepository.save(userRole);
-
-        log.debug("Assigned STUDENT role to user {}", savedUser.getId());
-
-        // 4. Assign to branch
-        Branch branch = new Branch();
-        branch.setId(branchId);
-
-        UserBranches.UserBranchesId userBranchId = new UserBranches.UserBranchesId();
-        userBranchId.setUserId(savedUser.getId());
-        userBranchId.setBranchId(branchId);
-
-        UserBranches userBranch = new UserBranches();
-        userBranch.setId(userBranchId);
-        userBranch.setUserAccount(savedUser);
-        userBranch.setBranch(branch);
-        // Note: assignedBy should be the enrolledBy user, but we don't have it here
-        // This is acceptable as the enrollment record tracks enrolled_by
-        userBranchesRepository.save(userBranch);
-
-        log.debug("Assigned user {} to branch {}", savedUser.getId(), branchId);
-
-        // REMOVED: Skill assessment creation from Excel data
-        // Assessments are now handled separately through dedicated individual student creation workflow
-        log.debug("Student creation completed without assessment data for student {}", savedStudent.getId());
-
-        return savedStudent;
-    }
-
     /**
      * Validate class có đủ điều kiện để enroll không
      */
@@ -614,53 +644,6 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         return classEntity;
     }
 
-    /**
-     * Generate temporary password cho student mới
-     */
-    private String generateTemporaryPassword() {
-        // Generate random 8-character password
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        StringBuilder password = new StringBuilder();
-        Random random = new Random();
-        for (int i = 0; i < 8; i++) {
-            password.append(chars.charAt(random.nextInt(chars.length())));
-        }
-        return password.toString();
-    }
-
-    /**
-     * Generate student code
-     * Format: ST{branchId}{timestamp}
-     */
-    private String generateStudentCode(Long branchId, String fullName, String email) {
-        String baseName;
-
-        // Ưu tiên dùng fullName, nếu không có thì dùng email
-        if (fullName != null && !fullName.trim().isEmpty()) {
-            // Loại bỏ ký tự đặc biệt, spaces và chuyển thành uppercase
-            baseName = fullName.replaceAll("[^a-zA-Z0-9]", "").toUpperCase();
-            // Giới hạn độ dài tối đa 10 ký tự
-            if (baseName.length() > 10) {
-                baseName = baseName.substring(0, 10);
-            }
-        } else if (email != null && email.contains("@")) {
-            // Lấy phần trước @ của email
-            baseName = email.substring(0, email.indexOf("@")).replaceAll("[^a-zA-Z0-9]", "").toUpperCase();
-            // Giới hạn độ dài tối đa 10 ký tự
-            if (baseName.length() > 10) {
-                baseName = baseName.substring(0, 10);
-            }
-        } else {
-            // Fallback: dùng timestamp
-            baseName = String.valueOf(System.currentTimeMillis()).substring(6);
-        }
-
-        // Thêm random number để đảm bảo uniqueness
-        int randomSuffix = (int) (Math.random() * 1000);
-
-        return String.format("ST%d%s%d", branchId, baseName, randomSuffix);
-    }
-
     /**
      * Create initial skill assessment for new student
      * Only creates if level is provided and valid
@@ -674,7 +657,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         try {
             // Find level by code (assuming level code is unique across subjects for simplicity)
             // In real implementation, you might need subject ID as well
-            Level level = levelRepository.findByCodeIgnoreCase(levelCode.trim())
+            Level level = levelService.findLevelIdByCode(levelCode)
+                    .map(levelRepository::getReferenceById)
                     .orElse(null);
 
             if (level == null) {
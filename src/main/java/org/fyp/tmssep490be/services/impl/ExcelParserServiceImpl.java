@@ -1,23 +1,45 @@
 package org.fyp.tmssep490be.services.impl;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.fyp.tmssep490be.dtos.enrollment.StudentEnrollmentData;
 import org.fyp.tmssep490be.dtos.enrollment.StudentResolutionStatus;
 import org.fyp.tmssep490be.entities.enums.Gender;
 import org.fyp.tmssep490be.exceptions.CustomException;
 import org.fyp.tmssep490be.exceptions.ErrorCode;
 import org.fyp.tmssep490be.services.ExcelParserService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Implementation của ExcelParserService
@@ -27,6 +49,8 @@ import java.util.List;
  * Simplified format focuses on basic student information only
  * Student code will be auto-generated by the system
  * Assessment data is handled separately through dedicated endpoints
+ *
+ * Sheet được đọc bằng POI SAX event model (XSSFReader), memory không phụ thuộc kích thước sheet
  */
 @Service
 @Slf4j
@@ -40,6 +64,9 @@ public class ExcelParserServiceImpl implements ExcelParserService {
     private static final int COLUMN_ADDRESS = 4;
     private static final int COLUMN_GENDER = 5;
     private static final int COLUMN_DOB = 6;
+    private static final int COLUMN_COUNT = 7;
+
+    private static final int DEFAULT_MAX_ROWS = 2000;
 
     private static final DateTimeFormatter[] DATE_FORMATTERS = {
             DateTimeFormatter.ofPattern("yyyy-MM-dd"),
@@ -47,104 +74,163 @@ public class ExcelParserServiceImpl implements ExcelParserService {
             DateTimeFormatter.ofPattern("MM/dd/yyyy")
     };
 
+    @Value("${enrollment.import.max-rows:" + DEFAULT_MAX_ROWS + "}")
+    private int maxRows = DEFAULT_MAX_ROWS;
+
     @Override
     public List<StudentEnrollmentData> parseStudentEnrollment(MultipartFile file) {
         List<StudentEnrollmentData> students = new ArrayList<>();
+        parseStudentEnrollment(file, students::add);
 
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-
-            // For generic templates: skip header row only (start from row 1)
-            // For class-specific templates: skip class info row (row 0) and header row (row 1), start from row 2
-            // Detect if this is a class-specific template by checking first cell content
-            Row firstRow = sheet.getRow(0);
-            boolean isClassSpecificTemplate = false;
+        if (students.isEmpty()) {
+            throw new CustomException(ErrorCode.EXCEL_FILE_EMPTY);
+        }
+        return students;
+    }
 
-            if (firstRow != null && firstRow.getCell(0) != null) {
-                String firstCellValue = firstRow.getCell(0).getStringCellValue();
-                if (firstCellValue != null && firstCellValue.startsWith("Class:")) {
-                    isClassSpecificTemplate = true;
-                }
+    @Override
+    public int parseStudentEnrollment(MultipartFile file, Consumer<StudentEnrollmentData> rowHandler) {
+        Path tempFile = null;
+        try {
+            // OPCPackage đọc từ File chỉ giữ zip index, không inflate cả package vào heap như từ InputStream
+            tempFile = Files.createTempFile("enrollment-import-", ".xlsx");
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
             }
 
-            // Start parsing from appropriate row
-            int startRow = isClassSpecificTemplate ? 2 : 1;
-            for (int i = startRow; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null || isRowEmpty(row)) {
-                    continue;
+            try (OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    throw new CustomException(ErrorCode.EXCEL_FILE_EMPTY);
                 }
 
+                EnrollmentRowHandler handler = new EnrollmentRowHandler(rowHandler);
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(),
+                        new ReadOnlySharedStringsTable(pkg),
+                        handler,
+                        new EnrollmentCellFormatter(),
+                        false));
+
+                try (InputStream sheet = sheets.next()) {
+                    parser.parse(new InputSource(sheet));
+                }
+                return handler.emittedRows;
+            }
+        } catch (IOException | SAXException | OpenXML4JException | ParserConfigurationException
+                 | NotOfficeXmlFileException e) {
+            log.error("Failed to parse Excel file", e);
+            throw new CustomException(ErrorCode.EXCEL_PARSE_FAILED);
+        } finally {
+            if (tempFile != null) {
                 try {
-                    StudentEnrollmentData data = parseRow(row, i);
-                    students.add(data);
-                } catch (Exception e) {
-                    log.warn("Error parsing row {}: {}", i + 1, e.getMessage());
-                    // Mark row có lỗi
-                    StudentEnrollmentData errorData = StudentEnrollmentData.builder()
-                            .status(StudentResolutionStatus.ERROR)
-                            .errorMessage("Row " + (i + 1) + ": " + e.getMessage())
-                            .build();
-                    students.add(errorData);
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("Could not delete temp file {}", tempFile);
                 }
             }
+        }
+    }
+
+    /**
+     * Nhận cell events từ SAX parser, mỗi row parse xong được emit ngay (không giữ sheet trong memory)
+     * For generic templates: skip header row only (start from row 1)
+     * For class-specific templates: skip class info row (row 0) and header row (row 1), start from row 2
+     */
+    private class EnrollmentRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Consumer<StudentEnrollmentData> rowHandler;
+        private final String[] values = new String[COLUMN_COUNT];
+        private int startRow = 1;
+        private int emittedRows = 0;
+
+        private EnrollmentRowHandler(Consumer<StudentEnrollmentData> rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(values, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (column < COLUMN_COUNT) {
+                values[column] = normalize(formattedValue);
+            }
+        }
 
-            if (students.isEmpty()) {
-                throw new CustomException(ErrorCode.EXCEL_FILE_EMPTY);
+        @Override
+        public void endRow(int rowNum) {
+            // Detect class-specific template by checking first cell content
+            if (rowNum == 0 && values[COLUMN_FULL_NAME] != null && values[COLUMN_FULL_NAME].startsWith("Class:")) {
+                startRow = 2;
+            }
+            if (rowNum < startRow || isRowEmpty(values)) {
+                return;
             }
 
-        } catch (IOException e) {
-            log.error("Failed to parse Excel file", e);
-            throw new CustomException(ErrorCode.EXCEL_PARSE_FAILED);
+            if (emittedRows >= maxRows) {
+                log.warn("Excel file exceeds {} data rows, stop parsing at row {}", maxRows, rowNum + 1);
+                throw new CustomException(ErrorCode.EXCEL_TOO_MANY_ROWS);
+            }
+
+            StudentEnrollmentData data;
+            try {
+                data = parseRow(values);
+            } catch (Exception e) {
+                log.warn("Error parsing row {}: {}", rowNum + 1, e.getMessage());
+                // Mark row có lỗi
+                data = StudentEnrollmentData.builder()
+                        .status(StudentResolutionStatus.ERROR)
+                        .errorMessage("Row " + (rowNum + 1) + ": " + e.getMessage())
+                        .build();
+            }
+            emittedRows++;
+            rowHandler.accept(data);
         }
+    }
 
-        return students;
+    /**
+     * Format numeric cells the same way as the former DOM parser:
+     * date cells as yyyy-MM-dd, other numbers without decimal (phone numbers)
+     */
+    private static class EnrollmentCellFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return String.valueOf((long) value);
+        }
     }
 
     /**
      * Parse một row thành StudentEnrollmentData
      * Simplified 7-column format: full_name, email, phone, facebook_url, address, gender, dob
      */
-    private StudentEnrollmentData parseRow(Row row, int rowIndex) {
+    private StudentEnrollmentData parseRow(String[] values) {
         return StudentEnrollmentData.builder()
-                .fullName(getCellValueAsString(row.getCell(COLUMN_FULL_NAME)))
-                .email(getCellValueAsString(row.getCell(COLUMN_EMAIL)))
-                .phone(getCellValueAsString(row.getCell(COLUMN_PHONE)))
-                .facebookUrl(getCellValueAsString(row.getCell(COLUMN_FACEBOOK_URL)))
-                .address(getCellValueAsString(row.getCell(COLUMN_ADDRESS)))
-                .gender(parseGender(getCellValueAsString(row.getCell(COLUMN_GENDER))))
-                .dob(parseDob(getCellValueAsString(row.getCell(COLUMN_DOB))))
+                .fullName(values[COLUMN_FULL_NAME])
+                .email(values[COLUMN_EMAIL])
+                .phone(values[COLUMN_PHONE])
+                .facebookUrl(values[COLUMN_FACEBOOK_URL])
+                .address(values[COLUMN_ADDRESS])
+                .gender(parseGender(values[COLUMN_GENDER]))
+                .dob(parseDob(values[COLUMN_DOB]))
                 // Assessment fields removed - handled separately through dedicated endpoints
                 .build();
     }
 
-    /**
-     * Get cell value as String
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
+    private static String normalize(String value) {
+        if (value == null) {
             return null;
         }
-
-        return switch (cell.getCellType()) {
-            case STRING -> {
-                String value = cell.getStringCellValue().trim();
-                yield value.isEmpty() ? null : value;
-            }
-            case NUMERIC -> {
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    // Date cell
-                    LocalDate date = cell.getLocalDateTimeCellValue().toLocalDate();
-                    yield date.toString();
-                } else {
-                    // Numeric cell - convert to string without decimal
-                    yield String.valueOf((long) cell.getNumericCellValue());
-                }
-            }
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case BLANK -> null;
-            default -> cell.toString().trim();
-        };
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
     }
 
     /**
@@ -192,14 +278,10 @@ public class ExcelParserServiceImpl implements ExcelParserService {
     /**
      * Check if row is empty
      */
-    private boolean isRowEmpty(Row row) {
-        for (int i = 0; i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String value = getCellValueAsString(cell);
-                if (value != null && !value.isEmpty()) {
-                    return false;
-                }
+    private static boolean isRowEmpty(String[] values) {
+        for (String value : values) {
+            if (value != null) {
+                return false;
             }
         }
         return true;
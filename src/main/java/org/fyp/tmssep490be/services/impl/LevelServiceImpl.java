@@ -1,13 +1,29 @@
 package org.fyp.tmssep490be.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.fyp.tmssep490be.config.CacheConfiguration;
+import org.fyp.tmssep490be.entities.Level;
 import org.fyp.tmssep490be.repositories.LevelRepository;
 import org.fyp.tmssep490be.services.LevelService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class LevelServiceImpl implements LevelService {
 
     private final LevelRepository levelRepository;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfiguration.LEVEL_IDS_BY_CODE, key = "#code.trim().toUpperCase()", condition = "#code != null")
+    @Transactional(readOnly = true)
+    public Optional<Long> findLevelIdByCode(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        return levelRepository.findByCodeIgnoreCase(code.trim()).map(Level::getId);
+    }
 }
@@ -0,0 +1,49 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.entities.CourseMaterial;
+
+import java.util.Set;
+
+/**
+ * Material access của một student trong một course, tính sẵn một lần rồi trả lời mọi material check trong memory
+ * Rules giống MaterialAccessServiceImpl.canAccessMaterial
+ */
+class MaterialAccessEvaluator {
+
+    private final Long courseId;
+    private final boolean enrolled;
+    private final Set<Long> unlockedPhaseIds;
+    private final Set<Long> completedCourseSessionIds;
+
+    MaterialAccessEvaluator(Long courseId, boolean enrolled, Set<Long> unlockedPhaseIds,
+                            Set<Long> completedCourseSessionIds) {
+        this.courseId = courseId;
+        this.enrolled = enrolled;
+        this.unlockedPhaseIds = Set.copyOf(unlockedPhaseIds);
+        this.completedCourseSessionIds = Set.copyOf(completedCourseSessionIds);
+    }
+
+    static MaterialAccessEvaluator notEnrolled(Long courseId) {
+        return new MaterialAccessEvaluator(courseId, false, Set.of(), Set.of());
+    }
+
+    boolean canAccess(CourseMaterial material) {
+        // Materials of another course are never accessible through this course
+        if (!enrolled || material.getCourse() == null || !courseId.equals(material.getCourse().getId())) {
+            return false;
+        }
+
+        // Course-level materials are always available
+        if (material.getPhase() == null && material.getCourseSession() == null) {
+            return true;
+        }
+
+        // Phase-level materials are available when phase starts
+        if (material.getCourseSession() == null) {
+            return unlockedPhaseIds.contains(material.getPhase().getId());
+        }
+
+        // Session-level materials are available after session completes
+        return completedCourseSessionIds.contains(material.getCourseSession().getId());
+    }
+}
@@ -10,7 +10,15 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -109,7 +117,53 @@ public class MaterialAccessServiceImpl implements MaterialAccessService {
         return isSessionCompleted(enrollment, session);
     }
 
+    @Override
+    public Map<Long, Boolean> canAccessMaterials(Long studentId, Long courseId, Collection<Long> materialIds) {
+        log.debug("Checking access for student {} to {} materials of course {}", studentId, materialIds.size(), courseId);
+
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        if (materialIds.isEmpty()) {
+            return result;
+        }
+
+        MaterialAccessEvaluator evaluator = buildAccessEvaluator(studentId, courseId);
+        Map<Long, CourseMaterial> materials = courseMaterialRepository.findAllById(materialIds).stream()
+                .collect(Collectors.toMap(CourseMaterial::getId, Function.identity()));
+
+        for (Long materialId : materialIds) {
+            CourseMaterial material = materials.get(materialId);
+            result.put(materialId, material != null && evaluator.canAccess(material));
+        }
+        return result;
+    }
+
+    /**
+     * Tính access của student trong course: 1 query enrollment, 1 query phases + sessions, 1 query completed sessions
+     */
+    private MaterialAccessEvaluator buildAccessEvaluator(Long studentId, Long courseId) {
+        Enrollment enrollment = enrollmentRepository
+                .findByStudentIdAndCourseIdAndStatus(studentId, courseId, EnrollmentStatus.ENROLLED);
+        if (enrollment == null) {
+            log.debug("Student {} not enrolled in course {}", studentId, courseId);
+            return MaterialAccessEvaluator.notEnrolled(courseId);
+        }
+
+        Set<Long> unlockedPhaseIds = coursePhaseRepository.findByCourseIdWithSessions(courseId).stream()
+                .filter(phase -> isPhaseStarted(enrollment, phase.getCourseSessions()))
+                .map(CoursePhase::getId)
+                .collect(Collectors.toSet());
+
+        Set<Long> completedCourseSessionIds = new HashSet<>(
+                studentSessionRepository.findCompletedCourseSessionIds(studentId, courseId));
+
+        return new MaterialAccessEvaluator(courseId, true, unlockedPhaseIds, completedCourseSessionIds);
+    }
+
     private boolean isPhaseStarted(Enrollment enrollment, CoursePhase phase) {
+        return isPhaseStarted(enrollment, courseSessionRepository.findByPhaseIdOrderBySequenceNo(phase.getId()));
+    }
+
+    private boolean isPhaseStarted(Enrollment enrollment, Collection<CourseSession> phaseSessions) {
         // A phase is considered started if the class has started and we've reached the phase
         LocalDate classStartDate = enrollment.getClassEntity().getStartDate();
         if (classStartDate == null) {
@@ -117,10 +171,10 @@ public class MaterialAccessServiceImpl implements MaterialAccessService {
         }
 
         // Calculate the start date of this phase based on session sequence
-        List<CourseSession> sessionsBeforePhase = courseSessionRepository
-                .findByPhaseIdOrderBySequenceNo(phase.getId())
+        List<CourseSession> sessionsBeforePhase = phaseSessions
                 .stream()
                 .filter(session -> session.getSequenceNo() <= 1) // First session of this phase
+                .sorted(Comparator.comparing(CourseSession::getSequenceNo))
                 .toList();
 
         if (sessionsBeforePhase.isEmpty()) {
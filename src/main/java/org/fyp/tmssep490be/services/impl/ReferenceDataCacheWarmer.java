@@ -0,0 +1,57 @@
+package org.fyp.tmssep490be.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.dtos.branch.BranchDTO;
+import org.fyp.tmssep490be.entities.Level;
+import org.fyp.tmssep490be.entities.Role;
+import org.fyp.tmssep490be.repositories.LevelRepository;
+import org.fyp.tmssep490be.repositories.RoleRepository;
+import org.fyp.tmssep490be.services.BranchService;
+import org.fyp.tmssep490be.services.CurriculumService;
+import org.fyp.tmssep490be.services.LevelService;
+import org.fyp.tmssep490be.services.RoleService;
+import org.fyp.tmssep490be.services.TimeSlotTemplateService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nạp sẵn reference data caches khi app start, request đầu tiên không phải chịu cache miss
+ * Lỗi khi warm-up chỉ log lại, cache sẽ được nạp dần theo request
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "reference-data.cache", name = "warm-up", havingValue = "true", matchIfMissing = true)
+public class ReferenceDataCacheWarmer {
+
+    private final CurriculumService curriculumService;
+    private final BranchService branchService;
+    private final TimeSlotTemplateService timeSlotTemplateService;
+    private final RoleService roleService;
+    private final LevelService levelService;
+    private final RoleRepository roleRepository;
+    private final LevelRepository levelRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            curriculumService.getAllSubjectsWithLevels();
+            for (BranchDTO branch : branchService.getAllBranches()) {
+                timeSlotTemplateService.getTimeSlotsByBranch(branch.getId());
+            }
+            for (Role role : roleRepository.findAll()) {
+                roleService.findRoleIdByCode(role.getCode());
+            }
+            for (Level level : levelRepository.findAll()) {
+                levelService.findLevelIdByCode(level.getCode());
+            }
+            log.info("Warmed up reference data caches in {} ms", System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("Reference data cache warm-up failed, caches will be filled on demand", e);
+        }
+    }
+}
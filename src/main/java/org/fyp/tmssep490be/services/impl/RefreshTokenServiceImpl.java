@@ -0,0 +1,179 @@
+package org.fyp.tmssep490be.services.impl;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.entities.RefreshToken;
+import org.fyp.tmssep490be.entities.enums.RefreshTokenStatus;
+import org.fyp.tmssep490be.exceptions.InvalidTokenException;
+import org.fyp.tmssep490be.repositories.RefreshTokenRepository;
+import org.fyp.tmssep490be.security.JwtTokenProvider;
+import org.fyp.tmssep490be.security.RevokedTokenFamilyCache;
+import org.fyp.tmssep490be.services.RefreshTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh token store backed by the refresh_token table (only SHA-256 of the jti is stored)
+ * - Mỗi lần login tạo một family, mỗi lần refresh rotate sang token mới cùng family
+ * - Token đã rotate bị dùng lại (sau grace period) → nghi bị đánh cắp → revoke cả family
+ * - Revoked families được giữ trong RevokedTokenFamilyCache để JWT filter check không cần DB,
+ *   các instance khác đồng bộ định kỳ từ DB
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final RevokedTokenFamilyCache revokedTokenFamilyCache;
+    private final Duration reuseGracePeriod;
+    private final Duration revocationSyncOverlap;
+
+    // revoked_at mới nhất đã đồng bộ vào cache, guarded by "this"
+    private OffsetDateTime lastRevocationSync;
+
+    @Autowired
+    public RefreshTokenServiceImpl(
+            RefreshTokenRepository refreshTokenRepository,
+            JwtTokenProvider jwtTokenProvider,
+            RevokedTokenFamilyCache revokedTokenFamilyCache,
+            @Value("${spring.security.jwt.refresh-token-store.reuse-grace-period:10000}") long reuseGracePeriodInMs,
+            @Value("${spring.security.jwt.refresh-token-store.revocation-sync-interval:30000}") long revocationSyncIntervalInMs,
+            @Value("${spring.security.jwt.refresh-token-store.max-clock-skew:30000}") long maxClockSkewInMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.revokedTokenFamilyCache = revokedTokenFamilyCache;
+        this.reuseGracePeriod = Duration.ofMillis(reuseGracePeriodInMs);
+        this.revocationSyncOverlap = Duration.ofMillis(revocationSyncIntervalInMs + maxClockSkewInMs);
+        // Revocations older than one access token lifetime no longer matter to the JWT filter
+        this.lastRevocationSync = OffsetDateTime.now().minusSeconds(jwtTokenProvider.getAccessTokenExpirationInSeconds());
+    }
+
+    @Override
+    @Transactional
+    public IssuedRefreshToken issue(Long userId, String email) {
+        return issueInFamily(userId, email, UUID.randomUUID().toString());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public IssuedRefreshToken rotate(Claims refreshTokenClaims) {
+        String familyId = refreshTokenClaims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class);
+        String tokenId = refreshTokenClaims.getId();
+        if (familyId == null || tokenId == null) {
+            // Token cấp trước khi có token store
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+        // 1. Family đã revoke: reject không cần đọc DB
+        if (revokedTokenFamilyCache.isRevoked(familyId)) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+
+        // 2. Rotate atomically, chỉ một request thắng khi refresh song song cùng token
+        String tokenHash = hash(tokenId);
+        OffsetDateTime now = OffsetDateTime.now();
+        if (refreshTokenRepository.markRotated(tokenHash, now) == 1) {
+            Long userId = refreshTokenClaims.get("userId", Long.class);
+            return issueInFamily(userId, refreshTokenClaims.getSubject(), familyId);
+        }
+
+        // 3. Token không còn ACTIVE: unknown, revoked hoặc bị dùng lại
+        Optional<RefreshToken> existing = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (existing.isEmpty() || existing.get().getStatus() == RefreshTokenStatus.REVOKED) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+        RefreshToken rotated = existing.get();
+        if (rotated.getRotatedAt() != null && rotated.getRotatedAt().plus(reuseGracePeriod).isAfter(now)) {
+            // Các tab/request song song của cùng client refresh cùng lúc, không coi là reuse
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+        log.warn("Refresh token reuse detected for user {}, revoking family {}", rotated.getUserId(), familyId);
+        revokeFamily(familyId);
+        throw new InvalidTokenException("Refresh token has been revoked");
+    }
+
+    @Override
+    @Transactional
+    public void revokeFamily(String familyId) {
+        int revoked = refreshTokenRepository.revokeFamily(familyId, OffsetDateTime.now());
+        revokedTokenFamilyCache.revoke(familyId);
+        log.info("Revoked refresh token family {} ({} tokens)", familyId, revoked);
+    }
+
+    @Override
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        List<String> familyIds = refreshTokenRepository.findActiveFamilyIdsByUserId(userId);
+        int revoked = refreshTokenRepository.revokeAllByUserId(userId, OffsetDateTime.now());
+        revokedTokenFamilyCache.revokeAll(familyIds);
+        log.info("Revoked {} refresh token families of user {} ({} tokens)", familyIds.size(), userId, revoked);
+    }
+
+    /**
+     * Đồng bộ families bị revoke bởi instance khác vào cache local
+     * - Cursor là revoked_at lớn nhất đã đọc (clock của instance đã revoke, không phải clock local)
+     * - Đọc lại một khoảng overlap (sync interval + clock skew): revocation commit muộn hoặc từ instance
+     *   có clock chậm mang revoked_at nhỏ hơn cursor; revokeAll idempotent nên đọc lại không sao
+     */
+    @Scheduled(fixedDelayString = "${spring.security.jwt.refresh-token-store.revocation-sync-interval:30000}")
+    @Transactional(readOnly = true)
+    public synchronized void syncRevokedFamilies() {
+        List<RefreshTokenRepository.RevokedFamily> revoked =
+                refreshTokenRepository.findFamiliesRevokedSince(lastRevocationSync.minus(revocationSyncOverlap));
+        revokedTokenFamilyCache.revokeAll(revoked.stream().map(RefreshTokenRepository.RevokedFamily::getFamilyId).toList());
+        revoked.stream()
+                .map(RefreshTokenRepository.RevokedFamily::getRevokedAt)
+                .max(OffsetDateTime::compareTo)
+                .filter(latest -> latest.isAfter(lastRevocationSync))
+                .ifPresent(latest -> lastRevocationSync = latest);
+        log.debug("Synced {} revoked refresh token families", revoked.size());
+    }
+
+    /**
+     * Xóa token đã hết hạn (không còn dùng được, cũng không cần cho reuse detection)
+     * Runs daily at 2:00 AM
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    @Transactional
+    public void purgeExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(OffsetDateTime.now());
+        log.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private IssuedRefreshToken issueInFamily(Long userId, String email, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        String token = jwtTokenProvider.generateRefreshToken(userId, email, tokenId, familyId);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(tokenId))
+                .familyId(familyId)
+                .userId(userId)
+                .status(RefreshTokenStatus.ACTIVE)
+                .expiresAt(OffsetDateTime.now().plus(Duration.ofMillis(jwtTokenProvider.getRefreshTokenValidityInMs())))
+                .build());
+        return new IssuedRefreshToken(token, familyId);
+    }
+
+    private static String hash(String tokenId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(tokenId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
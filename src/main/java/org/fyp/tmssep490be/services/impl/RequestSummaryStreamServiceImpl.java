@@ -0,0 +1,146 @@
+package org.fyp.tmssep490be.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.dtos.studentrequest.RequestSummaryDTO;
+import org.fyp.tmssep490be.exceptions.BusinessRuleException;
+import org.fyp.tmssep490be.repositories.ClassRepository;
+import org.fyp.tmssep490be.security.BranchScopeResolver;
+import org.fyp.tmssep490be.services.RequestSummaryStreamService;
+import org.fyp.tmssep490be.services.StudentRequestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pending summary push qua SSE cho màn hình Academic Affairs
+ * - Emitter được giữ trong memory của instance đang phục vụ kết nối, bị bỏ khi complete/timeout/error
+ * - Publish chạy trên một thread riêng: request thread commit xong không phải chờ các aggregate query
+ * - Summary được tính một lần cho mỗi branch scope khác nhau (nhiều AA cùng branch dùng chung kết quả)
+ */
+@Service
+@Slf4j
+public class RequestSummaryStreamServiceImpl implements RequestSummaryStreamService {
+
+    private static final String SUMMARY_EVENT = "summary";
+
+    private final StudentRequestService studentRequestService;
+    private final BranchScopeResolver branchScopeResolver;
+    private final ClassRepository classRepository;
+    private final long timeoutInMs;
+    private final ExecutorService publishExecutor;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public RequestSummaryStreamServiceImpl(
+            StudentRequestService studentRequestService,
+            BranchScopeResolver branchScopeResolver,
+            ClassRepository classRepository,
+            @Value("${academic-requests.summary-stream.timeout:1800000}") long timeoutInMs) {
+        this.studentRequestService = studentRequestService;
+        this.branchScopeResolver = branchScopeResolver;
+        this.classRepository = classRepository;
+        this.timeoutInMs = timeoutInMs;
+        this.publishExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-summary-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publishExecutor.shutdown();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        subscriptions.clear();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long currentUserId, Long branchId) {
+        // SECURITY: same branch scope as GET /pending summary
+        List<Long> userBranchIds = branchScopeResolver.getBranchIds(currentUserId);
+        if (userBranchIds.isEmpty()) {
+            throw new BusinessRuleException("ACCESS_DENIED",
+                    "User is not assigned to any branch. Contact administrator.");
+        }
+        if (branchId != null && !userBranchIds.contains(branchId)) {
+            throw new BusinessRuleException("ACCESS_DENIED",
+                    "Access denied to branch ID: " + branchId);
+        }
+        List<Long> branchIds = branchId != null ? List.of(branchId) : List.copyOf(userBranchIds);
+
+        SseEmitter emitter = new SseEmitter(timeoutInMs);
+        Subscription subscription = new Subscription(emitter, branchIds);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> {
+            subscriptions.remove(subscription);
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+
+        // Summary hiện tại, SseEmitter giữ lại cho tới khi response được khởi tạo
+        send(subscription, studentRequestService.getRequestSummaryByBranches(branchIds));
+        log.debug("User {} subscribed to request summary of branches {}", currentUserId, branchIds);
+        return emitter;
+    }
+
+    @Override
+    public void publish(Collection<Long> classIds) {
+        if (subscriptions.isEmpty() || classIds.isEmpty()) {
+            return;
+        }
+        Set<Long> changedClassIds = Set.copyOf(classIds);
+        publishExecutor.execute(() -> {
+            try {
+                pushSummaries(changedClassIds);
+            } catch (RuntimeException e) {
+                log.warn("Failed to push request summary for classes {}", changedClassIds, e);
+            }
+        });
+    }
+
+    private void pushSummaries(Set<Long> classIds) {
+        Set<Long> changedBranchIds = new HashSet<>(classRepository.findBranchIdsByClassIds(classIds));
+        Map<List<Long>, RequestSummaryDTO> summaryByScope = new HashMap<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.branchIds.stream().noneMatch(changedBranchIds::contains)) {
+                continue;
+            }
+            RequestSummaryDTO summary = summaryByScope.computeIfAbsent(
+                    subscription.branchIds, studentRequestService::getRequestSummaryByBranches);
+            send(subscription, summary);
+        }
+        log.debug("Pushed request summary of branches {} to {} scopes", changedBranchIds, summaryByScope.size());
+    }
+
+    private void send(Subscription subscription, RequestSummaryDTO summary) {
+        try {
+            subscription.emitter.send(SseEmitter.event().name(SUMMARY_EVENT).data(summary));
+        } catch (IOException | IllegalStateException e) {
+            // Client đã đóng kết nối hoặc emitter đã complete
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Subscription {
+        private final SseEmitter emitter;
+        private final List<Long> branchIds;
+    }
+}
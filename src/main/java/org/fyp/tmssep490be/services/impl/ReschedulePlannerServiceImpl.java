@@ -0,0 +1,137 @@
+package org.fyp.tmssep490be.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.dtos.teacherrequest.RescheduleResourceSuggestionDTO;
+import org.fyp.tmssep490be.dtos.teacherrequest.RescheduleSlotAvailabilityDTO;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Resource;
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.SessionResource;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+import org.fyp.tmssep490be.entities.enums.Modality;
+import org.fyp.tmssep490be.entities.enums.ResourceType;
+import org.fyp.tmssep490be.entities.enums.SessionStatus;
+import org.fyp.tmssep490be.entities.enums.TeachingSlotStatus;
+import org.fyp.tmssep490be.exceptions.CustomException;
+import org.fyp.tmssep490be.exceptions.ErrorCode;
+import org.fyp.tmssep490be.repositories.ResourceRepository;
+import org.fyp.tmssep490be.repositories.SessionResourceRepository;
+import org.fyp.tmssep490be.repositories.StudentSessionRepository;
+import org.fyp.tmssep490be.repositories.TeachingSlotRepository;
+import org.fyp.tmssep490be.services.ReschedulePlannerService;
+import org.fyp.tmssep490be.services.StudentConflictService;
+import org.fyp.tmssep490be.services.TimeSlotTemplateService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReschedulePlannerServiceImpl implements ReschedulePlannerService {
+
+    // Session statuses that occupy a teacher/resource/student at a date + time slot
+    private static final List<SessionStatus> OCCUPYING_SESSION_STATUSES =
+            List.of(SessionStatus.PLANNED, SessionStatus.DONE);
+    private static final List<TeachingSlotStatus> ALL_TEACHING_SLOT_STATUSES =
+            List.of(TeachingSlotStatus.values());
+
+    private final TimeSlotTemplateService timeSlotTemplateService;
+    private final ResourceRepository resourceRepository;
+    private final SessionResourceRepository sessionResourceRepository;
+    private final TeachingSlotRepository teachingSlotRepository;
+    private final StudentSessionRepository studentSessionRepository;
+    private final StudentConflictService studentConflictService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RescheduleSlotAvailabilityDTO> buildAvailabilityGrid(Session session, Long teacherId, LocalDate date) {
+        ClassEntity classEntity = session.getClassEntity();
+        if (classEntity == null) {
+            throw new CustomException(ErrorCode.CLASS_NOT_FOUND);
+        }
+        Long branchId = classEntity.getBranch().getId();
+
+        // 1. Candidate resources: same branch, type suitable for class modality, enough capacity
+        long studentCount = studentSessionRepository.countBySessionId(session.getId());
+        List<Resource> candidateResources = resourceRepository.findByBranchId(branchId).stream()
+                .filter(r -> isResourceTypeAllowed(r.getResourceType(), classEntity.getModality()))
+                .filter(r -> r.getCapacity() == null || r.getCapacity() >= studentCount)
+                .sorted(Comparator.comparing(Resource::getName, Comparator.nullsLast(String::compareToIgnoreCase)))
+                .collect(Collectors.toList());
+
+        // 2. Resource bookings of the branch on that date, grouped by time slot
+        Map<Long, Set<Long>> bookedResourceIdsBySlot = new HashMap<>();
+        for (SessionResource booking : sessionResourceRepository.findBookingsByBranchIdAndDate(
+                branchId, date, OCCUPYING_SESSION_STATUSES)) {
+            TimeSlotTemplate bookedSlot = booking.getSession().getTimeSlotTemplate();
+            if (bookedSlot == null) {
+                continue;
+            }
+            bookedResourceIdsBySlot
+                    .computeIfAbsent(bookedSlot.getId(), k -> new HashSet<>())
+                    .add(booking.getId().getResourceId());
+        }
+
+        // 3. Time slots teacher already teaches on that date (the session being moved is excluded)
+        Set<Long> teacherOccupiedSlotIds = new HashSet<>(teachingSlotRepository.findOccupiedTimeSlotIdsByTeacherIdAndDate(
+                teacherId, date, OCCUPYING_SESSION_STATUSES, ALL_TEACHING_SLOT_STATUSES, session.getId()));
+
+        // 4. Time slots where at least one student of the session already has a session
+        Set<Long> studentConflictSlotIds = studentConflictService.findConflictingTimeSlotIds(session.getId(), date);
+
+        // 5. Assemble grid in memory over the branch's time slots (cached, ordered by start time)
+        return timeSlotTemplateService.getTimeSlotsByBranch(branchId).stream()
+                .map(slot -> {
+                    Set<Long> booked = bookedResourceIdsBySlot.getOrDefault(slot.getTimeSlotTemplateId(), Set.of());
+                    List<RescheduleResourceSuggestionDTO> freeResources = candidateResources.stream()
+                            .filter(r -> !booked.contains(r.getId()))
+                            .map(r -> RescheduleResourceSuggestionDTO.builder()
+                                    .resourceId(r.getId())
+                                    .name(r.getName())
+                                    .resourceType(r.getResourceType().name())
+                                    .capacity(r.getCapacity())
+                                    .branchId(branchId)
+                                    .build())
+                            .collect(Collectors.toList());
+
+                    return RescheduleSlotAvailabilityDTO.builder()
+                            .timeSlotId(slot.getTimeSlotTemplateId())
+                            .label(slot.getName())
+                            .startTime(slot.getStartTime())
+                            .endTime(slot.getEndTime())
+                            .teacherAvailable(!teacherOccupiedSlotIds.contains(slot.getTimeSlotTemplateId()))
+                            .studentsAvailable(!studentConflictSlotIds.contains(slot.getTimeSlotTemplateId()))
+                            .hasAvailableResource(!freeResources.isEmpty())
+                            .availableResourceCount(freeResources.size())
+                            .availableResources(freeResources)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resource type phù hợp với class modality
+     * - OFFLINE class → ROOM resource
+     * - ONLINE class → VIRTUAL resource
+     * - HYBRID class → có thể dùng cả ROOM hoặc VIRTUAL
+     */
+    private boolean isResourceTypeAllowed(ResourceType resourceType, Modality classModality) {
+        if (classModality == Modality.OFFLINE) {
+            return resourceType == ResourceType.ROOM;
+        }
+        if (classModality == Modality.ONLINE) {
+            return resourceType == ResourceType.VIRTUAL;
+        }
+        return true;
+    }
+}
@@ -1,13 +1,26 @@
 package org.fyp.tmssep490be.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.fyp.tmssep490be.config.CacheConfiguration;
+import org.fyp.tmssep490be.entities.Role;
 import org.fyp.tmssep490be.repositories.RoleRepository;
 import org.fyp.tmssep490be.services.RoleService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
+
+    @Override
+    @Cacheable(CacheConfiguration.ROLE_IDS_BY_CODE)
+    @Transactional(readOnly = true)
+    public Optional<Long> findRoleIdByCode(String code) {
+        return roleRepository.findByCode(code).map(Role::getId);
+    }
 }
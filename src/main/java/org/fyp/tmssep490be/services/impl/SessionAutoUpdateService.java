@@ -1,51 +1,90 @@
 package org.fyp.tmssep490be.services.impl;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.fyp.tmssep490be.entities.Session;
-import org.fyp.tmssep490be.entities.enums.SessionStatus;
+import org.fyp.tmssep490be.entities.ScheduledJobRunLog;
+import org.fyp.tmssep490be.repositories.ScheduledJobRunLogRepository;
 import org.fyp.tmssep490be.repositories.SessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Service to automatically update session status when date passes
  * Runs daily at 1:00 AM to mark past sessions as DONE
+ * Each chunk is one bulk UPDATE committed on its own, so an interrupted run is simply
+ * continued by the next one, and every chunk is recorded in scheduled_job_run_log
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SessionAutoUpdateService {
 
+    static final String JOB_NAME = "session-status-rollover";
+
     private final SessionRepository sessionRepository;
+    private final ScheduledJobRunLogRepository scheduledJobRunLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public SessionAutoUpdateService(
+            SessionRepository sessionRepository,
+            ScheduledJobRunLogRepository scheduledJobRunLogRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${session.auto-update.chunk-size:1000}") int chunkSize) {
+        this.sessionRepository = sessionRepository;
+        this.scheduledJobRunLogRepository = scheduledJobRunLogRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
 
     /**
      * Automatically mark sessions as DONE if their date has passed
      * Runs daily at 1:00 AM
      */
     @Scheduled(cron = "0 0 1 * * ?") // Every day at 1:00 AM
-    @Transactional
     public void updatePastSessionsToDone() {
         LocalDate today = LocalDate.now();
-        List<Session> pastSessions = sessionRepository.findPastSessionsByStatus(today, SessionStatus.PLANNED);
-        
-        if (pastSessions.isEmpty()) {
+        String runId = UUID.randomUUID().toString();
+
+        int totalUpdated = 0;
+        int chunkNo = 0;
+        int updated;
+        do {
+            int currentChunk = ++chunkNo;
+            Integer result = transactionTemplate.execute(status -> markChunkDone(runId, currentChunk, today));
+            updated = result != null ? result : 0;
+            totalUpdated += updated;
+        } while (updated == chunkSize);
+
+        if (totalUpdated == 0) {
             log.debug("No past sessions to update to DONE status");
-            return;
+        } else {
+            log.info("Automatically updated {} past sessions to DONE status (date < {}) in {} chunks, run {}",
+                    totalUpdated, today, chunkNo, runId);
         }
+    }
 
-        int updatedCount = 0;
-        for (Session session : pastSessions) {
-            session.setStatus(SessionStatus.DONE);
-            updatedCount++;
-        }
+    private int markChunkDone(String runId, int chunkNo, LocalDate today) {
+        long start = System.nanoTime();
+        List<Long> sessionIds = sessionRepository.markPastPlannedSessionsDone(today, chunkSize);
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+        scheduledJobRunLogRepository.save(ScheduledJobRunLog.builder()
+                .jobName(JOB_NAME)
+                .runId(runId)
+                .chunkNo(chunkNo)
+                .cutoffDate(today)
+                .rowsAffected(sessionIds.size())
+                .durationMs(durationMs)
+                .build());
 
-        log.info("Automatically updated {} past sessions to DONE status (date < {})", updatedCount, today);
+        log.debug("Session rollover chunk {}: {} sessions in {} ms", chunkNo, sessionIds.size(), durationMs);
+        return sessionIds.size();
     }
 }
-
-
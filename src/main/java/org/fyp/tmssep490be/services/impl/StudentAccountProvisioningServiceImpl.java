@@ -0,0 +1,183 @@
+package org.fyp.tmssep490be.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.dtos.enrollment.StudentEnrollmentData;
+import org.fyp.tmssep490be.entities.Role;
+import org.fyp.tmssep490be.entities.enums.Gender;
+import org.fyp.tmssep490be.entities.enums.UserStatus;
+import org.fyp.tmssep490be.exceptions.CustomException;
+import org.fyp.tmssep490be.exceptions.ErrorCode;
+import org.fyp.tmssep490be.repositories.RoleRepository;
+import org.fyp.tmssep490be.services.StudentAccountProvisioningService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class StudentAccountProvisioningServiceImpl implements StudentAccountProvisioningService {
+
+    // Rows per JDBC batch (matches hibernate.jdbc.batch_size)
+    private static final int BATCH_SIZE = 50;
+
+    private static final String PASSWORD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_USER_ACCOUNT_SQL =
+            "INSERT INTO user_account (id, email, phone, facebook_url, full_name, gender, dob, address, password_hash, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_STUDENT_SQL =
+            "INSERT INTO student (id, user_id, student_code) VALUES (?, ?, ?)";
+
+    private static final String INSERT_USER_ROLE_SQL =
+            "INSERT INTO user_role (user_id, role_id) VALUES (?, ?)";
+
+    private static final String INSERT_USER_BRANCHES_SQL =
+            "INSERT INTO user_branches (user_id, branch_id, assigned_by) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoleRepository roleRepository;
+    private final StudentCodeAllocator studentCodeAllocator;
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService passwordHashExecutor;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public StudentAccountProvisioningServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            RoleRepository roleRepository,
+            StudentCodeAllocator studentCodeAllocator,
+            PasswordEncoder passwordEncoder,
+            @Value("${enrollment.import.password-hash-threads:4}") int passwordHashThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.roleRepository = roleRepository;
+        this.studentCodeAllocator = studentCodeAllocator;
+        this.passwordEncoder = passwordEncoder;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.passwordHashExecutor = Executors.newFixedThreadPool(Math.max(1, passwordHashThreads), runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        passwordHashExecutor.shutdown();
+    }
+
+    @Override
+    public List<String> hashTemporaryPasswords(int count) {
+        // BCrypt là CPU-bound → hash song song trên executor giới hạn số thread
+        List<CompletableFuture<String>> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hashes.add(CompletableFuture.supplyAsync(
+                    () -> passwordEncoder.encode(generateTemporaryPassword()), passwordHashExecutor));
+        }
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    @Transactional
+    public List<Long> provisionStudents(List<StudentEnrollmentData> students, List<String> passwordHashes,
+                                        Long branchId, Long assignedBy) {
+        if (students.size() != passwordHashes.size()) {
+            throw new IllegalArgumentException("Expected " + students.size() + " password hashes, got " + passwordHashes.size());
+        }
+        if (students.isEmpty()) {
+            return List.of();
+        }
+        int count = students.size();
+        log.info("Provisioning {} student accounts for branch {}", count, branchId);
+
+        // 1. STUDENT role - một lần cho cả batch
+        Role studentRole = roleRepository.findByCode("STUDENT")
+                .orElseThrow(() -> new CustomException(ErrorCode.STUDENT_ROLE_NOT_FOUND));
+
+        // 2. Reserve ids theo block (một round trip cho mỗi bảng)
+        List<Long> userIds = reserveIds("user_account", count);
+        List<Long> studentIds = reserveIds("student", count);
+
+        // 3. Student codes từ allocator (không cần query kiểm tra trùng)
+        List<String> studentCodes = students.stream()
+                .map(data -> studentCodeAllocator.allocate(branchId, data.getFullName(), data.getEmail()))
+                .toList();
+
+        // 4. JDBC batch insert (password hash có sẵn từ hashTemporaryPasswords) cho cả 4 bảng
+        jdbcTemplate.batchUpdate(INSERT_USER_ACCOUNT_SQL, indexes(count), BATCH_SIZE, (ps, i) -> {
+            StudentEnrollmentData data = students.get(i);
+            ps.setLong(1, userIds.get(i));
+            ps.setString(2, data.getEmail());
+            ps.setString(3, data.getPhone());
+            ps.setString(4, data.getFacebookUrl());
+            ps.setString(5, data.getFullName());
+            ps.setString(6, (data.getGender() != null ? data.getGender() : Gender.MALE).name());
+            if (data.getDob() != null) {
+                ps.setDate(7, Date.valueOf(data.getDob()));
+            } else {
+                ps.setNull(7, Types.DATE);
+            }
+            ps.setString(8, data.getAddress());
+            ps.setString(9, passwordHashes.get(i));
+            ps.setString(10, UserStatus.ACTIVE.name());
+        });
+        jdbcTemplate.batchUpdate(INSERT_STUDENT_SQL, indexes(count), BATCH_SIZE, (ps, i) -> {
+            ps.setLong(1, studentIds.get(i));
+            ps.setLong(2, userIds.get(i));
+            ps.setString(3, studentCodes.get(i));
+        });
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, indexes(count), BATCH_SIZE, (ps, i) -> {
+            ps.setLong(1, userIds.get(i));
+            ps.setLong(2, studentRole.getId());
+        });
+        jdbcTemplate.batchUpdate(INSERT_USER_BRANCHES_SQL, indexes(count), BATCH_SIZE, (ps, i) -> {
+            ps.setLong(1, userIds.get(i));
+            ps.setLong(2, branchId);
+            if (assignedBy != null) {
+                ps.setLong(3, assignedBy);
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+        });
+
+        log.info("Provisioned {} student accounts (ids {}..{})",
+                count, studentIds.get(0), studentIds.get(count - 1));
+        return studentIds;
+    }
+
+    private List<Long> reserveIds(String table, int count) {
+        return jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, table, count);
+    }
+
+    private List<Integer> indexes(int count) {
+        List<Integer> indexes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private String generateTemporaryPassword() {
+        StringBuilder password = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            password.append(PASSWORD_CHARS.charAt(random.nextInt(PASSWORD_CHARS.length())));
+        }
+        return password.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package org.fyp.tmssep490be.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cấp student code không trùng mà không cần query kiểm tra uniqueness
+ * Format: ST{branchId}{baseName}-{number}, number lấy từ sequence student_code_seq
+ * - Phần số sau dấu "-" là duy nhất toàn hệ thống nên cả code luôn duy nhất
+ * - Sequence tăng theo block (INCREMENT BY BLOCK_SIZE), mỗi node giữ một pool local
+ *   nên chỉ cần một round trip cho mỗi BLOCK_SIZE codes
+ * Số đã cấp không rollback theo transaction, code có thể bị nhảy số (chấp nhận được)
+ */
+@Component
+@Slf4j
+public class StudentCodeAllocator {
+
+    // Phải khớp với INCREMENT BY của student_code_seq (db/migration/V2)
+    static final int BLOCK_SIZE = 50;
+
+    private static final String NEXT_BLOCK_SQL = "SELECT nextval('student_code_seq')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Pool [nextNumber, blockEnd), guarded by "this"
+    private long nextNumber;
+    private long blockEnd;
+
+    public StudentCodeAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Cấp student code mới
+     * Example: ST1NGUYENVANA-00123
+     */
+    public String allocate(Long branchId, String fullName, String email) {
+        return String.format("ST%d%s-%05d", branchId, baseName(fullName, email), nextNumber());
+    }
+
+    private synchronized long nextNumber() {
+        if (nextNumber >= blockEnd) {
+            Long blockStart = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+            nextNumber = blockStart;
+            blockEnd = blockStart + BLOCK_SIZE;
+            log.debug("Reserved student code block [{}, {})", nextNumber, blockEnd);
+        }
+        return nextNumber++;
+    }
+
+    /**
+     * Base name từ fullName (ưu tiên) hoặc phần trước @ của email, chỉ giữ A-Z0-9, tối đa 10 ký tự
+     */
+    private String baseName(String fullName, String email) {
+        String baseName;
+        if (fullName != null && !fullName.trim().isEmpty()) {
+            baseName = fullName.replaceAll("[^a-zA-Z0-9]", "").toUpperCase();
+        } else if (email != null && email.contains("@")) {
+            baseName = email.substring(0, email.indexOf("@")).replaceAll("[^a-zA-Z0-9]", "").toUpperCase();
+        } else {
+            baseName = "";
+        }
+        return baseName.length() > 10 ? baseName.substring(0, 10) : baseName;
+    }
+}
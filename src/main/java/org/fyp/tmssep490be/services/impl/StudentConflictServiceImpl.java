@@ -0,0 +1,113 @@
+package org.fyp.tmssep490be.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+import org.fyp.tmssep490be.entities.enums.SessionStatus;
+import org.fyp.tmssep490be.repositories.SessionRepository;
+import org.fyp.tmssep490be.repositories.StudentSessionRepository;
+import org.fyp.tmssep490be.services.StudentConflictService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudentConflictServiceImpl implements StudentConflictService {
+
+    // Session statuses that occupy a student at a date + time slot
+    private static final List<SessionStatus> OCCUPYING_SESSION_STATUSES =
+            List.of(SessionStatus.PLANNED, SessionStatus.DONE);
+
+    private final StudentSessionRepository studentSessionRepository;
+    private final SessionRepository sessionRepository;
+
+    /**
+     * Students of a session who already have another session at the target date + time slot
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findConflictingStudentIds(Long sessionId, LocalDate date, Long timeSlotTemplateId) {
+        return new HashSet<>(studentSessionRepository.findConflictingStudentIds(
+                sessionId, date, timeSlotTemplateId, OCCUPYING_SESSION_STATUSES));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasStudentConflicts(Long sessionId, LocalDate date, Long timeSlotTemplateId) {
+        Set<Long> conflictingStudentIds = findConflictingStudentIds(sessionId, date, timeSlotTemplateId);
+        if (!conflictingStudentIds.isEmpty()) {
+            log.debug("Session {} has {} students with conflict at {} slot {}",
+                    sessionId, conflictingStudentIds.size(), date, timeSlotTemplateId);
+        }
+        return !conflictingStudentIds.isEmpty();
+    }
+
+    /**
+     * Time slots of a date where findConflictingStudentIds would not be empty, for every slot in one query
+     * (reschedule availability grid)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findConflictingTimeSlotIds(Long sessionId, LocalDate date) {
+        return new HashSet<>(studentSessionRepository.findConflictingTimeSlotIds(
+                sessionId, date, OCCUPYING_SESSION_STATUSES));
+    }
+
+    /**
+     * Check if student's enrolled classes have a session overlapping the given date + time slot
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasScheduleConflict(Long studentId, LocalDate date, TimeSlotTemplate timeSlot) {
+        List<Session> studentSessions = sessionRepository.findSessionsForStudentByDate(studentId, date);
+        return studentSessions.stream()
+                .anyMatch(existing -> hasTimeOverlap(existing.getTimeSlotTemplate(), timeSlot));
+    }
+
+    /**
+     * Check many candidate sessions (e.g. makeup options) against student's schedule with one query
+     * @return IDs of candidate sessions that overlap with student's schedule
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findConflictingSessionIds(Long studentId, List<Session> candidateSessions) {
+        if (candidateSessions == null || candidateSessions.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<LocalDate> dates = candidateSessions.stream()
+                .map(Session::getDate)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (dates.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<LocalDate, List<TimeSlotTemplate>> occupiedSlotsByDate = sessionRepository
+                .findSessionsForStudentByDates(studentId, dates).stream()
+                .collect(Collectors.groupingBy(Session::getDate,
+                        Collectors.mapping(Session::getTimeSlotTemplate, Collectors.toList())));
+
+        return candidateSessions.stream()
+                .filter(candidate -> occupiedSlotsByDate.getOrDefault(candidate.getDate(), List.of()).stream()
+                        .anyMatch(occupied -> hasTimeOverlap(occupied, candidate.getTimeSlotTemplate())))
+                .map(Session::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private boolean hasTimeOverlap(TimeSlotTemplate slot1, TimeSlotTemplate slot2) {
+        if (slot1 == null || slot2 == null) return false;
+        return !slot1.getEndTime().isBefore(slot2.getStartTime()) &&
+               !slot2.getEndTime().isBefore(slot1.getStartTime());
+    }
+}
@@ -10,6 +10,7 @@ import org.fyp.tmssep490be.entities.UserAccount;
 import org.fyp.tmssep490be.repositories.LevelRepository;
 import org.fyp.tmssep490be.repositories.ReplacementSkillAssessmentRepository;
 import org.fyp.tmssep490be.repositories.StudentRepository;
+import org.fyp.tmssep490be.services.LevelService;
 import org.fyp.tmssep490be.services.StudentLevelService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +28,7 @@ public class StudentLevelServiceImpl implements StudentLevelService {
 
     private final ReplacementSkillAssessmentRepository assessmentRepository;
     private final LevelRepository levelRepository;
+    private final LevelService levelService;
     private final StudentRepository studentRepository;
 
     @Override
@@ -86,7 +88,8 @@ public class StudentLevelServiceImpl implements StudentLevelService {
 
         try {
             // Find level by code
-            Level level = levelRepository.findByCodeIgnoreCase(levelCode.trim())
+            Level level = levelService.findLevelIdByCode(levelCode)
+                    .map(levelRepository::getReferenceById)
                     .orElse(null);
 
             if (level == null) {
@@ -184,7 +187,8 @@ public class StudentLevelServiceImpl implements StudentLevelService {
 
             try {
                 // Find level by code
-                Level level = levelRepository.findByCodeIgnoreCase(data.getLevelCode())
+                Level level = levelService.findLevelIdByCode(data.getLevelCode())
+                        .map(levelRepository::getReferenceById)
                         .orElse(null);
 
                 if (level == null) {
@@ -257,7 +261,8 @@ public class StudentLevelServiceImpl implements StudentLevelService {
                     .orElseThrow(() -> new IllegalArgumentException("Student not found: " + studentId));
 
             // Find level by code
-            Level level = levelRepository.findByCodeIgnoreCase(levelCode.trim())
+            Level level = levelService.findLevelIdByCode(levelCode)
+                    .map(levelRepository::getReferenceById)
                     .orElse(null);
 
             if (level == null) {
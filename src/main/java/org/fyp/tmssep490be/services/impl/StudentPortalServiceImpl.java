@@ -8,10 +8,13 @@ import org.fyp.tmssep490be.entities.enums.*;
 import org.fyp.tmssep490be.exceptions.CustomException;
 import org.fyp.tmssep490be.exceptions.ErrorCode;
 import org.fyp.tmssep490be.repositories.*;
+import org.fyp.tmssep490be.repositories.specifications.EnrollmentSpecifications;
 import org.fyp.tmssep490be.services.StudentPortalService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -75,58 +78,85 @@ public class StudentPortalServiceImpl implements StudentPortalService {
             enrollmentStatuses = Arrays.asList(EnrollmentStatus.values());
         }
 
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentIdAndStatusIn(studentId, enrollmentStatuses);
-
-        // Filter by class status if provided
-        List<Enrollment> filteredEnrollments = enrollments.stream()
-                .filter(enrollment -> {
-                    ClassEntity classEntity = enrollment.getClassEntity();
-
-                    // Status filter
-                    if (statusFilters != null && !statusFilters.isEmpty()) {
-                        String classStatus = classEntity.getStatus().toString();
-                        if (!statusFilters.contains(classStatus)) {
-                            return false;
-                        }
-                    }
+        // Status filter also applies to class status, modality filter to class modality (exact enum names)
+        List<ClassStatus> classStatuses = statusFilters != null && !statusFilters.isEmpty()
+                ? matchEnumNames(ClassStatus.values(), statusFilters) : null;
+        List<Modality> modalities = modalityFilters != null && !modalityFilters.isEmpty()
+                ? matchEnumNames(Modality.values(), modalityFilters) : null;
 
-                    // Branch filter
-                    if (branchFilters != null && !branchFilters.isEmpty()) {
-                        if (!branchFilters.contains(classEntity.getBranch().getId())) {
-                            return false;
-                        }
-                    }
-
-                    // Course filter
-                    if (courseFilters != null && !courseFilters.isEmpty()) {
-                        if (!courseFilters.contains(classEntity.getCourse().getId())) {
-                            return false;
-                        }
-                    }
+        if (enrollmentStatuses.isEmpty()
+                || (classStatuses != null && classStatuses.isEmpty())
+                || (modalities != null && modalities.isEmpty())) {
+            return Page.empty(pageable);
+        }
 
-                    // Modality filter
-                    if (modalityFilters != null && !modalityFilters.isEmpty()) {
-                        String classModality = classEntity.getModality().toString();
-                        if (!modalityFilters.contains(classModality)) {
-                            return false;
-                        }
-                    }
+        // Filter, sort and paginate in the database
+        Page<Enrollment> enrollments = enrollmentRepository.findAll(
+                EnrollmentSpecifications.studentClasses(studentId, enrollmentStatuses, classStatuses,
+                        branchFilters, courseFilters, modalities),
+                toEnrollmentPageable(pageable));
 
-                    return true;
-                })
+        // Convert only the requested page, enrichment data loaded for the whole page at once
+        List<Long> classIds = enrollments.getContent().stream()
+                .map(Enrollment::getClassId)
+                .distinct()
                 .collect(Collectors.toList());
+        Map<Long, List<String>> instructorNamesByClass = new HashMap<>();
+        Map<Long, SessionRepository.ClassSessionProgress> progressByClass = new HashMap<>();
+        if (!classIds.isEmpty()) {
+            teachingSlotRepository.findTeacherNamesByClassIds(classIds, TeachingSlotStatus.SCHEDULED)
+                    .forEach(row -> instructorNamesByClass
+                            .computeIfAbsent(row.getClassId(), id -> new ArrayList<>())
+                            .add(row.getFullName()));
+            sessionRepository.countSessionProgressByClassIds(classIds, LocalDate.now(), SessionStatus.PLANNED)
+                    .forEach(row -> progressByClass.put(row.getClassId(), row));
+        }
 
-        // Convert to DTOs
-        List<StudentClassDTO> studentClassDTOs = filteredEnrollments.stream()
-                .map(this::convertToStudentClassDTO)
+        List<StudentClassDTO> content = enrollments.getContent().stream()
+                .map(enrollment -> convertToStudentClassDTO(enrollment,
+                        instructorNamesByClass.getOrDefault(enrollment.getClassId(), List.of()),
+                        progressByClass.get(enrollment.getClassId())))
                 .collect(Collectors.toList());
 
-        // Apply pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), studentClassDTOs.size());
-        List<StudentClassDTO> pagedContent = studentClassDTOs.subList(start, end);
+        return new PageImpl<>(content, pageable, enrollments.getTotalElements());
+    }
 
-        return new PageImpl<>(pagedContent, pageable, studentClassDTOs.size());
+    /**
+     * Map StudentClassDTO sort properties to Enrollment paths, default newest enrollment first
+     */
+    private Pageable toEnrollmentPageable(Pageable pageable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String path = switch (order.getProperty()) {
+                case "enrollmentDate" -> "enrolledAt";
+                case "enrollmentStatus" -> "status";
+                case "className" -> "classEntity.name";
+                case "classCode" -> "classEntity.code";
+                case "startDate" -> "classEntity.startDate";
+                case "plannedEndDate" -> "classEntity.plannedEndDate";
+                case "status" -> "classEntity.status";
+                case "courseName" -> "classEntity.course.name";
+                case "branchName" -> "classEntity.branch.name";
+                default -> null;
+            };
+            if (path != null) {
+                orders.add(new Sort.Order(order.getDirection(), path));
+            } else {
+                log.warn("Unsupported sort property for student classes: {}, ignoring", order.getProperty());
+            }
+        }
+        if (orders.isEmpty()) {
+            orders.add(Sort.Order.desc("enrolledAt"));
+        }
+        // Tie-breaker for stable pagination
+        orders.add(Sort.Order.asc("id"));
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
+    }
+
+    private static <E extends Enum<E>> List<E> matchEnumNames(E[] values, List<String> names) {
+        return Arrays.stream(values)
+                .filter(value -> names.contains(value.name()))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -303,24 +333,14 @@ public class StudentPortalServiceImpl implements StudentPortalService {
 
     // Helper methods for converting entities to DTOs
 
-    private StudentClassDTO convertToStudentClassDTO(Enrollment enrollment) {
+    private StudentClassDTO convertToStudentClassDTO(Enrollment enrollment, List<String> instructorNames,
+                                                     SessionRepository.ClassSessionProgress sessionProgress) {
         ClassEntity classEntity = enrollment.getClassEntity();
-        Student student = enrollment.getStudent();
 
-        // Get instructor names from teaching slots
-        List<String> instructorNames = teachingSlotRepository.findByClassEntityIdAndStatus(classEntity.getId(), TeachingSlotStatus.SCHEDULED)
-                .stream()
-                .map(teachingSlot -> teachingSlot.getTeacher().getUserAccount().getFullName())
-                .distinct()
-                .collect(Collectors.toList());
-
-        // Calculate session statistics (only what's needed for progress bar)
-        List<Session> allSessions = sessionRepository.findAllByClassIdOrderByDateAndTime(classEntity.getId());
-        int totalSessions = allSessions.size();
-
-        int completedSessions = (int) allSessions.stream()
-                .filter(session -> session.getDate().isBefore(LocalDate.now()) || session.getStatus() != SessionStatus.PLANNED)
-                .count();
+        // Session statistics (only what's needed for progress bar)
+        int totalSessions = sessionProgress != null ? sessionProgress.getTotalSessions().intValue() : 0;
+        int completedSessions = sessionProgress != null && sessionProgress.getCompletedSessions() != null
+                ? sessionProgress.getCompletedSessions().intValue() : 0;
 
         return StudentClassDTO.builder()
                 .classId(classEntity.getId())
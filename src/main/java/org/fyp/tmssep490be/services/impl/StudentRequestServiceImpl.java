@@ -10,7 +10,10 @@ import org.fyp.tmssep490be.entities.enums.*;
 import org.fyp.tmssep490be.exceptions.BusinessRuleException;
 import org.fyp.tmssep490be.exceptions.DuplicateRequestException;
 import org.fyp.tmssep490be.exceptions.ResourceNotFoundException;
+import org.fyp.tmssep490be.repositories.specifications.StudentRequestSpecifications;
 import org.fyp.tmssep490be.repositories.*;
+import org.fyp.tmssep490be.security.BranchScopeResolver;
+import org.fyp.tmssep490be.services.StudentConflictService;
 import org.fyp.tmssep490be.services.StudentRequestService;
 import org.fyp.tmssep490be.services.StudentScheduleService;
 import org.springframework.data.domain.Page;
@@ -42,8 +45,9 @@ public class StudentRequestServiceImpl implements StudentRequestService {
     private final EnrollmentRepository enrollmentRepository;
     private final StudentSessionRepository studentSessionRepository;
     private final UserAccountRepository userAccountRepository;
-    private final UserBranchesRepository userBranchesRepository;
+    private final BranchScopeResolver branchScopeResolver;
     private final StudentScheduleService studentScheduleService;
+    private final StudentConflictService studentConflictService;
 
     // Configuration values (in real implementation, these would come from properties)
     private static final int LEAD_TIME_DAYS = 1;
@@ -222,96 +226,38 @@ public class StudentRequestServiceImpl implements StudentRequestService {
 
     @Override
     public Page<AARequestResponseDTO> getPendingRequests(Long currentUserId, AARequestFilterDTO filter) {
-        // SECURITY: Get current user's assigned branch IDs
-        List<Long> userBranchIds = userBranchesRepository.findBranchIdsByUserId(currentUserId);
-
-        if (userBranchIds.isEmpty()) {
-            throw new BusinessRuleException("ACCESS_DENIED",
-                "User is not assigned to any branch. Contact administrator.");
-        }
-
-        log.info("AA user {} has access to branches: {}", currentUserId, userBranchIds);
+        List<Long> targetBranchIds = resolveTargetBranchIds(currentUserId, filter);
 
-        // SECURITY: Validate requested branchId if provided
-        if (filter.getBranchId() != null && !userBranchIds.contains(filter.getBranchId())) {
-            throw new BusinessRuleException("ACCESS_DENIED",
-                "Access denied to branch ID: " + filter.getBranchId());
-        }
+        // Oldest pending requests first, then requested sort
+        Pageable pageable = buildAAPageable(filter, Sort.Direction.ASC);
 
-        // Determine which branches to query (specific branch or all user's branches)
-        List<Long> targetBranchIds = filter.getBranchId() != null ?
-            List.of(filter.getBranchId()) : userBranchIds;
-
-        Sort sort = Sort.by(Sort.Direction.fromString(filter.getSort().split(",")[1]),
-                filter.getSort().split(",")[0]);
-        Pageable pageable = PageRequest.of(filter.getPage(), filter.getSize(), sort);
-
-        // DATABASE-LEVEL filtering by branch (secure and efficient)
-        Page<StudentRequest> requests = studentRequestRepository.findPendingRequestsByBranches(
-                RequestStatus.PENDING, targetBranchIds, pageable);
-
-        // Apply additional filters in-memory (only on paginated results)
-        List<StudentRequest> filteredRequests = requests.getContent().stream()
-                .filter(request -> {
-                    // Filter by request type
-                    if (filter.getRequestType() != null) {
-                        StudentRequestType requestType = StudentRequestType.valueOf(filter.getRequestType());
-                        if (!request.getRequestType().equals(requestType)) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by student name
-                    if (filter.getStudentName() != null && !filter.getStudentName().trim().isEmpty()) {
-                        String searchLower = filter.getStudentName().toLowerCase();
-                        boolean matchesName = (request.getStudent().getUserAccount().getFullName() != null &&
-                                request.getStudent().getUserAccount().getFullName().toLowerCase().contains(searchLower)) ||
-                                (request.getStudent().getStudentCode() != null &&
-                                request.getStudent().getStudentCode().toLowerCase().contains(searchLower));
-                        if (!matchesName) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by class code
-                    if (filter.getClassCode() != null && !filter.getClassCode().trim().isEmpty()) {
-                        if (request.getCurrentClass() == null || request.getCurrentClass().getCode() == null ||
-                                !request.getCurrentClass().getCode().toLowerCase().contains(filter.getClassCode().toLowerCase())) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by session date
-                    if (filter.getSessionDateFrom() != null && request.getTargetSession() != null) {
-                        LocalDate sessionDateFrom = LocalDate.parse(filter.getSessionDateFrom());
-                        if (request.getTargetSession().getDate().isBefore(sessionDateFrom)) {
-                            return false;
-                        }
-                    }
+        // DATABASE-LEVEL filtering by branch and all filter criteria: one query per page (+ count)
+        return studentRequestRepository.findAll(
+                StudentRequestSpecifications.matchesAAFilter(targetBranchIds, RequestStatus.PENDING, filter),
+                pageable
+        ).map(this::mapToAAResponseDTO);
+    }
 
-                    if (filter.getSessionDateTo() != null && request.getTargetSession() != null) {
-                        LocalDate sessionDateTo = LocalDate.parse(filter.getSessionDateTo());
-                        if (request.getTargetSession().getDate().isAfter(sessionDateTo)) {
-                            return false;
-                        }
-                    }
+    @Override
+    public Page<AARequestResponseDTO> getAllRequests(Long currentUserId, AARequestFilterDTO filter) {
+        List<Long> targetBranchIds = resolveTargetBranchIds(currentUserId, filter);
 
-                    return true;
-                })
-                .collect(Collectors.toList());
+        // Newest requests first, then requested sort
+        Pageable pageable = buildAAPageable(filter, Sort.Direction.DESC);
 
-        // Return filtered results with original pagination metadata
-        return new org.springframework.data.domain.PageImpl<>(
-                filteredRequests.stream().map(this::mapToAAResponseDTO).collect(Collectors.toList()),
-                pageable,
-                requests.getTotalElements() // Keep original total for pagination
-        );
+        // DATABASE-LEVEL filtering by branch, status, decidedBy and all other filter criteria
+        return studentRequestRepository.findAll(
+                StudentRequestSpecifications.matchesAAFilter(targetBranchIds, null, filter),
+                pageable
+        ).map(this::mapToAAResponseDTO);
     }
 
-    @Override
-    public Page<AARequestResponseDTO> getAllRequests(Long currentUserId, AARequestFilterDTO filter) {
+    /**
+     * Branches AA user can query: the requested branch (must be assigned) or all assigned branches
+     */
+    private List<Long> resolveTargetBranchIds(Long currentUserId, AARequestFilterDTO filter) {
         // SECURITY: Get current user's assigned branch IDs
-        List<Long> userBranchIds = userBranchesRepository.findBranchIdsByUserId(currentUserId);
+        List<Long> userBranchIds = branchScopeResolver.getBranchIds(currentUserId);
 
         if (userBranchIds.isEmpty()) {
             throw new BusinessRuleException("ACCESS_DENIED",
@@ -326,107 +272,14 @@ public class StudentRequestServiceImpl implements StudentRequestService {
                 "Access denied to branch ID: " + filter.getBranchId());
         }
 
-        // Determine which branches to query (specific branch or all user's branches)
-        List<Long> targetBranchIds = filter.getBranchId() != null ?
-            List.of(filter.getBranchId()) : userBranchIds;
+        return filter.getBranchId() != null ? List.of(filter.getBranchId()) : userBranchIds;
+    }
 
+    private Pageable buildAAPageable(AARequestFilterDTO filter, Sort.Direction submittedAtDirection) {
         Sort sort = Sort.by(Sort.Direction.fromString(filter.getSort().split(",")[1]),
                 filter.getSort().split(",")[0]);
-        Pageable pageable = PageRequest.of(filter.getPage(), filter.getSize(), sort);
-
-        // DATABASE-LEVEL filtering by branch and decidedBy (secure and efficient)
-        Page<StudentRequest> requests;
-        if (filter.getDecidedBy() != null) {
-            // Use repository method with decidedBy filtering
-            requests = studentRequestRepository.findAllRequestsByBranchesAndDecidedBy(
-                    targetBranchIds, filter.getDecidedBy(), pageable);
-        } else {
-            // Use regular repository method when decidedBy is not specified
-            requests = studentRequestRepository.findAllRequestsByBranches(
-                    targetBranchIds, pageable);
-        }
-
-        // Apply additional filters in-memory (only on paginated results)
-        List<StudentRequest> filteredRequests = requests.getContent().stream()
-                .filter(request -> {
-                    // Filter by status
-                    if (filter.getStatus() != null) {
-                        RequestStatus status = RequestStatus.valueOf(filter.getStatus());
-                        if (!request.getStatus().equals(status)) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by request type
-                    if (filter.getRequestType() != null) {
-                        StudentRequestType requestType = StudentRequestType.valueOf(filter.getRequestType());
-                        if (!request.getRequestType().equals(requestType)) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by student name
-                    if (filter.getStudentName() != null && !filter.getStudentName().trim().isEmpty()) {
-                        String searchLower = filter.getStudentName().toLowerCase();
-                        boolean matchesName = (request.getStudent().getUserAccount().getFullName() != null &&
-                                request.getStudent().getUserAccount().getFullName().toLowerCase().contains(searchLower)) ||
-                                (request.getStudent().getStudentCode() != null &&
-                                request.getStudent().getStudentCode().toLowerCase().contains(searchLower));
-                        if (!matchesName) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by class code
-                    if (filter.getClassCode() != null && !filter.getClassCode().trim().isEmpty()) {
-                        if (request.getCurrentClass() == null || request.getCurrentClass().getCode() == null ||
-                                !request.getCurrentClass().getCode().toLowerCase().contains(filter.getClassCode().toLowerCase())) {
-                            return false;
-                        }
-                    }
-
-                    // decidedBy filtering now handled at database level - no need for in-memory filtering
-
-                    // Filter by session date
-                    if (filter.getSessionDateFrom() != null && request.getTargetSession() != null) {
-                        LocalDate sessionDateFrom = LocalDate.parse(filter.getSessionDateFrom());
-                        if (request.getTargetSession().getDate().isBefore(sessionDateFrom)) {
-                            return false;
-                        }
-                    }
-
-                    if (filter.getSessionDateTo() != null && request.getTargetSession() != null) {
-                        LocalDate sessionDateTo = LocalDate.parse(filter.getSessionDateTo());
-                        if (request.getTargetSession().getDate().isAfter(sessionDateTo)) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by submitted date
-                    if (filter.getSubmittedDateFrom() != null) {
-                        LocalDate submittedDateFrom = LocalDate.parse(filter.getSubmittedDateFrom());
-                        if (request.getSubmittedAt().toLocalDate().isBefore(submittedDateFrom)) {
-                            return false;
-                        }
-                    }
-
-                    if (filter.getSubmittedDateTo() != null) {
-                        LocalDate submittedDateTo = LocalDate.parse(filter.getSubmittedDateTo());
-                        if (request.getSubmittedAt().toLocalDate().isAfter(submittedDateTo)) {
-                            return false;
-                        }
-                    }
-
-                    return true;
-                })
-                .collect(Collectors.toList());
-
-        // Return filtered results with original pagination metadata
-        return new org.springframework.data.domain.PageImpl<>(
-                filteredRequests.stream().map(this::mapToAAResponseDTO).collect(Collectors.toList()),
-                pageable,
-                requests.getTotalElements() // Keep original total for pagination
-        );
+        return PageRequest.of(filter.getPage(), filter.getSize(),
+                Sort.by(submittedAtDirection, "submittedAt").and(sort));
     }
 
     @Override
@@ -531,7 +384,7 @@ public class StudentRequestServiceImpl implements StudentRequestService {
     @Override
     public RequestSummaryDTO getRequestSummary(Long currentUserId, AARequestFilterDTO filter) {
         // SECURITY: Get current user's assigned branch IDs
-        List<Long> userBranchIds = userBranchesRepository.findBranchIdsByUserId(currentUserId);
+        List<Long> userBranchIds = branchScopeResolver.getBranchIds(currentUserId);
 
         if (userBranchIds.isEmpty()) {
             throw new BusinessRuleException("ACCESS_DENIED",
@@ -548,28 +401,22 @@ public class StudentRequestServiceImpl implements StudentRequestService {
         List<Long> targetBranchIds = filter.getBranchId() != null ?
             List.of(filter.getBranchId()) : userBranchIds;
 
-        // Use branch-filtered counts
-        long totalPending = studentRequestRepository.countByStatusAndBranches(
-                RequestStatus.PENDING, targetBranchIds);
-
-        // Count urgent requests (sessions in next 2 days)
-        LocalDate twoDaysFromNow = LocalDate.now().plusDays(2);
-        long urgentCount = studentRequestRepository.countByStatusAndBranches(
-                RequestStatus.PENDING, targetBranchIds); // Simplified, would need date filtering
+        return getRequestSummaryByBranches(targetBranchIds);
+    }
 
-        long absenceRequests = studentRequestRepository.countByRequestTypeAndStatusAndBranches(
-                StudentRequestType.ABSENCE, RequestStatus.PENDING, targetBranchIds);
-        long makeupRequests = studentRequestRepository.countByRequestTypeAndStatusAndBranches(
-                StudentRequestType.MAKEUP, RequestStatus.PENDING, targetBranchIds);
-        long transferRequests = studentRequestRepository.countByRequestTypeAndStatusAndBranches(
-                StudentRequestType.TRANSFER, RequestStatus.PENDING, targetBranchIds);
+    @Override
+    public RequestSummaryDTO getRequestSummaryByBranches(List<Long> targetBranchIds) {
+        // Branch-filtered counts in a single aggregate query
+        StudentRequestRepository.RequestSummaryCount counts =
+                studentRequestRepository.summarizeByStatusAndBranches(RequestStatus.PENDING, targetBranchIds);
+        int totalPending = counts.getTotal().intValue();
 
         return RequestSummaryDTO.builder()
-                .totalPending((int) totalPending)
-                .needsUrgentReview((int) urgentCount)
-                .absenceRequests((int) absenceRequests)
-                .makeupRequests((int) makeupRequests)
-                .transferRequests((int) transferRequests)
+                .totalPending(totalPending)
+                .needsUrgentReview(totalPending) // Simplified, would need date filtering
+                .absenceRequests(counts.getAbsenceRequests().intValue())
+                .makeupRequests(counts.getMakeupRequests().intValue())
+                .transferRequests(counts.getTransferRequests().intValue())
                 .build();
     }
 
@@ -990,10 +837,13 @@ public class StudentRequestServiceImpl implements StudentRequestService {
                 targetSession.getClassEntity().getModality().name()
         );
 
+        // Check schedule conflicts for all options at once
+        Set<Long> conflictingSessionIds = studentConflictService.findConflictingSessionIds(studentId, makeupOptions);
+
         // Apply smart ranking and filtering
         List<MakeupOptionDTO> rankedOptions = makeupOptions.stream()
-                .map(session -> mapToMakeupOptionDTO(session, targetSession, studentId))
-                .filter(option -> option != null) // Filter out sessions with conflicts
+                .filter(session -> !conflictingSessionIds.contains(session.getId())) // Filter out sessions with conflicts
+                .map(session -> mapToMakeupOptionDTO(session, targetSession))
                 .sorted((a, b) -> {
                     // Primary: Sort by total score (higher is better)
                     int scoreCompare = b.getMatchScore().getTotalScore().compareTo(a.getMatchScore().getTotalScore());
@@ -1168,14 +1018,10 @@ public class StudentRequestServiceImpl implements StudentRequestService {
         }
 
         // 6. Check schedule conflict
-        List<Session> studentSessions = sessionRepository.findSessionsForStudentByDate(
-                studentId, makeupSession.getDate());
-
-        for (Session existing : studentSessions) {
-            if (hasTimeOverlap(existing.getTimeSlotTemplate(), makeupSession.getTimeSlotTemplate())) {
-                throw new BusinessRuleException("SCHEDULE_CONFLICT",
-                        "Schedule conflict with other classes");
-            }
+        if (studentConflictService.hasScheduleConflict(
+                studentId, makeupSession.getDate(), makeupSession.getTimeSlotTemplate())) {
+            throw new BusinessRuleException("SCHEDULE_CONFLICT",
+                    "Schedule conflict with other classes");
         }
 
         // 7. Check duplicate request
@@ -1224,12 +1070,6 @@ public class StudentRequestServiceImpl implements StudentRequestService {
         return mapToStudentResponseDTO(request);
     }
 
-    private boolean hasTimeOverlap(TimeSlotTemplate slot1, TimeSlotTemplate slot2) {
-        if (slot1 == null || slot2 == null) return false;
-        return !slot1.getEndTime().isBefore(slot2.getStartTime()) &&
-               !slot2.getEndTime().isBefore(slot1.getStartTime());
-    }
-
     private void executeMakeupApproval(StudentRequest request) {
         log.info("Executing makeup approval for request {}", request.getId());
 
@@ -1310,15 +1150,7 @@ public class StudentRequestServiceImpl implements StudentRequestService {
                 .build();
     }
 
-    private MakeupOptionDTO mapToMakeupOptionDTO(Session session, Session targetSession, Long studentId) {
-        // Check schedule conflict
-        List<Session> conflicts = sessionRepository.findSessionsForStudentByDate(studentId, session.getDate());
-        for (Session conflict : conflicts) {
-            if (hasTimeOverlap(conflict.getTimeSlotTemplate(), session.getTimeSlotTemplate())) {
-                return null; // Filter out conflicting sessions
-            }
-        }
-
+    private MakeupOptionDTO mapToMakeupOptionDTO(Session session, Session targetSession) {
         // Calculate match score
         boolean branchMatch = session.getClassEntity().getBranch().getId()
                 .equals(targetSession.getClassEntity().getBranch().getId());
@@ -1755,18 +1587,110 @@ public class StudentRequestServiceImpl implements StudentRequestService {
     @Override
     @Transactional
     public void executeTransfer(StudentRequest request) {
+        executeTransfers(List.of(request));
+    }
+
+    @Override
+    @Transactional
+    public List<StudentRequestResponseDTO> approveTransferRequests(List<Long> requestIds, Long decidedById, String note) {
+        log.info("Batch approving {} transfer requests by user {}", requestIds.size(), decidedById);
+
+        Map<Long, StudentRequest> requestsById = studentRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(StudentRequest::getId, r -> r));
+
+        // Validate the whole batch before changing anything (all-or-nothing)
+        List<StudentRequest> requests = new ArrayList<>();
+        for (Long requestId : new LinkedHashSet<>(requestIds)) {
+            StudentRequest request = requestsById.get(requestId);
+            if (request == null) {
+                throw new ResourceNotFoundException("Request not found: " + requestId);
+            }
+            if (request.getRequestType() != StudentRequestType.TRANSFER) {
+                throw new BusinessRuleException("INVALID_REQUEST_TYPE",
+                        "Request " + requestId + " is not a transfer request");
+            }
+            if (request.getStatus() != RequestStatus.PENDING) {
+                throw new BusinessRuleException("INVALID_STATUS",
+                        "Only pending requests can be approved (request " + requestId + ")");
+            }
+            requests.add(request);
+        }
+
+        UserAccount decidedBy = userAccountRepository.findById(decidedById)
+                .orElseThrow(() -> new ResourceNotFoundException("Deciding user not found"));
+
+        OffsetDateTime now = OffsetDateTime.now();
+        for (StudentRequest request : requests) {
+            request.setStatus(RequestStatus.APPROVED);
+            request.setDecidedBy(decidedBy);
+            request.setDecidedAt(now);
+            request.setNote(note);
+        }
+        studentRequestRepository.saveAll(requests);
+
+        executeTransfers(requests);
+
+        log.info("Batch approved {} transfer requests", requests.size());
+        return requests.stream()
+                .map(this::mapToStudentResponseDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Set-based transfer execution for one or more approved requests
+     * Target classes are locked (findByIdWithLock) in id order to avoid deadlocks between concurrent batches,
+     * capacity is re-checked once per target class and counted down in memory across the batch
+     */
+    private void executeTransfers(List<StudentRequest> requests) {
+        Map<Long, List<StudentRequest>> requestsByTargetClass = requests.stream()
+                .collect(Collectors.groupingBy(r -> r.getTargetClass().getId(), TreeMap::new, Collectors.toList()));
+
+        for (Map.Entry<Long, List<StudentRequest>> entry : requestsByTargetClass.entrySet()) {
+            ClassEntity targetClass = classRepository.findByIdWithLock(entry.getKey())
+                    .orElseThrow(() -> new ResourceNotFoundException("Target class not found"));
+            Integer enrolledCount = classRepository.countEnrolledStudents(targetClass.getId());
+            int enrolled = enrolledCount != null ? enrolledCount : 0;
+
+            for (StudentRequest request : entry.getValue()) {
+                // Re-validate transfer validity under lock (race condition check)
+                if (!isValidTransferTarget(request.getCurrentClass(), targetClass, enrolled)) {
+                    throw new BusinessRuleException("TRANSFER_NO_LONGER_VALID",
+                            "Transfer is no longer valid (request " + request.getId() + ")");
+                }
+                applyTransfer(request);
+                enrolled++;
+            }
+        }
+    }
+
+    /**
+     * Same rules as isValidTransfer, with the enrolled count of the locked target class
+     */
+    private boolean isValidTransferTarget(ClassEntity currentClass, ClassEntity targetClass, int enrolledCount) {
+        // Same course validation
+        if (!currentClass.getCourse().getId().equals(targetClass.getCourse().getId())) {
+            return false;
+        }
+
+        // Target class status validation
+        if (!List.of(ClassStatus.SCHEDULED, ClassStatus.ONGOING).contains(targetClass.getStatus())) {
+            return false;
+        }
+
+        // Capacity validation
+        return targetClass.getMaxCapacity() == null || enrolledCount < targetClass.getMaxCapacity();
+    }
+
+    private void applyTransfer(StudentRequest request) {
         log.info("Executing transfer for request {} - student: {} from class {} to class {}",
                 request.getId(), request.getStudent().getId(),
                 request.getCurrentClass().getId(), request.getTargetClass().getId());
 
-        // 1. Re-validate transfer validity (race condition check)
-        if (!isValidTransfer(request.getCurrentClass().getId(), request.getTargetClass().getId())) {
-            throw new BusinessRuleException("TRANSFER_NO_LONGER_VALID", "Transfer is no longer valid");
-        }
+        Long studentId = request.getStudent().getId();
 
-        // 2. Update old enrollment to TRANSFERRED status
+        // 1. Update old enrollment to TRANSFERRED status
         Enrollment oldEnrollment = enrollmentRepository.findByStudentIdAndClassId(
-                request.getStudent().getId(), request.getCurrentClass().getId());
+                studentId, request.getCurrentClass().getId());
 
         if (oldEnrollment == null) {
             throw new ResourceNotFoundException("Current enrollment not found");
@@ -1781,9 +1705,9 @@ public class StudentRequestServiceImpl implements StudentRequestService {
                 request.getId()));
         enrollmentRepository.save(oldEnrollment);
 
-        // 3. Create new enrollment in target class
+        // 2. Create new enrollment in target class
         Enrollment newEnrollment = Enrollment.builder()
-                .studentId(request.getStudent().getId())
+                .studentId(studentId)
                 .classId(request.getTargetClass().getId())
                 .status(EnrollmentStatus.ENROLLED)
                 .joinSessionId(request.getEffectiveSession().getId())
@@ -1796,43 +1720,27 @@ public class StudentRequestServiceImpl implements StudentRequestService {
 
         enrollmentRepository.save(newEnrollment);
 
-        // 4. Update student sessions in old class from effective date onwards to ABSENT
-        // Use effectiveDate.minusDays(1) to include the effective date itself (session on 18/11 should be marked ABSENT)
-        List<StudentSession> futureOldSessions = studentSessionRepository
-                .findByStudentIdAndClassEntityIdAndSessionDateAfter(
-                        request.getStudent().getId(),
-                        request.getCurrentClass().getId(),
-                        request.getEffectiveDate().minusDays(1));
-
-        for (StudentSession session : futureOldSessions) {
-            session.setAttendanceStatus(AttendanceStatus.ABSENT);
-            session.setIsTransferredOut(true);
-            session.setNote(String.format("Student transferred out. Request ID: %d", request.getId()));
-        }
-        studentSessionRepository.saveAll(futureOldSessions);
-
-        // 5. Create student sessions for new class from effective date onwards
-        // Use effectiveDate.minusDays(1) to include the effective date itself (session on 18/11 should be created)
-        List<Session> futureNewSessions = sessionRepository
-                .findByClassEntityIdAndDateAfter(request.getTargetClass().getId(), request.getEffectiveDate().minusDays(1));
-
-        for (Session session : futureNewSessions) {
-            StudentSession.StudentSessionId sessionId = new StudentSession.StudentSessionId(
-                    request.getStudent().getId(), session.getId());
-
-            StudentSession newStudentSession = StudentSession.builder()
-                    .id(sessionId)
-                    .student(request.getStudent())
-                    .session(session)
-                    .attendanceStatus(AttendanceStatus.PLANNED)
-                    .note(String.format("Transferred in from class %s. Request ID: %d",
-                            request.getCurrentClass().getCode(), request.getId()))
-                    .build();
-
-            studentSessionRepository.save(newStudentSession);
-        }
-
-        log.info("Transfer execution completed for request {}", request.getId());
+        // Use effectiveDate.minusDays(1) to include the effective date itself (session on 18/11 is affected)
+        LocalDate fromDateExclusive = request.getEffectiveDate().minusDays(1);
+
+        // 3. Update student sessions in old class from effective date onwards to ABSENT (single UPDATE)
+        int transferredOut = studentSessionRepository.markTransferredOutAfterDate(
+                studentId,
+                request.getCurrentClass().getId(),
+                fromDateExclusive,
+                String.format("Student transferred out. Request ID: %d", request.getId()),
+                OffsetDateTime.now());
+
+        // 4. Create student sessions for new class from effective date onwards (single INSERT ... SELECT)
+        int transferredIn = studentSessionRepository.insertPlannedForClassSessionsAfterDate(
+                studentId,
+                request.getTargetClass().getId(),
+                fromDateExclusive,
+                String.format("Transferred in from class %s. Request ID: %d",
+                        request.getCurrentClass().getCode(), request.getId()));
+
+        log.info("Transfer execution completed for request {} - {} sessions out, {} sessions in",
+                request.getId(), transferredOut, transferredIn);
         // TODO: Send notifications to student, old instructor, new instructor
     }
 
@@ -11,8 +11,8 @@ import org.fyp.tmssep490be.repositories.EnrollmentRepository;
 import org.fyp.tmssep490be.repositories.SessionRepository;
 import org.fyp.tmssep490be.repositories.StudentRepository;
 import org.fyp.tmssep490be.repositories.StudentSessionRepository;
-import org.fyp.tmssep490be.repositories.TimeSlotTemplateRepository;
 import org.fyp.tmssep490be.services.StudentScheduleService;
+import org.fyp.tmssep490be.services.TimeSlotTemplateService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,7 +33,7 @@ public class StudentScheduleServiceImpl implements StudentScheduleService {
     private final StudentSessionRepository studentSessionRepository;
     private final SessionRepository sessionRepository;
     private final EnrollmentRepository enrollmentRepository;
-    private final TimeSlotTemplateRepository timeSlotTemplateRepository;
+    private final TimeSlotTemplateService timeSlotTemplateService;
 
     @Override
     public WeeklyScheduleResponseDTO getWeeklySchedule(Long studentId, LocalDate weekStart) {
@@ -173,14 +173,13 @@ public class StudentScheduleServiceImpl implements StudentScheduleService {
 
         log.debug("Student {} has active enrollments in {} branches", studentId, branchIds.size());
 
-        // 3. Union time slots from all branches
-        List<TimeSlotTemplate> allTimeSlots = branchIds.stream()
-                .flatMap(branchId -> timeSlotTemplateRepository
-                        .findByBranchIdOrderByStartTimeAsc(branchId).stream())
+        // 3. Union time slots from all branches (cached per branch)
+        List<TimeSlotDTO> allTimeSlots = branchIds.stream()
+                .flatMap(branchId -> timeSlotTemplateService.getTimeSlotsByBranch(branchId).stream())
                 .collect(Collectors.toList());
 
         // 4. Group by TimeRange (startTime, endTime) to merge duplicates
-        Map<TimeRange, List<TimeSlotTemplate>> groupedByTimeRange = allTimeSlots.stream()
+        Map<TimeRange, List<TimeSlotDTO>> groupedByTimeRange = allTimeSlots.stream()
                 .collect(Collectors.groupingBy(
                         ts -> new TimeRange(ts.getStartTime(), ts.getEndTime())
                 ));
@@ -189,22 +188,22 @@ public class StudentScheduleServiceImpl implements StudentScheduleService {
         List<TimeSlotDTO> mergedTimeSlots = groupedByTimeRange.entrySet().stream()
                 .map(entry -> {
                     TimeRange timeRange = entry.getKey();
-                    List<TimeSlotTemplate> slots = entry.getValue();
+                    List<TimeSlotDTO> slots = entry.getValue();
 
                     // If multiple time slots with same time range, merge their names
                     String mergedName;
                     Long timeSlotTemplateId;
                     if (slots.size() == 1) {
-                        TimeSlotTemplate slot = slots.get(0);
+                        TimeSlotDTO slot = slots.get(0);
                         mergedName = slot.getName();
-                        timeSlotTemplateId = slot.getId();
+                        timeSlotTemplateId = slot.getTimeSlotTemplateId();
                     } else {
                         // Merge names from different branches (e.g., "HN Morning 1 / SG Morning 1")
                         mergedName = slots.stream()
-                                .map(TimeSlotTemplate::getName)
+                                .map(TimeSlotDTO::getName)
                                 .distinct()
                                 .collect(Collectors.joining(" / "));
-                        timeSlotTemplateId = slots.get(0).getId(); // Use first one as representative
+                        timeSlotTemplateId = slots.get(0).getTimeSlotTemplateId(); // Use first one as representative
                     }
 
                     return TimeSlotDTO.builder()
@@ -11,6 +11,8 @@ import org.fyp.tmssep490be.entities.enums.SessionStatus;
 import org.fyp.tmssep490be.exceptions.CustomException;
 import org.fyp.tmssep490be.exceptions.ErrorCode;
 import org.fyp.tmssep490be.repositories.*;
+import org.fyp.tmssep490be.security.BranchScopeResolver;
+import org.fyp.tmssep490be.services.RoleService;
 import org.fyp.tmssep490be.services.StudentService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -37,6 +39,7 @@ public class StudentServiceImpl implements StudentService {
     private final StudentRepository studentRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final UserBranchesRepository userBranchesRepository;
+    private final BranchScopeResolver branchScopeResolver;
     private final UserAccountRepository userAccountRepository;
     private final RoleRepository roleRepository;
     private final UserRoleRepository userRoleRepository;
@@ -46,6 +49,8 @@ public class StudentServiceImpl implements StudentService {
     private final StudentSessionRepository studentSessionRepository;
     private final ScoreRepository scoreRepository;
     private final PasswordEncoder passwordEncoder;
+    private final StudentCodeAllocator studentCodeAllocator;
+    private final RoleService roleService;
 
     @Override
     @Transactional
@@ -101,7 +106,7 @@ public class StudentServiceImpl implements StudentService {
         // 5. CREATE STUDENT with auto-generated student code
         Student student = new Student();
         student.setUserAccount(savedUser);
-        student.setStudentCode(generateStudentCode(
+        student.setStudentCode(studentCodeAllocator.allocate(
                 request.getBranchId(),
                 request.getFullName(),
                 request.getEmail()
@@ -111,12 +116,13 @@ public class StudentServiceImpl implements StudentService {
         log.info("Created student with ID: {} and code: {}", savedStudent.getId(), savedStudent.getStudentCode());
 
         // 6. ASSIGN ROLE "STUDENT"
-        Role studentRole = roleRepository.findByCode("STUDENT")
+        Long studentRoleId = roleService.findRoleIdByCode("STUDENT")
                 .orElseThrow(() -> new CustomException(ErrorCode.STUDENT_ROLE_NOT_FOUND));
+        Role studentRole = roleRepository.getReferenceById(studentRoleId);
 
         UserRole.UserRoleId userRoleId = new UserRole.UserRoleId();
         userRoleId.setUserId(savedUser.getId());
-        userRoleId.setRoleId(studentRole.getId());
+        userRoleId.setRoleId(studentRoleId);
 
         UserRole userRole = new UserRole();
         userRole.setId(userRoleId);
@@ -218,49 +224,6 @@ public class StudentServiceImpl implements StudentService {
         return response;
     }
 
-    /**
-     * Generate unique student code based on branch, name, and email
-     * Format: ST{branchId}{baseName}{randomSuffix}
-     * Example: ST1NGUYENVANA123
-     */
-    private String generateStudentCode(Long branchId, String fullName, String email) {
-        String baseName;
-
-        // Prioritize fullName, fallback to email prefix
-        if (fullName != null && !fullName.trim().isEmpty()) {
-            // Remove special chars, spaces, and convert to uppercase
-            baseName = fullName.replaceAll("[^a-zA-Z0-9]", "").toUpperCase();
-            // Limit to max 10 characters
-            if (baseName.length() > 10) {
-                baseName = baseName.substring(0, 10);
-            }
-        } else if (email != null && email.contains("@")) {
-            // Use part before @ from email
-            baseName = email.substring(0, email.indexOf("@"))
-                    .replaceAll("[^a-zA-Z0-9]", "")
-                    .toUpperCase();
-            if (baseName.length() > 10) {
-                baseName = baseName.substring(0, 10);
-            }
-        } else {
-            // Fallback: use timestamp
-            baseName = String.valueOf(System.currentTimeMillis()).substring(6);
-        }
-
-        // Add random suffix to ensure uniqueness
-        int randomSuffix = (int) (Math.random() * 1000);
-
-        String studentCode = String.format("ST%d%s%03d", branchId, baseName, randomSuffix);
-
-        // Double-check uniqueness (rare collision case)
-        while (studentRepository.findByStudentCode(studentCode).isPresent()) {
-            randomSuffix = (int) (Math.random() * 1000);
-            studentCode = String.format("ST%d%s%03d", branchId, baseName, randomSuffix);
-        }
-
-        return studentCode;
-    }
-
     @Override
     public Page<StudentListItemDTO> getStudents(
             List<Long> branchIds,
@@ -381,7 +344,7 @@ public class StudentServiceImpl implements StudentService {
     }
 
     private List<Long> getUserAccessibleBranches(Long userId) {
-        return userBranchesRepository.findBranchIdsByUserId(userId);
+        return branchScopeResolver.getBranchIds(userId);
     }
 
     private void validateStudentAccess(Student student, Long userId) {
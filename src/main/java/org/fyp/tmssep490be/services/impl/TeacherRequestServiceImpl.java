@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.fyp.tmssep490be.dtos.teacherrequest.ModalityResourceSuggestionDTO;
 import org.fyp.tmssep490be.dtos.teacherrequest.ReplacementCandidateDTO;
 import org.fyp.tmssep490be.dtos.teacherrequest.RescheduleResourceSuggestionDTO;
+import org.fyp.tmssep490be.dtos.teacherrequest.RescheduleSlotAvailabilityDTO;
 import org.fyp.tmssep490be.dtos.teacherrequest.RescheduleSlotSuggestionDTO;
 import org.fyp.tmssep490be.dtos.teacherrequest.TeacherRequestApproveDTO;
 import org.fyp.tmssep490be.dtos.teacherrequest.TeacherRequestCreateDTO;
@@ -16,9 +17,12 @@ import org.fyp.tmssep490be.entities.enums.*;
 import org.fyp.tmssep490be.exceptions.CustomException;
 import org.fyp.tmssep490be.exceptions.ErrorCode;
 import org.fyp.tmssep490be.repositories.*;
+import org.fyp.tmssep490be.services.ReschedulePlannerService;
 import org.fyp.tmssep490be.services.TeacherRequestService;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -26,15 +30,26 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TeacherRequestServiceImpl implements TeacherRequestService {
 
+    // Session statuses that occupy a teacher/resource/student at a date + time slot
+    private static final List<SessionStatus> OCCUPYING_SESSION_STATUSES =
+            List.of(SessionStatus.PLANNED, SessionStatus.DONE);
+    private static final List<TeachingSlotStatus> ACTIVE_TEACHING_SLOT_STATUSES =
+            List.of(TeachingSlotStatus.SCHEDULED, TeachingSlotStatus.SUBSTITUTED);
+    private static final List<TeachingSlotStatus> ALL_TEACHING_SLOT_STATUSES =
+            List.of(TeachingSlotStatus.values());
+
     private final TeacherRequestRepository teacherRequestRepository;
     private final TeacherRepository teacherRepository;
     private final SessionRepository sessionRepository;
@@ -45,6 +60,7 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
     private final TimeSlotTemplateRepository timeSlotTemplateRepository;
     private final StudentSessionRepository studentSessionRepository;
     private final TeacherSkillRepository teacherSkillRepository;
+    private final ReschedulePlannerService reschedulePlannerService;
 
     @Override
     @Transactional
@@ -348,30 +364,14 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
     public List<RescheduleSlotSuggestionDTO> suggestSlots(Long sessionId, LocalDate date, Long userId) {
         Teacher teacher = teacherRepository.findByUserAccountId(userId)
                 .orElseThrow(() -> new CustomException(ErrorCode.TEACHER_NOT_FOUND));
-        if (!sessionRepository.existsById(sessionId)) {
-            throw new CustomException(ErrorCode.SESSION_NOT_FOUND);
-        }
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new CustomException(ErrorCode.SESSION_NOT_FOUND));
         validateTeacherOwnsSession(sessionId, teacher.getId());
         validateTimeWindow(date);
 
-        return timeSlotTemplateRepository.findAll().stream()
-                .filter(t -> {
-                    try {
-                        validateTeacherConflict(teacher.getId(), date, t.getId(), sessionId);
-                        ensureNoStudentConflicts(sessionId, date, t.getId());
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .map(t -> RescheduleSlotSuggestionDTO.builder()
-                        .timeSlotId(t.getId())
-                        .label(t.getName())
-                        .startTime(t.getStartTime())
-                        .endTime(t.getEndTime())
-                        .hasAvailableResource(null)
-                        .availableResourceCount(null)
-                        .build())
+        return reschedulePlannerService.buildAvailabilityGrid(session, teacher.getId(), date).stream()
+                .filter(RescheduleSlotAvailabilityDTO::isAvailable)
+                .map(this::toSlotSuggestion)
                 .collect(Collectors.toList());
     }
 
@@ -390,51 +390,7 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
             throw new CustomException(ErrorCode.TIMESLOT_NOT_FOUND);
         }
 
-        ClassEntity classEntity = session.getClassEntity();
-
-        return resourceRepository.findAll().stream()
-                .filter(r -> r.getBranch().getId().equals(classEntity.getBranch().getId()))
-                .filter(r -> {
-                    try {
-                        validateResourceTypeForModality(r, classEntity);
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> {
-                    try {
-                        validateResourceAvailability(r.getId(), date, timeSlotId, null);
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> {
-                    try {
-                        validateResourceCapacity(r, sessionId);
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> {
-                    try {
-                        validateTeacherConflict(teacher.getId(), date, timeSlotId, sessionId);
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> ensureNoStudentConflicts(sessionId, date, timeSlotId))
-                .map(r -> RescheduleResourceSuggestionDTO.builder()
-                        .resourceId(r.getId())
-                        .name(r.getName())
-                        .resourceType(r.getResourceType().name())
-                        .capacity(r.getCapacity())
-                        .branchId(r.getBranch().getId())
-                        .build())
-                .collect(Collectors.toList());
+        return findAvailableResources(session, teacher.getId(), date, timeSlotId);
     }
 
     @Override
@@ -507,6 +463,44 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<RescheduleSlotAvailabilityDTO> getRescheduleAvailability(Long sessionId, LocalDate date, Long userId) {
+        Teacher teacher = teacherRepository.findByUserAccountId(userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TEACHER_NOT_FOUND));
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new CustomException(ErrorCode.SESSION_NOT_FOUND));
+        validateTeacherOwnsSession(sessionId, teacher.getId());
+        validateTimeWindow(date);
+
+        return reschedulePlannerService.buildAvailabilityGrid(session, teacher.getId(), date);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RescheduleSlotAvailabilityDTO> getRescheduleAvailabilityForStaff(Long requestId, LocalDate date) {
+        TeacherRequest request = teacherRequestRepository.findByIdWithTeacherAndSession(requestId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TEACHER_REQUEST_NOT_FOUND));
+
+        if (request.getRequestType() != TeacherRequestType.RESCHEDULE) {
+            throw new CustomException(ErrorCode.INVALID_INPUT);
+        }
+        if (request.getSession() == null) {
+            throw new CustomException(ErrorCode.SESSION_NOT_FOUND);
+        }
+        if (request.getTeacher() == null) {
+            throw new CustomException(ErrorCode.TEACHER_NOT_FOUND);
+        }
+
+        LocalDate finalDate = date != null ? date : request.getNewDate();
+        if (finalDate == null) {
+            throw new CustomException(ErrorCode.INVALID_INPUT);
+        }
+        validateTimeWindow(finalDate);
+
+        return reschedulePlannerService.buildAvailabilityGrid(request.getSession(), request.getTeacher().getId(), finalDate);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<RescheduleSlotSuggestionDTO> suggestSlotsForStaff(Long requestId, LocalDate date) {
@@ -543,25 +537,9 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
 
         validateTimeWindow(finalDate);
 
-        final LocalDate dateForFilter = finalDate;
-        return timeSlotTemplateRepository.findAll().stream()
-                .filter(t -> {
-                    try {
-                        validateTeacherConflict(originalTeacher.getId(), dateForFilter, t.getId(), session.getId());
-                        ensureNoStudentConflicts(session.getId(), dateForFilter, t.getId());
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .map(t -> RescheduleSlotSuggestionDTO.builder()
-                        .timeSlotId(t.getId())
-                        .label(t.getName())
-                        .startTime(t.getStartTime())
-                        .endTime(t.getEndTime())
-                        .hasAvailableResource(null)
-                        .availableResourceCount(null)
-                        .build())
+        return reschedulePlannerService.buildAvailabilityGrid(session, originalTeacher.getId(), finalDate).stream()
+                .filter(RescheduleSlotAvailabilityDTO::isAvailable)
+                .map(this::toSlotSuggestion)
                 .collect(Collectors.toList());
     }
 
@@ -616,53 +594,7 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
             throw new CustomException(ErrorCode.TIMESLOT_NOT_FOUND);
         }
 
-        ClassEntity classEntity = session.getClassEntity();
-
-        final LocalDate dateForFilter = finalDate;
-        final Long timeSlotIdForFilter = finalTimeSlotId;
-        return resourceRepository.findAll().stream()
-                .filter(r -> r.getBranch().getId().equals(classEntity.getBranch().getId()))
-                .filter(r -> {
-                    try {
-                        validateResourceTypeForModality(r, classEntity);
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> {
-                    try {
-                        validateResourceAvailability(r.getId(), dateForFilter, timeSlotIdForFilter, null);
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> {
-                    try {
-                        validateResourceCapacity(r, session.getId());
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> {
-                    try {
-                        validateTeacherConflict(originalTeacher.getId(), dateForFilter, timeSlotIdForFilter, session.getId());
-                        return true;
-                    } catch (CustomException ex) {
-                        return false;
-                    }
-                })
-                .filter(r -> ensureNoStudentConflicts(session.getId(), dateForFilter, timeSlotIdForFilter))
-                .map(r -> RescheduleResourceSuggestionDTO.builder()
-                        .resourceId(r.getId())
-                        .name(r.getName())
-                        .resourceType(r.getResourceType().name())
-                        .capacity(r.getCapacity())
-                        .branchId(r.getBranch().getId())
-                        .build())
-                .collect(Collectors.toList());
+        return findAvailableResources(session, originalTeacher.getId(), finalDate, finalTimeSlotId);
     }
 
     @Override
@@ -878,8 +810,7 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
         teachingSlotRepository.save(newTeachingSlot);
 
         // Copy student sessions (only for enrolled students with PLANNED status)
-        List<StudentSession> oldStudentSessions = studentSessionRepository.findAll().stream()
-                .filter(ss -> ss.getSession().getId().equals(oldSession.getId()))
+        List<StudentSession> oldStudentSessions = studentSessionRepository.findBySessionId(oldSession.getId()).stream()
                 .filter(ss -> ss.getAttendanceStatus() == null || 
                         ss.getAttendanceStatus() == org.fyp.tmssep490be.entities.enums.AttendanceStatus.PLANNED)
                 .collect(Collectors.toList());
@@ -975,19 +906,46 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
      * Validate teacher conflict at date/time
      */
     private void validateTeacherConflict(Long teacherId, LocalDate date, Long timeSlotTemplateId, Long excludeSessionId) {
-        boolean hasConflict = teachingSlotRepository.findAll().stream()
-                .anyMatch(ts -> ts.getId().getTeacherId().equals(teacherId)
-                        && ts.getSession().getDate().equals(date)
-                        && ts.getSession().getTimeSlotTemplate().getId().equals(timeSlotTemplateId)
-                        && !ts.getSession().getId().equals(excludeSessionId)
-                        && (ts.getSession().getStatus() == SessionStatus.PLANNED || 
-                            ts.getSession().getStatus() == SessionStatus.DONE));
-
-        if (hasConflict) {
+        if (isTeacherOccupied(teacherId, date, timeSlotTemplateId, excludeSessionId)) {
             throw new CustomException(ErrorCode.TEACHER_AVAILABILITY_CONFLICT);
         }
     }
 
+    private boolean isTeacherOccupied(Long teacherId, LocalDate date, Long timeSlotTemplateId, Long excludeSessionId) {
+        return teachingSlotRepository.existsTeacherConflict(
+                teacherId,
+                date,
+                timeSlotTemplateId,
+                OCCUPYING_SESSION_STATUSES,
+                ALL_TEACHING_SLOT_STATUSES,
+                excludeSessionId
+        );
+    }
+
+    /**
+     * Resources còn trống cho session tại date + time slot, lấy từ availability grid
+     * Trả về rỗng nếu giáo viên hoặc học viên bị trùng lịch ở slot đó
+     */
+    private List<RescheduleResourceSuggestionDTO> findAvailableResources(Session session, Long teacherId, LocalDate date, Long timeSlotId) {
+        return reschedulePlannerService.buildAvailabilityGrid(session, teacherId, date).stream()
+                .filter(slot -> slot.getTimeSlotId().equals(timeSlotId))
+                .filter(RescheduleSlotAvailabilityDTO::isAvailable)
+                .findFirst()
+                .map(RescheduleSlotAvailabilityDTO::getAvailableResources)
+                .orElse(List.of());
+    }
+
+    private RescheduleSlotSuggestionDTO toSlotSuggestion(RescheduleSlotAvailabilityDTO slot) {
+        return RescheduleSlotSuggestionDTO.builder()
+                .timeSlotId(slot.getTimeSlotId())
+                .label(slot.getLabel())
+                .startTime(slot.getStartTime())
+                .endTime(slot.getEndTime())
+                .hasAvailableResource(slot.getHasAvailableResource())
+                .availableResourceCount(slot.getAvailableResourceCount())
+                .build();
+    }
+
     /**
      * Validate teacher owns session via TeachingSlot
      */
@@ -1034,50 +992,6 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
         }
     }
 
-    private boolean ensureNoStudentConflicts(Long sessionId, LocalDate date, Long timeSlotTemplateId) {
-        List<StudentSession> all = studentSessionRepository.findAll();
-        List<Long> studentIds = all.stream()
-                .filter(ss -> ss.getSession().getId().equals(sessionId))
-                .map(ss -> ss.getStudent().getId())
-                .distinct()
-                .collect(Collectors.toList());
-
-        boolean anyConflict = all.stream()
-                .filter(ss -> studentIds.contains(ss.getStudent().getId()))
-                .anyMatch(ss -> ss.getSession().getDate().equals(date)
-                        && ss.getSession().getTimeSlotTemplate().getId().equals(timeSlotTemplateId)
-                        && (ss.getSession().getStatus() == SessionStatus.PLANNED || ss.getSession().getStatus() == SessionStatus.DONE));
-
-        if (anyConflict) {
-            throw new CustomException(ErrorCode.SCHEDULE_CONFLICT);
-        }
-        return true;
-    }
-
-    /**
-     * Validate resource type phù hợp với class modality
-     * - OFFLINE class → ROOM resource (giữ nguyên lớp offline)
-     * - ONLINE class → VIRTUAL resource (giữ nguyên lớp online)
-     * - HYBRID class → có thể dùng cả ROOM hoặc VIRTUAL
-     */
-    private void validateResourceTypeForModality(Resource resource, ClassEntity classEntity) {
-        Modality classModality = classEntity.getModality();
-        ResourceType resourceType = resource.getResourceType();
-
-        if (classModality == Modality.OFFLINE) {
-            // OFFLINE class reschedule → cần ROOM resource
-            if (resourceType != ResourceType.ROOM) {
-                throw new CustomException(ErrorCode.INVALID_RESOURCE_FOR_MODALITY);
-            }
-        } else if (classModality == Modality.ONLINE) {
-            // ONLINE class reschedule → cần VIRTUAL resource
-            if (resourceType != ResourceType.VIRTUAL) {
-                throw new CustomException(ErrorCode.INVALID_RESOURCE_FOR_MODALITY);
-            }
-        }
-        // HYBRID class có thể dùng cả ROOM hoặc VIRTUAL, không cần validate
-    }
-
     private ResourceType determineTargetResourceTypeForModalityChange(Modality classModality) {
         if (classModality == null) {
             return null;
@@ -1364,7 +1278,7 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ReplacementCandidateDTO> suggestReplacementCandidates(Long sessionId, Long userId) {
+    public List<ReplacementCandidateDTO> suggestReplacementCandidates(Long sessionId, Long userId, Pageable pageable) {
         log.info("Suggesting replacement candidates for session {} by user {}", sessionId, userId);
 
         // 1. Get teacher from user account
@@ -1384,117 +1298,16 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
             throw new CustomException(ErrorCode.TIMESLOT_NOT_FOUND);
         }
 
-        // 3. Get declined teachers for this session (teachers who have declined replacement requests for this session)
-        List<TeacherRequest> replacementRequestsForSession = teacherRequestRepository.findAll().stream()
-                .filter(tr -> tr.getSession() != null && tr.getSession().getId().equals(sessionId))
-                .filter(tr -> tr.getRequestType() == TeacherRequestType.REPLACEMENT)
-                .filter(tr -> tr.getNote() != null && tr.getNote().contains("DECLINED_BY_TEACHER_ID_"))
-                .collect(Collectors.toList());
-
-        java.util.Set<Long> declinedTeacherIds = new java.util.HashSet<>();
-        for (TeacherRequest tr : replacementRequestsForSession) {
-            String note = tr.getNote();
-            if (note != null && note.contains("DECLINED_BY_TEACHER_ID_")) {
-                // Parse teacher ID from note: "DECLINED_BY_TEACHER_ID_{teacherId}: {reason}"
-                try {
-                    String prefix = "DECLINED_BY_TEACHER_ID_";
-                    int startIndex = note.indexOf(prefix) + prefix.length();
-                    int endIndex = note.indexOf(":", startIndex);
-                    if (endIndex == -1) {
-                        // If no colon found, try to find end of number
-                        endIndex = startIndex;
-                        while (endIndex < note.length() && Character.isDigit(note.charAt(endIndex))) {
-                            endIndex++;
-                        }
-                    }
-                    if (endIndex > startIndex) {
-                        String teacherIdStr = note.substring(startIndex, endIndex).trim();
-                        Long teacherId = Long.parseLong(teacherIdStr);
-                        declinedTeacherIds.add(teacherId);
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to parse declined teacher ID from note: {}", note, e);
-                }
-            }
-        }
-
-        // 4. Get all teachers except current teacher and declined teachers
-        List<Teacher> allTeachers = teacherRepository.findAll().stream()
-                .filter(t -> !t.getId().equals(currentTeacher.getId()))
-                .filter(t -> !declinedTeacherIds.contains(t.getId()))
-                .collect(Collectors.toList());
-
-        // 5. Get all teacher skills for quick lookup
-        // TODO: In future, can improve to match specific subject/course skills based on session's class
-        List<TeacherSkill> allTeacherSkills = teacherSkillRepository.findAll();
-        java.util.Map<Long, List<TeacherSkill>> teacherSkillsMap = allTeacherSkills.stream()
-                .collect(Collectors.groupingBy(ts -> ts.getTeacher().getId()));
-
-        // 6. Map to candidates with priority calculation
-        final Long sessionTimeSlotId = sessionTimeSlot.getId();
-        List<ReplacementCandidateDTO> candidates = allTeachers.stream()
-                .map(teacher -> {
-                    UserAccount teacherAccount = teacher.getUserAccount();
-                    boolean hasConflict = hasTeacherConflict(teacher.getId(), session.getDate(), 
-                            sessionTimeSlotId, null);
-
-                    List<TeacherSkill> teacherSkills = teacherSkillsMap.getOrDefault(
-                            teacher.getId(), List.of());
-                    List<ReplacementCandidateDTO.SkillDetail> skillDetails = teacherSkills.stream()
-                            .map(skill -> {
-                                TeacherSkill.TeacherSkillId id = skill.getId();
-                                String skillName = id != null && id.getSkill() != null
-                                        ? id.getSkill().name()
-                                        : null;
-                                if (skillName == null) {
-                                    return null;
-                                }
-                                return ReplacementCandidateDTO.SkillDetail.builder()
-                                        .skill(skillName)
-                                        .level(skill.getLevel())
-                                        .build();
-                            })
-                            .filter(Objects::nonNull)
-                            .sorted(Comparator.comparing(ReplacementCandidateDTO.SkillDetail::getSkill))
-                            .collect(Collectors.toList());
-
-                    // Simple skill priority: teacher has skills = 1, no skills = 0
-                    // In future, can improve to match specific subject/course skills
-                    int skillPriority = skillDetails.isEmpty() ? 0 : 1;
-                    
-                    // Availability priority: no conflict = 1, has conflict = 0
-                    int availabilityPriority = hasConflict ? 0 : 1;
-
-                    return ReplacementCandidateDTO.builder()
-                            .teacherId(teacher.getId())
-                            .fullName(teacherAccount != null ? teacherAccount.getFullName() : null)
-                            .email(teacherAccount != null ? teacherAccount.getEmail() : null)
-                            .skillPriority(skillPriority)
-                            .availabilityPriority(availabilityPriority)
-                            .hasConflict(hasConflict)
-                            .skills(skillDetails)
-                            .build();
-                })
-                .sorted((a, b) -> {
-                    // Sort by: skillPriority DESC, availabilityPriority DESC, name ASC
-                    int skillCompare = Integer.compare(b.getSkillPriority(), a.getSkillPriority());
-                    if (skillCompare != 0) return skillCompare;
-                    
-                    int availCompare = Integer.compare(b.getAvailabilityPriority(), a.getAvailabilityPriority());
-                    if (availCompare != 0) return availCompare;
-                    
-                    String nameA = a.getFullName() != null ? a.getFullName() : "";
-                    String nameB = b.getFullName() != null ? b.getFullName() : "";
-                    return nameA.compareToIgnoreCase(nameB);
-                })
-                .collect(Collectors.toList());
+        // 3. Exclude current teacher and teachers who declined replacement for this session
+        Set<Long> excludedTeacherIds = findDeclinedTeacherIds(sessionId);
+        excludedTeacherIds.add(currentTeacher.getId());
 
-        return candidates;
+        return rankReplacementCandidates(session, excludedTeacherIds, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ReplacementCandidateDTO> suggestReplacementCandidatesForStaff(Long requestId) {
+    public List<ReplacementCandidateDTO> suggestReplacementCandidatesForStaff(Long requestId, Pageable pageable) {
         log.info("Suggesting replacement candidates for request {} by staff", requestId);
 
         // 1. Get request and validate
@@ -1537,131 +1350,126 @@ public class TeacherRequestServiceImpl implements TeacherRequestService {
             throw new CustomException(ErrorCode.TIMESLOT_NOT_FOUND);
         }
 
-        // 3. Get declined teachers for this session
-        List<TeacherRequest> replacementRequestsForSession = teacherRequestRepository.findAll().stream()
-                .filter(tr -> tr.getSession() != null && tr.getSession().getId().equals(session.getId()))
-                .filter(tr -> tr.getRequestType() == TeacherRequestType.REPLACEMENT)
-                .filter(tr -> tr.getNote() != null && tr.getNote().contains("DECLINED_BY_TEACHER_ID_"))
-                .collect(Collectors.toList());
+        // 3. Exclude original teacher, declined teachers and the replacement teacher originally selected
+        // (staff can see the selected one in request detail)
+        Set<Long> excludedTeacherIds = findDeclinedTeacherIds(session.getId());
+        excludedTeacherIds.add(finalOriginalTeacher.getId());
+        if (request.getReplacementTeacher() != null) {
+            excludedTeacherIds.add(request.getReplacementTeacher().getId());
+        }
 
+        return rankReplacementCandidates(session, excludedTeacherIds, pageable);
+    }
+
+    /**
+     * Teachers who declined a replacement request for the session
+     * Parsed from note: "DECLINED_BY_TEACHER_ID_{teacherId}: {reason}"
+     */
+    private Set<Long> findDeclinedTeacherIds(Long sessionId) {
+        String prefix = "DECLINED_BY_TEACHER_ID_";
         Set<Long> declinedTeacherIds = new HashSet<>();
-        for (TeacherRequest tr : replacementRequestsForSession) {
-            String note = tr.getNote();
-            if (note != null && note.contains("DECLINED_BY_TEACHER_ID_")) {
-                try {
-                    String prefix = "DECLINED_BY_TEACHER_ID_";
-                    int startIndex = note.indexOf(prefix) + prefix.length();
-                    int endIndex = note.indexOf(":", startIndex);
-                    if (endIndex == -1) {
-                        endIndex = startIndex;
-                        while (endIndex < note.length() && Character.isDigit(note.charAt(endIndex))) {
-                            endIndex++;
-                        }
-                    }
-                    if (endIndex > startIndex) {
-                        String teacherIdStr = note.substring(startIndex, endIndex).trim();
-                        Long teacherId = Long.parseLong(teacherIdStr);
-                        declinedTeacherIds.add(teacherId);
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to parse declined teacher ID from note: {}", note, e);
+        for (String note : teacherRequestRepository.findNotesBySessionIdAndRequestTypeContaining(
+                sessionId, TeacherRequestType.REPLACEMENT, prefix)) {
+            try {
+                int startIndex = note.indexOf(prefix) + prefix.length();
+                int endIndex = startIndex;
+                while (endIndex < note.length() && Character.isDigit(note.charAt(endIndex))) {
+                    endIndex++;
+                }
+                if (endIndex > startIndex) {
+                    declinedTeacherIds.add(Long.parseLong(note.substring(startIndex, endIndex)));
                 }
+            } catch (Exception e) {
+                log.warn("Failed to parse declined teacher ID from note: {}", note, e);
             }
         }
+        return declinedTeacherIds;
+    }
 
-        // 4. Get replacement teacher that teacher originally selected (if any)
-        // Exclude it from suggestions since staff can see it in request detail
-        Long replacementTeacherId = null;
-        if (request.getReplacementTeacher() != null) {
-            replacementTeacherId = request.getReplacementTeacher().getId();
+    /**
+     * Rank replacement candidates for a session
+     * 1. Load teachers of the class branch and their skills for the course subject (two queries)
+     * 2. Check conflicts of all candidates at session date + time slot (one query)
+     * 3. Sort by skillPriority DESC (best matching skill level, 0 without one), availabilityPriority DESC, name ASC
+     *    and return requested page
+     */
+    private List<ReplacementCandidateDTO> rankReplacementCandidates(Session session, Set<Long> excludedTeacherIds,
+                                                                    Pageable pageable) {
+        ClassEntity classEntity = session.getClassEntity();
+        if (classEntity == null) {
+            throw new CustomException(ErrorCode.CLASS_NOT_FOUND);
         }
+        Subject subject = classEntity.getCourse().getSubject();
+
+        List<Teacher> branchTeachers = teacherRepository.findBranchTeachers(
+                classEntity.getBranch().getId(), excludedTeacherIds);
+        if (branchTeachers.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> candidateIds = branchTeachers.stream().map(Teacher::getId).collect(Collectors.toSet());
+        String subjectCode = normalizeSpecialization(subject.getCode());
+        String subjectName = normalizeSpecialization(subject.getName());
+        // Blank code and name would match no skill: every branch teacher ranks at skillPriority 0
+        Map<Long, List<TeacherSkill>> skillsByTeacherId = subjectCode == null && subjectName == null
+                ? Map.of()
+                : teacherSkillRepository.findSubjectSkillsOfTeachers(candidateIds, subjectCode, subjectName).stream()
+                        .collect(Collectors.groupingBy(ts -> ts.getTeacher().getId()));
+        Set<Long> busyTeacherIds = new HashSet<>(teachingSlotRepository.findBusyTeacherIds(
+                candidateIds,
+                session.getDate(),
+                session.getTimeSlotTemplate().getId(),
+                OCCUPYING_SESSION_STATUSES,
+                ACTIVE_TEACHING_SLOT_STATUSES
+        ));
+
+        Stream<ReplacementCandidateDTO> ranked = branchTeachers.stream()
+                .map(teacher -> toReplacementCandidate(teacher, skillsByTeacherId.getOrDefault(teacher.getId(), List.of()),
+                        busyTeacherIds.contains(teacher.getId())))
+                .sorted(Comparator.comparing(ReplacementCandidateDTO::getSkillPriority, Comparator.reverseOrder())
+                        .thenComparing(ReplacementCandidateDTO::getAvailabilityPriority, Comparator.reverseOrder())
+                        .thenComparing(c -> c.getFullName() != null ? c.getFullName() : "", String.CASE_INSENSITIVE_ORDER));
+
+        if (pageable.isPaged()) {
+            ranked = ranked.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return ranked.collect(Collectors.toList());
+    }
 
-        // 5. Get all teachers except original teacher, declined teachers, and replacement teacher
-        final Long finalReplacementTeacherId = replacementTeacherId;
-        List<Teacher> allTeachers = teacherRepository.findAll().stream()
-                .filter(t -> !t.getId().equals(finalOriginalTeacher.getId()))
-                .filter(t -> !declinedTeacherIds.contains(t.getId()))
-                .filter(t -> finalReplacementTeacherId == null || !t.getId().equals(finalReplacementTeacherId))
-                .collect(Collectors.toList());
-
-        // 6. Get all teacher skills for quick lookup
-        List<TeacherSkill> allTeacherSkills = teacherSkillRepository.findAll();
-        java.util.Map<Long, List<TeacherSkill>> teacherSkillsMap = allTeacherSkills.stream()
-                .collect(Collectors.groupingBy(ts -> ts.getTeacher().getId()));
-
-        // 7. Map to candidates with priority calculation
-        final Long sessionTimeSlotId = sessionTimeSlot.getId();
-        List<ReplacementCandidateDTO> candidates = allTeachers.stream()
-                .map(teacher -> {
-                    UserAccount teacherAccount = teacher.getUserAccount();
-                    boolean hasConflict = hasTeacherConflict(teacher.getId(), session.getDate(), 
-                            sessionTimeSlotId, null);
-
-                    List<TeacherSkill> teacherSkills = teacherSkillsMap.getOrDefault(
-                            teacher.getId(), List.of());
-                    List<ReplacementCandidateDTO.SkillDetail> skillDetails = teacherSkills.stream()
-                            .map(skill -> {
-                                TeacherSkill.TeacherSkillId id = skill.getId();
-                                String skillName = id != null && id.getSkill() != null
-                                        ? id.getSkill().name()
-                                        : null;
-                                if (skillName == null) {
-                                    return null;
-                                }
-                                return ReplacementCandidateDTO.SkillDetail.builder()
-                                        .skill(skillName)
-                                        .level(skill.getLevel())
-                                        .build();
-                            })
-                            .filter(Objects::nonNull)
-                            .sorted(Comparator.comparing(ReplacementCandidateDTO.SkillDetail::getSkill))
-                            .collect(Collectors.toList());
-
-                    int skillPriority = skillDetails.isEmpty() ? 0 : 1;
-                    int availabilityPriority = hasConflict ? 0 : 1;
-
-                    return ReplacementCandidateDTO.builder()
-                            .teacherId(teacher.getId())
-                            .fullName(teacherAccount != null ? teacherAccount.getFullName() : null)
-                            .email(teacherAccount != null ? teacherAccount.getEmail() : null)
-                            .skillPriority(skillPriority)
-                            .availabilityPriority(availabilityPriority)
-                            .hasConflict(hasConflict)
-                            .skills(skillDetails)
-                            .build();
-                })
-                .sorted((a, b) -> {
-                    int skillCompare = Integer.compare(b.getSkillPriority(), a.getSkillPriority());
-                    if (skillCompare != 0) return skillCompare;
-                    
-                    int availCompare = Integer.compare(b.getAvailabilityPriority(), a.getAvailabilityPriority());
-                    if (availCompare != 0) return availCompare;
-                    
-                    String nameA = a.getFullName() != null ? a.getFullName() : "";
-                    String nameB = b.getFullName() != null ? b.getFullName() : "";
-                    return nameA.compareToIgnoreCase(nameB);
-                })
-                .collect(Collectors.toList());
-
-        return candidates;
+    private static String normalizeSpecialization(String value) {
+        return StringUtils.hasText(value) ? value.trim().toLowerCase(Locale.ROOT) : null;
     }
 
-    /**
-     * Check if teacher has conflict at specific date and time slot
-     */
-    private boolean hasTeacherConflict(Long teacherId, LocalDate date, Long timeSlotTemplateId, Long excludeSessionId) {
-        List<TeachingSlot> slots = teachingSlotRepository.findAll().stream()
-                .filter(ts -> ts.getId().getTeacherId().equals(teacherId))
-                .filter(ts -> ts.getSession().getDate().equals(date))
-                .filter(ts -> ts.getSession().getTimeSlotTemplate().getId().equals(timeSlotTemplateId))
-                .filter(ts -> excludeSessionId == null || !ts.getSession().getId().equals(excludeSessionId))
-                .filter(ts -> ts.getSession().getStatus() == SessionStatus.PLANNED || 
-                               ts.getSession().getStatus() == SessionStatus.DONE)
-                .filter(ts -> ts.getStatus() == TeachingSlotStatus.SCHEDULED || 
-                             ts.getStatus() == TeachingSlotStatus.SUBSTITUTED)
+    private ReplacementCandidateDTO toReplacementCandidate(Teacher teacher, List<TeacherSkill> subjectSkills,
+                                                           boolean hasConflict) {
+        UserAccount teacherAccount = teacher.getUserAccount();
+        List<ReplacementCandidateDTO.SkillDetail> skillDetails = subjectSkills.stream()
+                .filter(skill -> skill.getId() != null && skill.getId().getSkill() != null)
+                .map(skill -> ReplacementCandidateDTO.SkillDetail.builder()
+                        .skill(skill.getId().getSkill().name())
+                        .level(skill.getLevel())
+                        .build())
+                .sorted(Comparator.comparing(ReplacementCandidateDTO.SkillDetail::getSkill))
                 .collect(Collectors.toList());
 
-        return !slots.isEmpty();
+        // Skill priority: highest level among skills matching the subject, 0 without a matching skill
+        // (a matching skill without level still ranks above 0)
+        int skillPriority = subjectSkills.isEmpty() ? 0 : subjectSkills.stream()
+                .map(TeacherSkill::getLevel)
+                .filter(Objects::nonNull)
+                .mapToInt(Short::intValue)
+                .max()
+                .orElse(1);
+
+        return ReplacementCandidateDTO.builder()
+                .teacherId(teacher.getId())
+                .fullName(teacherAccount != null ? teacherAccount.getFullName() : null)
+                .email(teacherAccount != null ? teacherAccount.getEmail() : null)
+                .skillPriority(skillPriority)
+                .availabilityPriority(hasConflict ? 0 : 1)
+                .hasConflict(hasConflict)
+                .skills(skillDetails)
+                .build();
     }
 
     @Override
@@ -1,13 +1,33 @@
 package org.fyp.tmssep490be.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.fyp.tmssep490be.config.CacheConfiguration;
+import org.fyp.tmssep490be.dtos.schedule.TimeSlotDTO;
 import org.fyp.tmssep490be.repositories.TimeSlotTemplateRepository;
 import org.fyp.tmssep490be.services.TimeSlotTemplateService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class TimeSlotTemplateServiceImpl implements TimeSlotTemplateService {
 
     private final TimeSlotTemplateRepository timeSlotTemplateRepository;
+
+    @Override
+    @Cacheable(CacheConfiguration.TIME_SLOTS_BY_BRANCH)
+    @Transactional(readOnly = true)
+    public List<TimeSlotDTO> getTimeSlotsByBranch(Long branchId) {
+        return timeSlotTemplateRepository.findByBranchIdOrderByStartTimeAsc(branchId).stream()
+                .map(slot -> TimeSlotDTO.builder()
+                        .timeSlotTemplateId(slot.getId())
+                        .name(slot.getName())
+                        .startTime(slot.getStartTime())
+                        .endTime(slot.getEndTime())
+                        .build())
+                .toList();
+    }
 }
@@ -7,6 +7,7 @@ import org.fyp.tmssep490be.dtos.user.UserResponse;
 import org.fyp.tmssep490be.entities.*;
 import org.fyp.tmssep490be.entities.enums.UserStatus;
 import org.fyp.tmssep490be.repositories.*;
+import org.fyp.tmssep490be.services.RefreshTokenService;
 import org.fyp.tmssep490be.services.UserAccountService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +33,7 @@ public class UserAccountServiceImpl implements UserAccountService {
     private final UserRoleRepository userRoleRepository;
     private final UserBranchesRepository userBranchesRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
 
     @Override
     @Transactional
@@ -139,6 +141,10 @@ public class UserAccountServiceImpl implements UserAccountService {
             UserStatus userStatus = UserStatus.valueOf(status.toUpperCase());
             user.setStatus(userStatus);
             user = userAccountRepository.save(user);
+            if (userStatus != UserStatus.ACTIVE) {
+                // Deactivated account: no refresh token of any session may be used again
+                refreshTokenService.revokeAllForUser(id);
+            }
             log.info("User status updated successfully");
             return mapToResponse(user);
         } catch (IllegalArgumentException e) {
@@ -157,6 +163,7 @@ public class UserAccountServiceImpl implements UserAccountService {
         // Soft delete by setting status to INACTIVE
         user.setStatus(UserStatus.INACTIVE);
         userAccountRepository.save(user);
+        refreshTokenService.revokeAllForUser(id);
 
         log.info("User soft deleted successfully: {}", user.getEmail());
     }
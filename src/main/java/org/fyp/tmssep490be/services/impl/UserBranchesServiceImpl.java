@@ -1,13 +1,27 @@
 package org.fyp.tmssep490be.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.fyp.tmssep490be.config.CacheConfiguration;
 import org.fyp.tmssep490be.repositories.UserBranchesRepository;
 import org.fyp.tmssep490be.services.UserBranchesService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class UserBranchesServiceImpl implements UserBranchesService {
 
     private final UserBranchesRepository userBranchesRepository;
+
+    @Override
+    @Cacheable(CacheConfiguration.USER_BRANCH_IDS)
+    @Transactional(readOnly = true)
+    public List<Long> getBranchIdsByUserId(Long userId) {
+        // Shared between requests → read-only (unmodifiableList vẫn cho phép contains(null))
+        return Collections.unmodifiableList(userBranchesRepository.findBranchIdsByUserId(userId));
+    }
 }
@@ -0,0 +1,25 @@
+-- =========================================
+-- V2: Objects added to schema.sql after the baseline
+-- IF NOT EXISTS: databases built from the later hand-run schema.sql already have them
+-- =========================================
+
+-- Teacher conflict checks: sessions of a date in a time slot
+CREATE INDEX IF NOT EXISTS idx_session_date_time_slot ON session(date, time_slot_template_id);
+
+-- Số thứ tự cho student_code (StudentCodeAllocator lấy theo block 50 số, INCREMENT BY phải khớp BLOCK_SIZE)
+CREATE SEQUENCE IF NOT EXISTS student_code_seq START WITH 1 INCREMENT BY 50;
+
+-- Log từng chunk của scheduled job (rows affected + duration), dùng để theo dõi và resume
+CREATE TABLE IF NOT EXISTS scheduled_job_run_log (
+  id BIGSERIAL PRIMARY KEY,
+  job_name VARCHAR(100) NOT NULL,
+  run_id VARCHAR(36) NOT NULL, -- các chunk của cùng một lần chạy
+  chunk_no INTEGER NOT NULL,
+  cutoff_date DATE,
+  rows_affected INTEGER NOT NULL,
+  duration_ms BIGINT NOT NULL,
+  created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+-- Scheduled job run log (xem lần chạy gần nhất của job)
+CREATE INDEX IF NOT EXISTS idx_scheduled_job_run_log_job_created ON scheduled_job_run_log(job_name, created_at);
@@ -0,0 +1,40 @@
+-- =========================================
+-- V3: Composite / partial / covering indexes cho các query shape nóng nhất
+-- Mỗi index ghi rõ repository query dùng nó; MigrationIndexUsageIT kiểm tra bằng EXPLAIN
+-- =========================================
+
+-- Nightly rollover (SessionRepository.markPastPlannedSessionsDone): date < today AND status = 'PLANNED'
+-- Partial index chỉ chứa session PLANNED nên nhỏ dần khi session chuyển sang DONE
+CREATE INDEX IF NOT EXISTS idx_session_planned_date
+  ON session(date)
+  WHERE status = 'PLANNED';
+
+-- Future PLANNED sessions của một lớp (enrollment, transfer):
+-- findByClassEntityIdAndDateGreaterThanEqualAndStatusOrderByDateAsc(classId, date, PLANNED)
+CREATE INDEX IF NOT EXISTS idx_session_class_planned_date
+  ON session(class_id, date)
+  WHERE status = 'PLANNED';
+
+-- Teacher conflict checks (TeachingSlotRepository.existsTeacherConflict, findBusyTeacherIds,
+-- findOccupiedTimeSlotIdsByTeacherIdAndDate): teacher_id + status, rồi join session theo session_id
+-- Covering: trả session_id bằng index-only scan, không cần đọc heap teaching_slot
+CREATE INDEX IF NOT EXISTS idx_teaching_slot_teacher_status_session
+  ON teaching_slot(teacher_id, status, session_id);
+
+-- Prefix của idx_teaching_slot_teacher_session và index trên, chỉ tốn chi phí ghi
+DROP INDEX IF EXISTS idx_teaching_slot_teacher;
+
+-- AA request list (StudentRequestSpecifications.matchesAAFilter): branch → classes → requests theo
+-- current_class_id + status, sort submitted_at DESC
+CREATE INDEX IF NOT EXISTS idx_student_request_current_class_status_submitted
+  ON student_request(current_class_id, status, submitted_at DESC);
+
+-- Lớp đang học của student (student portal, conflict checks, existsByClassIdAndStudentIdAndStatus)
+CREATE INDEX IF NOT EXISTS idx_enrollment_student_class_enrolled
+  ON enrollment(student_id, class_id)
+  WHERE status = 'ENROLLED';
+
+-- Excel import resolve student theo email không phân biệt hoa thường
+-- (StudentRepository.findStudentIdsByLowerEmailIn: LOWER(u.email) IN (...))
+CREATE INDEX IF NOT EXISTS idx_user_account_lower_email
+  ON user_account(lower(email));
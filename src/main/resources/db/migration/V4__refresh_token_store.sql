@@ -0,0 +1,27 @@
+-- =========================================
+-- V4: Refresh token store (rotation + reuse detection + server-side revocation)
+-- Chỉ lưu SHA-256 của token id (jti), không lưu JWT
+-- =========================================
+
+CREATE TABLE refresh_token (
+  id BIGSERIAL PRIMARY KEY,
+  token_hash VARCHAR(64) NOT NULL UNIQUE, -- SHA-256 hex của jti
+  family_id VARCHAR(36) NOT NULL, -- mọi token rotate từ cùng một lần login
+  user_id BIGINT NOT NULL,
+  status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE', -- active - token mới nhất của family/rotated - đã đổi sang token mới/revoked - logout, deactivate, reuse
+  expires_at TIMESTAMPTZ NOT NULL,
+  created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP NOT NULL,
+  rotated_at TIMESTAMPTZ,
+  revoked_at TIMESTAMPTZ,
+  CONSTRAINT fk_refresh_token_user FOREIGN KEY(user_id) REFERENCES user_account(id) ON DELETE CASCADE,
+  CONSTRAINT chk_refresh_token_status CHECK (status IN ('ACTIVE', 'ROTATED', 'REVOKED'))
+);
+
+-- Revoke cả family (logout, reuse detection)
+CREATE INDEX idx_refresh_token_family ON refresh_token(family_id);
+-- Revoke mọi family của user (deactivate account)
+CREATE INDEX idx_refresh_token_user_status ON refresh_token(user_id, status);
+-- Đồng bộ revocation list giữa các instance (families revoked since last sync)
+CREATE INDEX idx_refresh_token_revoked_at ON refresh_token(revoked_at) WHERE revoked_at IS NOT NULL;
+-- Dọn token hết hạn
+CREATE INDEX idx_refresh_token_expires_at ON refresh_token(expires_at);
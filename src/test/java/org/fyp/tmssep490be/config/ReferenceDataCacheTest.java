@@ -0,0 +1,218 @@
+package org.fyp.tmssep490be.config;
+
+import org.fyp.tmssep490be.entities.CourseMaterial;
+import org.fyp.tmssep490be.entities.Level;
+import org.fyp.tmssep490be.entities.Role;
+import org.fyp.tmssep490be.entities.Student;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+import org.fyp.tmssep490be.repositories.CourseMaterialRepository;
+import org.fyp.tmssep490be.repositories.CoursePhaseRepository;
+import org.fyp.tmssep490be.repositories.LevelRepository;
+import org.fyp.tmssep490be.repositories.RoleRepository;
+import org.fyp.tmssep490be.repositories.TimeSlotTemplateRepository;
+import org.fyp.tmssep490be.services.LevelService;
+import org.fyp.tmssep490be.services.RoleService;
+import org.fyp.tmssep490be.services.TimeSlotTemplateService;
+import org.fyp.tmssep490be.services.impl.CourseMaterialTreeLoader;
+import org.fyp.tmssep490be.services.impl.LevelServiceImpl;
+import org.fyp.tmssep490be.services.impl.RoleServiceImpl;
+import org.fyp.tmssep490be.services.impl.TimeSlotTemplateServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(ReferenceDataCacheTest.TestConfig.class)
+@DisplayName("Reference data cache - read-through and eviction")
+class ReferenceDataCacheTest {
+
+    @Configuration
+    @EnableCaching
+    static class TestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(
+                    CacheConfiguration.SUBJECTS_WITH_LEVELS, CacheConfiguration.LEVEL_IDS_BY_CODE,
+                    CacheConfiguration.TIME_SLOTS_BY_BRANCH, CacheConfiguration.ACTIVE_BRANCHES,
+                    CacheConfiguration.ROLE_IDS_BY_CODE, CacheConfiguration.MATERIAL_TREES);
+        }
+
+        @Bean
+        RoleRepository roleRepository() {
+            return mock(RoleRepository.class);
+        }
+
+        @Bean
+        LevelRepository levelRepository() {
+            return mock(LevelRepository.class);
+        }
+
+        @Bean
+        TimeSlotTemplateRepository timeSlotTemplateRepository() {
+            return mock(TimeSlotTemplateRepository.class);
+        }
+
+        @Bean
+        CoursePhaseRepository coursePhaseRepository() {
+            return mock(CoursePhaseRepository.class);
+        }
+
+        @Bean
+        CourseMaterialRepository courseMaterialRepository() {
+            return mock(CourseMaterialRepository.class);
+        }
+
+        @Bean
+        CourseMaterialTreeLoader courseMaterialTreeLoader(CoursePhaseRepository coursePhaseRepository,
+                                                          CourseMaterialRepository courseMaterialRepository) {
+            return new CourseMaterialTreeLoader(coursePhaseRepository, courseMaterialRepository);
+        }
+
+        @Bean
+        RoleService roleService(RoleRepository roleRepository) {
+            return new RoleServiceImpl(roleRepository);
+        }
+
+        @Bean
+        LevelService levelService(LevelRepository levelRepository) {
+            return new LevelServiceImpl(levelRepository);
+        }
+
+        @Bean
+        TimeSlotTemplateService timeSlotTemplateService(TimeSlotTemplateRepository timeSlotTemplateRepository) {
+            return new TimeSlotTemplateServiceImpl(timeSlotTemplateRepository);
+        }
+    }
+
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private LevelRepository levelRepository;
+    @Autowired
+    private TimeSlotTemplateRepository timeSlotTemplateRepository;
+    @Autowired
+    private RoleService roleService;
+    @Autowired
+    private LevelService levelService;
+    @Autowired
+    private TimeSlotTemplateService timeSlotTemplateService;
+    @Autowired
+    private CoursePhaseRepository coursePhaseRepository;
+    @Autowired
+    private CourseMaterialRepository courseMaterialRepository;
+    @Autowired
+    private CourseMaterialTreeLoader courseMaterialTreeLoader;
+
+    private ReferenceDataCacheEvictionListener evictionListener;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        reset(roleRepository, levelRepository, timeSlotTemplateRepository, coursePhaseRepository, courseMaterialRepository);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheManager", cacheManager);
+        evictionListener = new ReferenceDataCacheEvictionListener(beanFactory.getBeanProvider(CacheManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Repeated lookups are served from the cache, including misses and differently cased codes")
+    void shouldServeRepeatedLookupsFromCache() {
+        when(roleRepository.findByCode("STUDENT")).thenReturn(Optional.of(Role.builder().id(3L).code("STUDENT").build()));
+        when(levelRepository.findByCodeIgnoreCase("a1")).thenReturn(Optional.of(Level.builder().id(101L).code("A1").build()));
+        when(levelRepository.findByCodeIgnoreCase("X9")).thenReturn(Optional.empty());
+        when(timeSlotTemplateRepository.findByBranchIdOrderByStartTimeAsc(1L)).thenReturn(List.of(TimeSlotTemplate.builder()
+                .id(7L).name("HN Morning 1").startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(10, 0)).build()));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(roleService.findRoleIdByCode("STUDENT")).contains(3L);
+            assertThat(levelService.findLevelIdByCode(i == 0 ? "a1" : " A1 ")).contains(101L);
+            assertThat(levelService.findLevelIdByCode("X9")).isEmpty();
+            assertThat(timeSlotTemplateService.getTimeSlotsByBranch(1L))
+                    .singleElement()
+                    .satisfies(slot -> assertThat(slot.getTimeSlotTemplateId()).isEqualTo(7L));
+        }
+
+        verify(roleRepository, times(1)).findByCode("STUDENT");
+        verify(levelRepository, times(1)).findByCodeIgnoreCase("a1");
+        verify(levelRepository, times(1)).findByCodeIgnoreCase("X9");
+        verify(timeSlotTemplateRepository, times(1)).findByBranchIdOrderByStartTimeAsc(1L);
+    }
+
+    @Test
+    @DisplayName("Writes evict the related caches only after the transaction commits")
+    void shouldEvictAfterCommit() {
+        when(levelRepository.findByCodeIgnoreCase("A1")).thenReturn(Optional.of(Level.builder().id(101L).code("A1").build()));
+        when(roleRepository.findByCode("STUDENT")).thenReturn(Optional.of(Role.builder().id(3L).code("STUDENT").build()));
+        levelService.findLevelIdByCode("A1");
+        roleService.findRoleIdByCode("STUDENT");
+
+        TransactionSynchronizationManager.initSynchronization();
+        evictionListener.onReferenceDataChanged(Level.builder().id(101L).code("A1").build());
+        evictionListener.onReferenceDataChanged(new Student());
+
+        // Chưa commit: vẫn phục vụ từ cache
+        levelService.findLevelIdByCode("A1");
+        verify(levelRepository, times(1)).findByCodeIgnoreCase("A1");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        levelService.findLevelIdByCode("A1");
+        roleService.findRoleIdByCode("STUDENT");
+
+        verify(levelRepository, times(2)).findByCodeIgnoreCase("A1");
+        // Role cache không liên quan tới Level → không bị evict
+        verify(roleRepository, times(1)).findByCode("STUDENT");
+    }
+
+    @Test
+    @DisplayName("Material trees are cached per course and evicted after a course material write commits")
+    void shouldCacheMaterialTreeUntilMaterialWrite() {
+        when(coursePhaseRepository.findByCourseIdWithSessions(1L)).thenReturn(List.of());
+        when(courseMaterialRepository.findHierarchyMaterialsByCourseId(1L)).thenReturn(List.of());
+        when(coursePhaseRepository.findByCourseIdWithSessions(2L)).thenReturn(List.of());
+        when(courseMaterialRepository.findHierarchyMaterialsByCourseId(2L)).thenReturn(List.of());
+
+        courseMaterialTreeLoader.load(1L);
+        courseMaterialTreeLoader.load(1L);
+        courseMaterialTreeLoader.load(2L);
+        verify(courseMaterialRepository, times(1)).findHierarchyMaterialsByCourseId(1L);
+        verify(courseMaterialRepository, times(1)).findHierarchyMaterialsByCourseId(2L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        evictionListener.onReferenceDataChanged(new CourseMaterial());
+        courseMaterialTreeLoader.load(1L);
+        verify(courseMaterialRepository, times(1)).findHierarchyMaterialsByCourseId(1L);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        courseMaterialTreeLoader.load(1L);
+
+        verify(courseMaterialRepository, times(2)).findHierarchyMaterialsByCourseId(1L);
+        verify(coursePhaseRepository, times(2)).findByCourseIdWithSessions(1L);
+    }
+}
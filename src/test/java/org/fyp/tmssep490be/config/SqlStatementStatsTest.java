@@ -0,0 +1,64 @@
+package org.fyp.tmssep490be.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SqlStatementStats - Per-request SQL statement counting")
+class SqlStatementStatsTest {
+
+    private final SqlStatementCountingInspector inspector = new SqlStatementCountingInspector();
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementStats.end();
+    }
+
+    @Test
+    @DisplayName("Should count statements only while collecting")
+    void shouldCountOnlyWhileCollecting() {
+        inspector.inspect("select 1");
+
+        SqlStatementStats stats = SqlStatementStats.begin();
+        inspector.inspect("select * from subject");
+        inspector.inspect("select * from level where subject_id=?");
+
+        assertThat(SqlStatementStats.end()).isSameAs(stats);
+        inspector.inspect("select 2");
+
+        assertThat(stats.getStatementCount()).isEqualTo(2);
+        assertThat(SqlStatementStats.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should report statement shapes repeated past the threshold as possible N+1")
+    void shouldReportRepeatedStatements() {
+        SqlStatementStats stats = SqlStatementStats.begin();
+        inspector.inspect("select * from subject");
+        inspector.inspect("select * from level where subject_id=?");
+        inspector.inspect("select *  from level\n where subject_id=?");
+        inspector.inspect("select * from level where subject_id=?");
+        inspector.inspect("select * from student where id in (?, ?)");
+        inspector.inspect("select * from student where id in (?,?,?)");
+
+        assertThat(stats.getRepeatedStatements(3))
+                .containsExactly("3x select * from level where subject_id=?");
+        assertThat(stats.getRepeatedStatements(2))
+                .contains("2x select * from student where id in (?)");
+    }
+
+    @Test
+    @DisplayName("Should add JDBC execution time through the session listener")
+    void shouldAccumulateExecutionTime() throws InterruptedException {
+        SqlStatementStats stats = SqlStatementStats.begin();
+        SqlStatementTimingListener listener = new SqlStatementTimingListener();
+
+        listener.jdbcExecuteStatementStart();
+        Thread.sleep(5);
+        listener.jdbcExecuteStatementEnd();
+
+        assertThat(stats.getDbTimeMillis()).isGreaterThanOrEqualTo(5);
+    }
+}
@@ -6,6 +6,7 @@ import org.fyp.tmssep490be.entities.Subject;
 import org.fyp.tmssep490be.entities.enums.SubjectStatus;
 import org.fyp.tmssep490be.repositories.LevelRepository;
 import org.fyp.tmssep490be.repositories.SubjectRepository;
+import org.fyp.tmssep490be.utils.SqlStatementBudget;
 import org.fyp.tmssep490be.utils.TestDataBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -156,7 +157,10 @@ class CurriculumControllerIT {
                 // Check English levels are sorted by sortOrder
                 .andExpect(jsonPath("$.data[1].levels[0].code").value("A1"))
                 .andExpect(jsonPath("$.data[1].levels[1].code").value("A2"))
-                .andExpect(jsonPath("$.data[1].levels[2].code").value("B1"));
+                .andExpect(jsonPath("$.data[1].levels[2].code").value("B1"))
+
+                // Subjects query + one levels query per subject
+                .andExpect(SqlStatementBudget.atMost(3));
     }
 
     @Test
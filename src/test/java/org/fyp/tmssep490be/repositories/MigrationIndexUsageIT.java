@@ -0,0 +1,151 @@
+package org.fyp.tmssep490be.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.fyp.tmssep490be.config.PostgreSQLTestContainer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chạy Flyway migrations vào một schema riêng rồi EXPLAIN các query shape nóng
+ * để chắc chắn planner dùng đúng index đã khai báo trong V3__hot_query_indexes.sql.
+ * Không dùng Spring context: test profile để Hibernate tạo schema nên không có index từ migration.
+ */
+@DisplayName("Flyway migrations - Hot query index usage")
+class MigrationIndexUsageIT {
+
+    private static final String SCHEMA = "migration_check";
+
+    private static final PostgreSQLTestContainer postgres = PostgreSQLTestContainer.getInstance();
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        postgres.start();
+
+        connection = DriverManager.getConnection(
+                postgres.getJdbcUrl() + "&currentSchema=" + SCHEMA, postgres.getUsername(), postgres.getPassword());
+
+        // Container được reuse giữa các lần chạy → luôn migrate từ schema trống
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas(SCHEMA)
+                .createSchemas(true)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Statement st = connection.createStatement()) {
+            // Chỉ cần phân bố dữ liệu cho planner, bỏ qua FK để không phải seed bảng cha
+            st.execute("SET session_replication_role = replica");
+            st.execute("""
+                    INSERT INTO session (class_id, date, status)
+                    SELECT i % 200, CURRENT_DATE - 365 + (i % 730),
+                           CASE WHEN i % 10 = 0 THEN 'PLANNED' ELSE 'DONE' END
+                    FROM generate_series(1, 20000) i
+                    """);
+            st.execute("""
+                    INSERT INTO teaching_slot (session_id, teacher_id, status)
+                    SELECT i, i % 200, CASE WHEN i % 20 = 0 THEN 'ON_LEAVE' ELSE 'SCHEDULED' END
+                    FROM generate_series(1, 20000) i
+                    """);
+            st.execute("""
+                    INSERT INTO student_request (student_id, current_class_id, request_type, status, submitted_at)
+                    SELECT i % 5000, i % 200, 'ABSENCE',
+                           CASE WHEN i % 4 = 0 THEN 'PENDING' ELSE 'APPROVED' END,
+                           CURRENT_TIMESTAMP - (i || ' minutes')::interval
+                    FROM generate_series(1, 20000) i
+                    """);
+            st.execute("""
+                    INSERT INTO enrollment (class_id, student_id, status)
+                    SELECT i % 200, i % 5000, CASE WHEN i % 3 = 0 THEN 'COMPLETED' ELSE 'ENROLLED' END
+                    FROM generate_series(1, 20000) i
+                    """);
+            st.execute("""
+                    INSERT INTO user_account (email, full_name, password_hash)
+                    SELECT 'User' || i || '@Example.com', 'User ' || i, 'x'
+                    FROM generate_series(1, 20000) i
+                    """);
+            st.execute("SET session_replication_role = DEFAULT");
+            st.execute("VACUUM ANALYZE session, teaching_slot, student_request, enrollment, user_account");
+            st.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    static void closeConnection() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Nightly rollover should use the partial PLANNED date index")
+    void rolloverShouldUsePlannedDateIndex() throws SQLException {
+        assertThat(explain("""
+                SELECT id FROM session
+                WHERE date < CURRENT_DATE AND status = 'PLANNED'
+                """)).contains("idx_session_planned_date");
+    }
+
+    @Test
+    @DisplayName("Teacher conflict check should use the covering teaching slot index")
+    void teacherConflictShouldUseCoveringIndex() throws SQLException {
+        assertThat(explain("""
+                SELECT ts.session_id FROM teaching_slot ts
+                WHERE ts.teacher_id = 7 AND ts.status = 'SCHEDULED'
+                """)).contains("idx_teaching_slot_teacher_status_session");
+    }
+
+    @Test
+    @DisplayName("AA request list should use the class/status/submitted_at index")
+    void aaRequestListShouldUseCompositeIndex() throws SQLException {
+        assertThat(explain("""
+                SELECT id FROM student_request
+                WHERE current_class_id = 5 AND status = 'PENDING'
+                ORDER BY submitted_at DESC LIMIT 20
+                """)).contains("idx_student_request_current_class_status_submitted");
+    }
+
+    @Test
+    @DisplayName("Student's active classes should use the partial enrollment index")
+    void activeEnrollmentShouldUsePartialIndex() throws SQLException {
+        assertThat(explain("""
+                SELECT class_id FROM enrollment
+                WHERE student_id = 42 AND status = 'ENROLLED'
+                """)).contains("idx_enrollment_student_class_enrolled");
+    }
+
+    @Test
+    @DisplayName("Case-insensitive email lookup should use the lower(email) index")
+    void emailLookupShouldUseLowerEmailIndex() throws SQLException {
+        assertThat(explain("""
+                SELECT id FROM user_account
+                WHERE LOWER(email) IN ('user42@example.com', 'user43@example.com')
+                """)).contains("idx_user_account_lower_email");
+    }
+
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
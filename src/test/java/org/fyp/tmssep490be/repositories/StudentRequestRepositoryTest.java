@@ -1,8 +1,10 @@
 package org.fyp.tmssep490be.repositories;
 
 import org.fyp.tmssep490be.config.AbstractRepositoryTest;
+import org.fyp.tmssep490be.dtos.studentrequest.AARequestFilterDTO;
 import org.fyp.tmssep490be.entities.*;
 import org.fyp.tmssep490be.entities.enums.*;
+import org.fyp.tmssep490be.repositories.specifications.StudentRequestSpecifications;
 import org.fyp.tmssep490be.utils.TestDataBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +15,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -215,6 +218,101 @@ class StudentRequestRepositoryTest extends AbstractRepositoryTest {
         assertThat(count).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("Should summarize pending requests by type for the given branches in one query")
+    void shouldSummarizePendingRequestsByBranches() {
+        // Arrange
+        StudentRequest makeupRequest = StudentRequest.builder()
+            .student(testStudent)
+            .currentClass(testClass)
+            .requestType(StudentRequestType.MAKEUP)
+            .targetSession(testSession)
+            .requestReason("Valid reason for makeup request that meets minimum length")
+            .status(RequestStatus.PENDING)
+            .submittedBy(testUser)
+            .submittedAt(OffsetDateTime.now())
+            .build();
+        entityManager.persistAndFlush(makeupRequest);
+
+        // Act
+        StudentRequestRepository.RequestSummaryCount counts = studentRequestRepository
+            .summarizeByStatusAndBranches(RequestStatus.PENDING, List.of(testBranch.getId()));
+        StudentRequestRepository.RequestSummaryCount otherBranch = studentRequestRepository
+            .summarizeByStatusAndBranches(RequestStatus.PENDING, List.of(testBranch.getId() + 1));
+
+        // Assert
+        assertThat(counts.getTotal()).isEqualTo(2);
+        assertThat(counts.getAbsenceRequests()).isEqualTo(1);
+        assertThat(counts.getMakeupRequests()).isEqualTo(1);
+        assertThat(counts.getTransferRequests()).isZero();
+        assertThat(otherBranch.getTotal()).isZero();
+    }
+
+    @Test
+    @DisplayName("AA filter - count query matches the data query under each filter")
+    void shouldCountSameRowsAsDataQueryUnderEachFilter() {
+        // Arrange
+        persistAAFilterFixtures();
+        List<AARequestFilterDTO> filters = List.of(
+            AARequestFilterDTO.builder().build(),
+            AARequestFilterDTO.builder().requestType("ABSENCE").build(),
+            AARequestFilterDTO.builder().status("PENDING").build(),
+            AARequestFilterDTO.builder().studentName("test stu").build(),
+            AARequestFilterDTO.builder().classCode("class0").build(),
+            AARequestFilterDTO.builder().sessionDateFrom(LocalDate.now().plusDays(5).toString()).build(),
+            AARequestFilterDTO.builder().sessionDateTo(LocalDate.now().plusDays(5).toString()).build(),
+            AARequestFilterDTO.builder().submittedDateFrom(LocalDate.now().minusDays(1).toString()).build());
+
+        for (AARequestFilterDTO filter : filters) {
+            Specification<StudentRequest> spec =
+                StudentRequestSpecifications.matchesAAFilter(List.of(testBranch.getId()), null, filter);
+
+            // Act
+            List<StudentRequest> all = studentRequestRepository.findAll(spec);
+            Page<StudentRequest> firstPage = studentRequestRepository.findAll(spec, PageRequest.of(0, 1));
+
+            // Assert: page size 1 forces the separate count query whenever there is more than one row
+            assertThat(firstPage.getTotalElements()).as("total for %s", filter).isEqualTo(all.size());
+            assertThat(studentRequestRepository.count(spec)).as("count for %s", filter).isEqualTo(all.size());
+            assertThat(firstPage.getContent()).hasSize(Math.min(1, all.size()));
+        }
+    }
+
+    @Test
+    @DisplayName("AA filter - requests without target session (TRANSFER) survive session date filters")
+    void shouldKeepTransferRequestsUnderSessionDateFilters() {
+        // Arrange
+        StudentRequest transfer = persistAAFilterFixtures();
+
+        // Act
+        List<StudentRequest> fromLater = studentRequestRepository.findAll(StudentRequestSpecifications.matchesAAFilter(
+            List.of(testBranch.getId()), null,
+            AARequestFilterDTO.builder().sessionDateFrom(LocalDate.now().plusDays(5).toString()).build()));
+        List<StudentRequest> toEarlier = studentRequestRepository.findAll(StudentRequestSpecifications.matchesAAFilter(
+            List.of(testBranch.getId()), null,
+            AARequestFilterDTO.builder().sessionDateTo(LocalDate.now().plusDays(1).toString()).build()));
+
+        // Assert: ABSENCE on day +3 is outside both ranges, MAKEUP on day +10 only matches the first
+        assertThat(fromLater).extracting(StudentRequest::getRequestType)
+            .containsExactlyInAnyOrder(StudentRequestType.MAKEUP, StudentRequestType.TRANSFER);
+        assertThat(toEarlier).extracting(StudentRequest::getId).containsExactly(transfer.getId());
+    }
+
+    @Test
+    @DisplayName("AA filter - student name/code and class code search match % and _ literally")
+    void shouldMatchSearchTextLiterally() {
+        // Arrange
+        persistAAFilterFixtures();
+
+        // Act & Assert
+        assertThat(findByAAFilter(AARequestFilterDTO.builder().studentName("TEST stu").build())).hasSize(3);
+        assertThat(findByAAFilter(AARequestFilterDTO.builder().studentName("st002").build())).hasSize(1);
+        assertThat(findByAAFilter(AARequestFilterDTO.builder().classCode("lass00").build())).hasSize(4);
+        assertThat(findByAAFilter(AARequestFilterDTO.builder().studentName("%").build())).isEmpty();
+        assertThat(findByAAFilter(AARequestFilterDTO.builder().studentName("t_st").build())).isEmpty();
+        assertThat(findByAAFilter(AARequestFilterDTO.builder().classCode("class_01").build())).isEmpty();
+    }
+
     @Test
     @DisplayName("Should find all requests by student")
     void shouldFindAllRequestsByStudent() {
@@ -346,4 +444,53 @@ class StudentRequestRepositoryTest extends AbstractRepositoryTest {
         assertThat(result.getContent().get(0).getStatus()).isEqualTo(RequestStatus.PENDING);
         assertThat(result.getContent().get(0).getRequestType()).isEqualTo(StudentRequestType.ABSENCE);
     }
-}
\ No newline at end of file
+
+    private List<StudentRequest> findByAAFilter(AARequestFilterDTO filter) {
+        return studentRequestRepository.findAll(
+            StudentRequestSpecifications.matchesAAFilter(List.of(testBranch.getId()), null, filter));
+    }
+
+    /**
+     * Adds a MAKEUP request (session on day +10), an approved TRANSFER request without target session
+     * and an ABSENCE request of another student to the pending ABSENCE request of setUp
+     * @return the TRANSFER request
+     */
+    private StudentRequest persistAAFilterFixtures() {
+        Session laterSession = TestDataBuilder.buildSession()
+            .classEntity(testClass)
+            .date(LocalDate.now().plusDays(10))
+            .status(SessionStatus.PLANNED)
+            .build();
+        entityManager.persistAndFlush(laterSession);
+
+        UserAccount otherUser = TestDataBuilder.buildUserAccount()
+            .email("other@test.com")
+            .fullName("Other Learner")
+            .build();
+        entityManager.persistAndFlush(otherUser);
+        Student otherStudent = TestDataBuilder.buildStudent()
+            .userAccount(otherUser)
+            .studentCode("ST002")
+            .build();
+        entityManager.persistAndFlush(otherStudent);
+
+        entityManager.persistAndFlush(request(testStudent, StudentRequestType.MAKEUP, laterSession, RequestStatus.PENDING));
+        entityManager.persistAndFlush(request(otherStudent, StudentRequestType.ABSENCE, testSession, RequestStatus.PENDING));
+        StudentRequest transfer = request(testStudent, StudentRequestType.TRANSFER, null, RequestStatus.APPROVED);
+        entityManager.persistAndFlush(transfer);
+        return transfer;
+    }
+
+    private StudentRequest request(Student student, StudentRequestType type, Session targetSession, RequestStatus status) {
+        return StudentRequest.builder()
+            .student(student)
+            .currentClass(testClass)
+            .requestType(type)
+            .targetSession(targetSession)
+            .requestReason("Valid reason for request that meets minimum length")
+            .status(status)
+            .submittedBy(testUser)
+            .submittedAt(OffsetDateTime.now())
+            .build();
+    }
+}
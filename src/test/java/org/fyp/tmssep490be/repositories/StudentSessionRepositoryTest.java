@@ -0,0 +1,114 @@
+package org.fyp.tmssep490be.repositories;
+
+import org.fyp.tmssep490be.config.AbstractRepositoryTest;
+import org.fyp.tmssep490be.entities.*;
+import org.fyp.tmssep490be.entities.enums.*;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repository layer tests for the set-based transfer updates of StudentSessionRepository.
+ */
+@DataJpaTest
+@DisplayName("Student Session Repository Tests")
+class StudentSessionRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StudentSessionRepository studentSessionRepository;
+
+    private ClassEntity classA;
+    private ClassEntity classB;
+    private Session sessionA;
+    private Session sessionB;
+    private Student testStudent;
+
+    @BeforeEach
+    void setUp() {
+        Center center = TestDataBuilder.buildCenter().code("TC001").name("Test Center").build();
+        entityManager.persistAndFlush(center);
+
+        Branch branch = TestDataBuilder.buildBranch().center(center).code("BR001").name("Test Branch").build();
+        entityManager.persistAndFlush(branch);
+
+        Subject subject = TestDataBuilder.buildSubject().code("ENG").name("English").build();
+        entityManager.persistAndFlush(subject);
+
+        Level level = TestDataBuilder.buildLevel().subject(subject).code("A1").name("Beginner").build();
+        entityManager.persistAndFlush(level);
+
+        Course course = TestDataBuilder.buildCourse()
+            .subject(subject)
+            .level(level)
+            .code("ENG-A1-2024")
+            .name("English A1 Course")
+            .build();
+        entityManager.persistAndFlush(course);
+
+        classA = TestDataBuilder.buildClassEntity().branch(branch).course(course).code("CLASS-A").name("Class A").build();
+        entityManager.persistAndFlush(classA);
+        classB = TestDataBuilder.buildClassEntity().branch(branch).course(course).code("CLASS-B").name("Class B").build();
+        entityManager.persistAndFlush(classB);
+
+        sessionA = TestDataBuilder.buildSession().classEntity(classA).date(LocalDate.now().plusDays(7)).build();
+        entityManager.persistAndFlush(sessionA);
+        sessionB = TestDataBuilder.buildSession().classEntity(classB).date(LocalDate.now().plusDays(7)).build();
+        entityManager.persistAndFlush(sessionB);
+
+        UserAccount user = TestDataBuilder.buildUserAccount().email("student@test.com").fullName("Test Student").build();
+        entityManager.persistAndFlush(user);
+        testStudent = TestDataBuilder.buildStudent().userAccount(user).studentCode("ST001").build();
+        entityManager.persistAndFlush(testStudent);
+
+        // Student starts in class A
+        entityManager.persistAndFlush(StudentSession.builder()
+            .id(new StudentSession.StudentSessionId(testStudent.getId(), sessionA.getId()))
+            .student(testStudent)
+            .session(sessionA)
+            .build());
+        // Bulk statements bypass the persistence context, read rows back from the database
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should reset sessions to PLANNED when a student transfers back into a class left earlier (A -> B -> A)")
+    void shouldResetSessionsWhenTransferringBack() {
+        LocalDate today = LocalDate.now();
+
+        // A -> B
+        studentSessionRepository.markTransferredOutAfterDate(
+            testStudent.getId(), classA.getId(), today, "Transferred out to B", OffsetDateTime.now());
+        studentSessionRepository.insertPlannedForClassSessionsAfterDate(
+            testStudent.getId(), classB.getId(), today, "Transferred in from A");
+
+        // B -> A
+        studentSessionRepository.markTransferredOutAfterDate(
+            testStudent.getId(), classB.getId(), today, "Transferred out to A", OffsetDateTime.now());
+        int transferredIn = studentSessionRepository.insertPlannedForClassSessionsAfterDate(
+            testStudent.getId(), classA.getId(), today, "Transferred in from B");
+
+        assertThat(transferredIn).isEqualTo(1);
+        StudentSession backInA = entityManager.find(StudentSession.class,
+            new StudentSession.StudentSessionId(testStudent.getId(), sessionA.getId()));
+        assertThat(backInA.getAttendanceStatus()).isEqualTo(AttendanceStatus.PLANNED);
+        assertThat(backInA.getIsTransferredOut()).isFalse();
+        assertThat(backInA.getNote()).isEqualTo("Transferred in from B");
+
+        StudentSession leftB = entityManager.find(StudentSession.class,
+            new StudentSession.StudentSessionId(testStudent.getId(), sessionB.getId()));
+        assertThat(leftB.getAttendanceStatus()).isEqualTo(AttendanceStatus.ABSENT);
+        assertThat(leftB.getIsTransferredOut()).isTrue();
+    }
+}
@@ -0,0 +1,67 @@
+package org.fyp.tmssep490be.security;
+
+import org.fyp.tmssep490be.services.UserBranchesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BranchScopeResolver Unit Tests")
+class BranchScopeResolverTest {
+
+    private UserBranchesService userBranchesService;
+    private BranchScopeResolver branchScopeResolver;
+
+    @BeforeEach
+    void setUp() {
+        userBranchesService = mock(UserBranchesService.class);
+        branchScopeResolver = new BranchScopeResolver(userBranchesService);
+        when(userBranchesService.getBranchIdsByUserId(10L)).thenReturn(List.of(1L, 2L));
+        when(userBranchesService.getBranchIdsByUserId(20L)).thenReturn(List.of(3L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Resolves the current user's branch scope once per request and attaches it to the principal")
+    void shouldResolveOncePerRequest() {
+        UserPrincipal cached = UserPrincipal.fromClaims(10L, "aa@test.com", "ACADEMIC_AFFAIR");
+        UserPrincipal principal = cached.forRequest();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        assertThat(branchScopeResolver.getBranchIds(10L)).containsExactly(1L, 2L);
+        assertThat(branchScopeResolver.getBranchIds(10L)).containsExactly(1L, 2L);
+
+        verify(userBranchesService, times(1)).getBranchIdsByUserId(10L);
+        assertThat(principal.getBranchIds()).containsExactly(1L, 2L);
+        // Principal shared through UserPrincipalCache is not touched
+        assertThat(cached.getBranchIds()).isNull();
+        assertThat(cached.forRequest().getBranchIds()).isNull();
+    }
+
+    @Test
+    @DisplayName("Falls back to the cached service for other users and outside a request")
+    void shouldFallBackToServiceForOtherUsers() {
+        assertThat(branchScopeResolver.getBranchIds(10L)).containsExactly(1L, 2L);
+
+        UserPrincipal principal = UserPrincipal.fromClaims(10L, "aa@test.com", "ACADEMIC_AFFAIR");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        assertThat(branchScopeResolver.getBranchIds(20L)).containsExactly(3L);
+        assertThat(branchScopeResolver.getBranchIds(20L)).containsExactly(3L);
+
+        verify(userBranchesService, times(2)).getBranchIdsByUserId(20L);
+        assertThat(principal.getBranchIds()).isNull();
+    }
+}
@@ -0,0 +1,79 @@
+package org.fyp.tmssep490be.security;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the JWT filter path: verify access token → resolve principal → set SecurityContext.
+ * cacheSize = 0 verifies the HMAC signature and parses the token on every request,
+ * cacheSize > 0 serves repeated tokens from {@link VerifiedTokenCache}.
+ *
+ * Run: mvn test-compile, then
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+ *   org.fyp.tmssep490be.security.JwtAuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-filter-at-least-512-bits-long-for-hs512-signing-key";
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(
+                SECRET, 900000, 604800000, new VerifiedTokenCache(cacheSize, 900000));
+        filter = new JwtAuthenticationFilter(
+                jwtTokenProvider, null, new UserPrincipalCache(300000, 10000, 900000),
+                new RevokedTokenFamilyCache(900000, 100000, null), "claims");
+        authorizationHeader = "Bearer " + jwtTokenProvider.generateAccessToken(
+                1L, "student@tms.edu.vn", "STUDENT", "benchmark-family");
+    }
+
+    @Benchmark
+    public void filterRequest(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/students/me/schedule");
+        request.addHeader("Authorization", authorizationHeader);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
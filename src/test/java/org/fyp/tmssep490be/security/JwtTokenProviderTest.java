@@ -0,0 +1,88 @@
+package org.fyp.tmssep490be.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("JwtTokenProvider Unit Tests")
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-purposes-only-at-least-256-bits-long-for-hs512";
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(100, 900000);
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 900000, 604800000, verifiedTokenCache);
+    }
+
+    @Test
+    @DisplayName("verifyAccessToken - returns claims once verified and caches them by token")
+    void verifyAccessToken_returnsAndCachesClaims() {
+        String token = jwtTokenProvider.generateAccessToken(1L, "a@test.com", "TEACHER", "family-1");
+
+        Claims claims = jwtTokenProvider.verifyAccessToken(token);
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.get("userId", Long.class)).isEqualTo(1L);
+        assertThat(claims.get("roles", String.class)).isEqualTo("TEACHER");
+        assertThat(claims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class)).isEqualTo("family-1");
+        assertThat(verifiedTokenCache.get(token)).isSameAs(claims);
+        assertThat(jwtTokenProvider.verifyAccessToken(token)).isSameAs(claims);
+    }
+
+    @Test
+    @DisplayName("verifyAccessToken - rejects refresh tokens, tampered and foreign tokens without caching")
+    void verifyAccessToken_rejectsInvalidTokens() {
+        String refreshToken = jwtTokenProvider.generateRefreshToken(1L, "a@test.com", "token-1", "family-1");
+        String accessToken = jwtTokenProvider.generateAccessToken(1L, "a@test.com", "TEACHER", "family-1");
+        String tampered = accessToken.substring(0, accessToken.length() - 2) + "xx";
+        String foreign = new JwtTokenProvider(SECRET.replace('t', 'x'), 900000, 604800000, new VerifiedTokenCache(0, 900000))
+                .generateAccessToken(1L, "a@test.com", "ADMIN", "family-1");
+
+        assertThat(jwtTokenProvider.verifyAccessToken(refreshToken)).isNull();
+        assertThat(jwtTokenProvider.verifyAccessToken(tampered)).isNull();
+        assertThat(jwtTokenProvider.verifyAccessToken(foreign)).isNull();
+        assertThat(jwtTokenProvider.verifyAccessToken("not-a-jwt")).isNull();
+        assertThat(verifiedTokenCache.get(refreshToken)).isNull();
+        assertThat(verifiedTokenCache.get(tampered)).isNull();
+
+        assertThat(jwtTokenProvider.validateRefreshToken(refreshToken)).isTrue();
+        assertThat(jwtTokenProvider.verifyRefreshToken(refreshToken).getId()).isEqualTo("token-1");
+        assertThat(jwtTokenProvider.validateRefreshToken(accessToken)).isFalse();
+    }
+
+    @Test
+    @DisplayName("VerifiedTokenCache - drops entries at token expiry and stays within max size")
+    void verifiedTokenCache_appliesExpiryAndMaxSize() {
+        Instant now = Instant.parse("2025-11-01T08:00:00Z");
+        VerifiedTokenCache cache = new VerifiedTokenCache(2, 900000, Clock.fixed(now, ZoneOffset.UTC));
+        cache.put("t1", claimsExpiringAt(now.plusSeconds(60)));
+        cache.put("t2", claimsExpiringAt(now.plusSeconds(60)));
+        cache.put("t3", claimsExpiringAt(now.plusSeconds(60)));
+
+        assertThat(Stream.of("t1", "t2", "t3").filter(token -> cache.get(token) != null)).hasSizeLessThanOrEqualTo(2);
+
+        cache.put("expired", claimsExpiringAt(now));
+        assertThat(cache.get("expired")).isNull();
+    }
+
+    private Claims claimsExpiringAt(Instant expiration) {
+        Claims claims = mock(Claims.class);
+        when(claims.getExpiration()).thenReturn(Date.from(expiration));
+        return claims;
+    }
+}
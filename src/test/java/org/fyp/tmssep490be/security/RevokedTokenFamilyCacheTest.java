@@ -0,0 +1,60 @@
+package org.fyp.tmssep490be.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RevokedTokenFamilyCache Unit Tests")
+class RevokedTokenFamilyCacheTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-11-01T08:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Keeps live revocations when full and checks the overflow against the database")
+    void fullCache_fallsBackToDatabase() {
+        List<String> databaseChecks = new ArrayList<>();
+        Set<String> revokedInDatabase = Set.of("family-1", "family-2", "family-3");
+        RevokedTokenFamilyCache cache = new RevokedTokenFamilyCache(900000, 2, familyId -> {
+            databaseChecks.add(familyId);
+            return revokedInDatabase.contains(familyId);
+        }, CLOCK);
+
+        cache.revoke("family-1");
+        cache.revoke("family-2");
+        assertThat(cache.isRevoked("family-4")).isFalse();
+        assertThat(databaseChecks).isEmpty();
+
+        cache.revoke("family-3");
+
+        assertThat(cache.isRevoked("family-1")).isTrue();
+        assertThat(cache.isRevoked("family-2")).isTrue();
+        assertThat(cache.isRevoked("family-3")).isTrue();
+        assertThat(cache.isRevoked("family-4")).isFalse();
+        assertThat(databaseChecks).containsExactly("family-3", "family-4");
+    }
+
+    @Test
+    @DisplayName("Forgets a revocation after one access token lifetime and reuses its slot")
+    void expiredRevocation_isForgotten() {
+        List<String> databaseChecks = new ArrayList<>();
+        RevokedTokenFamilyCache cache = new RevokedTokenFamilyCache(0, 1, familyId -> {
+            databaseChecks.add(familyId);
+            return true;
+        }, CLOCK);
+
+        cache.revoke("family-1");
+        cache.revoke("family-2");
+
+        assertThat(cache.isRevoked("family-1")).isFalse();
+        assertThat(cache.isRevoked("family-2")).isFalse();
+        assertThat(databaseChecks).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package org.fyp.tmssep490be.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UserPrincipalCache Unit Tests")
+class UserPrincipalCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T08:00:00Z");
+
+    private UserPrincipal principal(Long id) {
+        return UserPrincipal.fromClaims(id, "user" + id + "@test.com", "TEACHER");
+    }
+
+    @Test
+    @DisplayName("fromClaims - maps roles claim with or without ROLE_ prefix")
+    void fromClaims_mapsRoles() {
+        UserPrincipal principal = UserPrincipal.fromClaims(1L, "a@test.com", "ROLE_ADMIN, MANAGER");
+
+        assertThat(principal.getAuthorities()).extracting(Object::toString)
+                .containsExactly("ROLE_ADMIN", "ROLE_MANAGER");
+        assertThat(principal.isEnabled()).isTrue();
+    }
+
+    @Test
+    @DisplayName("get - expires entries after TTL and stays within max size")
+    void get_appliesTtlAndMaxSize() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        UserPrincipalCache cache = new UserPrincipalCache(1000, 2, 900000, clock);
+        cache.put(principal(1L), NOW.toEpochMilli());
+        cache.put(principal(2L), NOW.toEpochMilli());
+        cache.put(principal(3L), NOW.toEpochMilli());
+
+        assertThat(Stream.of(1L, 2L, 3L).filter(id -> cache.get(id) != null)).hasSizeLessThanOrEqualTo(2);
+
+        UserPrincipalCache expired = new UserPrincipalCache(0, 2, 900000, clock);
+        expired.put(principal(1L), NOW.toEpochMilli());
+        assertThat(expired.get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("invalidate - evicts user and marks tokens issued before the change as stale")
+    void invalidate_marksOlderTokensStale() {
+        UserPrincipalCache cache = new UserPrincipalCache(60000, 10, 900000, Clock.fixed(NOW, ZoneOffset.UTC));
+        cache.put(principal(1L), NOW.toEpochMilli());
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.isInvalidatedAfter(1L, Date.from(NOW.minusSeconds(60)))).isTrue();
+        assertThat(cache.isInvalidatedAfter(1L, Date.from(NOW.plusSeconds(1)))).isFalse();
+        assertThat(cache.isInvalidatedAfter(2L, Date.from(NOW.minusSeconds(60)))).isFalse();
+
+        UserPrincipalCache later = new UserPrincipalCache(60000, 10, 900000,
+                Clock.offset(Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofMinutes(20)));
+        later.invalidate(1L);
+        assertThat(later.isInvalidatedAfter(1L, Date.from(NOW))).isTrue();
+    }
+
+    @Test
+    @DisplayName("put - ignores a principal loaded before the user's last change")
+    void put_rejectsPrincipalLoadedBeforeInvalidation() {
+        UserPrincipalCache cache = new UserPrincipalCache(60000, 10, 900000, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Request loaded the principal, then the user's roles changed before it was cached
+        long loadedAt = NOW.minusSeconds(1).toEpochMilli();
+        cache.invalidate(1L);
+        cache.put(principal(1L), loadedAt);
+        assertThat(cache.get(1L)).isNull();
+
+        cache.put(principal(1L), NOW.plusMillis(1).toEpochMilli());
+        assertThat(cache.get(1L)).isNotNull();
+    }
+}
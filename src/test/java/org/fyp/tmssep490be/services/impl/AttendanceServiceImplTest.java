@@ -1,11 +1,16 @@
 package org.fyp.tmssep490be.services.impl;
 
+import org.fyp.tmssep490be.dtos.attendance.AttendanceMatrixDTO;
+import org.fyp.tmssep490be.dtos.attendance.AttendanceRecordDTO;
 import org.fyp.tmssep490be.dtos.attendance.AttendanceSaveRequestDTO;
+import org.fyp.tmssep490be.dtos.attendance.AttendanceSaveResponseDTO;
 import org.fyp.tmssep490be.dtos.attendance.MarkAllResponseDTO;
 import org.fyp.tmssep490be.dtos.attendance.SessionReportResponseDTO;
 import org.fyp.tmssep490be.entities.*;
 import org.fyp.tmssep490be.entities.enums.AttendanceStatus;
 import org.fyp.tmssep490be.entities.enums.SessionStatus;
+import org.fyp.tmssep490be.exceptions.CustomException;
+import org.fyp.tmssep490be.exceptions.ResourceNotFoundException;
 import org.fyp.tmssep490be.repositories.EnrollmentRepository;
 import org.fyp.tmssep490be.repositories.SessionRepository;
 import org.fyp.tmssep490be.repositories.StudentSessionRepository;
@@ -17,13 +22,15 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -126,10 +133,152 @@ class AttendanceServiceImplTest {
                 .hasMessageContaining("must not be empty");
     }
 
+    @Test
+    void saveAttendance_bulkUpdatesPerDistinctValues_andSummarizesWithoutRequery() {
+        Long sessionId = 30L;
+        Session session = buildSession(sessionId);
+        StudentSession ss1 = buildStudentSession(1, session);
+        ss1.setId(new StudentSession.StudentSessionId(1L, sessionId));
+        StudentSession ss2 = buildStudentSession(2, session);
+        ss2.setId(new StudentSession.StudentSessionId(2L, sessionId));
+        StudentSession ss3 = buildStudentSession(3, session);
+        ss3.setId(new StudentSession.StudentSessionId(3L, sessionId));
+
+        when(teachingSlotRepository.existsByIdSessionIdAndIdTeacherIdAndStatusIn(anyLong(), anyLong(), anyList()))
+                .thenReturn(true);
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionRepository.findPreviousSessionsByClassIdAndDate(anyLong(), any())).thenReturn(List.of());
+        when(studentSessionRepository.findBySessionId(sessionId)).thenReturn(List.of(ss1, ss2, ss3));
+        when(studentSessionRepository.updateAttendance(eq(sessionId), anyCollection(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(1).size());
+
+        AttendanceSaveRequestDTO req = AttendanceSaveRequestDTO.builder()
+                .records(List.of(
+                        AttendanceRecordDTO.builder().studentId(1L).attendanceStatus(AttendanceStatus.PRESENT).build(),
+                        AttendanceRecordDTO.builder().studentId(2L).attendanceStatus(AttendanceStatus.ABSENT).build(),
+                        AttendanceRecordDTO.builder().studentId(3L).attendanceStatus(AttendanceStatus.PRESENT).build()))
+                .build();
+
+        AttendanceSaveResponseDTO res = attendanceService.saveAttendance(5L, sessionId, req);
+
+        assertThat(res.getSummary().getPresentCount()).isEqualTo(2);
+        assertThat(res.getSummary().getAbsentCount()).isEqualTo(1);
+        verify(studentSessionRepository).updateAttendance(eq(sessionId), eq(List.of(1L, 3L)),
+                eq(AttendanceStatus.PRESENT), isNull(), isNull(), any(OffsetDateTime.class));
+        verify(studentSessionRepository).updateAttendance(eq(sessionId), eq(List.of(2L)),
+                eq(AttendanceStatus.ABSENT), isNull(), isNull(), any(OffsetDateTime.class));
+        verify(studentSessionRepository, times(1)).findBySessionId(sessionId);
+        verify(studentSessionRepository, never()).findById(any());
+        verify(studentSessionRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void saveAttendance_sessionDoneConcurrently_rejectsRequest() {
+        Long sessionId = 32L;
+        Session session = buildSession(sessionId);
+        StudentSession ss1 = buildStudentSession(1, session);
+        ss1.setId(new StudentSession.StudentSessionId(1L, sessionId));
+
+        when(teachingSlotRepository.existsByIdSessionIdAndIdTeacherIdAndStatusIn(anyLong(), anyLong(), anyList()))
+                .thenReturn(true);
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionRepository.findPreviousSessionsByClassIdAndDate(anyLong(), any())).thenReturn(List.of());
+        when(studentSessionRepository.findBySessionId(sessionId)).thenReturn(List.of(ss1));
+        // Report submitted after the session was read: the status-scoped UPDATE matches no row
+        when(studentSessionRepository.updateAttendance(eq(sessionId), anyCollection(), any(), any(), any(), any()))
+                .thenReturn(0);
+
+        AttendanceSaveRequestDTO req = AttendanceSaveRequestDTO.builder()
+                .records(List.of(
+                        AttendanceRecordDTO.builder().studentId(1L).attendanceStatus(AttendanceStatus.PRESENT).build()))
+                .build();
+
+        assertThatThrownBy(() -> attendanceService.saveAttendance(5L, sessionId, req))
+                .isInstanceOf(CustomException.class);
+    }
+
+    @Test
+    void saveAttendance_unknownStudent_rejectsWholeRequestBeforeApplying() {
+        Long sessionId = 31L;
+        Session session = buildSession(sessionId);
+        StudentSession ss1 = buildStudentSession(1, session);
+        ss1.setId(new StudentSession.StudentSessionId(1L, sessionId));
+
+        when(teachingSlotRepository.existsByIdSessionIdAndIdTeacherIdAndStatusIn(anyLong(), anyLong(), anyList()))
+                .thenReturn(true);
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionRepository.findPreviousSessionsByClassIdAndDate(anyLong(), any())).thenReturn(List.of());
+        when(studentSessionRepository.findBySessionId(sessionId)).thenReturn(List.of(ss1));
+
+        AttendanceSaveRequestDTO req = AttendanceSaveRequestDTO.builder()
+                .records(List.of(
+                        AttendanceRecordDTO.builder().studentId(1L).attendanceStatus(AttendanceStatus.PRESENT).build(),
+                        AttendanceRecordDTO.builder().studentId(9L).attendanceStatus(AttendanceStatus.ABSENT).build()))
+                .build();
+
+        assertThatThrownBy(() -> attendanceService.saveAttendance(5L, sessionId, req))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(ss1.getAttendanceStatus()).isEqualTo(AttendanceStatus.PLANNED);
+        verify(studentSessionRepository, never()).updateAttendance(anyLong(), anyCollection(), any(), any(), any(), any());
+    }
+
+    private StudentSessionRepository.StudentAttendanceCount attendanceCount(long studentId, AttendanceStatus status, long total) {
+        return new StudentSessionRepository.StudentAttendanceCount() {
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+
+            @Override
+            public AttendanceStatus getAttendanceStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    @Test
+    void getClassAttendanceMatrix_usesSingleOwnershipCheck_andAggregatedRate() {
+        Session s1 = buildSession(40L);
+        Session s2 = buildSession(41L);
+        Enrollment e1 = new Enrollment();
+        e1.setStudentId(1L);
+        e1.setStudent(buildStudentSession(1, s1).getStudent());
+        Enrollment e2 = new Enrollment();
+        e2.setStudentId(2L);
+        e2.setStudent(buildStudentSession(2, s1).getStudent());
+
+        when(sessionRepository.findAllByClassIdOrderByDateAndTime(999L)).thenReturn(List.of(s1, s2));
+        when(teachingSlotRepository.existsByIdSessionIdInAndIdTeacherIdAndStatusIn(eq(List.of(40L, 41L)), eq(5L), anyList()))
+                .thenReturn(true);
+        when(enrollmentRepository.findByClassIdAndStatus(eq(999L), any())).thenReturn(List.of(e1, e2));
+        when(studentSessionRepository.findBySessionIds(anyList())).thenReturn(List.of());
+        when(studentSessionRepository.countAttendanceByClassIdGroupByStudent(eq(999L), anyCollection()))
+                .thenReturn(List.of(
+                        attendanceCount(1L, AttendanceStatus.PRESENT, 2),
+                        attendanceCount(2L, AttendanceStatus.PRESENT, 1),
+                        attendanceCount(2L, AttendanceStatus.ABSENT, 1),
+                        attendanceCount(2L, AttendanceStatus.PLANNED, 3)));
+
+        AttendanceMatrixDTO res = attendanceService.getClassAttendanceMatrix(5L, 999L);
+
+        assertThat(res.getAttendanceRate()).isEqualTo(0.75);
+        assertThat(res.getStudents()).hasSize(2);
+        verify(teachingSlotRepository, never()).existsByIdSessionIdAndIdTeacherIdAndStatusIn(anyLong(), anyLong(), anyList());
+        verify(studentSessionRepository, never()).findByStudentIdAndClassEntityId(anyLong(), anyLong());
+    }
+
     @Test
     void submitSessionReport_setsStatusDone_andReturnsSummary() {
         Long sessionId = 20L;
         Session session = buildSession(sessionId);
+        session.setStatus(SessionStatus.DONE);
+        when(sessionRepository.markDoneWithTeacherNote(eq(List.of(sessionId)), eq("Note"), any(OffsetDateTime.class)))
+                .thenReturn(1);
         when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
         when(studentSessionRepository.findBySessionId(sessionId))
                 .thenReturn(List.of(
@@ -142,9 +291,24 @@ class AttendanceServiceImplTest {
         SessionReportResponseDTO res = attendanceService.submitSessionReport(5L, sessionId,
                 org.fyp.tmssep490be.dtos.attendance.SessionReportSubmitDTO.builder().teacherNote("Note").build());
 
-        assertThat(session.getStatus()).isEqualTo(SessionStatus.DONE);
+        verify(sessionRepository).markDoneWithTeacherNote(eq(List.of(sessionId)), eq("Note"), any(OffsetDateTime.class));
         assertThat(res.getSummary().getTotalStudents()).isEqualTo(2);
     }
+
+    @Test
+    void submitSessionReport_cancelledSession_isRejected() {
+        Long sessionId = 21L;
+        Session session = buildSession(sessionId);
+        session.setStatus(SessionStatus.CANCELLED);
+        when(teachingSlotRepository.existsByIdSessionIdAndIdTeacherIdAndStatusIn(anyLong(), anyLong(), anyList()))
+                .thenReturn(true);
+        when(sessionRepository.markDoneWithTeacherNote(anyCollection(), any(), any())).thenReturn(0);
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> attendanceService.submitSessionReport(5L, sessionId,
+                org.fyp.tmssep490be.dtos.attendance.SessionReportSubmitDTO.builder().teacherNote("Note").build()))
+                .isInstanceOf(CustomException.class);
+    }
 }
 
 
@@ -1,5 +1,6 @@
 package org.fyp.tmssep490be.services.impl;
 
+import io.jsonwebtoken.Claims;
 import org.fyp.tmssep490be.dtos.auth.AuthResponse;
 import org.fyp.tmssep490be.dtos.auth.LoginRequest;
 import org.fyp.tmssep490be.dtos.auth.RefreshTokenRequest;
@@ -13,6 +14,8 @@ import org.fyp.tmssep490be.repositories.UserAccountRepository;
 import org.fyp.tmssep490be.security.JwtTokenProvider;
 import org.fyp.tmssep490be.security.UserPrincipal;
 import org.fyp.tmssep490be.services.AuthService;
+import org.fyp.tmssep490be.services.RefreshTokenService;
+import org.fyp.tmssep490be.services.RefreshTokenService.IssuedRefreshToken;
 import org.fyp.tmssep490be.utils.TestDataBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -62,9 +65,13 @@ class AuthServiceImplTest {
     @MockitoBean
     private UserAccountRepository userAccountRepository;
 
+    @MockitoBean
+    private RefreshTokenService refreshTokenService;
+
     private UserAccount testUser;
     private UserPrincipal testUserPrincipal;
     private Authentication authentication;
+    private Claims refreshClaims;
 
     @BeforeEach
     void setUp() {
@@ -107,6 +114,10 @@ class AuthServiceImplTest {
         lenient().when(authentication.getAuthorities()).thenAnswer(invocation ->
                 List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
         );
+
+        // Verified claims of "valid-refresh-token"
+        refreshClaims = mock(Claims.class);
+        lenient().when(refreshClaims.get("userId", Long.class)).thenReturn(1L);
     }
 
     @Test
@@ -117,10 +128,10 @@ class AuthServiceImplTest {
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtTokenProvider.generateAccessToken(authentication))
+        when(refreshTokenService.issue(1L, "test@example.com"))
+                .thenReturn(new IssuedRefreshToken("refresh-token", "family-1"));
+        when(jwtTokenProvider.generateAccessToken(authentication, "family-1"))
                 .thenReturn("access-token");
-        when(jwtTokenProvider.generateRefreshToken(1L, "test@example.com"))
-                .thenReturn("refresh-token");
 
         // Act
         AuthResponse response = authService.login(loginRequest);
@@ -136,8 +147,8 @@ class AuthServiceImplTest {
         assertThat(response.getRoles()).containsExactly("ADMIN");
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtTokenProvider).generateAccessToken(authentication);
-        verify(jwtTokenProvider).generateRefreshToken(1L, "test@example.com");
+        verify(jwtTokenProvider).generateAccessToken(authentication, "family-1");
+        verify(refreshTokenService).issue(1L, "test@example.com");
     }
 
     @Test
@@ -155,8 +166,8 @@ class AuthServiceImplTest {
                 .hasMessage("Invalid credentials");
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtTokenProvider, never()).generateAccessToken(any());
-        verify(jwtTokenProvider, never()).generateRefreshToken(anyLong(), anyString());
+        verify(jwtTokenProvider, never()).generateAccessToken(any(), any());
+        verify(refreshTokenService, never()).issue(anyLong(), anyString());
     }
 
     @Test
@@ -167,13 +178,12 @@ class AuthServiceImplTest {
                 .refreshToken("valid-refresh-token")
                 .build();
 
-        when(jwtTokenProvider.validateRefreshToken("valid-refresh-token")).thenReturn(true);
-        when(jwtTokenProvider.getUserIdFromJwt("valid-refresh-token")).thenReturn(1L);
+        when(jwtTokenProvider.verifyRefreshToken("valid-refresh-token")).thenReturn(refreshClaims);
+        when(refreshTokenService.rotate(refreshClaims))
+                .thenReturn(new IssuedRefreshToken("new-refresh-token", "family-1"));
         when(userAccountRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(jwtTokenProvider.generateAccessToken(eq(1L), eq("test@example.com"), anyString()))
+        when(jwtTokenProvider.generateAccessToken(eq(1L), eq("test@example.com"), anyString(), eq("family-1")))
                 .thenReturn("new-access-token");
-        when(jwtTokenProvider.generateRefreshToken(1L, "test@example.com"))
-                .thenReturn("new-refresh-token");
 
         // Act
         AuthResponse response = authService.refreshToken(request);
@@ -187,8 +197,8 @@ class AuthServiceImplTest {
         assertThat(response.getEmail()).isEqualTo("test@example.com");
         assertThat(response.getRoles()).containsExactly("ADMIN");
 
-        verify(jwtTokenProvider).validateRefreshToken("valid-refresh-token");
-        verify(jwtTokenProvider).getUserIdFromJwt("valid-refresh-token");
+        verify(jwtTokenProvider).verifyRefreshToken("valid-refresh-token");
+        verify(refreshTokenService).rotate(refreshClaims);
         verify(userAccountRepository).findById(1L);
     }
 
@@ -200,15 +210,15 @@ class AuthServiceImplTest {
                 .refreshToken("invalid-refresh-token")
                 .build();
 
-        when(jwtTokenProvider.validateRefreshToken("invalid-refresh-token")).thenReturn(false);
+        when(jwtTokenProvider.verifyRefreshToken("invalid-refresh-token")).thenReturn(null);
 
         // Act & Assert
         assertThatThrownBy(() -> authService.refreshToken(request))
                 .isInstanceOf(InvalidTokenException.class)
                 .hasMessage("Invalid or expired refresh token");
 
-        verify(jwtTokenProvider).validateRefreshToken("invalid-refresh-token");
-        verify(jwtTokenProvider, never()).getUserIdFromJwt(anyString());
+        verify(jwtTokenProvider).verifyRefreshToken("invalid-refresh-token");
+        verify(refreshTokenService, never()).rotate(any());
         verify(userAccountRepository, never()).findById(anyLong());
     }
 
@@ -220,8 +230,10 @@ class AuthServiceImplTest {
                 .refreshToken("valid-refresh-token")
                 .build();
 
-        when(jwtTokenProvider.validateRefreshToken("valid-refresh-token")).thenReturn(true);
-        when(jwtTokenProvider.getUserIdFromJwt("valid-refresh-token")).thenReturn(999L);
+        when(refreshClaims.get("userId", Long.class)).thenReturn(999L);
+        when(jwtTokenProvider.verifyRefreshToken("valid-refresh-token")).thenReturn(refreshClaims);
+        when(refreshTokenService.rotate(refreshClaims))
+                .thenReturn(new IssuedRefreshToken("new-refresh-token", "family-1"));
         when(userAccountRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -229,11 +241,54 @@ class AuthServiceImplTest {
                 .isInstanceOf(UsernameNotFoundException.class)
                 .hasMessage("User not found");
 
-        verify(jwtTokenProvider).validateRefreshToken("valid-refresh-token");
-        verify(jwtTokenProvider).getUserIdFromJwt("valid-refresh-token");
+        verify(jwtTokenProvider).verifyRefreshToken("valid-refresh-token");
         verify(userAccountRepository).findById(999L);
     }
 
+    @Test
+    @DisplayName("Should revoke the token family when refreshing for an inactive user")
+    void shouldRevokeFamilyWhenRefreshingInactiveUser() {
+        // Arrange
+        testUser.setStatus(UserStatus.INACTIVE);
+        RefreshTokenRequest request = RefreshTokenRequest.builder()
+                .refreshToken("valid-refresh-token")
+                .build();
+
+        when(jwtTokenProvider.verifyRefreshToken("valid-refresh-token")).thenReturn(refreshClaims);
+        when(refreshTokenService.rotate(refreshClaims))
+                .thenReturn(new IssuedRefreshToken("new-refresh-token", "family-1"));
+        when(userAccountRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        assertThatThrownBy(() -> authService.refreshToken(request))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("User account is not active");
+
+        verify(refreshTokenService).revokeFamily("family-1");
+        verify(jwtTokenProvider, never()).generateAccessToken(anyLong(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should revoke the refresh token family on logout, falling back to the access token")
+    void shouldRevokeFamilyOnLogout() {
+        // Arrange
+        Claims accessClaims = mock(Claims.class);
+        when(refreshClaims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class)).thenReturn("family-1");
+        when(accessClaims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class)).thenReturn("family-2");
+        when(jwtTokenProvider.verifyRefreshToken("valid-refresh-token")).thenReturn(refreshClaims);
+        when(jwtTokenProvider.verifyAccessToken("access-token")).thenReturn(accessClaims);
+
+        // Act
+        authService.logout("valid-refresh-token", "access-token");
+        authService.logout(null, "access-token");
+        authService.logout(null, null);
+
+        // Assert
+        verify(refreshTokenService).revokeFamily("family-1");
+        verify(refreshTokenService).revokeFamily("family-2");
+        verifyNoMoreInteractions(refreshTokenService);
+    }
+
     @Test
     @DisplayName("Should handle user with multiple roles")
     void shouldHandleUserWithMultipleRoles() {
@@ -278,10 +333,10 @@ class AuthServiceImplTest {
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(multiRoleAuth);
-        when(jwtTokenProvider.generateAccessToken(multiRoleAuth))
+        when(refreshTokenService.issue(1L, "test@example.com"))
+                .thenReturn(new IssuedRefreshToken("refresh-token", "family-1"));
+        when(jwtTokenProvider.generateAccessToken(multiRoleAuth, "family-1"))
                 .thenReturn("access-token");
-        when(jwtTokenProvider.generateRefreshToken(1L, "test@example.com"))
-                .thenReturn("refresh-token");
 
         // Act
         AuthResponse response = authService.login(loginRequest);
@@ -7,6 +7,7 @@ import org.fyp.tmssep490be.entities.enums.ClassStatus;
 import org.fyp.tmssep490be.entities.enums.EnrollmentStatus;
 import org.fyp.tmssep490be.entities.enums.Skill;
 import org.fyp.tmssep490be.repositories.*;
+import org.fyp.tmssep490be.security.BranchScopeResolver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -47,7 +48,7 @@ class ClassServiceImplEnhancedTest {
     private ReplacementSkillAssessmentRepository skillAssessmentRepository;
 
     @Mock
-    private UserBranchesRepository userBranchesRepository;
+    private BranchScopeResolver branchScopeResolver;
 
     @Mock
     private SessionRepository sessionRepository;
@@ -167,6 +168,21 @@ class ClassServiceImplEnhancedTest {
         );
     }
 
+    private Page<StudentRepository.AvailableStudentMatch> rankedPage(int matchPriority) {
+        StudentRepository.AvailableStudentMatch match = new StudentRepository.AvailableStudentMatch() {
+            @Override
+            public Long getStudentId() {
+                return 2000L;
+            }
+
+            @Override
+            public Integer getMatchPriority() {
+                return matchPriority;
+            }
+        };
+        return new PageImpl<>(List.of(match), PageRequest.of(0, 20), 1);
+    }
+
     @Test
     void getAvailableStudentsForClass_ShouldReturnCompleteAssessmentData() {
         // Given
@@ -175,9 +191,10 @@ class ClassServiceImplEnhancedTest {
         Pageable pageable = PageRequest.of(0, 20);
 
         when(classRepository.findById(classId)).thenReturn(Optional.of(testClass));
-        when(userBranchesRepository.findBranchIdsByUserId(userId)).thenReturn(List.of(1L));
-        when(studentRepository.findAllAvailableStudentsForClass(eq(classId), eq(1L), isNull()))
-                .thenReturn(List.of(testStudent));
+        when(branchScopeResolver.getBranchIds(userId)).thenReturn(List.of(1L));
+        when(studentRepository.findRankedAvailableStudentsForClass(eq(classId), eq(1L), eq(1L), eq(10L), isNull(), any(Pageable.class)))
+                .thenReturn(rankedPage(1));
+        when(studentRepository.findAllWithAccountByIdIn(List.of(2000L))).thenReturn(List.of(testStudent));
         when(skillAssessmentRepository.findByStudentIdIn(List.of(2000L))).thenReturn(testAssessments);
         when(enrollmentRepository.countByStudentIdAndStatus(2000L, EnrollmentStatus.ENROLLED)).thenReturn(1);
 
@@ -234,9 +251,10 @@ class ClassServiceImplEnhancedTest {
         Pageable pageable = PageRequest.of(0, 20);
 
         when(classRepository.findById(classId)).thenReturn(Optional.of(testClass));
-        when(userBranchesRepository.findBranchIdsByUserId(userId)).thenReturn(List.of(1L));
-        when(studentRepository.findAllAvailableStudentsForClass(eq(classId), eq(1L), isNull()))
-                .thenReturn(List.of(testStudent));
+        when(branchScopeResolver.getBranchIds(userId)).thenReturn(List.of(1L));
+        when(studentRepository.findRankedAvailableStudentsForClass(eq(classId), eq(1L), eq(1L), eq(10L), isNull(), any(Pageable.class)))
+                .thenReturn(rankedPage(3));
+        when(studentRepository.findAllWithAccountByIdIn(List.of(2000L))).thenReturn(List.of(testStudent));
         when(skillAssessmentRepository.findByStudentIdIn(List.of(2000L))).thenReturn(List.of());
         when(enrollmentRepository.countByStudentIdAndStatus(2000L, EnrollmentStatus.ENROLLED)).thenReturn(0);
 
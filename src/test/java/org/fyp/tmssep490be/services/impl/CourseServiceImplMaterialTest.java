@@ -0,0 +1,116 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.dtos.course.CourseMaterialDTO;
+import org.fyp.tmssep490be.dtos.course.MaterialHierarchyDTO;
+import org.fyp.tmssep490be.dtos.course.PhaseMaterialDTO;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Course;
+import org.fyp.tmssep490be.entities.CoursePhase;
+import org.fyp.tmssep490be.entities.CourseSession;
+import org.fyp.tmssep490be.entities.Enrollment;
+import org.fyp.tmssep490be.entities.enums.EnrollmentStatus;
+import org.fyp.tmssep490be.repositories.CourseMaterialRepository;
+import org.fyp.tmssep490be.repositories.CoursePhaseRepository;
+import org.fyp.tmssep490be.repositories.EnrollmentRepository;
+import org.fyp.tmssep490be.repositories.StudentSessionRepository;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("CourseService - Material hierarchy")
+class CourseServiceImplMaterialTest {
+
+    @MockitoBean
+    private CoursePhaseRepository coursePhaseRepository;
+
+    @MockitoBean
+    private CourseMaterialRepository courseMaterialRepository;
+
+    @MockitoBean
+    private EnrollmentRepository enrollmentRepository;
+
+    @MockitoBean
+    private StudentSessionRepository studentSessionRepository;
+
+    @MockitoBean
+    private CourseMaterialTreeLoader courseMaterialTreeLoader;
+
+    @Autowired
+    private CourseServiceImpl courseService;
+
+    @BeforeEach
+    void setUp() {
+        Course course = TestDataBuilder.buildCourse().id(1L).build();
+
+        CourseSession session1 = TestDataBuilder.buildCourseSession().id(100L).sequenceNo(1).topic("Topic 1").build();
+        CourseSession session2 = TestDataBuilder.buildCourseSession().id(101L).sequenceNo(2).topic("Topic 2").build();
+        // Set ordering is not guaranteed, service sorts by sequenceNo
+        CoursePhase phase = TestDataBuilder.buildCoursePhase()
+                .id(10L)
+                .phaseNumber(1)
+                .name("Foundation")
+                .course(course)
+                .courseSessions(session2, session1)
+                .build();
+
+        when(coursePhaseRepository.findByCourseIdWithSessions(1L)).thenReturn(List.of(phase));
+        when(courseMaterialRepository.findHierarchyMaterialsByCourseId(1L)).thenReturn(List.of(
+                TestDataBuilder.buildCourseMaterial().id(1L).title("Material 1").course(course).build(),
+                TestDataBuilder.buildCourseMaterial().id(2L).title("Material 2").course(course).phase(phase).build(),
+                TestDataBuilder.buildCourseMaterial().id(3L).title("Material 3").course(course).phase(phase)
+                        .courseSession(session1).build(),
+                TestDataBuilder.buildCourseMaterial().id(4L).title("Material 4").course(course).phase(phase)
+                        .courseSession(session2).build()));
+        // Profile test tắt cache materialTrees → loader được mock, tree build một lần từ repositories
+        CourseMaterialTreeLoader.MaterialTree tree =
+                new CourseMaterialTreeLoader(coursePhaseRepository, courseMaterialRepository).load(1L);
+        when(courseMaterialTreeLoader.load(1L)).thenReturn(tree);
+    }
+
+    @Test
+    @DisplayName("builds hierarchy from two queries and overlays student access")
+    void getCourseMaterials_buildsTreeAndAppliesAccess() {
+        ClassEntity classEntity = TestDataBuilder.buildClassEntity().startDate(LocalDate.now().minusDays(7)).build();
+        Enrollment enrollment = TestDataBuilder.buildEnrollment().studentId(7L).classEntity(classEntity).build();
+        when(enrollmentRepository.findByStudentIdAndCourseIdAndStatus(7L, 1L, EnrollmentStatus.ENROLLED))
+                .thenReturn(enrollment);
+        when(studentSessionRepository.findAttendedCourseSessionIds(7L, 1L)).thenReturn(List.of(100L));
+
+        MaterialHierarchyDTO result = courseService.getCourseMaterials(1L, 7L);
+
+        assertThat(result.getTotalMaterials()).isEqualTo(4);
+        assertThat(result.getCourseLevel()).extracting(CourseMaterialDTO::getId).containsExactly(1L);
+        PhaseMaterialDTO phaseDto = result.getPhases().get(0);
+        assertThat(phaseDto.getMaterials()).extracting(CourseMaterialDTO::getIsAccessible).containsExactly(true);
+        assertThat(phaseDto.getSessions()).extracting(s -> s.getId()).containsExactly(100L, 101L);
+        assertThat(phaseDto.getSessions().get(0).getMaterials().get(0).getIsAccessible()).isTrue();
+        assertThat(phaseDto.getSessions().get(1).getMaterials().get(0).getIsAccessible()).isFalse();
+
+        // Second call (another student) reuses the tree, only the access overlay is per student
+        when(enrollmentRepository.findByStudentIdAndCourseIdAndStatus(8L, 1L, EnrollmentStatus.ENROLLED))
+                .thenReturn(null);
+        MaterialHierarchyDTO other = courseService.getCourseMaterials(1L, 8L);
+
+        assertThat(other.getCourseLevel().get(0).getIsAccessible()).isTrue();
+        assertThat(other.getPhases().get(0).getMaterials().get(0).getIsAccessible()).isFalse();
+        verify(coursePhaseRepository, times(1)).findByCourseIdWithSessions(1L);
+        verify(courseMaterialRepository, times(1)).findHierarchyMaterialsByCourseId(1L);
+        verify(courseMaterialRepository, never()).findPhaseLevelMaterials(anyLong());
+        verify(courseMaterialRepository, never()).findSessionLevelMaterials(anyLong());
+        verify(studentSessionRepository, never()).findAttendedCourseSessionIds(eq(8L), anyLong());
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -124,8 +125,8 @@ class CurriculumServiceImplTest {
         // Given
         List<Subject> subjects = List.of(englishSubject, chineseSubject);
         when(subjectRepository.findByStatusOrderByCode(SubjectStatus.ACTIVE)).thenReturn(subjects);
-        when(levelRepository.findBySubjectIdOrderBySortOrderAsc(1L)).thenReturn(englishLevels);
-        when(levelRepository.findBySubjectIdOrderBySortOrderAsc(2L)).thenReturn(chineseLevels);
+        when(levelRepository.findBySubjectIdInOrderBySortOrderAsc(List.of(1L, 2L)))
+                .thenReturn(levelsOf(englishLevels, chineseLevels));
 
         // When
         List<SubjectWithLevelsDTO> result = curriculumService.getAllSubjectsWithLevels();
@@ -174,8 +175,9 @@ class CurriculumServiceImplTest {
 
         // Verify repository interactions
         verify(subjectRepository, times(1)).findByStatusOrderByCode(SubjectStatus.ACTIVE);
-        verify(levelRepository, times(1)).findBySubjectIdOrderBySortOrderAsc(1L);
-        verify(levelRepository, times(1)).findBySubjectIdOrderBySortOrderAsc(2L);
+        // Levels of all subjects are loaded with one query
+        verify(levelRepository, times(1)).findBySubjectIdInOrderBySortOrderAsc(List.of(1L, 2L));
+        verify(levelRepository, never()).findBySubjectIdOrderBySortOrderAsc(any());
     }
 
     @Test
@@ -191,7 +193,7 @@ class CurriculumServiceImplTest {
         assertThat(result).isEmpty();
 
         verify(subjectRepository, times(1)).findByStatusOrderByCode(SubjectStatus.ACTIVE);
-        verify(levelRepository, never()).findBySubjectIdOrderBySortOrderAsc(any());
+        verify(levelRepository, never()).findBySubjectIdInOrderBySortOrderAsc(any());
     }
 
     @Test
@@ -207,7 +209,7 @@ class CurriculumServiceImplTest {
 
         List<Subject> subjects = List.of(subjectWithoutLevels);
         when(subjectRepository.findByStatusOrderByCode(SubjectStatus.ACTIVE)).thenReturn(subjects);
-        when(levelRepository.findBySubjectIdOrderBySortOrderAsc(3L)).thenReturn(List.of());
+        when(levelRepository.findBySubjectIdInOrderBySortOrderAsc(List.of(3L))).thenReturn(List.of());
 
         // When
         List<SubjectWithLevelsDTO> result = curriculumService.getAllSubjectsWithLevels();
@@ -218,7 +220,7 @@ class CurriculumServiceImplTest {
         assertThat(subjectResult.getCode()).isEqualTo("NO_LEVELS");
         assertThat(subjectResult.getLevels()).isEmpty();
 
-        verify(levelRepository, times(1)).findBySubjectIdOrderBySortOrderAsc(3L);
+        verify(levelRepository, times(1)).findBySubjectIdInOrderBySortOrderAsc(List.of(3L));
     }
 
     @Test
@@ -234,8 +236,8 @@ class CurriculumServiceImplTest {
 
         List<Subject> activeSubjects = List.of(englishSubject, chineseSubject);
         when(subjectRepository.findByStatusOrderByCode(SubjectStatus.ACTIVE)).thenReturn(activeSubjects);
-        when(levelRepository.findBySubjectIdOrderBySortOrderAsc(1L)).thenReturn(englishLevels);
-        when(levelRepository.findBySubjectIdOrderBySortOrderAsc(2L)).thenReturn(chineseLevels);
+        when(levelRepository.findBySubjectIdInOrderBySortOrderAsc(List.of(1L, 2L)))
+                .thenReturn(levelsOf(englishLevels, chineseLevels));
 
         // When
         List<SubjectWithLevelsDTO> result = curriculumService.getAllSubjectsWithLevels();
@@ -253,7 +255,7 @@ class CurriculumServiceImplTest {
     void shouldPreserveAllLevelInformationInDTO() {
         // Given
         when(subjectRepository.findByStatusOrderByCode(SubjectStatus.ACTIVE)).thenReturn(List.of(englishSubject));
-        when(levelRepository.findBySubjectIdOrderBySortOrderAsc(1L)).thenReturn(englishLevels);
+        when(levelRepository.findBySubjectIdInOrderBySortOrderAsc(List.of(1L))).thenReturn(englishLevels);
 
         // When
         List<SubjectWithLevelsDTO> result = curriculumService.getAllSubjectsWithLevels();
@@ -274,4 +276,10 @@ class CurriculumServiceImplTest {
         assertThat(a1Level.getExpectedDurationHours()).isEqualTo(80);
         assertThat(a1Level.getSortOrder()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    private static List<Level> levelsOf(List<Level> first, List<Level> second) {
+        List<Level> levels = new ArrayList<>(first);
+        levels.addAll(second);
+        return levels;
+    }
+}
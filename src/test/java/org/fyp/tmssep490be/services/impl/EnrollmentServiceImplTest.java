@@ -8,6 +8,7 @@ import org.fyp.tmssep490be.exceptions.CustomException;
 import org.fyp.tmssep490be.repositories.*;
 import org.fyp.tmssep490be.services.EnrollmentService;
 import org.fyp.tmssep490be.services.ExcelParserService;
+import org.fyp.tmssep490be.services.StudentAccountProvisioningService;
 import org.fyp.tmssep490be.utils.TestDataBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +22,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -57,6 +59,8 @@ class EnrollmentServiceImplTest {
     @MockitoBean
     private ExcelParserService excelParserService;
     @MockitoBean
+    private StudentAccountProvisioningService studentAccountProvisioningService;
+    @MockitoBean
     private PasswordEncoder passwordEncoder;
 
     @Autowired
@@ -92,13 +96,11 @@ class EnrollmentServiceImplTest {
         List<StudentEnrollmentData> parsedStudents = createParsedStudentsData(5);
 
         when(classRepository.findById(1L)).thenReturn(Optional.of(testClass));
-        when(excelParserService.parseStudentEnrollment(mockFile)).thenReturn(parsedStudents);
+        stubParsedRows(parsedStudents);
         when(enrollmentRepository.countByClassIdAndStatus(1L, EnrollmentStatus.ENROLLED)).thenReturn(10);
 
         // Mock student resolution
-        when(studentRepository.findByStudentCode("ST001")).thenReturn(Optional.of(createStudent(1L)));
-        when(studentRepository.findByStudentCode("ST002")).thenReturn(Optional.empty());
-        when(userAccountRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(studentRepository.findStudentIdsByLowerEmailIn(anyCollection())).thenReturn(List.of());
 
         // Act
         ClassEnrollmentImportPreview preview = enrollmentService.previewClassEnrollmentImport(
@@ -115,7 +117,7 @@ class EnrollmentServiceImplTest {
         assertThat(preview.isExceedsCapacity()).isFalse();
         assertThat(preview.getRecommendation().getType()).isEqualTo(RecommendationType.OK);
 
-        verify(excelParserService).parseStudentEnrollment(mockFile);
+        verify(excelParserService).parseStudentEnrollment(eq(mockFile), any());
         verify(enrollmentRepository).countByClassIdAndStatus(1L, EnrollmentStatus.ENROLLED);
     }
 
@@ -126,9 +128,9 @@ class EnrollmentServiceImplTest {
         List<StudentEnrollmentData> parsedStudents = createParsedStudentsData(15);
 
         when(classRepository.findById(1L)).thenReturn(Optional.of(testClass));
-        when(excelParserService.parseStudentEnrollment(mockFile)).thenReturn(parsedStudents);
+        stubParsedRows(parsedStudents);
         when(enrollmentRepository.countByClassIdAndStatus(1L, EnrollmentStatus.ENROLLED)).thenReturn(15);
-        when(userAccountRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(studentRepository.findStudentIdsByLowerEmailIn(anyCollection())).thenReturn(List.of());
 
         // Act
         ClassEnrollmentImportPreview preview = enrollmentService.previewClassEnrollmentImport(
@@ -180,7 +182,7 @@ class EnrollmentServiceImplTest {
         );
 
         when(classRepository.findById(1L)).thenReturn(Optional.of(testClass));
-        when(excelParserService.parseStudentEnrollment(mockFile)).thenReturn(parsedStudents);
+        stubParsedRows(parsedStudents);
         when(enrollmentRepository.countByClassIdAndStatus(1L, EnrollmentStatus.ENROLLED)).thenReturn(5);
 
         // Act
@@ -196,6 +198,42 @@ class EnrollmentServiceImplTest {
         assertThat(duplicates).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("Should resolve existing students with one case-insensitive bulk lookup")
+    void shouldResolveExistingStudentsWithBulkLookup() {
+        // Arrange
+        List<StudentEnrollmentData> parsedStudents = Arrays.asList(
+                createStudentData("Student A", "Existing@Email.com", null),
+                createStudentData("Student B", "new@email.com", null),
+                createStudentData("Student C", "existing@email.com", null) // Duplicate, different case
+        );
+
+        when(classRepository.findById(1L)).thenReturn(Optional.of(testClass));
+        stubParsedRows(parsedStudents);
+        when(enrollmentRepository.countByClassIdAndStatus(1L, EnrollmentStatus.ENROLLED)).thenReturn(5);
+        when(studentRepository.findStudentIdsByLowerEmailIn(anyCollection()))
+                .thenReturn(List.of(emailMatch("existing@email.com", 42L)));
+
+        // Act
+        ClassEnrollmentImportPreview preview = enrollmentService.previewClassEnrollmentImport(
+                1L, mockFile, 100L
+        );
+
+        // Assert
+        assertThat(preview.getStudents()).extracting(StudentEnrollmentData::getStatus).containsExactly(
+                StudentResolutionStatus.FOUND,
+                StudentResolutionStatus.CREATE,
+                StudentResolutionStatus.DUPLICATE
+        );
+        assertThat(preview.getStudents().get(0).getResolvedStudentId()).isEqualTo(42L);
+        verify(studentRepository, times(1)).findStudentIdsByLowerEmailIn(
+                argThat(emails -> emails.size() == 2
+                        && emails.containsAll(List.of("existing@email.com", "new@email.com")))
+        );
+        verify(userAccountRepository, never()).findByEmail(anyString());
+        verify(studentRepository, never()).findByUserAccountId(anyLong());
+    }
+
     // ==================== Execute Tests ====================
 
     @Test
@@ -353,20 +391,22 @@ class EnrollmentServiceImplTest {
                 .thenReturn(false);
 
         // Mock student creation
-        when(userAccountRepository.save(any(UserAccount.class))).thenReturn(createUserAccount(1L));
-        when(studentRepository.save(any(Student.class))).thenReturn(createStudent(1L));
-        when(roleRepository.findByCode("STUDENT")).thenReturn(Optional.of(createStudentRole()));
-        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(studentRepository.findStudentIdsByLowerEmailIn(anyCollection())).thenReturn(List.of());
+        when(studentAccountProvisioningService.hashTemporaryPasswords(2)).thenReturn(List.of("hash-1", "hash-2"));
+        when(studentAccountProvisioningService.provisionStudents(anyList(), anyList(), eq(1L), eq(100L)))
+                .thenReturn(List.of(1L, 2L));
+        when(studentRepository.findAllById(anyList())).thenReturn(List.of(createStudent(1L), createStudent(2L)));
 
         // Act
         EnrollmentResult result = enrollmentService.executeClassEnrollmentImport(request, 100L);
 
         // Assert
         assertThat(result.getStudentsCreated()).isEqualTo(2);
-        verify(userAccountRepository, times(2)).save(any(UserAccount.class));
-        verify(studentRepository, times(2)).save(any(Student.class));
-        verify(userRoleRepository, times(2)).save(any(UserRole.class));
-        verify(userBranchesRepository, times(2)).save(any(UserBranches.class));
+        assertThat(result.getEnrolledCount()).isEqualTo(2);
+        verify(studentAccountProvisioningService, times(1))
+                .provisionStudents(argThat(rows -> rows.size() == 2), eq(List.of("hash-1", "hash-2")), eq(1L), eq(100L));
+        verify(userAccountRepository, never()).save(any(UserAccount.class));
+        verify(studentRepository, never()).save(any(Student.class));
     }
 
     @Test
@@ -435,6 +475,14 @@ class EnrollmentServiceImplTest {
 
     // ==================== Helper Methods ====================
 
+    private void stubParsedRows(List<StudentEnrollmentData> rows) {
+        when(excelParserService.parseStudentEnrollment(eq(mockFile), any())).thenAnswer(invocation -> {
+            Consumer<StudentEnrollmentData> rowHandler = invocation.getArgument(1);
+            rows.forEach(rowHandler);
+            return rows.size();
+        });
+    }
+
     private List<StudentEnrollmentData> createParsedStudentsData(int count) {
         List<StudentEnrollmentData> students = new ArrayList<>();
         for (int i = 0; i < count; i++) {
@@ -489,6 +537,20 @@ class EnrollmentServiceImplTest {
         return student;
     }
 
+    private StudentRepository.StudentEmailMatch emailMatch(String email, Long studentId) {
+        return new StudentRepository.StudentEmailMatch() {
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+        };
+    }
+
     private UserAccount createUserAccount(Long id) {
         UserAccount user = new UserAccount();
         user.setId(id);
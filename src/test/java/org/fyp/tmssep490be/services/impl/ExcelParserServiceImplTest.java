@@ -10,11 +10,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -142,6 +144,65 @@ class ExcelParserServiceImplTest {
         assertThat(result.get(2).getGender()).isEqualTo(Gender.OTHER);
     }
 
+    @Test
+    @DisplayName("Should stream rows to handler and skip class info row of class-specific template")
+    void shouldStreamRowsOfClassSpecificTemplate() throws IOException {
+        // Arrange
+        Workbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Students");
+        sheet.createRow(0).createCell(0).setCellValue("Class: IELTS-HN-01");
+        createHeaderRow(sheet.createRow(1));
+        createStudentRow(sheet, 2, "Nguyen Van A", "nguyenvana@email.com", "0901234567", "", "", "male", "1995-01-15");
+        createStudentRow(sheet, 4, "Tran Thi B", "tranthib@email.com", "0902345678", "", "", "female", "1996-03-20");
+        // Numeric phone and date-formatted dob cells
+        Row row = sheet.getRow(4);
+        row.createCell(2).setCellValue(902345678);
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+        Cell dob = row.createCell(6);
+        dob.setCellValue(LocalDate.of(1996, 3, 20));
+        dob.setCellStyle(dateStyle);
+        MultipartFile file = convertWorkbookToMultipartFile(workbook, "students.xlsx");
+        List<StudentEnrollmentData> emitted = new ArrayList<>();
+
+        // Act
+        int count = excelParserService.parseStudentEnrollment(file, emitted::add);
+
+        // Assert
+        assertThat(count).isEqualTo(2);
+        assertThat(emitted).extracting(StudentEnrollmentData::getFullName).containsExactly("Nguyen Van A", "Tran Thi B");
+        assertThat(emitted.get(1).getPhone()).isEqualTo("902345678");
+        assertThat(emitted.get(1).getDob()).isEqualTo(LocalDate.of(1996, 3, 20));
+    }
+
+    @Test
+    @DisplayName("Should stop parsing when data rows exceed the limit")
+    void shouldThrowExceptionWhenRowLimitExceeded() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(excelParserService, "maxRows", 2);
+        MultipartFile file = createValidExcelFile();
+        List<StudentEnrollmentData> emitted = new ArrayList<>();
+
+        // Act & Assert
+        assertThatThrownBy(() -> excelParserService.parseStudentEnrollment(file, emitted::add))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining("EXCEL_TOO_MANY_ROWS");
+        assertThat(emitted).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should throw parse exception for non-Excel content")
+    void shouldThrowExceptionForInvalidFile() {
+        // Arrange
+        MultipartFile file = new MockMultipartFile("file", "students.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "not an excel file".getBytes());
+
+        // Act & Assert
+        assertThatThrownBy(() -> excelParserService.parseStudentEnrollment(file))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining("EXCEL_PARSE_FAILED");
+    }
+
     // Helper methods to create test Excel files
 
     private MultipartFile createValidExcelFile() throws IOException {
@@ -0,0 +1,112 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Course;
+import org.fyp.tmssep490be.entities.CoursePhase;
+import org.fyp.tmssep490be.entities.CourseSession;
+import org.fyp.tmssep490be.entities.Enrollment;
+import org.fyp.tmssep490be.entities.enums.EnrollmentStatus;
+import org.fyp.tmssep490be.repositories.CourseMaterialRepository;
+import org.fyp.tmssep490be.repositories.CoursePhaseRepository;
+import org.fyp.tmssep490be.repositories.CourseSessionRepository;
+import org.fyp.tmssep490be.repositories.EnrollmentRepository;
+import org.fyp.tmssep490be.repositories.StudentSessionRepository;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("MaterialAccessService Unit Tests")
+class MaterialAccessServiceImplTest {
+
+    @MockitoBean
+    private CourseMaterialRepository courseMaterialRepository;
+
+    @MockitoBean
+    private EnrollmentRepository enrollmentRepository;
+
+    @MockitoBean
+    private StudentSessionRepository studentSessionRepository;
+
+    @MockitoBean
+    private CoursePhaseRepository coursePhaseRepository;
+
+    @MockitoBean
+    private CourseSessionRepository courseSessionRepository;
+
+    @Autowired
+    private MaterialAccessServiceImpl materialAccessService;
+
+    @Test
+    @DisplayName("canAccessMaterials - evaluates the whole batch from one set of queries")
+    void canAccessMaterials_evaluatesBatchInMemory() {
+        Course course = TestDataBuilder.buildCourse().id(1L).sessionPerWeek(2).build();
+        Course otherCourse = TestDataBuilder.buildCourse().id(2L).build();
+        ClassEntity classEntity = TestDataBuilder.buildClassEntity()
+                .course(course)
+                .startDate(LocalDate.now().minusDays(1))
+                .build();
+        Enrollment enrollment = TestDataBuilder.buildEnrollment().studentId(7L).classEntity(classEntity).build();
+
+        CourseSession s1 = TestDataBuilder.buildCourseSession().id(100L).sequenceNo(1).build();
+        CourseSession s2 = TestDataBuilder.buildCourseSession().id(101L).sequenceNo(2).build();
+        CourseSession s3 = TestDataBuilder.buildCourseSession().id(102L).sequenceNo(3).build();
+        // Phase 10 starts at week 0, phase 11 has no session with sequenceNo <= 1
+        CoursePhase started = TestDataBuilder.buildCoursePhase().id(10L).courseSessions(s1, s2).build();
+        CoursePhase notStarted = TestDataBuilder.buildCoursePhase().id(11L).phaseNumber(2).courseSessions(s3).build();
+
+        when(enrollmentRepository.findByStudentIdAndCourseIdAndStatus(7L, 1L, EnrollmentStatus.ENROLLED))
+                .thenReturn(enrollment);
+        when(coursePhaseRepository.findByCourseIdWithSessions(1L)).thenReturn(List.of(started, notStarted));
+        when(studentSessionRepository.findCompletedCourseSessionIds(7L, 1L)).thenReturn(List.of(100L));
+        when(courseMaterialRepository.findAllById(anyCollection())).thenReturn(List.of(
+                TestDataBuilder.buildCourseMaterial().id(1L).course(course).build(),
+                TestDataBuilder.buildCourseMaterial().id(2L).course(course).phase(started).build(),
+                TestDataBuilder.buildCourseMaterial().id(3L).course(course).phase(notStarted).build(),
+                TestDataBuilder.buildCourseMaterial().id(4L).course(course).phase(started).courseSession(s1).build(),
+                TestDataBuilder.buildCourseMaterial().id(5L).course(course).phase(started).courseSession(s2).build(),
+                TestDataBuilder.buildCourseMaterial().id(6L).course(otherCourse).build()));
+
+        Map<Long, Boolean> access = materialAccessService.canAccessMaterials(7L, 1L, List.of(1L, 2L, 3L, 4L, 5L, 6L, 99L));
+
+        assertThat(access).containsExactly(
+                Map.entry(1L, true),
+                Map.entry(2L, true),
+                Map.entry(3L, false),
+                Map.entry(4L, true),
+                Map.entry(5L, false),
+                Map.entry(6L, false),
+                Map.entry(99L, false));
+        verify(enrollmentRepository, times(1)).findByStudentIdAndCourseIdAndStatus(anyLong(), anyLong(), any());
+        verify(courseSessionRepository, never()).findByPhaseIdOrderBySequenceNo(anyLong());
+        verify(studentSessionRepository, never()).findByStudentIdAndCourseSessionId(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("canAccessMaterials - denies everything when student is not enrolled")
+    void canAccessMaterials_notEnrolled() {
+        Course course = TestDataBuilder.buildCourse().id(1L).build();
+        when(enrollmentRepository.findByStudentIdAndCourseIdAndStatus(7L, 1L, EnrollmentStatus.ENROLLED))
+                .thenReturn(null);
+        when(courseMaterialRepository.findAllById(anyCollection()))
+                .thenReturn(List.of(TestDataBuilder.buildCourseMaterial().id(1L).course(course).build()));
+
+        Map<Long, Boolean> access = materialAccessService.canAccessMaterials(7L, 1L, List.of(1L));
+
+        assertThat(access).containsExactly(Map.entry(1L, false));
+        verifyNoInteractions(coursePhaseRepository, studentSessionRepository);
+    }
+}
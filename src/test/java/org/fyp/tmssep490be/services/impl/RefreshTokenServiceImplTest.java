@@ -0,0 +1,194 @@
+package org.fyp.tmssep490be.services.impl;
+
+import io.jsonwebtoken.Claims;
+import org.fyp.tmssep490be.entities.RefreshToken;
+import org.fyp.tmssep490be.entities.enums.RefreshTokenStatus;
+import org.fyp.tmssep490be.exceptions.InvalidTokenException;
+import org.fyp.tmssep490be.repositories.RefreshTokenRepository;
+import org.fyp.tmssep490be.security.JwtTokenProvider;
+import org.fyp.tmssep490be.security.RevokedTokenFamilyCache;
+import org.fyp.tmssep490be.services.RefreshTokenService.IssuedRefreshToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("RefreshTokenService - Rotation, reuse detection and revocation")
+class RefreshTokenServiceImplTest {
+
+    @MockitoBean
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @MockitoBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    // Cache dùng chung trong context → mỗi test dùng family id riêng
+    @Autowired
+    private RevokedTokenFamilyCache revokedTokenFamilyCache;
+
+    @Autowired
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        // Bỏ qua lần sync revoked families của scheduler khi context khởi động
+        clearInvocations(refreshTokenRepository);
+        when(jwtTokenProvider.getRefreshTokenValidityInMs()).thenReturn(604800000L);
+    }
+
+    @Test
+    @DisplayName("Should start a new family and store only the hash of the token id")
+    void shouldIssueNewFamilyWithHashedTokenId() {
+        when(jwtTokenProvider.generateRefreshToken(eq(1L), eq("a@test.com"), anyString(), anyString()))
+                .thenReturn("refresh-jwt");
+
+        IssuedRefreshToken issued = refreshTokenService.issue(1L, "a@test.com");
+
+        ArgumentCaptor<String> tokenId = ArgumentCaptor.forClass(String.class);
+        verify(jwtTokenProvider).generateRefreshToken(eq(1L), eq("a@test.com"), tokenId.capture(), eq(issued.familyId()));
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+
+        assertThat(issued.token()).isEqualTo("refresh-jwt");
+        assertThat(saved.getValue().getFamilyId()).isEqualTo(issued.familyId());
+        assertThat(saved.getValue().getStatus()).isEqualTo(RefreshTokenStatus.ACTIVE);
+        assertThat(saved.getValue().getTokenHash()).hasSize(64).isNotEqualTo(tokenId.getValue());
+    }
+
+    @Test
+    @DisplayName("Should rotate an active token into a new token of the same family")
+    void shouldRotateActiveToken() {
+        Claims claims = refreshClaims("token-1", "family-rotate");
+        when(refreshTokenRepository.markRotated(anyString(), any(OffsetDateTime.class))).thenReturn(1);
+        when(jwtTokenProvider.generateRefreshToken(eq(1L), eq("a@test.com"), anyString(), eq("family-rotate")))
+                .thenReturn("rotated-jwt");
+
+        IssuedRefreshToken rotated = refreshTokenService.rotate(claims);
+
+        assertThat(rotated).isEqualTo(new IssuedRefreshToken("rotated-jwt", "family-rotate"));
+        verify(refreshTokenRepository).save(any(RefreshToken.class));
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should revoke the whole family when a rotated token is reused after the grace period")
+    void shouldRevokeFamilyOnReuse() {
+        Claims claims = refreshClaims("token-1", "family-reuse");
+        when(refreshTokenRepository.markRotated(anyString(), any(OffsetDateTime.class))).thenReturn(0);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(RefreshToken.builder()
+                .userId(1L)
+                .familyId("family-reuse")
+                .status(RefreshTokenStatus.ROTATED)
+                .rotatedAt(OffsetDateTime.now().minusMinutes(5))
+                .build()));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(claims))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("Refresh token has been revoked");
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-reuse"), any(OffsetDateTime.class));
+        assertThat(revokedTokenFamilyCache.isRevoked("family-reuse")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject without revoking when a parallel refresh already rotated the token")
+    void shouldRejectWithinGracePeriodWithoutRevoking() {
+        Claims claims = refreshClaims("token-1", "family-grace");
+        when(refreshTokenRepository.markRotated(anyString(), any(OffsetDateTime.class))).thenReturn(0);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(RefreshToken.builder()
+                .userId(1L)
+                .familyId("family-grace")
+                .status(RefreshTokenStatus.ROTATED)
+                .rotatedAt(OffsetDateTime.now())
+                .build()));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(claims))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("Refresh token has already been used");
+
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+        assertThat(revokedTokenFamilyCache.isRevoked("family-grace")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject a token of a revoked family from memory, without touching the database")
+    void shouldRejectRevokedFamilyWithoutDatabase() {
+        revokedTokenFamilyCache.revoke("family-revoked");
+        Claims claims = mock(Claims.class);
+        when(claims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class)).thenReturn("family-revoked");
+        when(claims.getId()).thenReturn("token-1");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(claims))
+                .isInstanceOf(InvalidTokenException.class);
+
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    @DisplayName("Should revoke every active family of a deactivated user")
+    void shouldRevokeAllFamiliesOfUser() {
+        when(refreshTokenRepository.findActiveFamilyIdsByUserId(1L)).thenReturn(List.of("family-user-1", "family-user-2"));
+
+        refreshTokenService.revokeAllForUser(1L);
+
+        verify(refreshTokenRepository).revokeAllByUserId(eq(1L), any(OffsetDateTime.class));
+        assertThat(revokedTokenFamilyCache.isRevoked("family-user-1")).isTrue();
+        assertThat(revokedTokenFamilyCache.isRevoked("family-user-2")).isTrue();
+        assertThat(revokedTokenFamilyCache.isRevoked("family-user-3")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should re-read an overlap before the latest revocation seen so late commits are not lost")
+    void shouldSyncWithOverlapFromLatestRevocation() {
+        // Mới hơn cursor khởi tạo lúc context start
+        OffsetDateTime latest = OffsetDateTime.now();
+        RefreshTokenRepository.RevokedFamily older = revokedFamily("family-sync-1", latest.minusSeconds(20));
+        RefreshTokenRepository.RevokedFamily newest = revokedFamily("family-sync-2", latest);
+        when(refreshTokenRepository.findFamiliesRevokedSince(any(OffsetDateTime.class)))
+                .thenReturn(List.of(older, newest))
+                .thenReturn(List.of());
+
+        refreshTokenService.syncRevokedFamilies();
+        refreshTokenService.syncRevokedFamilies();
+
+        ArgumentCaptor<OffsetDateTime> since = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(refreshTokenRepository, times(2)).findFamiliesRevokedSince(since.capture());
+        // Second sync starts from the newest revoked_at read, minus sync interval + clock skew
+        assertThat(since.getAllValues().get(1)).isEqualTo(latest.minusSeconds(60));
+        assertThat(revokedTokenFamilyCache.isRevoked("family-sync-1")).isTrue();
+        assertThat(revokedTokenFamilyCache.isRevoked("family-sync-2")).isTrue();
+    }
+
+    private RefreshTokenRepository.RevokedFamily revokedFamily(String familyId, OffsetDateTime revokedAt) {
+        RefreshTokenRepository.RevokedFamily row = mock(RefreshTokenRepository.RevokedFamily.class);
+        when(row.getFamilyId()).thenReturn(familyId);
+        when(row.getRevokedAt()).thenReturn(revokedAt);
+        return row;
+    }
+
+    private Claims refreshClaims(String tokenId, String familyId) {
+        Claims claims = mock(Claims.class);
+        when(claims.get(JwtTokenProvider.FAMILY_ID_CLAIM, String.class)).thenReturn(familyId);
+        when(claims.getId()).thenReturn(tokenId);
+        when(claims.get("userId", Long.class)).thenReturn(1L);
+        when(claims.getSubject()).thenReturn("a@test.com");
+        return claims;
+    }
+}
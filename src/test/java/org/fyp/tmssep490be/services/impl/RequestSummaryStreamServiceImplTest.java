@@ -0,0 +1,96 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.dtos.studentrequest.RequestSummaryDTO;
+import org.fyp.tmssep490be.exceptions.BusinessRuleException;
+import org.fyp.tmssep490be.repositories.ClassRepository;
+import org.fyp.tmssep490be.security.BranchScopeResolver;
+import org.fyp.tmssep490be.services.StudentRequestService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("RequestSummaryStreamService - SSE pending summary")
+class RequestSummaryStreamServiceImplTest {
+
+    @Autowired
+    private RequestSummaryStreamServiceImpl requestSummaryStreamService;
+
+    @MockitoBean
+    private StudentRequestService studentRequestService;
+
+    @MockitoBean
+    private BranchScopeResolver branchScopeResolver;
+
+    @MockitoBean
+    private ClassRepository classRepository;
+
+    private RequestSummaryDTO summary(int totalPending) {
+        return RequestSummaryDTO.builder()
+                .totalPending(totalPending)
+                .needsUrgentReview(totalPending)
+                .absenceRequests(totalPending)
+                .makeupRequests(0)
+                .transferRequests(0)
+                .build();
+    }
+
+    @Test
+    @DisplayName("subscribe sends the current summary of the user's branches")
+    void subscribeSendsCurrentSummary() {
+        when(branchScopeResolver.getBranchIds(10L)).thenReturn(List.of(1L, 2L));
+        when(studentRequestService.getRequestSummaryByBranches(List.of(1L, 2L))).thenReturn(summary(3));
+
+        SseEmitter emitter = requestSummaryStreamService.subscribe(10L, null);
+
+        assertThat(emitter).isNotNull();
+        verify(studentRequestService).getRequestSummaryByBranches(List.of(1L, 2L));
+        emitter.complete();
+    }
+
+    @Test
+    @DisplayName("subscribe rejects a branch outside the user's scope")
+    void subscribeRejectsForeignBranch() {
+        when(branchScopeResolver.getBranchIds(10L)).thenReturn(List.of(1L));
+
+        assertThatThrownBy(() -> requestSummaryStreamService.subscribe(10L, 2L))
+                .isInstanceOf(BusinessRuleException.class);
+        verifyNoInteractions(studentRequestService);
+    }
+
+    @Test
+    @DisplayName("publish recomputes once per scope containing a changed branch")
+    void publishRecomputesAffectedScopes() {
+        when(branchScopeResolver.getBranchIds(10L)).thenReturn(List.of(1L));
+        when(branchScopeResolver.getBranchIds(11L)).thenReturn(List.of(1L));
+        when(branchScopeResolver.getBranchIds(12L)).thenReturn(List.of(2L));
+        when(studentRequestService.getRequestSummaryByBranches(anyList())).thenReturn(summary(1));
+        SseEmitter first = requestSummaryStreamService.subscribe(10L, null);
+        SseEmitter second = requestSummaryStreamService.subscribe(11L, null);
+        SseEmitter other = requestSummaryStreamService.subscribe(12L, null);
+        clearInvocations(studentRequestService);
+        when(classRepository.findBranchIdsByClassIds(Set.of(100L))).thenReturn(List.of(1L));
+
+        requestSummaryStreamService.publish(List.of(100L));
+
+        verify(studentRequestService, timeout(1000)).getRequestSummaryByBranches(List.of(1L));
+        verify(studentRequestService, after(200).never()).getRequestSummaryByBranches(List.of(2L));
+        // Hai subscriber cùng scope dùng chung một lần tính
+        verify(studentRequestService, times(1)).getRequestSummaryByBranches(List.of(1L));
+        first.complete();
+        second.complete();
+        other.complete();
+    }
+}
@@ -0,0 +1,121 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.dtos.schedule.TimeSlotDTO;
+import org.fyp.tmssep490be.dtos.teacherrequest.RescheduleSlotAvailabilityDTO;
+import org.fyp.tmssep490be.entities.Branch;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Resource;
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.SessionResource;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+import org.fyp.tmssep490be.entities.enums.Modality;
+import org.fyp.tmssep490be.entities.enums.ResourceType;
+import org.fyp.tmssep490be.repositories.ResourceRepository;
+import org.fyp.tmssep490be.repositories.SessionResourceRepository;
+import org.fyp.tmssep490be.repositories.StudentSessionRepository;
+import org.fyp.tmssep490be.repositories.TeachingSlotRepository;
+import org.fyp.tmssep490be.services.StudentConflictService;
+import org.fyp.tmssep490be.services.TimeSlotTemplateService;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("ReschedulePlannerService Unit Tests")
+class ReschedulePlannerServiceImplTest {
+
+    @MockitoBean
+    private TimeSlotTemplateService timeSlotTemplateService;
+
+    @MockitoBean
+    private ResourceRepository resourceRepository;
+
+    @MockitoBean
+    private SessionResourceRepository sessionResourceRepository;
+
+    @MockitoBean
+    private TeachingSlotRepository teachingSlotRepository;
+
+    @MockitoBean
+    private StudentSessionRepository studentSessionRepository;
+
+    @MockitoBean
+    private StudentConflictService studentConflictService;
+
+    @Autowired
+    private ReschedulePlannerServiceImpl reschedulePlannerService;
+
+    private TimeSlotDTO slotDTO(TimeSlotTemplate t) {
+        return TimeSlotDTO.builder()
+                .timeSlotTemplateId(t.getId())
+                .name(t.getName())
+                .startTime(t.getStartTime())
+                .endTime(t.getEndTime())
+                .build();
+    }
+
+    @Test
+    @DisplayName("buildAvailabilityGrid - evaluates every slot from bulk queries")
+    void buildAvailabilityGrid_combinesBulkQueries() {
+        LocalDate date = LocalDate.now().plusDays(3);
+        Branch branch = TestDataBuilder.buildBranch().id(1L).build();
+        ClassEntity classEntity = TestDataBuilder.buildClassEntity().branch(branch).modality(Modality.OFFLINE).build();
+        Session session = TestDataBuilder.buildSession().id(10L).classEntity(classEntity).build();
+
+        TimeSlotTemplate morning = TestDataBuilder.buildTimeSlotTemplate().id(1L).name("Slot 1")
+                .startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(10, 0)).build();
+        TimeSlotTemplate noon = TestDataBuilder.buildTimeSlotTemplate().id(2L).name("Slot 2")
+                .startTime(LocalTime.of(12, 0)).endTime(LocalTime.of(14, 0)).build();
+        TimeSlotTemplate evening = TestDataBuilder.buildTimeSlotTemplate().id(3L).name("Slot 3")
+                .startTime(LocalTime.of(18, 0)).endTime(LocalTime.of(20, 0)).build();
+
+        when(studentSessionRepository.countBySessionId(10L)).thenReturn(20L);
+        Resource bookedRoom = TestDataBuilder.buildResource().id(100L).name("R100").capacity(30).build();
+        when(resourceRepository.findByBranchId(1L)).thenReturn(List.of(
+                bookedRoom,
+                TestDataBuilder.buildResource().id(101L).name("R101").capacity(10).build(),
+                TestDataBuilder.buildResource().id(102L).name("R102").resourceType(ResourceType.VIRTUAL).capacity(100).build(),
+                TestDataBuilder.buildResource().id(103L).name("R103").capacity(25).build()));
+        SessionResource booking = TestDataBuilder.buildSessionResource()
+                .session(TestDataBuilder.buildSession().id(99L).timeSlotTemplate(morning).build())
+                .resource(bookedRoom)
+                .build();
+        when(sessionResourceRepository.findBookingsByBranchIdAndDate(eq(1L), eq(date), anyList()))
+                .thenReturn(List.of(booking));
+        when(teachingSlotRepository.findOccupiedTimeSlotIdsByTeacherIdAndDate(eq(5L), eq(date), anyList(), anyList(), eq(10L)))
+                .thenReturn(List.of(2L));
+        when(studentConflictService.findConflictingTimeSlotIds(10L, date)).thenReturn(Set.of(3L));
+        when(timeSlotTemplateService.getTimeSlotsByBranch(1L)).thenReturn(List.of(
+                slotDTO(morning), slotDTO(noon), slotDTO(evening)));
+
+        List<RescheduleSlotAvailabilityDTO> grid = reschedulePlannerService.buildAvailabilityGrid(session, 5L, date);
+
+        assertThat(grid).extracting(RescheduleSlotAvailabilityDTO::getTimeSlotId).containsExactly(1L, 2L, 3L);
+
+        RescheduleSlotAvailabilityDTO first = grid.get(0);
+        assertThat(first.isAvailable()).isTrue();
+        assertThat(first.getAvailableResourceCount()).isEqualTo(1);
+        assertThat(first.getAvailableResources().get(0).getResourceId()).isEqualTo(103L);
+
+        assertThat(grid.get(1).isTeacherAvailable()).isFalse();
+        assertThat(grid.get(1).getAvailableResourceCount()).isEqualTo(2);
+        assertThat(grid.get(2).isStudentsAvailable()).isFalse();
+
+        verify(timeSlotTemplateService, times(1)).getTimeSlotsByBranch(1L);
+        verify(resourceRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,79 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.entities.ScheduledJobRunLog;
+import org.fyp.tmssep490be.repositories.ScheduledJobRunLogRepository;
+import org.fyp.tmssep490be.repositories.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "session.auto-update.chunk-size=2")
+@ActiveProfiles("test")
+@DisplayName("SessionAutoUpdateService - Chunked session rollover")
+class SessionAutoUpdateServiceTest {
+
+    @MockitoBean
+    private SessionRepository sessionRepository;
+
+    @MockitoBean
+    private ScheduledJobRunLogRepository scheduledJobRunLogRepository;
+
+    @MockitoBean
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SessionAutoUpdateService sessionAutoUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should update in chunks until a chunk comes back short and log every chunk")
+    void shouldUpdateInChunksAndLogEachChunk() {
+        when(sessionRepository.markPastPlannedSessionsDone(any(LocalDate.class), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        sessionAutoUpdateService.updatePastSessionsToDone();
+
+        verify(sessionRepository, times(2)).markPastPlannedSessionsDone(any(LocalDate.class), eq(2));
+        verify(transactionTemplate, times(2)).execute(any());
+
+        ArgumentCaptor<ScheduledJobRunLog> logCaptor = ArgumentCaptor.forClass(ScheduledJobRunLog.class);
+        verify(scheduledJobRunLogRepository, times(2)).save(logCaptor.capture());
+        List<ScheduledJobRunLog> chunks = logCaptor.getAllValues();
+        assertThat(chunks).extracting(ScheduledJobRunLog::getChunkNo).containsExactly(1, 2);
+        assertThat(chunks).extracting(ScheduledJobRunLog::getRowsAffected).containsExactly(2, 1);
+        assertThat(chunks).extracting(ScheduledJobRunLog::getJobName).containsOnly(SessionAutoUpdateService.JOB_NAME);
+        assertThat(chunks.get(0).getRunId()).isEqualTo(chunks.get(1).getRunId());
+    }
+
+    @Test
+    @DisplayName("Should log an empty chunk and stop when no session is past")
+    void shouldStopAfterEmptyChunk() {
+        when(sessionRepository.markPastPlannedSessionsDone(any(LocalDate.class), eq(2))).thenReturn(List.of());
+
+        sessionAutoUpdateService.updatePastSessionsToDone();
+
+        verify(sessionRepository, times(1)).markPastPlannedSessionsDone(any(LocalDate.class), eq(2));
+        verify(scheduledJobRunLogRepository, times(1)).save(any(ScheduledJobRunLog.class));
+    }
+}
@@ -0,0 +1,127 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.dtos.enrollment.StudentEnrollmentData;
+import org.fyp.tmssep490be.entities.Role;
+import org.fyp.tmssep490be.entities.enums.Gender;
+import org.fyp.tmssep490be.exceptions.CustomException;
+import org.fyp.tmssep490be.repositories.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("StudentAccountProvisioningService - Bulk student creation")
+class StudentAccountProvisioningServiceImplTest {
+
+    @MockitoBean
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private RoleRepository roleRepository;
+
+    @MockitoBean
+    private StudentCodeAllocator studentCodeAllocator;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private StudentAccountProvisioningServiceImpl provisioningService;
+
+    private StudentEnrollmentData rowA;
+    private StudentEnrollmentData rowB;
+
+    @BeforeEach
+    void setUp() {
+        rowA = StudentEnrollmentData.builder()
+                .fullName("Nguyen Van A")
+                .email("a@email.com")
+                .gender(Gender.FEMALE)
+                .dob(LocalDate.of(2000, 1, 1))
+                .build();
+        rowB = StudentEnrollmentData.builder()
+                .fullName("Tran Thi B")
+                .email("b@email.com")
+                .gender(Gender.FEMALE)
+                .dob(LocalDate.of(2000, 1, 1))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should reserve ids once per table and write each table with one batch")
+    void shouldProvisionStudentsWithBatchedWrites() {
+        List<StudentEnrollmentData> rows = List.of(rowA, rowB);
+
+        when(roleRepository.findByCode("STUDENT")).thenReturn(Optional.of(Role.builder().id(3L).code("STUDENT").build()));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq("user_account"), eq(2)))
+                .thenReturn(List.of(100L, 101L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq("student"), eq(2)))
+                .thenReturn(List.of(500L, 501L));
+        when(studentCodeAllocator.allocate(eq(1L), anyString(), anyString())).thenReturn("ST1A-00001", "ST1B-00002");
+
+        List<Long> studentIds = provisioningService.provisionStudents(rows, List.of("hash-a", "hash-b"), 1L, 9L);
+
+        assertThat(studentIds).containsExactly(500L, 501L);
+        verify(roleRepository, times(1)).findByCode("STUDENT");
+        verifyNoInteractions(passwordEncoder);
+        verify(jdbcTemplate, times(4)).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO user_account"), argThat(list -> list.size() == 2), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO student"), argThat(list -> list.size() == 2), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(studentCodeAllocator, times(2)).allocate(eq(1L), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should hash one temporary password per account")
+    void shouldHashTemporaryPasswords() {
+        when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+
+        List<String> hashes = provisioningService.hashTemporaryPasswords(3);
+
+        assertThat(hashes).containsExactly("hashed", "hashed", "hashed");
+        verify(passwordEncoder, times(3)).encode(argThat(password -> password.length() == 8));
+    }
+
+    @Test
+    @DisplayName("Should reject a hash list that does not match the rows")
+    void shouldRejectMismatchedPasswordHashes() {
+        assertThatThrownBy(() -> provisioningService.provisionStudents(
+                List.of(rowA), List.of(), 1L, 9L))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate, roleRepository);
+    }
+
+    @Test
+    @DisplayName("Should fail when STUDENT role is not configured")
+    void shouldFailWhenStudentRoleMissing() {
+        when(roleRepository.findByCode("STUDENT")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> provisioningService.provisionStudents(
+                List.of(rowA), List.of("hash-a"), 1L, 9L))
+                .isInstanceOf(CustomException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should do nothing for an empty batch")
+    void shouldSkipEmptyBatch() {
+        assertThat(provisioningService.provisionStudents(List.of(), List.of(), 1L, 9L)).isEmpty();
+        verifyNoInteractions(jdbcTemplate, roleRepository, passwordEncoder);
+    }
+}
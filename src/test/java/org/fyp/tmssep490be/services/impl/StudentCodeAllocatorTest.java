@@ -0,0 +1,59 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+// Allocator giữ pool số local → mỗi test cần bean mới với pool rỗng
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@DisplayName("StudentCodeAllocator - Sequence-backed student codes")
+class StudentCodeAllocatorTest {
+
+    @MockitoBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StudentCodeAllocator allocator;
+
+    @Test
+    @DisplayName("Should build code from branch, name and sequence number")
+    void shouldBuildCodeFromBranchNameAndNumber() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+
+        assertThat(allocator.allocate(2L, "Nguyễn Văn An Bình", "an@email.com")).isEqualTo("ST2NGUYNVNANB-00001");
+        assertThat(allocator.allocate(2L, null, "tran.b@email.com")).isEqualTo("ST2TRANB-00002");
+        assertThat(allocator.allocate(2L, null, null)).isEqualTo("ST2-00003");
+    }
+
+    @Test
+    @DisplayName("Should hit the sequence once per block of codes")
+    void shouldReserveOneBlockPerSequenceCall() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenReturn(1L)
+                .thenReturn(1L + StudentCodeAllocator.BLOCK_SIZE);
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < StudentCodeAllocator.BLOCK_SIZE + 1; i++) {
+            codes.add(allocator.allocate(1L, "Same Name", "same@email.com"));
+        }
+
+        assertThat(codes).hasSize(StudentCodeAllocator.BLOCK_SIZE + 1);
+        assertThat(codes).contains("ST1SAMENAME-00051");
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+}
@@ -0,0 +1,103 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+import org.fyp.tmssep490be.repositories.SessionRepository;
+import org.fyp.tmssep490be.repositories.StudentSessionRepository;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("StudentConflictService Unit Tests")
+class StudentConflictServiceImplTest {
+
+    @MockitoBean
+    private StudentSessionRepository studentSessionRepository;
+
+    @MockitoBean
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private StudentConflictServiceImpl studentConflictService;
+
+    @Test
+    @DisplayName("findConflictingStudentIds - returns students from single query")
+    void findConflictingStudentIds_usesSingleQuery() {
+        LocalDate date = LocalDate.now().plusDays(2);
+        when(studentSessionRepository.findConflictingStudentIds(eq(1L), eq(date), eq(3L), anyList()))
+                .thenReturn(List.of(10L, 11L));
+
+        Set<Long> result = studentConflictService.findConflictingStudentIds(1L, date, 3L);
+
+        assertThat(result).containsExactlyInAnyOrder(10L, 11L);
+        assertThat(studentConflictService.hasStudentConflicts(1L, date, 3L)).isTrue();
+        verify(studentSessionRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("findConflictingTimeSlotIds - returns every conflicting slot of the date from single query")
+    void findConflictingTimeSlotIds_usesSingleQuery() {
+        LocalDate date = LocalDate.now().plusDays(2);
+        when(studentSessionRepository.findConflictingTimeSlotIds(eq(1L), eq(date), anyList()))
+                .thenReturn(List.of(3L, 4L));
+
+        assertThat(studentConflictService.findConflictingTimeSlotIds(1L, date)).containsExactlyInAnyOrder(3L, 4L);
+    }
+
+    @Test
+    @DisplayName("findConflictingSessionIds - checks all candidates with one query")
+    void findConflictingSessionIds_batchesByDate() {
+        LocalDate day1 = LocalDate.now().plusDays(1);
+        LocalDate day2 = LocalDate.now().plusDays(2);
+        TimeSlotTemplate morning = TestDataBuilder.buildTimeSlotTemplate().id(1L).build();
+        TimeSlotTemplate afternoon = TestDataBuilder.buildTimeSlotTemplate().id(2L)
+                .startTime(LocalTime.of(14, 0)).endTime(LocalTime.of(16, 0)).build();
+        TimeSlotTemplate enrolledSlot = TestDataBuilder.buildTimeSlotTemplate().id(3L)
+                .startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(11, 0)).build();
+
+        Session candidateOverlap = TestDataBuilder.buildSession().id(100L).date(day1).timeSlotTemplate(morning).build();
+        Session candidateFree = TestDataBuilder.buildSession().id(101L).date(day1).timeSlotTemplate(afternoon).build();
+        Session candidateOtherDay = TestDataBuilder.buildSession().id(102L).date(day2).timeSlotTemplate(morning).build();
+
+        when(sessionRepository.findSessionsForStudentByDates(eq(5L), anyCollection()))
+                .thenReturn(List.of(TestDataBuilder.buildSession().id(900L).date(day1).timeSlotTemplate(enrolledSlot).build()));
+
+        Set<Long> result = studentConflictService.findConflictingSessionIds(5L,
+                List.of(candidateOverlap, candidateFree, candidateOtherDay));
+
+        assertThat(result).containsExactly(100L);
+        verify(sessionRepository, times(1)).findSessionsForStudentByDates(eq(5L), anyCollection());
+        verify(sessionRepository, never()).findSessionsForStudentByDate(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("hasScheduleConflict - detects overlapping time slot")
+    void hasScheduleConflict_detectsOverlap() {
+        LocalDate date = LocalDate.now().plusDays(1);
+        TimeSlotTemplate enrolledSlot = TestDataBuilder.buildTimeSlotTemplate().id(3L)
+                .startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(11, 0)).build();
+        when(sessionRepository.findSessionsForStudentByDate(5L, date))
+                .thenReturn(List.of(TestDataBuilder.buildSession().id(900L).date(date).timeSlotTemplate(enrolledSlot).build()));
+
+        TimeSlotTemplate morning = TestDataBuilder.buildTimeSlotTemplate().id(1L).build();
+        TimeSlotTemplate afternoon = TestDataBuilder.buildTimeSlotTemplate().id(2L)
+                .startTime(LocalTime.of(14, 0)).endTime(LocalTime.of(16, 0)).build();
+        assertThat(studentConflictService.hasScheduleConflict(5L, date, morning)).isTrue();
+        assertThat(studentConflictService.hasScheduleConflict(5L, date, afternoon)).isFalse();
+    }
+}
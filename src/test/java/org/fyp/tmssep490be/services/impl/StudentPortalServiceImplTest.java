@@ -0,0 +1,114 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.dtos.studentportal.StudentClassDTO;
+import org.fyp.tmssep490be.entities.Branch;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Course;
+import org.fyp.tmssep490be.entities.Enrollment;
+import org.fyp.tmssep490be.entities.enums.ClassStatus;
+import org.fyp.tmssep490be.entities.enums.Modality;
+import org.fyp.tmssep490be.repositories.EnrollmentRepository;
+import org.fyp.tmssep490be.repositories.SessionRepository;
+import org.fyp.tmssep490be.repositories.StudentRepository;
+import org.fyp.tmssep490be.repositories.TeachingSlotRepository;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("StudentPortalService Unit Tests")
+class StudentPortalServiceImplTest {
+
+    @MockitoBean
+    private EnrollmentRepository enrollmentRepository;
+
+    @MockitoBean
+    private SessionRepository sessionRepository;
+
+    @MockitoBean
+    private TeachingSlotRepository teachingSlotRepository;
+
+    @MockitoBean
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentPortalServiceImpl studentPortalService;
+
+    @Test
+    @DisplayName("getStudentClasses - pages in the database and enriches the page with batch queries")
+    @SuppressWarnings("unchecked")
+    void getStudentClasses_pagesInDatabase() {
+        Course course = TestDataBuilder.buildCourse().id(5L).name("IELTS Foundation").build();
+        Branch branch = TestDataBuilder.buildBranch().id(1L).name("Ha Noi").build();
+        ClassEntity class100 = TestDataBuilder.buildClassEntity().id(100L).code("C100").course(course).branch(branch)
+                .modality(Modality.OFFLINE).status(ClassStatus.ONGOING).build();
+        ClassEntity class101 = TestDataBuilder.buildClassEntity().id(101L).code("C101").course(course).branch(branch)
+                .modality(Modality.OFFLINE).status(ClassStatus.ONGOING).build();
+        Enrollment enrollment11 = TestDataBuilder.buildEnrollment().id(11L).studentId(7L).classEntity(class100).build();
+        Enrollment enrollment12 = TestDataBuilder.buildEnrollment().id(12L).studentId(7L).classEntity(class101).build();
+
+        when(studentRepository.existsById(7L)).thenReturn(true);
+        Pageable requested = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "enrollmentDate"));
+        when(enrollmentRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(enrollment11, enrollment12), PageRequest.of(1, 2), 5));
+
+        SessionRepository.ClassSessionProgress progress = new SessionRepository.ClassSessionProgress() {
+            public Long getClassId() { return 100L; }
+            public Long getTotalSessions() { return 24L; }
+            public Long getCompletedSessions() { return 6L; }
+        };
+        TeachingSlotRepository.ClassTeacherName teacher = new TeachingSlotRepository.ClassTeacherName() {
+            public Long getClassId() { return 100L; }
+            public String getFullName() { return "Teacher A"; }
+        };
+        when(sessionRepository.countSessionProgressByClassIds(anyCollection(), any(), any())).thenReturn(List.of(progress));
+        when(teachingSlotRepository.findTeacherNamesByClassIds(anyCollection(), any())).thenReturn(List.of(teacher));
+
+        Page<StudentClassDTO> page = studentPortalService.getStudentClasses(7L, null, List.of(1L), null, List.of("OFFLINE"), requested);
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(StudentClassDTO::getClassId).containsExactly(100L, 101L);
+        assertThat(page.getContent().get(0).getTotalSessions()).isEqualTo(24);
+        assertThat(page.getContent().get(0).getCompletedSessions()).isEqualTo(6);
+        assertThat(page.getContent().get(0).getInstructorNames()).containsExactly("Teacher A");
+        assertThat(page.getContent().get(1).getTotalSessions()).isZero();
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(enrollmentRepository).findAll(any(Specification.class), pageable.capture());
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(1);
+        assertThat(pageable.getValue().getSort().getOrderFor("enrolledAt").getDirection()).isEqualTo(Sort.Direction.DESC);
+        verify(sessionRepository, never()).findAllByClassIdOrderByDateAndTime(anyLong());
+        verify(teachingSlotRepository, never()).findByClassEntityIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("getStudentClasses - returns empty page without querying when modality filter matches nothing")
+    @SuppressWarnings("unchecked")
+    void getStudentClasses_unknownModality() {
+        when(studentRepository.existsById(7L)).thenReturn(true);
+
+        Page<StudentClassDTO> page = studentPortalService.getStudentClasses(7L, null, null, null,
+                List.of("UNKNOWN"), PageRequest.of(0, 20));
+
+        assertThat(page.getContent()).isEmpty();
+        verify(enrollmentRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+}
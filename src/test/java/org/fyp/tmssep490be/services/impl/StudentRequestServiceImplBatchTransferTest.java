@@ -0,0 +1,149 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.dtos.studentrequest.StudentRequestResponseDTO;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Course;
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.StudentRequest;
+import org.fyp.tmssep490be.entities.UserAccount;
+import org.fyp.tmssep490be.entities.enums.ClassStatus;
+import org.fyp.tmssep490be.entities.enums.RequestStatus;
+import org.fyp.tmssep490be.entities.enums.StudentRequestType;
+import org.fyp.tmssep490be.exceptions.BusinessRuleException;
+import org.fyp.tmssep490be.repositories.ClassRepository;
+import org.fyp.tmssep490be.repositories.EnrollmentRepository;
+import org.fyp.tmssep490be.repositories.StudentRequestRepository;
+import org.fyp.tmssep490be.repositories.StudentSessionRepository;
+import org.fyp.tmssep490be.repositories.UserAccountRepository;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("StudentRequestService - Batch transfer approval")
+class StudentRequestServiceImplBatchTransferTest {
+
+    private static final LocalDate EFFECTIVE_DATE = LocalDate.of(2025, 11, 18);
+
+    @MockitoBean
+    private StudentRequestRepository studentRequestRepository;
+
+    @MockitoBean
+    private ClassRepository classRepository;
+
+    @MockitoBean
+    private EnrollmentRepository enrollmentRepository;
+
+    @MockitoBean
+    private StudentSessionRepository studentSessionRepository;
+
+    @MockitoBean
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private StudentRequestServiceImpl studentRequestService;
+
+    private ClassEntity currentClass;
+    private ClassEntity targetClass;
+    private StudentRequest r1;
+    private StudentRequest r2;
+
+    @BeforeEach
+    void setUp() {
+        Course course = TestDataBuilder.buildCourse().id(1L).build();
+        currentClass = TestDataBuilder.buildClassEntity().id(10L).code("C10").course(course)
+                .status(ClassStatus.SCHEDULED).maxCapacity(20).build();
+        targetClass = TestDataBuilder.buildClassEntity().id(20L).code("C20").course(course)
+                .status(ClassStatus.SCHEDULED).maxCapacity(20).build();
+        Session effectiveSession = TestDataBuilder.buildSession().id(500L).date(EFFECTIVE_DATE).build();
+
+        r1 = StudentRequest.builder()
+                .id(1L)
+                .student(TestDataBuilder.buildStudent().id(7L).build())
+                .currentClass(currentClass)
+                .targetClass(targetClass)
+                .requestType(StudentRequestType.TRANSFER)
+                .effectiveDate(EFFECTIVE_DATE)
+                .effectiveSession(effectiveSession)
+                .status(RequestStatus.PENDING)
+                .build();
+        r2 = StudentRequest.builder()
+                .id(2L)
+                .student(TestDataBuilder.buildStudent().id(8L).studentCode("ST002").build())
+                .currentClass(currentClass)
+                .targetClass(targetClass)
+                .requestType(StudentRequestType.TRANSFER)
+                .effectiveDate(EFFECTIVE_DATE)
+                .effectiveSession(effectiveSession)
+                .status(RequestStatus.PENDING)
+                .build();
+    }
+
+    @Test
+    @DisplayName("approveTransferRequests - locks each target class once and moves sessions with bulk statements")
+    void approveTransferRequests_setBased() {
+        UserAccount staff = TestDataBuilder.buildUserAccount().id(99L).build();
+
+        when(studentRequestRepository.findAllById(anyIterable())).thenReturn(List.of(r2, r1));
+        when(userAccountRepository.findById(99L)).thenReturn(Optional.of(staff));
+        when(classRepository.findByIdWithLock(20L)).thenReturn(Optional.of(targetClass));
+        when(classRepository.countEnrolledStudents(20L)).thenReturn(18);
+        when(enrollmentRepository.findByStudentIdAndClassId(anyLong(), eq(10L)))
+                .thenReturn(TestDataBuilder.buildEnrollment().classEntity(currentClass).build());
+
+        List<StudentRequestResponseDTO> result = studentRequestService.approveTransferRequests(List.of(1L, 2L), 99L, "ok");
+
+        assertThat(result).extracting(StudentRequestResponseDTO::getId).containsExactly(1L, 2L);
+        assertThat(r1.getStatus()).isEqualTo(RequestStatus.APPROVED);
+        assertThat(r2.getDecidedBy()).isSameAs(staff);
+        verify(classRepository, times(1)).findByIdWithLock(20L);
+        verify(classRepository, times(1)).countEnrolledStudents(20L);
+        verify(studentSessionRepository).markTransferredOutAfterDate(eq(7L), eq(10L), eq(EFFECTIVE_DATE.minusDays(1)), anyString(), any());
+        verify(studentSessionRepository).insertPlannedForClassSessionsAfterDate(eq(8L), eq(20L), eq(EFFECTIVE_DATE.minusDays(1)), anyString());
+        verify(studentSessionRepository, never()).save(any());
+        verify(studentSessionRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    @DisplayName("approveTransferRequests - rejects the batch when it would overfill the target class")
+    void approveTransferRequests_capacityExceeded() {
+        when(studentRequestRepository.findAllById(anyIterable())).thenReturn(List.of(r1, r2));
+        when(userAccountRepository.findById(99L)).thenReturn(Optional.of(TestDataBuilder.buildUserAccount().id(99L).build()));
+        when(classRepository.findByIdWithLock(20L)).thenReturn(Optional.of(targetClass));
+        when(classRepository.countEnrolledStudents(20L)).thenReturn(19);
+        when(enrollmentRepository.findByStudentIdAndClassId(anyLong(), eq(10L)))
+                .thenReturn(TestDataBuilder.buildEnrollment().classEntity(currentClass).build());
+
+        assertThatThrownBy(() -> studentRequestService.approveTransferRequests(List.of(1L, 2L), 99L, null))
+                .isInstanceOf(BusinessRuleException.class)
+                .hasMessageContaining("request 2");
+    }
+
+    @Test
+    @DisplayName("approveTransferRequests - validates every request before executing any transfer")
+    void approveTransferRequests_rejectsNonPending() {
+        r2.setStatus(RequestStatus.APPROVED);
+
+        when(studentRequestRepository.findAllById(anyIterable())).thenReturn(List.of(r1, r2));
+
+        assertThatThrownBy(() -> studentRequestService.approveTransferRequests(List.of(1L, 2L), 99L, null))
+                .isInstanceOf(BusinessRuleException.class);
+        assertThat(r1.getStatus()).isEqualTo(RequestStatus.PENDING);
+        verifyNoInteractions(classRepository, studentSessionRepository);
+    }
+}
@@ -75,6 +75,9 @@ class StudentServiceImplCreateTest {
     @MockitoBean
     private EnrollmentRepository enrollmentRepository;
 
+    @MockitoBean
+    private StudentCodeAllocator studentCodeAllocator;
+
     private CreateStudentRequest validRequest;
     private Branch testBranch;
     private Role studentRole;
@@ -334,20 +337,16 @@ class StudentServiceImplCreateTest {
     }
 
     @Test
-    @DisplayName("Should generate unique student code when collision occurs")
-    void shouldGenerateUniqueStudentCodeWhenCollisionOccurs() {
+    @DisplayName("Should take student code from allocator without uniqueness probe")
+    void shouldTakeStudentCodeFromAllocator() {
         // Arrange
         when(userAccountRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(branchRepository.findById(1L)).thenReturn(Optional.of(testBranch));
         when(passwordEncoder.encode("12345678")).thenReturn("encodedPassword");
         when(userAccountRepository.save(any(UserAccount.class))).thenReturn(testUser);
-        
-        // First generated code exists, second doesn't
-        when(studentRepository.findByStudentCode(anyString()))
-                .thenReturn(Optional.of(testStudent))  // First attempt: exists
-                .thenReturn(Optional.empty());         // Second attempt: available
-        
-        when(studentRepository.save(any(Student.class))).thenReturn(testStudent);
+        when(studentCodeAllocator.allocate(1L, validRequest.getFullName(), validRequest.getEmail()))
+                .thenReturn("ST1NGUYENVANA-00051");
+        when(studentRepository.save(any(Student.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(roleRepository.findByCode("STUDENT")).thenReturn(Optional.of(studentRole));
         when(userAccountRepository.findById(currentUserId))
                 .thenReturn(Optional.of(UserAccount.builder()
@@ -360,8 +359,9 @@ class StudentServiceImplCreateTest {
 
         // Assert
         assertThat(response).isNotNull();
-        assertThat(response.getDefaultPassword()).isEqualTo("12345678");
-        verify(studentRepository, atLeast(2)).findByStudentCode(anyString());
+        assertThat(response.getStudentCode()).isEqualTo("ST1NGUYENVANA-00051");
+        verify(studentCodeAllocator).allocate(1L, validRequest.getFullName(), validRequest.getEmail());
+        verify(studentRepository, never()).findByStudentCode(anyString());
     }
 
     @Test
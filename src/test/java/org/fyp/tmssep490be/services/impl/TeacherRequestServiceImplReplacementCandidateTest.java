@@ -0,0 +1,153 @@
+package org.fyp.tmssep490be.services.impl;
+
+import org.fyp.tmssep490be.dtos.teacherrequest.ReplacementCandidateDTO;
+import org.fyp.tmssep490be.entities.Branch;
+import org.fyp.tmssep490be.entities.ClassEntity;
+import org.fyp.tmssep490be.entities.Course;
+import org.fyp.tmssep490be.entities.Session;
+import org.fyp.tmssep490be.entities.Subject;
+import org.fyp.tmssep490be.entities.Teacher;
+import org.fyp.tmssep490be.entities.TeacherRequest;
+import org.fyp.tmssep490be.entities.TeacherSkill;
+import org.fyp.tmssep490be.entities.TimeSlotTemplate;
+import org.fyp.tmssep490be.entities.enums.Skill;
+import org.fyp.tmssep490be.entities.enums.TeacherRequestType;
+import org.fyp.tmssep490be.repositories.TeacherRepository;
+import org.fyp.tmssep490be.repositories.TeacherRequestRepository;
+import org.fyp.tmssep490be.repositories.TeacherSkillRepository;
+import org.fyp.tmssep490be.repositories.TeachingSlotRepository;
+import org.fyp.tmssep490be.utils.TestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("TeacherRequestService - Replacement candidate ranking")
+class TeacherRequestServiceImplReplacementCandidateTest {
+
+    @MockitoBean
+    private TeacherRequestRepository teacherRequestRepository;
+
+    @MockitoBean
+    private TeacherRepository teacherRepository;
+
+    @MockitoBean
+    private TeachingSlotRepository teachingSlotRepository;
+
+    @MockitoBean
+    private TeacherSkillRepository teacherSkillRepository;
+
+    @Autowired
+    private TeacherRequestServiceImpl service;
+
+    private TeacherRequest request;
+    private LocalDate date;
+
+    @BeforeEach
+    void setUp() {
+        date = LocalDate.now().plusDays(2);
+
+        Branch branch = TestDataBuilder.buildBranch().id(1L).build();
+        Subject subject = TestDataBuilder.buildSubject()
+                .code("IELTS")
+                .name("International English Language Testing System")
+                .build();
+        Course course = TestDataBuilder.buildCourse().subject(subject).build();
+        ClassEntity classEntity = TestDataBuilder.buildClassEntity().branch(branch).course(course).build();
+        TimeSlotTemplate timeSlot = TestDataBuilder.buildTimeSlotTemplate().id(3L).build();
+
+        Session session = TestDataBuilder.buildSession()
+                .id(50L)
+                .date(date)
+                .classEntity(classEntity)
+                .timeSlotTemplate(timeSlot)
+                .build();
+
+        request = TeacherRequest.builder()
+                .id(900L)
+                .requestType(TeacherRequestType.REPLACEMENT)
+                .session(session)
+                .teacher(TestDataBuilder.buildTeacher().id(1L).fullName("Original").build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("ranks branch teachers with batch skill and conflict queries and returns requested page")
+    void suggestReplacementCandidatesForStaff_ranksWithBatchQueries() {
+        Teacher anna = TestDataBuilder.buildTeacher().id(2L).fullName("Anna").build();
+        Teacher binh = TestDataBuilder.buildTeacher().id(3L).fullName("Binh").build();
+        Teacher chi = TestDataBuilder.buildTeacher().id(4L).fullName("Chi").build();
+        Teacher dung = TestDataBuilder.buildTeacher().id(5L).fullName("Dung").build();
+
+        when(teacherRequestRepository.findByIdWithTeacherAndSession(900L)).thenReturn(Optional.of(request));
+        when(teacherRequestRepository.findNotesBySessionIdAndRequestTypeContaining(
+                eq(50L), eq(TeacherRequestType.REPLACEMENT), anyString()))
+                .thenReturn(List.of("DECLINED_BY_TEACHER_ID_7: busy"));
+        when(teacherRepository.findBranchTeachers(eq(1L), anyCollection())).thenReturn(List.of(dung, anna, binh, chi));
+        when(teacherSkillRepository.findSubjectSkillsOfTeachers(anyCollection(), eq("ielts"),
+                eq("international english language testing system")))
+                .thenReturn(List.of(
+                        TestDataBuilder.buildTeacherSkill().teacher(anna).skill(Skill.GENERAL).level(4).build(),
+                        TestDataBuilder.buildTeacherSkill().teacher(binh).skill(Skill.SPEAKING).level(5).build(),
+                        TestDataBuilder.buildTeacherSkill().teacher(chi).skill(Skill.GENERAL).level(5).build(),
+                        TestDataBuilder.buildTeacherSkill().teacher(anna).skill(Skill.READING).level(3).build()));
+        when(teachingSlotRepository.findBusyTeacherIds(anyCollection(), eq(date), eq(3L), anyList(), anyList()))
+                .thenReturn(List.of(3L));
+
+        List<ReplacementCandidateDTO> all = service.suggestReplacementCandidatesForStaff(900L, Pageable.unpaged());
+
+        assertThat(all).extracting(ReplacementCandidateDTO::getTeacherId).containsExactly(4L, 3L, 2L, 5L);
+        assertThat(all.get(1).getHasConflict()).isTrue();
+        assertThat(all.get(2).getSkills()).hasSize(2);
+        // Branch teacher without a matching skill is kept, ranked last
+        assertThat(all.get(3).getSkillPriority()).isZero();
+        assertThat(all.get(3).getSkills()).isEmpty();
+
+        List<ReplacementCandidateDTO> top1 = service.suggestReplacementCandidatesForStaff(900L, PageRequest.of(0, 1));
+        assertThat(top1).extracting(ReplacementCandidateDTO::getTeacherId).containsExactly(4L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> excluded = ArgumentCaptor.forClass(Collection.class);
+        verify(teacherRepository, atLeastOnce()).findBranchTeachers(eq(1L), excluded.capture());
+        assertThat(excluded.getValue()).containsExactlyInAnyOrder(1L, 7L);
+        verify(teacherRepository, never()).findAll();
+        verify(teachingSlotRepository, never()).findAll();
+        verify(teacherSkillRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("blank subject code and name match no skill: branch teachers all rank at skill priority 0")
+    void suggestReplacementCandidatesForStaff_blankSubjectMatchesNoSkill() {
+        Subject subject = request.getSession().getClassEntity().getCourse().getSubject();
+        subject.setCode(" ");
+        subject.setName("");
+        when(teacherRequestRepository.findByIdWithTeacherAndSession(900L)).thenReturn(Optional.of(request));
+        when(teacherRepository.findBranchTeachers(eq(1L), anyCollection()))
+                .thenReturn(List.of(
+                        TestDataBuilder.buildTeacher().id(3L).fullName("Binh").build(),
+                        TestDataBuilder.buildTeacher().id(2L).fullName("Anna").build()));
+
+        List<ReplacementCandidateDTO> all = service.suggestReplacementCandidatesForStaff(900L, Pageable.unpaged());
+
+        assertThat(all).extracting(ReplacementCandidateDTO::getTeacherId).containsExactly(2L, 3L);
+        assertThat(all).extracting(ReplacementCandidateDTO::getSkillPriority).containsOnly(0);
+        verifyNoInteractions(teacherSkillRepository);
+    }
+}
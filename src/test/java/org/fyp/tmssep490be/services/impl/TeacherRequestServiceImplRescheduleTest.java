@@ -112,7 +112,8 @@ class TeacherRequestServiceImplRescheduleTest {
                 .thenReturn(false);
         when(timeSlotTemplateRepository.findById(newTimeSlotId)).thenReturn(Optional.of(newTimeSlot));
         when(resourceRepository.findById(newResourceId)).thenReturn(Optional.of(resource));
-        when(teachingSlotRepository.findAll()).thenReturn(java.util.Collections.emptyList());
+        when(teachingSlotRepository.existsTeacherConflict(anyLong(), any(), anyLong(), anyList(), anyList(), any()))
+                .thenReturn(false);
         when(sessionResourceRepository.existsByResourceIdAndDateAndTimeSlotAndStatusIn(eq(newResourceId), eq(newDate), eq(newTimeSlotId), anyList(), isNull()))
                 .thenReturn(false);
         UserAccount ua = new UserAccount();
@@ -190,10 +191,11 @@ class TeacherRequestServiceImplRescheduleTest {
             return Optional.empty();
         });
         when(teachingSlotRepository.existsById(any())).thenReturn(true);
-        when(teachingSlotRepository.findAll()).thenReturn(java.util.Collections.emptyList());
+        when(teachingSlotRepository.existsTeacherConflict(anyLong(), any(), anyLong(), anyList(), anyList(), any()))
+                .thenReturn(false);
         when(sessionResourceRepository.existsByResourceIdAndDateAndTimeSlotAndStatusIn(eq(newResourceId), eq(newDate), eq(newTimeSlotId), anyList(), isNull()))
                 .thenReturn(false);
-        when(studentSessionRepository.findAll()).thenReturn(java.util.Collections.emptyList());
+        when(studentSessionRepository.findBySessionId(sessionId)).thenReturn(java.util.Collections.emptyList());
         when(sessionRepository.save(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(teachingSlotRepository.save(any(TeachingSlot.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(studentSessionRepository.save(any(StudentSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
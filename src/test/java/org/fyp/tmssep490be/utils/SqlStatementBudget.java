@@ -0,0 +1,68 @@
+package org.fyp.tmssep490be.utils;
+
+import org.fyp.tmssep490be.config.SqlStatementStats;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Assert số SQL statement tối đa của một endpoint hoặc một block code,
+ * để regression kiểu N+1 làm fail build thay vì chỉ làm chậm production.
+ *
+ * Usage:
+ * <pre>
+ * mockMvc.perform(get("/api/v1/students/me/schedule"))
+ *     .andExpect(status().isOk())
+ *     .andExpect(SqlStatementBudget.atMost(6));
+ *
+ * List&lt;StudentClassDTO&gt; classes = SqlStatementBudget.assertAtMost(4,
+ *     () -> studentPortalService.getStudentClasses(...));
+ * </pre>
+ * Chỉ đếm statement đi qua Hibernate (JdbcTemplate không được đếm).
+ * Trong test @Transactional, INSERT/UPDATE có thể chưa flush khi request kết thúc.
+ */
+public final class SqlStatementBudget {
+
+    private static final int REPEAT_THRESHOLD = 2;
+
+    private SqlStatementBudget() {
+    }
+
+    /**
+     * MockMvc matcher: request phải dùng tối đa {@code maxStatements} statements
+     */
+    public static ResultMatcher atMost(int maxStatements) {
+        return result -> {
+            SqlStatementStats stats = (SqlStatementStats) result.getRequest()
+                    .getAttribute(SqlStatementStats.REQUEST_ATTRIBUTE);
+            assertThat(stats)
+                    .as("No SQL statement stats recorded, is sql.statement-metrics.enabled off?")
+                    .isNotNull();
+            assertWithinBudget(stats, maxStatements);
+        };
+    }
+
+    /**
+     * Chạy action (service call, repository call) và assert số statement tối đa
+     */
+    public static <T> T assertAtMost(int maxStatements, Supplier<T> action) {
+        SqlStatementStats stats = SqlStatementStats.begin();
+        T value;
+        try {
+            value = action.get();
+        } finally {
+            SqlStatementStats.end();
+        }
+        assertWithinBudget(stats, maxStatements);
+        return value;
+    }
+
+    private static void assertWithinBudget(SqlStatementStats stats, int maxStatements) {
+        assertThat(stats.getStatementCount())
+                .as("SQL statements (budget %d), repeated: %s",
+                        maxStatements, stats.getRepeatedStatements(REPEAT_THRESHOLD))
+                .isLessThanOrEqualTo(maxStatements);
+    }
+}
@@ -5,7 +5,10 @@ import org.fyp.tmssep490be.entities.enums.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
 
 /**
  * Test data builder utility for creating test entities.
@@ -97,6 +100,11 @@ public class TestDataBuilder {
             branch.setCity("Test City");
         }
 
+        public BranchBuilder id(Long id) {
+            branch.setId(id);
+            return this;
+        }
+
         public BranchBuilder center(Center center) {
             branch.setCenter(center);
             return this;
@@ -238,6 +246,11 @@ public class TestDataBuilder {
             course.setEffectiveDate(LocalDate.now().plusDays(30));
         }
 
+        public CourseBuilder id(Long id) {
+            course.setId(id);
+            return this;
+        }
+
         public CourseBuilder subject(Subject subject) {
             course.setSubject(subject);
             return this;
@@ -262,6 +275,11 @@ public class TestDataBuilder {
             return this;
         }
 
+        public CourseBuilder sessionPerWeek(Integer sessionPerWeek) {
+            course.setSessionPerWeek(sessionPerWeek);
+            return this;
+        }
+
         public CourseBuilder status(CourseStatus status) {
             course.setStatus(status);
             return this;
@@ -342,6 +360,11 @@ public class TestDataBuilder {
             student.setStudentCode("ST001");
         }
 
+        public StudentBuilder id(Long id) {
+            student.setId(id);
+            return this;
+        }
+
         public StudentBuilder userAccount(UserAccount userAccount) {
             student.setUserAccount(userAccount);
             return this;
@@ -375,6 +398,11 @@ public class TestDataBuilder {
             classEntity.setMaxCapacity(20);
         }
 
+        public ClassEntityBuilder id(Long id) {
+            classEntity.setId(id);
+            return this;
+        }
+
         public ClassEntityBuilder branch(Branch branch) {
             classEntity.setBranch(branch);
             return this;
@@ -415,6 +443,11 @@ public class TestDataBuilder {
             return this;
         }
 
+        public ClassEntityBuilder status(ClassStatus status) {
+            classEntity.setStatus(status);
+            return this;
+        }
+
         public ClassEntity build() {
             return classEntity;
         }
@@ -436,6 +469,19 @@ public class TestDataBuilder {
             enrollment.setCapacityOverride(false);
         }
 
+        public EnrollmentBuilder id(Long id) {
+            enrollment.setId(id);
+            return this;
+        }
+
+        public EnrollmentBuilder classEntity(ClassEntity classEntity) {
+            enrollment.setClassEntity(classEntity);
+            if (classEntity != null) {
+                enrollment.setClassId(classEntity.getId());
+            }
+            return this;
+        }
+
         public EnrollmentBuilder classId(Long classId) {
             enrollment.setClassId(classId);
             return this;
@@ -490,11 +536,21 @@ public class TestDataBuilder {
             session.setStatus(SessionStatus.PLANNED);
         }
 
+        public SessionBuilder id(Long id) {
+            session.setId(id);
+            return this;
+        }
+
         public SessionBuilder classEntity(ClassEntity classEntity) {
             session.setClassEntity(classEntity);
             return this;
         }
 
+        public SessionBuilder timeSlotTemplate(TimeSlotTemplate timeSlotTemplate) {
+            session.setTimeSlotTemplate(timeSlotTemplate);
+            return this;
+        }
+
         public SessionBuilder date(LocalDate date) {
             session.setDate(date);
             return this;
@@ -515,6 +571,357 @@ public class TestDataBuilder {
         }
     }
 
+    // TimeSlotTemplate Builder
+    public static TimeSlotTemplateBuilder buildTimeSlotTemplate() {
+        return new TimeSlotTemplateBuilder();
+    }
+
+    public static class TimeSlotTemplateBuilder {
+        private final TimeSlotTemplate timeSlotTemplate = new TimeSlotTemplate();
+
+        public TimeSlotTemplateBuilder() {
+            // Set defaults
+            timeSlotTemplate.setName("Morning");
+            timeSlotTemplate.setStartTime(LocalTime.of(8, 0));
+            timeSlotTemplate.setEndTime(LocalTime.of(10, 0));
+        }
+
+        public TimeSlotTemplateBuilder id(Long id) {
+            timeSlotTemplate.setId(id);
+            return this;
+        }
+
+        public TimeSlotTemplateBuilder branch(Branch branch) {
+            timeSlotTemplate.setBranch(branch);
+            return this;
+        }
+
+        public TimeSlotTemplateBuilder name(String name) {
+            timeSlotTemplate.setName(name);
+            return this;
+        }
+
+        public TimeSlotTemplateBuilder startTime(LocalTime startTime) {
+            timeSlotTemplate.setStartTime(startTime);
+            return this;
+        }
+
+        public TimeSlotTemplateBuilder endTime(LocalTime endTime) {
+            timeSlotTemplate.setEndTime(endTime);
+            return this;
+        }
+
+        public TimeSlotTemplate build() {
+            return timeSlotTemplate;
+        }
+    }
+
+    // Resource Builder
+    public static ResourceBuilder buildResource() {
+        return new ResourceBuilder();
+    }
+
+    public static class ResourceBuilder {
+        private final Resource resource = new Resource();
+
+        public ResourceBuilder() {
+            // Set defaults
+            resource.setResourceType(ResourceType.ROOM);
+            resource.setCode("R001");
+            resource.setName("Room 001");
+            resource.setCapacity(20);
+        }
+
+        public ResourceBuilder id(Long id) {
+            resource.setId(id);
+            return this;
+        }
+
+        public ResourceBuilder branch(Branch branch) {
+            resource.setBranch(branch);
+            return this;
+        }
+
+        public ResourceBuilder resourceType(ResourceType resourceType) {
+            resource.setResourceType(resourceType);
+            return this;
+        }
+
+        public ResourceBuilder code(String code) {
+            resource.setCode(code);
+            return this;
+        }
+
+        public ResourceBuilder name(String name) {
+            resource.setName(name);
+            return this;
+        }
+
+        public ResourceBuilder capacity(Integer capacity) {
+            resource.setCapacity(capacity);
+            return this;
+        }
+
+        public Resource build() {
+            return resource;
+        }
+    }
+
+    // SessionResource Builder
+    public static SessionResourceBuilder buildSessionResource() {
+        return new SessionResourceBuilder();
+    }
+
+    public static class SessionResourceBuilder {
+        private final SessionResource sessionResource = new SessionResource();
+
+        public SessionResourceBuilder session(Session session) {
+            sessionResource.setSession(session);
+            return this;
+        }
+
+        public SessionResourceBuilder resource(Resource resource) {
+            sessionResource.setResource(resource);
+            return this;
+        }
+
+        public SessionResource build() {
+            // Composite id from the session and resource ids
+            sessionResource.setId(new SessionResource.SessionResourceId(
+                    sessionResource.getSession() != null ? sessionResource.getSession().getId() : null,
+                    sessionResource.getResource() != null ? sessionResource.getResource().getId() : null));
+            return sessionResource;
+        }
+    }
+
+    // Teacher Builder
+    public static TeacherBuilder buildTeacher() {
+        return new TeacherBuilder();
+    }
+
+    public static class TeacherBuilder {
+        private final Teacher teacher = new Teacher();
+
+        public TeacherBuilder() {
+            // Set defaults
+            teacher.setEmployeeCode("EMP001");
+            teacher.setUserAccount(buildUserAccount().fullName("Test Teacher").email("teacher@test.com").build());
+        }
+
+        public TeacherBuilder id(Long id) {
+            teacher.setId(id);
+            return this;
+        }
+
+        public TeacherBuilder userAccount(UserAccount userAccount) {
+            teacher.setUserAccount(userAccount);
+            return this;
+        }
+
+        public TeacherBuilder fullName(String fullName) {
+            teacher.getUserAccount().setFullName(fullName);
+            return this;
+        }
+
+        public TeacherBuilder email(String email) {
+            teacher.getUserAccount().setEmail(email);
+            return this;
+        }
+
+        public TeacherBuilder employeeCode(String employeeCode) {
+            teacher.setEmployeeCode(employeeCode);
+            return this;
+        }
+
+        public Teacher build() {
+            return teacher;
+        }
+    }
+
+    // TeacherSkill Builder
+    public static TeacherSkillBuilder buildTeacherSkill() {
+        return new TeacherSkillBuilder();
+    }
+
+    public static class TeacherSkillBuilder {
+        private final TeacherSkill teacherSkill = new TeacherSkill();
+        private Skill skill = Skill.GENERAL;
+
+        public TeacherSkillBuilder() {
+            // Set defaults
+            teacherSkill.setLevel((short) 3);
+        }
+
+        public TeacherSkillBuilder teacher(Teacher teacher) {
+            teacherSkill.setTeacher(teacher);
+            return this;
+        }
+
+        public TeacherSkillBuilder skill(Skill skill) {
+            this.skill = skill;
+            return this;
+        }
+
+        public TeacherSkillBuilder specialization(String specialization) {
+            teacherSkill.setSpecialization(specialization);
+            return this;
+        }
+
+        public TeacherSkillBuilder level(int level) {
+            teacherSkill.setLevel((short) level);
+            return this;
+        }
+
+        public TeacherSkill build() {
+            // Composite id from the teacher id and skill
+            Long teacherId = teacherSkill.getTeacher() != null ? teacherSkill.getTeacher().getId() : null;
+            teacherSkill.setId(new TeacherSkill.TeacherSkillId(teacherId, skill));
+            return teacherSkill;
+        }
+    }
+
+    // CoursePhase Builder
+    public static CoursePhaseBuilder buildCoursePhase() {
+        return new CoursePhaseBuilder();
+    }
+
+    public static class CoursePhaseBuilder {
+        private final CoursePhase phase = new CoursePhase();
+
+        public CoursePhaseBuilder() {
+            // Set defaults
+            phase.setPhaseNumber(1);
+            phase.setName("Foundation");
+        }
+
+        public CoursePhaseBuilder id(Long id) {
+            phase.setId(id);
+            return this;
+        }
+
+        public CoursePhaseBuilder course(Course course) {
+            phase.setCourse(course);
+            return this;
+        }
+
+        public CoursePhaseBuilder phaseNumber(Integer phaseNumber) {
+            phase.setPhaseNumber(phaseNumber);
+            return this;
+        }
+
+        public CoursePhaseBuilder name(String name) {
+            phase.setName(name);
+            return this;
+        }
+
+        /**
+         * Attach sessions to the phase (and point each session back to it)
+         */
+        public CoursePhaseBuilder courseSessions(CourseSession... courseSessions) {
+            for (CourseSession courseSession : courseSessions) {
+                courseSession.setPhase(phase);
+            }
+            phase.setCourseSessions(new HashSet<>(Arrays.asList(courseSessions)));
+            return this;
+        }
+
+        public CoursePhase build() {
+            return phase;
+        }
+    }
+
+    // CourseSession Builder
+    public static CourseSessionBuilder buildCourseSession() {
+        return new CourseSessionBuilder();
+    }
+
+    public static class CourseSessionBuilder {
+        private final CourseSession courseSession = new CourseSession();
+
+        public CourseSessionBuilder() {
+            // Set defaults
+            courseSession.setSequenceNo(1);
+            courseSession.setTopic("Topic 1");
+        }
+
+        public CourseSessionBuilder id(Long id) {
+            courseSession.setId(id);
+            return this;
+        }
+
+        public CourseSessionBuilder phase(CoursePhase phase) {
+            courseSession.setPhase(phase);
+            return this;
+        }
+
+        public CourseSessionBuilder sequenceNo(Integer sequenceNo) {
+            courseSession.setSequenceNo(sequenceNo);
+            return this;
+        }
+
+        public CourseSessionBuilder topic(String topic) {
+            courseSession.setTopic(topic);
+            return this;
+        }
+
+        public CourseSession build() {
+            return courseSession;
+        }
+    }
+
+    // CourseMaterial Builder
+    public static CourseMaterialBuilder buildCourseMaterial() {
+        return new CourseMaterialBuilder();
+    }
+
+    public static class CourseMaterialBuilder {
+        private final CourseMaterial material = new CourseMaterial();
+
+        public CourseMaterialBuilder() {
+            // Set defaults
+            material.setTitle("Test Material");
+        }
+
+        public CourseMaterialBuilder id(Long id) {
+            material.setId(id);
+            return this;
+        }
+
+        public CourseMaterialBuilder course(Course course) {
+            material.setCourse(course);
+            return this;
+        }
+
+        public CourseMaterialBuilder phase(CoursePhase phase) {
+            material.setPhase(phase);
+            return this;
+        }
+
+        public CourseMaterialBuilder courseSession(CourseSession courseSession) {
+            material.setCourseSession(courseSession);
+            return this;
+        }
+
+        public CourseMaterialBuilder title(String title) {
+            material.setTitle(title);
+            return this;
+        }
+
+        public CourseMaterialBuilder materialType(MaterialType materialType) {
+            material.setMaterialType(materialType);
+            return this;
+        }
+
+        public CourseMaterialBuilder url(String url) {
+            material.setUrl(url);
+            return this;
+        }
+
+        public CourseMaterial build() {
+            return material;
+        }
+    }
+
     // ReplacementSkillAssessment Builder
     public static ReplacementSkillAssessmentBuilder buildReplacementSkillAssessment() {
         return new ReplacementSkillAssessmentBuilder();
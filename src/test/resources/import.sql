@@ -0,0 +1 @@
+CREATE SEQUENCE IF NOT EXISTS student_code_seq START WITH 1 INCREMENT BY 50;